@@ -2,10 +2,14 @@ package it.agilelab.witboost.provisioning.databricks;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
-/** This is the Main class. */
-@SpringBootApplication
+/**
+ * This is the Main class. The data source is only created by {@code CoordinationDataSourceConfig} when the
+ * {@code jdbc} coordination backend is selected.
+ */
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
 @ConfigurationPropertiesScan
 public class Main {
 
@@ -2,6 +2,8 @@ package it.agilelab.witboost.provisioning.databricks.bean;
 
 import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.core.DatabricksConfig;
+import it.agilelab.witboost.provisioning.databricks.client.AzureTokenCredentialsProvider;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksHttpClientPool;
 import it.agilelab.witboost.provisioning.databricks.config.AzureAuthConfig;
 import it.agilelab.witboost.provisioning.databricks.config.DatabricksAuthConfig;
 import org.springframework.context.annotation.Bean;
@@ -10,7 +12,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class AccountClientConfig {
     @Bean
-    public AccountClient AccountClientBean(DatabricksAuthConfig databricksAuthConfig, AzureAuthConfig azureAuthConfig) {
+    public AccountClient AccountClientBean(
+            DatabricksAuthConfig databricksAuthConfig,
+            AzureAuthConfig azureAuthConfig,
+            AzureTokenCredentialsProvider azureTokenCredentialsProvider,
+            DatabricksHttpClientPool databricksHttpClientPool) {
 
         DatabricksConfig cfgAdmin = new DatabricksConfig()
                 .setAuthType("azure-client-secret")
@@ -18,7 +24,9 @@ public class AccountClientConfig {
                 .setAccountId(databricksAuthConfig.getAccountId())
                 .setAzureTenantId(azureAuthConfig.getTenantId())
                 .setAzureClientId(azureAuthConfig.getClientId())
-                .setAzureClientSecret(azureAuthConfig.getClientSecret());
+                .setAzureClientSecret(azureAuthConfig.getClientSecret())
+                .setCredentialsProvider(azureTokenCredentialsProvider)
+                .setHttpClient(databricksHttpClientPool.getHttpClient());
         AccountClient accountAdmin = new AccountClient(cfgAdmin);
 
         return accountAdmin;
@@ -2,6 +2,8 @@ package it.agilelab.witboost.provisioning.databricks.bean;
 
 import com.databricks.sdk.core.ApiClient;
 import com.databricks.sdk.core.DatabricksConfig;
+import it.agilelab.witboost.provisioning.databricks.client.AzureTokenCredentialsProvider;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksHttpClientPool;
 import it.agilelab.witboost.provisioning.databricks.config.AzureAuthConfig;
 import it.agilelab.witboost.provisioning.databricks.config.DatabricksAuthConfig;
 import it.agilelab.witboost.provisioning.databricks.config.GitCredentialsConfig;
@@ -10,6 +12,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
@@ -19,6 +22,12 @@ public class ApiClientConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiClientConfig.class);
 
+    @Autowired(required = false)
+    private AzureTokenCredentialsProvider azureTokenCredentialsProvider;
+
+    @Autowired(required = false)
+    private DatabricksHttpClientPool databricksHttpClientPool;
+
     @Bean
     public Function<ApiClientConfigParams, ApiClient> apiClientFactory() {
         return this::createApiClient;
@@ -33,6 +42,7 @@ public class ApiClientConfig {
                     apiClientConfigParams.getDatabricksAuthConfig(),
                     apiClientConfigParams.getAzureAuthConfig(),
                     apiClientConfigParams.getWorkspaceHost());
+            if (databricksHttpClientPool != null) config.setHttpClient(databricksHttpClientPool.getHttpClient());
 
             return new ApiClient(config);
 
@@ -48,12 +58,15 @@ public class ApiClientConfig {
 
     protected DatabricksConfig buildDatabricksConfig(
             DatabricksAuthConfig databricksAuthConfig, AzureAuthConfig azureAuthConfig, String workspaceHost) {
-        return new DatabricksConfig()
+        DatabricksConfig config = new DatabricksConfig()
                 .setHost(workspaceHost)
                 .setAccountId(databricksAuthConfig.getAccountId())
                 .setAzureTenantId(azureAuthConfig.getTenantId())
                 .setAzureClientId(azureAuthConfig.getClientId())
                 .setAzureClientSecret(azureAuthConfig.getClientSecret());
+        // Reuse the Entra ID tokens shared with the other Azure clients
+        if (azureTokenCredentialsProvider != null) config.setCredentialsProvider(azureTokenCredentialsProvider);
+        return config;
     }
 
     @Getter
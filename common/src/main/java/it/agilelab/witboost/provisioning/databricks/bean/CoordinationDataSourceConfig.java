@@ -0,0 +1,26 @@
+package it.agilelab.witboost.provisioning.databricks.bean;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Data source of the {@code jdbc} coordination backend, configured through the standard {@code spring.datasource}
+ * properties. The data source auto-configuration is excluded, so that the default {@code memory} backend needs no
+ * database.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "coordination", name = "backend", havingValue = "jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class CoordinationDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource coordinationDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -2,12 +2,15 @@ package it.agilelab.witboost.provisioning.databricks.bean;
 
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.DatabricksConfig;
+import it.agilelab.witboost.provisioning.databricks.client.AzureTokenCredentialsProvider;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksHttpClientPool;
 import it.agilelab.witboost.provisioning.databricks.config.AzureAuthConfig;
 import it.agilelab.witboost.provisioning.databricks.config.DatabricksAuthConfig;
 import java.util.function.Function;
 import lombok.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
@@ -17,13 +20,19 @@ public class WorkspaceClientConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkspaceClientConfig.class);
 
+    @Autowired(required = false)
+    private AzureTokenCredentialsProvider azureTokenCredentialsProvider;
+
+    @Autowired(required = false)
+    private DatabricksHttpClientPool databricksHttpClientPool;
+
     @Bean
     public Function<WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory() {
         return this::createWorkspaceClient;
     }
 
     protected DatabricksConfig buildAzureDatabricksConfig(WorkspaceClientConfigParams workspaceClientConfigParams) {
-        return new DatabricksConfig()
+        DatabricksConfig config = new DatabricksConfig()
                 .setHost(workspaceClientConfigParams.getWorkspaceHost())
                 .setAccountId(
                         workspaceClientConfigParams.getDatabricksAuthConfig().getAccountId())
@@ -33,6 +42,9 @@ public class WorkspaceClientConfig {
                         workspaceClientConfigParams.getAzureAuthConfig().getClientId())
                 .setAzureClientSecret(
                         workspaceClientConfigParams.getAzureAuthConfig().getClientSecret());
+        // Reuse the Entra ID tokens shared with the other Azure clients
+        if (azureTokenCredentialsProvider != null) config.setCredentialsProvider(azureTokenCredentialsProvider);
+        return config;
     }
 
     protected DatabricksConfig buildOAuthDatabricksConfig(WorkspaceClientConfigParams workspaceClientConfigParams) {
@@ -54,11 +66,11 @@ public class WorkspaceClientConfig {
 
             return switch (workspaceClientConfigParams.getAuthType()) {
                 case AZURE -> {
-                    config = buildAzureDatabricksConfig(workspaceClientConfigParams);
+                    config = withSharedHttpClient(buildAzureDatabricksConfig(workspaceClientConfigParams));
                     yield new WorkspaceClient(config);
                 }
                 case OAUTH -> {
-                    config = buildOAuthDatabricksConfig(workspaceClientConfigParams);
+                    config = withSharedHttpClient(buildOAuthDatabricksConfig(workspaceClientConfigParams));
                     yield new WorkspaceClient(config);
                 }
                 default -> throw new IllegalArgumentException(
@@ -74,6 +86,11 @@ public class WorkspaceClientConfig {
         }
     }
 
+    private DatabricksConfig withSharedHttpClient(DatabricksConfig config) {
+        if (databricksHttpClientPool != null) config.setHttpClient(databricksHttpClientPool.getHttpClient());
+        return config;
+    }
+
     @Getter
     @Setter
     @NoArgsConstructor
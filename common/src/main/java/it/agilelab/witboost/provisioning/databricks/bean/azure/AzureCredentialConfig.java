@@ -0,0 +1,79 @@
+package it.agilelab.witboost.provisioning.databricks.bean.azure;
+
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.management.AzureEnvironment;
+import com.azure.core.management.profile.AzureProfile;
+import com.azure.identity.ClientSecretCredentialBuilder;
+import com.azure.identity.DefaultAzureCredentialBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.client.AzureTokenCredentialsProvider;
+import it.agilelab.witboost.provisioning.databricks.client.CachedTokenCredential;
+import it.agilelab.witboost.provisioning.databricks.config.AzureAuthConfig;
+import it.agilelab.witboost.provisioning.databricks.config.AzurePermissionsConfig;
+import it.agilelab.witboost.provisioning.databricks.config.AzureTokenCacheConfig;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Spring configuration class for the Azure credentials shared by the Azure Resource Manager, Microsoft Graph and
+ * Databricks clients.
+ */
+@Configuration
+public class AzureCredentialConfig {
+
+    /**
+     * Credential of the service principal configured in {@code azure.auth}. If no client secret is configured, the
+     * default Azure credential chain is used instead.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public CachedTokenCredential azureTokenCredential(
+            AzureAuthConfig azureAuthConfig, AzureTokenCacheConfig azureTokenCacheConfig, MeterRegistry meterRegistry) {
+        TokenCredential credential;
+        if (StringUtils.hasText(azureAuthConfig.getClientSecret())) {
+            credential = new ClientSecretCredentialBuilder()
+                    .clientId(azureAuthConfig.getClientId())
+                    .tenantId(azureAuthConfig.getTenantId())
+                    .clientSecret(azureAuthConfig.getClientSecret())
+                    .build();
+        } else {
+            AzureProfile profile = new AzureProfile(AzureEnvironment.AZURE);
+            credential = new DefaultAzureCredentialBuilder()
+                    .authorityHost(profile.getEnvironment().getActiveDirectoryEndpoint())
+                    .build();
+        }
+        return new CachedTokenCredential(credential, azureTokenCacheConfig, meterRegistry);
+    }
+
+    /**
+     * Credential of the service principal configured in {@code azure.permissions}, used for Microsoft Graph. It is
+     * the shared one if the same service principal is configured in {@code azure.auth}.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public CachedTokenCredential graphTokenCredential(
+            AzureAuthConfig azureAuthConfig,
+            AzurePermissionsConfig azurePermissionsConfig,
+            AzureTokenCacheConfig azureTokenCacheConfig,
+            MeterRegistry meterRegistry,
+            @Qualifier("azureTokenCredential") CachedTokenCredential azureTokenCredential) {
+        if (Objects.equals(azurePermissionsConfig.getAuth_clientId(), azureAuthConfig.getClientId())
+                && Objects.equals(azurePermissionsConfig.getAuth_tenantId(), azureAuthConfig.getTenantId())
+                && Objects.equals(azurePermissionsConfig.getAuth_clientSecret(), azureAuthConfig.getClientSecret())) {
+            return azureTokenCredential;
+        }
+        TokenCredential credential = new ClientSecretCredentialBuilder()
+                .clientId(azurePermissionsConfig.getAuth_clientId())
+                .tenantId(azurePermissionsConfig.getAuth_tenantId())
+                .clientSecret(azurePermissionsConfig.getAuth_clientSecret())
+                .build();
+        return new CachedTokenCredential(credential, azureTokenCacheConfig, meterRegistry);
+    }
+
+    @Bean
+    public AzureTokenCredentialsProvider azureTokenCredentialsProvider(
+            @Qualifier("azureTokenCredential") CachedTokenCredential azureTokenCredential) {
+        return new AzureTokenCredentialsProvider(azureTokenCredential);
+    }
+}
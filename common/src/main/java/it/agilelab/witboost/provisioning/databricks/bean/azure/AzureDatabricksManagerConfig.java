@@ -3,8 +3,10 @@ package it.agilelab.witboost.provisioning.databricks.bean.azure;
 import com.azure.core.credential.TokenCredential;
 import com.azure.core.management.AzureEnvironment;
 import com.azure.core.management.profile.AzureProfile;
-import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.resourcemanager.databricks.AzureDatabricksManager;
+import it.agilelab.witboost.provisioning.databricks.client.AdaptiveConcurrencyLimiter;
+import it.agilelab.witboost.provisioning.databricks.client.AdaptiveConcurrencyPolicy;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,12 +17,12 @@ import org.springframework.context.annotation.Configuration;
 public class AzureDatabricksManagerConfig {
 
     @Bean
-    public AzureDatabricksManager azureDatabricksManager() {
+    public AzureDatabricksManager azureDatabricksManager(
+            @Qualifier("azureTokenCredential") TokenCredential credential,
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
         AzureProfile profile = new AzureProfile(AzureEnvironment.AZURE);
-        TokenCredential credential = new DefaultAzureCredentialBuilder()
-                .authorityHost(profile.getEnvironment().getActiveDirectoryEndpoint())
-                .build();
-
-        return AzureDatabricksManager.authenticate(credential, profile);
+        return AzureDatabricksManager.configure()
+                .withPolicy(new AdaptiveConcurrencyPolicy(adaptiveConcurrencyLimiter))
+                .authenticate(credential, profile);
     }
 }
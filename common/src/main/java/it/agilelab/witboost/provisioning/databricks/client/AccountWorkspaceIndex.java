@@ -0,0 +1,139 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.databricks.sdk.AccountClient;
+import com.databricks.sdk.service.provisioning.Workspace;
+import it.agilelab.witboost.provisioning.databricks.config.AccountWorkspaceIndexConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index of the workspaces of the Databricks account by deployment name. The index is loaded on first use and then
+ * refreshed in the background, so that resolving a workspace from its host doesn't require listing all the
+ * workspaces of the account. When a host is not found, the index is reloaded at most once every
+ * {@code minRefreshOnMiss} to pick up newly created workspaces.
+ */
+@Component
+@Slf4j
+public class AccountWorkspaceIndex {
+
+    private final AccountClient accountClient;
+    private final Duration refreshInterval;
+    private final Duration minRefreshOnMiss;
+
+    private volatile Map<String, Workspace> workspacesByDeploymentName;
+    private volatile Instant loadedAt = Instant.MIN;
+    private ScheduledExecutorService refreshExecutor;
+
+    @Autowired
+    public AccountWorkspaceIndex(AccountClient accountClient, AccountWorkspaceIndexConfig accountWorkspaceIndexConfig) {
+        this.accountClient = accountClient;
+        this.refreshInterval = accountWorkspaceIndexConfig.getRefreshInterval();
+        this.minRefreshOnMiss = accountWorkspaceIndexConfig.getMinRefreshOnMiss();
+    }
+
+    /**
+     * Creates an index without background refresh, loaded on first use.
+     *
+     * @param accountClient the client of the Databricks account
+     */
+    public AccountWorkspaceIndex(AccountClient accountClient) {
+        this.accountClient = accountClient;
+        this.refreshInterval = Duration.ZERO;
+        this.minRefreshOnMiss = new AccountWorkspaceIndexConfig().getMinRefreshOnMiss();
+    }
+
+    @PostConstruct
+    public void startBackgroundRefresh() {
+        if (refreshInterval == null || refreshInterval.isZero() || refreshInterval.isNegative()) return;
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-workspace-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshExecutor.scheduleWithFixedDelay(
+                this::refreshInBackground,
+                refreshInterval.toMillis(),
+                refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopBackgroundRefresh() {
+        if (refreshExecutor != null) refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Finds the workspace with the given host.
+     *
+     * @param workspaceHost the host of the workspace, e.g. {@code https://adb-123.azuredatabricks.net}
+     * @return the workspace, or an empty optional if no workspace of the account has that host
+     */
+    public Optional<Workspace> findByHost(String workspaceHost) {
+        return findByDeploymentName(deploymentName(workspaceHost));
+    }
+
+    /**
+     * Finds the workspace with the given deployment name.
+     *
+     * @param deploymentName the deployment name of the workspace
+     * @return the workspace, or an empty optional if no workspace of the account has that deployment name
+     */
+    public Optional<Workspace> findByDeploymentName(String deploymentName) {
+        if (deploymentName == null || deploymentName.isBlank()) return Optional.empty();
+        String key = deploymentName.toLowerCase(Locale.ROOT);
+
+        if (workspacesByDeploymentName == null) refresh();
+        Workspace workspace = workspacesByDeploymentName.get(key);
+        if (workspace == null && !Instant.now().isBefore(loadedAt.plus(minRefreshOnMiss))) {
+            log.info("Workspace with deployment name '{}' not found in the index, reloading it", deploymentName);
+            refresh();
+            workspace = workspacesByDeploymentName.get(key);
+        }
+        return Optional.ofNullable(workspace);
+    }
+
+    /**
+     * Reloads the index listing the workspaces of the account.
+     */
+    public synchronized void refresh() {
+        Map<String, Workspace> index = new HashMap<>();
+        Iterable<Workspace> workspaces = accountClient.workspaces().list();
+        if (workspaces != null) {
+            workspaces.forEach(workspace -> {
+                if (workspace.getDeploymentName() != null)
+                    index.put(workspace.getDeploymentName().toLowerCase(Locale.ROOT), workspace);
+            });
+        }
+        workspacesByDeploymentName = Map.copyOf(index);
+        loadedAt = Instant.now();
+        log.debug("Account workspace index loaded with {} workspaces", index.size());
+    }
+
+    private void refreshInBackground() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // The previous index is kept until the next refresh
+            log.warn("Error refreshing the account workspace index. Details: {}", e.getMessage());
+        }
+    }
+
+    static String deploymentName(String workspaceHost) {
+        if (workspaceHost == null) return null;
+        String host = workspaceHost.trim().replaceFirst("(?i)^https?://", "");
+        int dot = host.indexOf('.');
+        return dot > 0 ? host.substring(0, dot) : null;
+    }
+}
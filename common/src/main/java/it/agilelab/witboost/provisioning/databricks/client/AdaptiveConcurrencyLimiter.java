@@ -0,0 +1,216 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.AdaptiveConcurrencyConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the concurrent outbound calls per key (a Databricks workspace host or an Azure subscription) with an AIMD
+ * (additive increase, multiplicative decrease) algorithm.
+ * <p>
+ * Every healthy call raises the limit by {@code 1 / limit}, so the limit grows by about one per round of calls.
+ * A throttled call, or a call whose latency exceeds {@code latencyTolerance} times the average latency of the key,
+ * multiplies the limit by {@code backoffRatio}, at most once per average latency so that a burst of throttled calls
+ * cuts the limit only once. Long-running calls, whose duration depends on the work they wait for rather than on
+ * the load of the remote API, hold a slot like any other call but do not feed the latency signal. The current
+ * limits and in-flight calls are exposed as gauges.
+ * </p>
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    static final String LIMIT_METRIC = "adaptive.concurrency.limit";
+    static final String IN_FLIGHT_METRIC = "adaptive.concurrency.inflight";
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final int LATENCY_WARMUP_SAMPLES = 10;
+
+    private final AdaptiveConcurrencyConfig adaptiveConcurrencyConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(
+            AdaptiveConcurrencyConfig adaptiveConcurrencyConfig, MeterRegistry meterRegistry) {
+        this.adaptiveConcurrencyConfig = adaptiveConcurrencyConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Waits until a call can be sent for the given key. If no slot frees up within {@code maxWait}, the call fails
+     * instead of exceeding the limit.
+     *
+     * @param key the key of the remote API, e.g. the workspace host
+     * @return the permit to release once the call completes
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws TimeoutException     if no slot freed up within {@code maxWait}
+     */
+    public Permit acquire(String key) throws InterruptedException, TimeoutException {
+        if (!adaptiveConcurrencyConfig.isEnabled()) return new Permit(null);
+        Limit limit = limits.computeIfAbsent(key, this::newLimit);
+        limit.acquire();
+        return new Permit(limit);
+    }
+
+    /**
+     * Retrieves the current concurrency limit of a key.
+     *
+     * @param key the key of the remote API
+     * @return the current limit, or the initial limit if no call was sent for the key yet
+     */
+    public int getLimit(String key) {
+        Limit limit = limits.get(key);
+        return limit == null ? adaptiveConcurrencyConfig.getInitialLimit() : limit.currentLimit();
+    }
+
+    private Limit newLimit(String key) {
+        Limit limit = new Limit(key);
+        Gauge.builder(LIMIT_METRIC, limit, Limit::currentLimit)
+                .tag("key", key)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, limit, Limit::inFlight)
+                .tag("key", key)
+                .description("Calls currently in flight")
+                .register(meterRegistry);
+        return limit;
+    }
+
+    /**
+     * Slot acquired for a call. Exactly one of the release methods must be called when the call completes; further
+     * calls are ignored.
+     */
+    public static final class Permit {
+
+        private final Limit limit;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+        }
+
+        /** Releases the slot of a call that completed normally. */
+        public void onSuccess() {
+            release(Outcome.SUCCESS);
+        }
+
+        /**
+         * Releases the slot of a long-running call that completed normally, e.g. a SQL statement the remote API
+         * waited on. Its latency is neither compared with nor added to the average latency of the key.
+         */
+        public void onLongRunningSuccess() {
+            release(Outcome.LONG_RUNNING_SUCCESS);
+        }
+
+        /** Releases the slot of a call that was throttled by the remote API. */
+        public void onOverload() {
+            release(Outcome.OVERLOAD);
+        }
+
+        /** Releases the slot of a call whose outcome says nothing about the remote capacity, e.g. a client error. */
+        public void onIgnore() {
+            release(Outcome.IGNORE);
+        }
+
+        private void release(Outcome outcome) {
+            if (limit == null || !released.compareAndSet(false, true)) return;
+            limit.release(System.nanoTime() - startNanos, outcome);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        LONG_RUNNING_SUCCESS,
+        OVERLOAD,
+        IGNORE
+    }
+
+    private final class Limit {
+
+        private final String key;
+
+        private double limit = adaptiveConcurrencyConfig.getInitialLimit();
+        private int inFlight = 0;
+        private double averageLatencyNanos = 0;
+        private long samples = 0;
+        private long lastDecreaseNanos = System.nanoTime();
+
+        private Limit(String key) {
+            this.key = key;
+        }
+
+        synchronized int currentLimit() {
+            return (int) limit;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized void acquire() throws InterruptedException, TimeoutException {
+            long maxWaitMillis = adaptiveConcurrencyConfig.getMaxWait().toMillis();
+            long deadline = System.currentTimeMillis() + maxWaitMillis;
+            while (inFlight >= (int) limit) {
+                long remainingMillis = deadline - System.currentTimeMillis();
+                if (remainingMillis <= 0) {
+                    log.warn("No concurrency slot freed up for {} within {} ms, failing the call", key, maxWaitMillis);
+                    throw new TimeoutException(String.format(
+                            "No concurrency slot freed up for %s within %d ms (limit %d)",
+                            key, maxWaitMillis, (int) limit));
+                }
+                wait(remainingMillis);
+            }
+            inFlight++;
+        }
+
+        synchronized void release(long latencyNanos, Outcome outcome) {
+            inFlight--;
+            switch (outcome) {
+                case OVERLOAD -> decrease("throttled");
+                case SUCCESS -> {
+                    boolean latencySpike = samples >= LATENCY_WARMUP_SAMPLES
+                            && latencyNanos > adaptiveConcurrencyConfig.getLatencyTolerance() * averageLatencyNanos;
+                    averageLatencyNanos = samples == 0
+                            ? latencyNanos
+                            : (1 - LATENCY_SMOOTHING) * averageLatencyNanos + LATENCY_SMOOTHING * latencyNanos;
+                    samples++;
+                    if (latencySpike) {
+                        decrease("latency spike");
+                    } else {
+                        increase();
+                    }
+                }
+                case LONG_RUNNING_SUCCESS -> increase();
+                case IGNORE -> {}
+            }
+            notifyAll();
+        }
+
+        private void increase() {
+            limit = Math.min(adaptiveConcurrencyConfig.getMaxLimit(), limit + 1 / limit);
+        }
+
+        private void decrease(String reason) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < averageLatencyNanos) return;
+            lastDecreaseNanos = now;
+            double previousLimit = limit;
+            limit = Math.max(
+                    adaptiveConcurrencyConfig.getMinLimit(), limit * adaptiveConcurrencyConfig.getBackoffRatio());
+            log.info(
+                    "Concurrency limit of {} reduced from {} to {} ({})",
+                    key,
+                    (int) previousLimit,
+                    (int) limit,
+                    reason);
+        }
+    }
+}
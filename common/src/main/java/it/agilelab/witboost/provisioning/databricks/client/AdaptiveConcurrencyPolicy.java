@@ -0,0 +1,118 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpPipelineNextSyncPolicy;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.Context;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Azure HTTP pipeline policy that limits the concurrent Azure Resource Manager calls per subscription through the
+ * {@link AdaptiveConcurrencyLimiter}. Responses with status {@code 429} or {@code 503} reduce the limit of the
+ * subscription.
+ * <p>
+ * Calls made by a task whose {@link Deadline} expired fail immediately. The deadline is read from the Azure context of
+ * the call, see {@link #withDeadline(Context)}, or else from the thread sending the call. Only the former reaches the
+ * polls of long-running operations, which run on other threads.
+ * </p>
+ */
+public class AdaptiveConcurrencyPolicy implements HttpPipelinePolicy {
+
+    static final String CONCURRENCY_KEY_PREFIX = "azure:";
+    static final String DEADLINE_CONTEXT_KEY = "witboost-task-deadline";
+
+    private static final Pattern SUBSCRIPTION_PATTERN =
+            Pattern.compile("/subscriptions/([^/]+)", Pattern.CASE_INSENSITIVE);
+
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    public AdaptiveConcurrencyPolicy(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+    }
+
+    /**
+     * Adds the deadline of the current thread, if any, to an Azure context, so that the calls sent with the context,
+     * including the polls of long-running operations, stop once the task is cancelled.
+     *
+     * @param context the Azure context of the operation
+     * @return the context with the deadline, or the same context if the current thread has no deadline
+     */
+    public static Context withDeadline(Context context) {
+        return Deadline.current().map(deadline -> context.addData(DEADLINE_CONTEXT_KEY, deadline)).orElse(context);
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        String key = concurrencyKey(context.getHttpRequest().getUrl());
+        // The deadline is resolved here, on the thread sending the call, as the callable may run on another one
+        Optional<Deadline> deadline = deadline(context);
+        return Mono.fromCallable(() -> {
+                    checkDeadline(deadline, context);
+                    return adaptiveConcurrencyLimiter.acquire(key);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(permit -> next.process()
+                        .doOnNext(response -> release(permit, response))
+                        .doFinally(signal -> permit.onIgnore()));
+    }
+
+    @Override
+    public HttpResponse processSync(HttpPipelineCallContext context, HttpPipelineNextSyncPolicy next) {
+        checkDeadline(deadline(context), context);
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = adaptiveConcurrencyLimiter.acquire(concurrencyKey(context.getHttpRequest().getUrl()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to call the Azure Resource Manager API", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        try {
+            HttpResponse response = next.processSync();
+            release(permit, response);
+            return response;
+        } finally {
+            permit.onIgnore();
+        }
+    }
+
+    private static Optional<Deadline> deadline(HttpPipelineCallContext context) {
+        return context.getData(DEADLINE_CONTEXT_KEY)
+                .filter(Deadline.class::isInstance)
+                .map(Deadline.class::cast)
+                .or(Deadline::current);
+    }
+
+    private static void checkDeadline(Optional<Deadline> deadline, HttpPipelineCallContext context) {
+        if (deadline.map(Deadline::isExpired).orElse(false)) {
+            throw new IllegalStateException(String.format(
+                    "The task was cancelled or ran out of time before calling %s",
+                    context.getHttpRequest().getUrl()));
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, HttpResponse response) {
+        int statusCode = response.getStatusCode();
+        if (statusCode == 429 || statusCode == 503) {
+            permit.onOverload();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    static String concurrencyKey(URL url) {
+        Matcher matcher = SUBSCRIPTION_PATTERN.matcher(url.getPath());
+        return CONCURRENCY_KEY_PREFIX + (matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : url.getHost());
+    }
+}
@@ -0,0 +1,53 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import com.databricks.sdk.core.CredentialsProvider;
+import com.databricks.sdk.core.DatabricksConfig;
+import com.databricks.sdk.core.HeaderFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Databricks {@link CredentialsProvider} that authenticates an Azure service principal through a shared
+ * {@link TokenCredential}, instead of letting every Databricks client fetch its own Entra ID tokens. It sends the
+ * same headers as the {@code azure-client-secret} authentication of the SDK.
+ */
+public class AzureTokenCredentialsProvider implements CredentialsProvider {
+
+    static final String AZURE_DATABRICKS_SCOPE = "2ff814a6-3304-4ab8-85cb-cd0e6f879c1d/.default";
+    static final String AZURE_MANAGEMENT_SCOPE = "https://management.core.windows.net/.default";
+
+    static final String SP_MANAGEMENT_TOKEN_HEADER = "X-Databricks-Azure-SP-Management-Token";
+    static final String WORKSPACE_RESOURCE_ID_HEADER = "X-Databricks-Azure-Workspace-Resource-Id";
+
+    private final TokenCredential tokenCredential;
+
+    public AzureTokenCredentialsProvider(TokenCredential tokenCredential) {
+        this.tokenCredential = tokenCredential;
+    }
+
+    @Override
+    public String authType() {
+        return "azure-client-secret";
+    }
+
+    @Override
+    public HeaderFactory configure(DatabricksConfig config) {
+        return () -> {
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Authorization", "Bearer " + token(AZURE_DATABRICKS_SCOPE));
+            headers.put(SP_MANAGEMENT_TOKEN_HEADER, token(AZURE_MANAGEMENT_SCOPE));
+            if (config.getAzureWorkspaceResourceId() != null) {
+                headers.put(WORKSPACE_RESOURCE_ID_HEADER, config.getAzureWorkspaceResourceId());
+            }
+            return headers;
+        };
+    }
+
+    private String token(String scope) {
+        return tokenCredential
+                .getTokenSync(new TokenRequestContext().addScopes(scope))
+                .getToken();
+    }
+}
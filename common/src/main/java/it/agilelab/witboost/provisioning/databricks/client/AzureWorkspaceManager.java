@@ -8,12 +8,14 @@ import com.azure.resourcemanager.databricks.AzureDatabricksManager;
 import com.azure.resourcemanager.databricks.models.Sku;
 import com.azure.resourcemanager.databricks.models.Workspace;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.config.AzurePermissionsConfig;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -30,6 +32,7 @@ public class AzureWorkspaceManager {
     private final AzureDatabricksManager azureDatabricksManager;
     private final AzurePermissionsConfig azurePermissionsConfig;
     private final Logger logger = LoggerFactory.getLogger(AzureWorkspaceManager.class);
+    private final ReentrantLock workspaceCreationLock = new ReentrantLock();
 
     @Autowired
     public AzureWorkspaceManager(
@@ -49,7 +52,10 @@ public class AzureWorkspaceManager {
         try {
             azureDatabricksManager
                     .workspaces()
-                    .delete(resourceGroupName, workspaceName, com.azure.core.util.Context.NONE);
+                    .delete(
+                            resourceGroupName,
+                            workspaceName,
+                            AdaptiveConcurrencyPolicy.withDeadline(com.azure.core.util.Context.NONE));
             return right(null);
         } catch (Exception e) {
             String error = String.format(
@@ -71,7 +77,38 @@ public class AzureWorkspaceManager {
      * @param skuType                   The SKU type for the workspace.
      * @return Either a DatabricksWorkspaceInfo if the operation is successful, or a FailedOperation.
      */
-    public synchronized Either<FailedOperation, DatabricksWorkspaceInfo> createIfNotExistsWorkspace(
+    public Either<FailedOperation, DatabricksWorkspaceInfo> createIfNotExistsWorkspace(
+            String workspaceName,
+            String region,
+            String existingResourceGroupName,
+            String managedResourceGroupId,
+            SkuType skuType) {
+        // Workspace creations are serialized, but a cancelled task stops waiting for its turn
+        try {
+            if (!Deadline.lock(workspaceCreationLock)) {
+                String error = String.format(
+                        "The creation of the workspace %s was cancelled while waiting for another workspace creation to complete.",
+                        workspaceName);
+                logger.error(error);
+                return left(new FailedOperation(Collections.singletonList(new Problem(error))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String error = String.format(
+                    "Interrupted while waiting to create the workspace %s. Please try again and if the error persists contact the platform team.",
+                    workspaceName);
+            logger.error(error, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(error, e))));
+        }
+        try {
+            return createIfNotExistsWorkspaceExclusively(
+                    workspaceName, region, existingResourceGroupName, managedResourceGroupId, skuType);
+        } finally {
+            workspaceCreationLock.unlock();
+        }
+    }
+
+    private Either<FailedOperation, DatabricksWorkspaceInfo> createIfNotExistsWorkspaceExclusively(
             String workspaceName,
             String region,
             String existingResourceGroupName,
@@ -97,7 +134,7 @@ public class AzureWorkspaceManager {
                     .withExistingResourceGroup(existingResourceGroupName)
                     .withManagedResourceGroupId(managedResourceGroupId)
                     .withSku(new Sku().withName(skuType.getValue()))
-                    .create();
+                    .create(AdaptiveConcurrencyPolicy.withDeadline(com.azure.core.util.Context.NONE));
 
             String resourceId = String.format(
                     "/subscriptions/%s/resourceGroups/%s/providers/Microsoft.Databricks/workspaces/%s",
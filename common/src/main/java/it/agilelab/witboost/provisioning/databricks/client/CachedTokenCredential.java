@@ -0,0 +1,179 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.agilelab.witboost.provisioning.databricks.config.AzureTokenCacheConfig;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TokenCredential} that keeps the Entra ID tokens of a service principal in memory, one per resource audience,
+ * so that the Azure Resource Manager, Microsoft Graph and Databricks clients authenticated with the same service
+ * principal share them.
+ * <p>
+ * Once started, a background task renews the tokens that expire within the configured refresh margin, so requests
+ * are served from the cache and never wait on Entra ID. A token is fetched synchronously only the first time its
+ * audience is requested, or if the background renewal could not keep it valid. Every fetch is recorded as a metric.
+ * </p>
+ */
+@Slf4j
+public class CachedTokenCredential implements TokenCredential {
+
+    static final String FETCH_METRIC = "azure.token.fetch";
+    static final String CACHE_METRIC = "azure.token.cache";
+
+    private static final String DEFAULT_SCOPE_SUFFIX = "/.default";
+    private static final Duration MIN_VALIDITY = Duration.ofMinutes(1);
+
+    private final TokenCredential delegate;
+    private final AzureTokenCacheConfig azureTokenCacheConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    record CachedToken(TokenRequestContext context, AccessToken accessToken) {
+
+        boolean isValidFor(Duration duration) {
+            return accessToken.getExpiresAt().isAfter(OffsetDateTime.now().plus(duration));
+        }
+    }
+
+    public CachedTokenCredential(
+            TokenCredential delegate, AzureTokenCacheConfig azureTokenCacheConfig, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.azureTokenCacheConfig = azureTokenCacheConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<AccessToken> getToken(TokenRequestContext request) {
+        return Mono.fromCallable(() -> getTokenSync(request));
+    }
+
+    @Override
+    public AccessToken getTokenSync(TokenRequestContext request) {
+        // Tokens requested after a claims challenge are specific to that request and must not be shared
+        if (request.getClaims() != null) return fetch(request);
+
+        String key = cacheKey(request);
+        CachedToken cachedToken = tokens.get(key);
+        if (cachedToken != null && cachedToken.isValidFor(MIN_VALIDITY)) {
+            meterRegistry.counter(CACHE_METRIC, "audience", audience(request), "result", "hit").increment();
+            return cachedToken.accessToken();
+        }
+
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            cachedToken = tokens.get(key);
+            if (cachedToken != null && cachedToken.isValidFor(MIN_VALIDITY)) {
+                meterRegistry.counter(CACHE_METRIC, "audience", audience(request), "result", "hit").increment();
+                return cachedToken.accessToken();
+            }
+            meterRegistry.counter(CACHE_METRIC, "audience", audience(request), "result", "miss").increment();
+            AccessToken accessToken = fetch(request);
+            tokens.put(key, new CachedToken(request, accessToken));
+            return accessToken;
+        }
+    }
+
+    /**
+     * Starts the background renewal of the cached tokens. Calling it more than once has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        long intervalMillis = azureTokenCacheConfig.getRefreshInterval().toMillis();
+        if (intervalMillis <= 0) {
+            log.info("Background renewal of the Azure tokens disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "azure-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::refreshExpiringTokens, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background renewal of the cached tokens. Calling it more than once has no effect.
+     */
+    public synchronized void close() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Renews the cached tokens that expire within the refresh margin. A failed renewal is logged and leaves the
+     * current token in the cache, so it can still be used until it expires.
+     */
+    void refreshExpiringTokens() {
+        Duration refreshMargin = azureTokenCacheConfig.getRefreshMargin();
+        tokens.forEach((key, cachedToken) -> {
+            if (cachedToken.isValidFor(refreshMargin)) return;
+            synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+                CachedToken current = tokens.get(key);
+                if (current != null && current.isValidFor(refreshMargin)) return;
+                try {
+                    tokens.put(key, new CachedToken(cachedToken.context(), fetch(cachedToken.context())));
+                } catch (Exception e) {
+                    log.warn(
+                            "Error while renewing the Azure token for audience {}, the current token expires at {}. Details: {}",
+                            audience(cachedToken.context()),
+                            cachedToken.accessToken().getExpiresAt(),
+                            e.getMessage());
+                }
+            }
+        });
+    }
+
+    private AccessToken fetch(TokenRequestContext request) {
+        String audience = audience(request);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            AccessToken accessToken = delegate.getTokenSync(request);
+            if (accessToken == null) {
+                throw new IllegalStateException("No token returned for audience " + audience);
+            }
+            outcome = "success";
+            log.debug("Fetched Azure token for audience {}, expiring at {}", audience, accessToken.getExpiresAt());
+            return accessToken;
+        } finally {
+            sample.stop(meterRegistry.timer(FETCH_METRIC, "audience", audience, "outcome", outcome));
+        }
+    }
+
+    private static String cacheKey(TokenRequestContext request) {
+        return Optional.ofNullable(request.getTenantId()).orElse("") + "|" + String.join(" ", sortedScopes(request));
+    }
+
+    static String audience(TokenRequestContext request) {
+        return String.join(
+                " ",
+                sortedScopes(request).stream()
+                        .map(scope -> scope.endsWith(DEFAULT_SCOPE_SUFFIX)
+                                ? scope.substring(0, scope.length() - DEFAULT_SCOPE_SUFFIX.length())
+                                : scope)
+                        .toList());
+    }
+
+    private static List<String> sortedScopes(TokenRequestContext request) {
+        return Optional.ofNullable(request.getScopes()).orElse(List.of()).stream()
+                .sorted()
+                .toList();
+    }
+}
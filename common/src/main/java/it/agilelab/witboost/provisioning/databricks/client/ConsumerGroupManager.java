@@ -0,0 +1,240 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.databricks.sdk.AccountClient;
+import com.databricks.sdk.service.iam.*;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.common.ScimFilters;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manages the Databricks account groups that collect the consumers of an Output Port when ACL compaction is enabled.
+ * Membership is synchronized with batched SCIM PATCH operations, so that the cost of an ACL update depends on the
+ * number of batches rather than on the number of consumers.
+ */
+public class ConsumerGroupManager {
+
+    private final Logger logger = LoggerFactory.getLogger(ConsumerGroupManager.class);
+
+    private final AccountClient accountClient;
+    private final int patchBatchSize;
+
+    public ConsumerGroupManager(AccountClient accountClient, int patchBatchSize) {
+        this.accountClient = accountClient;
+        this.patchBatchSize = Math.max(patchBatchSize, 1);
+    }
+
+    /**
+     * Retrieves the account group with the given display name, creating it if it does not exist.
+     *
+     * @param groupName the display name of the group
+     * @return Either a {@code FailedOperation} if the group cannot be retrieved or created, or the id of the group
+     */
+    public Either<FailedOperation, String> getOrCreateGroup(String groupName) {
+        try {
+            Optional<Group> existingGroup = findGroup(groupName);
+            if (existingGroup.isPresent()) {
+                logger.info("Consumer group '{}' found (id: {})", groupName, existingGroup.get().getId());
+                return right(existingGroup.get().getId());
+            }
+
+            logger.info("Creating consumer group '{}' at Databricks account level", groupName);
+            Group group = accountClient.groups().create(new Group().setDisplayName(groupName));
+            return right(group.getId());
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while creating the consumer group '%s'. Please try again and if the error persists contact the platform team. Details: %s",
+                    groupName, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    /**
+     * Deletes the account group with the given display name, if it exists.
+     *
+     * @param groupName the display name of the group
+     * @return Either a {@code FailedOperation} if the group cannot be deleted, or {@code Void}
+     */
+    public Either<FailedOperation, Void> deleteGroupIfExists(String groupName) {
+        try {
+            Optional<Group> existingGroup = findGroup(groupName);
+            if (existingGroup.isEmpty()) {
+                logger.info("Consumer group '{}' not found, deletion skipped", groupName);
+                return right(null);
+            }
+            accountClient.groups().delete(existingGroup.get().getId());
+            logger.info("Consumer group '{}' deleted", groupName);
+            return right(null);
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while deleting the consumer group '%s'. Please try again and if the error persists contact the platform team. Details: %s",
+                    groupName, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    /**
+     * Resolves the SCIM ids of users and groups at account level, combining the names into chunked {@code or}
+     * filters.
+     *
+     * @param userNames  the user names (emails) to resolve
+     * @param groupNames the group display names to resolve
+     * @return Either a {@code FailedOperation} listing every principal that cannot be found, or the set of ids
+     */
+    public Either<FailedOperation, Set<String>> resolvePrincipalIds(
+            Collection<String> userNames, Collection<String> groupNames) {
+        try {
+            Map<String, String> userIds = new HashMap<>();
+            for (String filter : ScimFilters.orFilters("userName", userNames)) {
+                accountClient
+                        .users()
+                        .list(new ListAccountUsersRequest().setFilter(filter).setAttributes("id,userName"))
+                        .forEach(user -> userIds.put(normalize(user.getUserName()), user.getId()));
+            }
+
+            Map<String, String> groupIds = new HashMap<>();
+            for (String filter : ScimFilters.orFilters("displayName", groupNames)) {
+                accountClient
+                        .groups()
+                        .list(new ListAccountGroupsRequest().setFilter(filter).setAttributes("id,displayName"))
+                        .forEach(group -> groupIds.put(normalize(group.getDisplayName()), group.getId()));
+            }
+
+            List<Problem> problems = new ArrayList<>();
+            Set<String> ids = new HashSet<>();
+            collectIds(userNames, userIds, "User", ids, problems);
+            collectIds(groupNames, groupIds, "Group", ids, problems);
+
+            if (!problems.isEmpty()) return left(new FailedOperation(problems));
+            return right(ids);
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while resolving the consumers of the Output Port. Please try again and if the error persists contact the platform team. Details: %s",
+                    e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    /**
+     * Synchronizes the members of a group with the desired set of principal ids. Only the differences are sent, with
+     * SCIM PATCH requests carrying at most {@code patchBatchSize} member changes each.
+     *
+     * @param groupId   the id of the group
+     * @param memberIds the ids of the principals that must be members of the group
+     * @return Either a {@code FailedOperation} if the membership cannot be updated, or {@code Void}
+     */
+    public Either<FailedOperation, Void> syncMembers(String groupId, Set<String> memberIds) {
+        try {
+            Group group = accountClient.groups().get(groupId);
+            Set<String> currentMemberIds = Optional.ofNullable(group.getMembers()).stream()
+                    .flatMap(Collection::stream)
+                    .map(ComplexValue::getValue)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            List<String> toAdd = memberIds.stream()
+                    .filter(id -> !currentMemberIds.contains(id))
+                    .sorted()
+                    .toList();
+            List<String> toRemove = currentMemberIds.stream()
+                    .filter(id -> !memberIds.contains(id))
+                    .sorted()
+                    .toList();
+
+            logger.info(
+                    "Synchronizing members of group '{}': {} to add, {} to remove",
+                    group.getDisplayName(),
+                    toAdd.size(),
+                    toRemove.size());
+
+            List<Map.Entry<String, PatchOp>> changes = new ArrayList<>();
+            toAdd.forEach(id -> changes.add(Map.entry(id, PatchOp.ADD)));
+            toRemove.forEach(id -> changes.add(Map.entry(id, PatchOp.REMOVE)));
+
+            for (int start = 0; start < changes.size(); start += patchBatchSize) {
+                List<Map.Entry<String, PatchOp>> batch =
+                        changes.subList(start, Math.min(start + patchBatchSize, changes.size()));
+                accountClient
+                        .groups()
+                        .patch(new PartialUpdate()
+                                .setId(groupId)
+                                .setSchemas(List.of(PatchSchema.URN_IETF_PARAMS_SCIM_API_MESSAGES_2_0_PATCH_OP))
+                                .setOperations(toPatchOperations(batch)));
+            }
+
+            return right(null);
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while updating the members of the consumer group %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    groupId, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    private Optional<Group> findGroup(String groupName) {
+        Iterable<Group> groups = accountClient
+                .groups()
+                .list(new ListAccountGroupsRequest()
+                        .setFilter(String.format("displayName eq '%s'", groupName))
+                        .setAttributes("id,displayName"));
+        return StreamSupport.stream(groups.spliterator(), false)
+                .filter(group -> groupName.equalsIgnoreCase(group.getDisplayName()))
+                .findFirst();
+    }
+
+    private static List<Patch> toPatchOperations(List<Map.Entry<String, PatchOp>> batch) {
+        Map<PatchOp, List<String>> idsByOperation = batch.stream()
+                .collect(Collectors.groupingBy(
+                        Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+        List<Patch> operations = new ArrayList<>();
+        List<String> idsToAdd = idsByOperation.getOrDefault(PatchOp.ADD, List.of());
+        if (!idsToAdd.isEmpty()) {
+            operations.add(new Patch()
+                    .setOp(PatchOp.ADD)
+                    .setPath("members")
+                    .setValue(idsToAdd.stream().map(id -> Map.of("value", id)).toList()));
+        }
+        idsByOperation.getOrDefault(PatchOp.REMOVE, List.of()).forEach(id -> operations.add(new Patch()
+                .setOp(PatchOp.REMOVE)
+                .setPath(String.format("members[value eq \"%s\"]", id))));
+        return operations;
+    }
+
+    private static void collectIds(
+            Collection<String> names,
+            Map<String, String> idsByName,
+            String principalType,
+            Set<String> ids,
+            List<Problem> problems) {
+        for (String name : names) {
+            String id = idsByName.get(normalize(name));
+            if (id == null) {
+                problems.add(new Problem(
+                        String.format("%s '%s' not found at Databricks account level.", principalType, name)));
+            } else {
+                ids.add(id);
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,81 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.databricks.sdk.service.iam.ServicePrincipal;
+import com.databricks.sdk.service.iam.WorkspacePermission;
+import it.agilelab.witboost.provisioning.databricks.common.ExpiringCache;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksCacheConfig;
+import it.agilelab.witboost.provisioning.databricks.config.GitCredentialsConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ServicePrincipalSessionConfig;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Databricks metadata cached between provisionings. The managers working on a workspace are created for each
+ * provisioning, so the caches they share live in this bean and are handed to them on creation.
+ */
+@Component
+public class DatabricksCaches {
+
+    // Metastore id by lowercase metastore name
+    private final ExpiringCache<String, String> metastoreIdsByName;
+    // Id of the metastore attached to a workspace, by workspace id
+    private final ExpiringCache<String, String> metastoreIdsByWorkspace;
+    // Permission assignments of each principal, by workspace id
+    private final ExpiringCache<String, Map<Long, Set<WorkspacePermission>>> workspaceAssignments;
+    // Fingerprint of the Git credentials last applied, by workspace host and principal
+    private final ExpiringCache<String, String> gitCredentialsFingerprints;
+    // Service principals looked up by display name, by workspace host and lowercase display name
+    private final ExpiringCache<String, ServicePrincipal> servicePrincipalsByName;
+
+    /**
+     * Creates caches with the default time to live, for the managers created outside of the Spring context.
+     */
+    public DatabricksCaches() {
+        this(new DatabricksCacheConfig(), new GitCredentialsConfig(), new ServicePrincipalSessionConfig());
+    }
+
+    @Autowired
+    public DatabricksCaches(
+            DatabricksCacheConfig databricksCacheConfig,
+            GitCredentialsConfig gitCredentialsConfig,
+            ServicePrincipalSessionConfig servicePrincipalSessionConfig) {
+        this.metastoreIdsByName = new ExpiringCache<>(databricksCacheConfig::getMetastoreTtl);
+        this.metastoreIdsByWorkspace = new ExpiringCache<>(databricksCacheConfig::getMetastoreTtl);
+        this.workspaceAssignments = new ExpiringCache<>(databricksCacheConfig::getWorkspaceAssignmentsTtl);
+        this.gitCredentialsFingerprints = new ExpiringCache<>(gitCredentialsConfig::getCredentialsCacheTtl);
+        this.servicePrincipalsByName = new ExpiringCache<>(servicePrincipalSessionConfig::getLookupCacheTtl);
+    }
+
+    public ExpiringCache<String, String> metastoreIdsByName() {
+        return metastoreIdsByName;
+    }
+
+    public ExpiringCache<String, String> metastoreIdsByWorkspace() {
+        return metastoreIdsByWorkspace;
+    }
+
+    public ExpiringCache<String, Map<Long, Set<WorkspacePermission>>> workspaceAssignments() {
+        return workspaceAssignments;
+    }
+
+    public ExpiringCache<String, String> gitCredentialsFingerprints() {
+        return gitCredentialsFingerprints;
+    }
+
+    public ExpiringCache<String, ServicePrincipal> servicePrincipalsByName() {
+        return servicePrincipalsByName;
+    }
+
+    /**
+     * Discards all the cached metadata.
+     */
+    public void invalidateAll() {
+        metastoreIdsByName.invalidateAll();
+        metastoreIdsByWorkspace.invalidateAll();
+        workspaceAssignments.invalidateAll();
+        gitCredentialsFingerprints.invalidateAll();
+        servicePrincipalsByName.invalidateAll();
+    }
+}
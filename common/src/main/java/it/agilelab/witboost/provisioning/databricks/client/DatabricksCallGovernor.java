@@ -0,0 +1,234 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.databricks.sdk.core.http.HttpClient;
+import com.databricks.sdk.core.http.Request;
+import com.databricks.sdk.core.http.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksRateLimitConfig;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Central governor of the Databricks API calls, applied to the HTTP client shared by all the Databricks SDK
+ * clients, so that every manager goes through it.
+ * <p>
+ * Calls are limited on the client side with a token bucket per workspace host and one for the account API, and
+ * their concurrency is limited per host by the {@link AdaptiveConcurrencyLimiter}. Long-running calls, like the
+ * execution of a SQL statement, do not feed the latency signal of the limiter. Each attempt of a call goes
+ * through the governor once: the retries of the calls throttled with {@code 429 Too Many Requests} or
+ * {@code 503 Service Unavailable} are left to the {@code ApiClient} of the SDK, which honors the {@code Retry-After}
+ * header, so that the two retry loops do not multiply. Throttled attempts are recorded as metrics.
+ * </p>
+ * <p>
+ * The outcome of every workspace call updates the {@link WorkspaceCircuitBreakerRegistry}, and calls to a workspace
+ * whose breaker is open fail immediately. Calls refused by the governor itself, because the deadline expired, no
+ * concurrency slot freed up in time or the thread was interrupted, fail with a
+ * {@link DatabricksCallRefusedException} and do not count as failures of the workspace. Any other error, including
+ * the socket and connect timeouts of a workspace that does not answer, counts as a failure.
+ * </p>
+ * <p>
+ * Calls made by a task whose {@link Deadline} expired fail immediately, including the retries of the SDK.
+ * </p>
+ */
+@Component
+@Slf4j
+public class DatabricksCallGovernor {
+
+    static final String THROTTLED_METRIC = "databricks.api.throttled";
+
+    static final String ACCOUNT_SCOPE = "account";
+    static final String CONCURRENCY_KEY_PREFIX = "databricks:";
+
+    /**
+     * Calls whose duration depends on the work they wait for, so their latency says nothing about the load of the
+     * workspace. Statements are executed with the default {@code wait_timeout} of 10 seconds.
+     */
+    private static final Set<String> LONG_RUNNING_CALLS = Set.of("POST /api/2.0/sql/statements");
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(Duration duration) throws InterruptedException;
+    }
+
+    private final DatabricksRateLimitConfig databricksRateLimitConfig;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Sleeper sleeper;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DatabricksCallGovernor(
+            DatabricksRateLimitConfig databricksRateLimitConfig,
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+            WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry,
+            MeterRegistry meterRegistry) {
+        this(
+                databricksRateLimitConfig,
+                adaptiveConcurrencyLimiter,
+                workspaceCircuitBreakerRegistry,
+                meterRegistry,
+                duration -> TimeUnit.NANOSECONDS.sleep(duration.toNanos()));
+    }
+
+    DatabricksCallGovernor(
+            DatabricksRateLimitConfig databricksRateLimitConfig,
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+            WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry,
+            MeterRegistry meterRegistry,
+            Sleeper sleeper) {
+        this.databricksRateLimitConfig = databricksRateLimitConfig;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+        this.workspaceCircuitBreakerRegistry = workspaceCircuitBreakerRegistry;
+        this.meterRegistry = meterRegistry;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Wraps an HTTP client so that its calls go through this governor. The deadline and circuit breaker checks are
+     * always applied, while the rate limit and the concurrency limit only apply if the rate limiting is enabled.
+     *
+     * @param httpClient the HTTP client to wrap
+     * @return the governed HTTP client
+     */
+    public HttpClient govern(HttpClient httpClient) {
+        return request -> execute(httpClient, request);
+    }
+
+    Response execute(HttpClient httpClient, Request request) throws IOException {
+        checkDeadline(request);
+        String scope = scope(request.getUrl());
+        if (ACCOUNT_SCOPE.equals(scope)) return executeThrottled(httpClient, request, scope);
+
+        String workspace = workspaceCircuitBreakerRegistry.keyForHost(scope);
+        Either<FailedOperation, Void> permitted = workspaceCircuitBreakerRegistry.acquire(workspace);
+        if (permitted.isLeft()) {
+            throw new IOException(permitted.getLeft().problems().get(0).description());
+        }
+        try {
+            Response response = executeThrottled(httpClient, request, scope);
+            int statusCode = response.getStatusCode();
+            if (statusCode == TOO_MANY_REQUESTS) {
+                workspaceCircuitBreakerRegistry.onIgnore(workspace);
+            } else if (statusCode >= 500) {
+                workspaceCircuitBreakerRegistry.onFailure(workspace);
+            } else {
+                workspaceCircuitBreakerRegistry.onSuccess(workspace);
+            }
+            return response;
+        } catch (DatabricksCallRefusedException e) {
+            workspaceCircuitBreakerRegistry.onIgnore(workspace);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // Including the socket and connect timeouts of a workspace that does not answer
+            workspaceCircuitBreakerRegistry.onFailure(workspace);
+            throw e;
+        }
+    }
+
+    private Response executeThrottled(HttpClient httpClient, Request request, String scope) throws IOException {
+        Response response;
+        if (databricksRateLimitConfig.isEnabled()) {
+            acquire(scope);
+            response = executeWithinConcurrencyLimit(httpClient, request, scope);
+        } else {
+            response = httpClient.execute(request);
+        }
+        int statusCode = response.getStatusCode();
+        if (statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE) {
+            meterRegistry
+                    .counter(THROTTLED_METRIC, "scope", scope, "reason", String.valueOf(statusCode))
+                    .increment();
+        }
+        return response;
+    }
+
+    private static void checkDeadline(Request request) throws DatabricksCallRefusedException {
+        if (Deadline.current().map(Deadline::isExpired).orElse(false)) {
+            throw new DatabricksCallRefusedException(String.format(
+                    "The deadline of the task expired before calling %s %s", request.getMethod(), request.getUrl()));
+        }
+    }
+
+    private Response executeWithinConcurrencyLimit(HttpClient httpClient, Request request, String scope)
+            throws IOException {
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = adaptiveConcurrencyLimiter.acquire(CONCURRENCY_KEY_PREFIX + scope);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabricksCallRefusedException("Interrupted while waiting to call the Databricks API", e);
+        } catch (TimeoutException e) {
+            throw new DatabricksCallRefusedException(e.getMessage(), e);
+        }
+        try {
+            Response response = httpClient.execute(request);
+            int statusCode = response.getStatusCode();
+            if (statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE) {
+                permit.onOverload();
+            } else if (isLongRunning(request)) {
+                permit.onLongRunningSuccess();
+            } else {
+                permit.onSuccess();
+            }
+            return response;
+        } finally {
+            permit.onIgnore();
+        }
+    }
+
+    private void acquire(String scope) throws IOException {
+        double requestsPerSecond = ACCOUNT_SCOPE.equals(scope)
+                ? databricksRateLimitConfig.getAccountRequestsPerSecond()
+                : databricksRateLimitConfig.getWorkspaceRequestsPerSecond();
+        if (requestsPerSecond <= 0) return;
+
+        long waitNanos = buckets.computeIfAbsent(
+                        scope, s -> new TokenBucket(requestsPerSecond, databricksRateLimitConfig.getBurst()))
+                .reserve();
+        if (waitNanos > 0) {
+            meterRegistry
+                    .counter(THROTTLED_METRIC, "scope", scope, "reason", "client")
+                    .increment();
+            sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private void sleep(Duration duration) throws IOException {
+        try {
+            sleeper.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabricksCallRefusedException("Interrupted while waiting to call the Databricks API", e);
+        }
+    }
+
+    static boolean isLongRunning(Request request) {
+        String path = Optional.ofNullable(URI.create(request.getUrl()).getPath()).orElse("");
+        if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        return LONG_RUNNING_CALLS.contains(request.getMethod() + " " + path);
+    }
+
+    static String scope(String url) {
+        String host = Optional.ofNullable(URI.create(url).getHost()).orElse(url).toLowerCase(Locale.ROOT);
+        return host.startsWith("accounts.") ? ACCOUNT_SCOPE : host;
+    }
+}
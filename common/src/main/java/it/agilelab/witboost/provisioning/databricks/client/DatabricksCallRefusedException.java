@@ -0,0 +1,18 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import java.io.IOException;
+
+/**
+ * Thrown by the {@link DatabricksCallGovernor} when it refuses to send a call, e.g. because no concurrency slot freed
+ * up in time. The call never reached Databricks, so it says nothing about the health of the workspace.
+ */
+public class DatabricksCallRefusedException extends IOException {
+
+    public DatabricksCallRefusedException(String message) {
+        super(message);
+    }
+
+    public DatabricksCallRefusedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,107 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import com.databricks.sdk.core.commons.CommonsHttpClient;
+import com.databricks.sdk.core.http.HttpClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksHttpClientConfig;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides the HTTP client shared by all the Databricks SDK clients. It is backed by a single pool of keep-alive
+ * connections with a limit per host, so that clients created for the same workspace host reuse the established
+ * connections instead of repeating the TLS handshake on every request. Every call goes through the
+ * {@link DatabricksCallGovernor}.
+ * <p>
+ * Connections idle for longer than the configured timeout are evicted in the background. The pool utilization is
+ * exposed as metrics.
+ * </p>
+ */
+@Component
+@Slf4j
+public class DatabricksHttpClientPool {
+
+    static final String POOL_METRIC = "databricks.http.pool.connections";
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService evictionScheduler;
+
+    public DatabricksHttpClientPool(
+            DatabricksHttpClientConfig databricksHttpClientConfig,
+            DatabricksCallGovernor databricksCallGovernor,
+            MeterRegistry meterRegistry) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(databricksHttpClientConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(databricksHttpClientConfig.getMaxConnectionsPerHost());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoKeepAlive(true)
+                .setTcpNoDelay(true)
+                .build());
+
+        httpClient = databricksCallGovernor.govern(new CommonsHttpClient.Builder()
+                .withTimeoutSeconds((int) databricksHttpClientConfig.getTimeout().toSeconds())
+                .withConnectionManager(connectionManager)
+                .build());
+
+        registerGauge(meterRegistry, "leased", PoolStats::getLeased);
+        registerGauge(meterRegistry, "available", PoolStats::getAvailable);
+        registerGauge(meterRegistry, "pending", PoolStats::getPending);
+        registerGauge(meterRegistry, "max", PoolStats::getMax);
+
+        long idleMillis = databricksHttpClientConfig.getIdleConnectionTimeout().toMillis();
+        evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "databricks-http-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (idleMillis > 0) {
+            evictionScheduler.scheduleWithFixedDelay(
+                    () -> evictConnections(idleMillis), idleMillis, idleMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Retrieves the HTTP client to set in the {@code DatabricksConfig} of a Databricks SDK client.
+     *
+     * @return the shared HTTP client
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @PreDestroy
+    public void close() {
+        evictionScheduler.shutdownNow();
+        connectionManager.shutdown();
+    }
+
+    void evictConnections(long idleMillis) {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Error while evicting idle Databricks HTTP connections. Details: {}", e.getMessage());
+        }
+    }
+
+    PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    private void registerGauge(MeterRegistry meterRegistry, String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(POOL_METRIC, this, pool -> value.applyAsDouble(pool.getPoolStats()))
+                .tag("state", state)
+                .description("Connections of the pool shared by the Databricks SDK clients")
+                .register(meterRegistry);
+    }
+}
@@ -5,10 +5,12 @@ import static io.vavr.control.Either.left;
 import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.service.iam.*;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.ExpiringCache;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,10 +19,20 @@ public class IdentityManager {
 
     private final AccountClient accountClient;
     private final DatabricksWorkspaceInfo databricksWorkspaceInfo;
+    // Permission assignments of each principal, by workspace id
+    private final ExpiringCache<String, Map<Long, Set<WorkspacePermission>>> workspaceAssignments;
 
     public IdentityManager(AccountClient accountClient, DatabricksWorkspaceInfo databricksWorkspaceInfo) {
+        this(accountClient, databricksWorkspaceInfo, new DatabricksCaches());
+    }
+
+    public IdentityManager(
+            AccountClient accountClient,
+            DatabricksWorkspaceInfo databricksWorkspaceInfo,
+            DatabricksCaches databricksCaches) {
         this.accountClient = accountClient;
         this.databricksWorkspaceInfo = databricksWorkspaceInfo;
+        this.workspaceAssignments = databricksCaches.workspaceAssignments();
     }
 
     private final Logger logger = LoggerFactory.getLogger(IdentityManager.class);
@@ -29,7 +41,8 @@ public class IdentityManager {
      * Creates or updates a user in the workspace based on the user details from the account. User will have ADMIN
      * privileges.
      * This method first checks if the user exists in the account. If the user exists, it creates or updates the user in the
-     * workspace importing it from the account.
+     * workspace importing it from the account. The assignment is skipped if the user already has the ADMIN
+     * permission on the workspace.
      *
      * @param username The username of the user to create or update.
      * @return An Either object containing a FailedOperation if the operation failed, or Void if the operation succeeded.
@@ -39,32 +52,10 @@ public class IdentityManager {
         try {
 
             logger.info("Importing/updating user {} in {}", username, databricksWorkspaceInfo.getName());
-            String filter = String.format("username eq '%s'", username);
-            Collection<WorkspacePermission> workspacePermissions = new ArrayList<>();
-            workspacePermissions.add(WorkspacePermission.ADMIN);
-            // Check user in the account
-            Optional<User> accountUser = StreamSupport.stream(
-                            accountClient
-                                    .users()
-                                    .list(new ListAccountUsersRequest().setFilter(filter))
-                                    .spliterator(),
-                            false)
-                    .findFirst();
-
-            if (accountUser.isPresent()) {
-                accountClient
-                        .workspaceAssignment()
-                        .update(new UpdateWorkspaceAssignments()
-                                .setPrincipalId(Long.parseLong(accountUser.get().getId()))
-                                .setPermissions(workspacePermissions)
-                                .setWorkspaceId(Long.parseLong(databricksWorkspaceInfo.getId())));
-
-            } else {
-                String errorMessage = String.format("User %s not found at Databricks account level.", username);
-                logger.warn(errorMessage);
-                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
-            }
+            Either<FailedOperation, Long> eitherUserId = findAccountUserId(username);
+            if (eitherUserId.isLeft()) return left(eitherUserId.getLeft());
 
+            assignWorkspacePermissions(Map.of(eitherUserId.get(), Set.of(WorkspacePermission.ADMIN)));
             return Either.right(null);
 
         } catch (Exception e) {
@@ -80,7 +71,8 @@ public class IdentityManager {
      * Creates or updates a group in the workspace based on the user details from the account. Group will have USER
      * permissions.
      * This method first checks if the group exists in the account. If the group exists, it creates or updates the group in the
-     * workspace importing it from the account.
+     * workspace importing it from the account. The assignment is skipped if the group already has the USER
+     * permission, and not the ADMIN one, on the workspace.
      *
      * @param groupName The username of the user to create or update.
      * @return An Either object containing a FailedOperation if the operation failed, or Void if the operation succeeded.
@@ -89,34 +81,10 @@ public class IdentityManager {
 
         try {
             logger.info("Importing/updating group {} in {}", groupName, databricksWorkspaceInfo.getName());
+            Either<FailedOperation, Long> eitherGroupId = findAccountGroupId(groupName);
+            if (eitherGroupId.isLeft()) return left(eitherGroupId.getLeft());
 
-            String filter = String.format("displayName eq '%s'", groupName);
-            Collection<WorkspacePermission> workspacePermissions = new ArrayList<>();
-            workspacePermissions.add(WorkspacePermission.USER);
-            // Check group in account
-            Optional<Group> accountGroup = StreamSupport.stream(
-                            accountClient
-                                    .groups()
-                                    .list(new ListAccountGroupsRequest().setFilter(filter))
-                                    .spliterator(),
-                            false)
-                    .findFirst();
-
-            if (accountGroup.isPresent()) {
-                accountClient
-                        .workspaceAssignment()
-                        .update(new UpdateWorkspaceAssignments()
-                                .setPrincipalId(
-                                        Long.parseLong(accountGroup.get().getId()))
-                                .setPermissions(workspacePermissions)
-                                .setWorkspaceId(Long.parseLong(databricksWorkspaceInfo.getId())));
-
-            } else {
-                String errorMessage = String.format("Group %s not found at Databricks account level.", groupName);
-                logger.warn(errorMessage);
-                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
-            }
-
+            assignWorkspacePermissions(Map.of(eitherGroupId.get(), Set.of(WorkspacePermission.USER)));
             return Either.right(null);
 
         } catch (Exception e) {
@@ -127,4 +95,151 @@ public class IdentityManager {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
         }
     }
+
+    /**
+     * Imports a user with ADMIN privileges and a group with USER privileges in the workspace in a single pass. Both
+     * principals are resolved at account level first, then the current assignments of the workspace are read once and
+     * only the principals whose assignment is missing or different are updated.
+     *
+     * @param username  The username of the user to import as workspace admin.
+     * @param groupName The display name of the group to import as workspace user.
+     * @return An Either object containing a FailedOperation if the operation failed, or Void if the operation succeeded.
+     */
+    public Either<FailedOperation, Void> createOrUpdateUserAndGroup(String username, String groupName) {
+
+        try {
+            logger.info(
+                    "Importing/updating user {} and group {} in {}",
+                    username,
+                    groupName,
+                    databricksWorkspaceInfo.getName());
+
+            Either<FailedOperation, Long> eitherUserId = findAccountUserId(username);
+            if (eitherUserId.isLeft()) return left(eitherUserId.getLeft());
+
+            Either<FailedOperation, Long> eitherGroupId = findAccountGroupId(groupName);
+            if (eitherGroupId.isLeft()) return left(eitherGroupId.getLeft());
+
+            Map<Long, Set<WorkspacePermission>> desiredPermissions = new LinkedHashMap<>();
+            desiredPermissions.put(eitherUserId.get(), Set.of(WorkspacePermission.ADMIN));
+            desiredPermissions.put(eitherGroupId.get(), Set.of(WorkspacePermission.USER));
+            assignWorkspacePermissions(desiredPermissions);
+            return Either.right(null);
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while creating/updating user %s and group %s in %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    username, groupName, databricksWorkspaceInfo.getName(), e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    private Either<FailedOperation, Long> findAccountUserId(String username) {
+        String filter = String.format("username eq '%s'", username);
+        // Check user in the account
+        Optional<User> accountUser = StreamSupport.stream(
+                        accountClient
+                                .users()
+                                .list(new ListAccountUsersRequest().setFilter(filter))
+                                .spliterator(),
+                        false)
+                .findFirst();
+
+        if (accountUser.isEmpty()) {
+            String errorMessage = String.format("User %s not found at Databricks account level.", username);
+            logger.warn(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        }
+        return Either.right(Long.parseLong(accountUser.get().getId()));
+    }
+
+    private Either<FailedOperation, Long> findAccountGroupId(String groupName) {
+        String filter = String.format("displayName eq '%s'", groupName);
+        // Check group in account
+        Optional<Group> accountGroup = StreamSupport.stream(
+                        accountClient
+                                .groups()
+                                .list(new ListAccountGroupsRequest().setFilter(filter))
+                                .spliterator(),
+                        false)
+                .findFirst();
+
+        if (accountGroup.isEmpty()) {
+            String errorMessage = String.format("Group %s not found at Databricks account level.", groupName);
+            logger.warn(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        }
+        return Either.right(Long.parseLong(accountGroup.get().getId()));
+    }
+
+    /**
+     * Updates the workspace assignment of every principal whose current permission level differs from the desired
+     * one. Current assignments are listed once per workspace and reused until the cached entry expires.
+     */
+    private void assignWorkspacePermissions(Map<Long, Set<WorkspacePermission>> desiredPermissions) {
+        long workspaceId = Long.parseLong(databricksWorkspaceInfo.getId());
+        Map<Long, Set<WorkspacePermission>> currentPermissions = getWorkspaceAssignments(workspaceId);
+
+        for (Map.Entry<Long, Set<WorkspacePermission>> desired : desiredPermissions.entrySet()) {
+            Long principalId = desired.getKey();
+            if (permissionLevel(desired.getValue()) == permissionLevel(currentPermissions.get(principalId))) {
+                logger.info(
+                        "Principal {} already has permissions {} in {}, assignment skipped",
+                        principalId,
+                        desired.getValue(),
+                        databricksWorkspaceInfo.getName());
+                continue;
+            }
+
+            try {
+                accountClient
+                        .workspaceAssignment()
+                        .update(new UpdateWorkspaceAssignments()
+                                .setPrincipalId(principalId)
+                                .setPermissions(new ArrayList<>(desired.getValue()))
+                                .setWorkspaceId(workspaceId));
+            } catch (RuntimeException e) {
+                // The outcome of the request is unknown, the assignments will be listed again on the next call
+                workspaceAssignments.invalidate(databricksWorkspaceInfo.getId());
+                throw e;
+            }
+            currentPermissions.put(principalId, desired.getValue());
+        }
+    }
+
+    private Map<Long, Set<WorkspacePermission>> getWorkspaceAssignments(long workspaceId) {
+        Optional<Map<Long, Set<WorkspacePermission>>> cached =
+                workspaceAssignments.get(databricksWorkspaceInfo.getId());
+        if (cached.isPresent()) return cached.get();
+
+        logger.info("Listing permission assignments of workspace {}", databricksWorkspaceInfo.getName());
+        Map<Long, Set<WorkspacePermission>> permissionsByPrincipal = new ConcurrentHashMap<>();
+        Iterable<PermissionAssignment> assignments =
+                accountClient.workspaceAssignment().list(workspaceId);
+        if (assignments != null) {
+            assignments.forEach(assignment -> {
+                if (assignment.getPrincipal() == null
+                        || assignment.getPrincipal().getPrincipalId() == null) return;
+                Set<WorkspacePermission> permissions = assignment.getPermissions() == null
+                        ? Set.of()
+                        : Set.copyOf(assignment.getPermissions());
+                permissionsByPrincipal.put(assignment.getPrincipal().getPrincipalId(), permissions);
+            });
+        }
+
+        workspaceAssignments.put(databricksWorkspaceInfo.getId(), permissionsByPrincipal);
+        return permissionsByPrincipal;
+    }
+
+    /**
+     * Effective permission level of a workspace assignment. The API may report an admin with both the USER and the
+     * ADMIN permissions, so the assignments are compared by their highest permission rather than by equality.
+     */
+    private static int permissionLevel(Set<WorkspacePermission> permissions) {
+        if (permissions == null) return 0;
+        if (permissions.contains(WorkspacePermission.ADMIN)) return 2;
+        if (permissions.contains(WorkspacePermission.USER)) return 1;
+        return 0;
+    }
 }
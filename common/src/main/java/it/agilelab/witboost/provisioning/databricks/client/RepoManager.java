@@ -12,9 +12,8 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import jakarta.validation.constraints.NotNull;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.*;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -166,46 +165,92 @@ public class RepoManager {
         }
     }
 
+    /**
+     * Desired permission of a user or group on a repository. A {@code null} permission level means that the
+     * principal must not have direct permissions on the repository.
+     *
+     * @param username        The username, or null if the grant refers to a group.
+     * @param groupName       The group name, or null if the grant refers to a user.
+     * @param permissionLevel The permission level to assign, or null to remove the direct permissions.
+     */
+    public record RepoGrant(String username, String groupName, RepoPermissionLevel permissionLevel) {
+
+        public static RepoGrant user(String username, RepoPermissionLevel permissionLevel) {
+            return new RepoGrant(username, null, permissionLevel);
+        }
+
+        public static RepoGrant group(String groupName, RepoPermissionLevel permissionLevel) {
+            return new RepoGrant(null, groupName, permissionLevel);
+        }
+
+        private String principal() {
+            return username != null ? username : groupName;
+        }
+
+        private boolean refersTo(String otherUsername, String otherGroupName) {
+            return username != null ? username.equals(otherUsername) : groupName.equals(otherGroupName);
+        }
+    }
+
     public Either<FailedOperation, Void> assignPermissionsToUser(
             String repoId, String username, RepoPermissionLevel permissionLevel) {
-        return assignPermissions(repoId, username, null, permissionLevel);
+        return applyPermissions(repoId, List.of(RepoGrant.user(username, permissionLevel)));
     }
 
     public Either<FailedOperation, Void> removePermissionsToUser(String repoId, String username) {
-        return removePermissions(repoId, username, null);
+        return applyPermissions(repoId, List.of(RepoGrant.user(username, null)));
     }
 
     public Either<FailedOperation, Void> assignPermissionsToGroup(
             String repoId, String groupName, RepoPermissionLevel permissionLevel) {
-        return assignPermissions(repoId, null, groupName, permissionLevel);
+        return applyPermissions(repoId, List.of(RepoGrant.group(groupName, permissionLevel)));
     }
 
     public Either<FailedOperation, Void> removePermissionsToGroup(String repoId, String groupName) {
-        return removePermissions(repoId, null, groupName);
+        return applyPermissions(repoId, List.of(RepoGrant.group(groupName, null)));
     }
 
     /**
-     * Assigns permissions to a user or group for a repository.
+     * Applies the desired permissions of a set of users and groups on a repository with a single read and at most a
+     * single write. The direct permissions of the principals in {@code grants} are replaced by the desired ones, while
+     * the entries of any other principal are kept. If the repository ACL already matches, no write is performed.
      *
-     * @param repoId           The ID of the repository.
-     * @param username         The username to assign permissions to, or null if assigning to a group.
-     * @param groupName        The group name to assign permissions to, or null if assigning to a user.
-     * @param permissionLevel  The permission level to assign.
+     * @param repoId The ID of the repository.
+     * @param grants The desired permissions of the users and groups managed by the Tech Adapter.
      * @return Either a FailedOperation if an exception occurs, or Void if successful.
      */
-    private Either<FailedOperation, Void> assignPermissions(
-            String repoId, String username, String groupName, RepoPermissionLevel permissionLevel) {
+    public Either<FailedOperation, Void> applyPermissions(String repoId, Collection<RepoGrant> grants) {
+        String principals =
+                grants.stream().map(RepoGrant::principal).collect(Collectors.joining(", "));
         try {
-            String logMessage = String.format(
-                    "Assigning configured permissions %s to %s for repository %s (workspace %s)",
-                    permissionLevel, username != null ? username : groupName, repoId, workspaceName);
-            logger.info(logMessage);
+            logger.info(
+                    "Applying configured permissions to {} for repository {} (workspace {})",
+                    principals,
+                    repoId,
+                    workspaceName);
             RepoPermissions repoPermissions = workspaceClient.repos().getPermissions(repoId);
+            Collection<RepoAccessControlResponse> currentAcl = Optional.ofNullable(
+                            repoPermissions.getAccessControlList())
+                    .orElse(Collections.emptyList());
+
+            if (grants.stream().allMatch(grant -> isAlreadyApplied(grant, currentAcl))) {
+                logger.info(
+                        "Permissions of {} for repository {} (workspace {}) are already up to date, update skipped",
+                        principals,
+                        repoId,
+                        workspaceName);
+                return right(null);
+            }
+
             Collection<RepoAccessControlRequest> accessControlRequests = getAccessControlRequests(repoPermissions);
-            accessControlRequests.add(new RepoAccessControlRequest()
-                    .setUserName(username)
-                    .setGroupName(groupName)
-                    .setPermissionLevel(permissionLevel));
+            accessControlRequests.removeIf(request -> grants.stream()
+                    .anyMatch(grant -> grant.refersTo(request.getUserName(), request.getGroupName())));
+            grants.stream()
+                    .filter(grant -> grant.permissionLevel() != null)
+                    .forEach(grant -> accessControlRequests.add(new RepoAccessControlRequest()
+                            .setUserName(grant.username())
+                            .setGroupName(grant.groupName())
+                            .setPermissionLevel(grant.permissionLevel())));
 
             workspaceClient
                     .repos()
@@ -214,44 +259,30 @@ public class RepoManager {
             return right(null);
         } catch (Exception e) {
             String errorMessage = String.format(
-                    "Error assigning configured permissions %s to %s for repository %s (workspace %s). Details: %s",
-                    permissionLevel, username != null ? username : groupName, repoId, workspaceName, e.getMessage());
+                    "Error applying configured permissions to %s for repository %s (workspace %s). Details: %s",
+                    principals, repoId, workspaceName, e.getMessage());
             logger.error(errorMessage, e);
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
         }
     }
 
     /**
-     * Removes permissions from a user or group for a repository.
-     *
-     * @param repoId    The ID of the repository.
-     * @param username  The username to remove permissions from, or null if removing from a group.
-     * @param groupName The group name to remove permissions from, or null if removing from a user.
-     * @return Either a FailedOperation if an exception occurs, or Void if successful.
+     * Checks whether the direct (non inherited) permissions of the grant principal on the repository are exactly the
+     * desired ones.
      */
-    private Either<FailedOperation, Void> removePermissions(String repoId, String username, String groupName) {
-        try {
-            String logMessage = String.format(
-                    "Removing permissions to %s for repository %s (workspace %s)",
-                    username != null ? username : groupName, repoId, workspaceName);
-            logger.info(logMessage);
-            RepoPermissions repoPermissions = workspaceClient.repos().getPermissions(repoId);
-            Collection<RepoAccessControlRequest> accessControlRequests = getAccessControlRequests(repoPermissions);
-            accessControlRequests.removeIf(request -> username != null
-                    ? username.equals(request.getUserName())
-                    : groupName.equals(request.getGroupName()));
-            workspaceClient
-                    .repos()
-                    .setPermissions(
-                            new RepoPermissionsRequest().setRepoId(repoId).setAccessControlList(accessControlRequests));
-            return right(null);
-        } catch (Exception e) {
-            String errorMessage = String.format(
-                    "Error removing permissions to %s for repository %s (workspace %s). Details: %s",
-                    username != null ? username : groupName, repoId, workspaceName, e.getMessage());
-            logger.error(errorMessage, e);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
-        }
+    private boolean isAlreadyApplied(RepoGrant grant, Collection<RepoAccessControlResponse> currentAcl) {
+        Set<RepoPermissionLevel> directPermissions = currentAcl.stream()
+                .filter(response -> grant.refersTo(response.getUserName(), response.getGroupName()))
+                .map(RepoAccessControlResponse::getAllPermissions)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .filter(permission -> !Boolean.TRUE.equals(permission.getInherited()))
+                .map(RepoPermission::getPermissionLevel)
+                .collect(Collectors.toSet());
+
+        return grant.permissionLevel() == null
+                ? directPermissions.isEmpty()
+                : directPermissions.equals(Set.of(grant.permissionLevel()));
     }
 
     /**
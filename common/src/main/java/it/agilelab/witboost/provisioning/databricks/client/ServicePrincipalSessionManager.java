@@ -0,0 +1,202 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.service.iam.ServicePrincipal;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.ServicePrincipalSessionConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps short-lived sessions for the service principals used as run-as identity of workloads. A session holds a
+ * temporary OAuth secret and the {@code WorkspaceClient} authenticated with it, and it is shared by every request on
+ * the same (workspace, service principal) pair until the secret is about to expire.
+ * <p>
+ * Secrets of expired sessions are deleted by a background task every {@code cleanupInterval}, and the secrets still
+ * alive are deleted on shutdown.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ServicePrincipalSessionManager {
+
+    /**
+     * Session opened for a service principal in a workspace.
+     *
+     * @param servicePrincipal the service principal owning the session
+     * @param secretId         the id of the temporary OAuth secret
+     * @param workspaceClient  the client authenticated as the service principal
+     * @param expiresAt        the instant when the secret expires
+     * @param workspaceLevelManager the manager used to create the secret, used to delete it
+     */
+    public record ServicePrincipalSession(
+            ServicePrincipal servicePrincipal,
+            String secretId,
+            WorkspaceClient workspaceClient,
+            Instant expiresAt,
+            WorkspaceLevelManager workspaceLevelManager) {}
+
+    private final ServicePrincipalSessionConfig servicePrincipalSessionConfig;
+    private final Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory;
+
+    private final Map<String, ServicePrincipalSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Object> sessionLocks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService cleanupExecutor;
+
+    public ServicePrincipalSessionManager(
+            ServicePrincipalSessionConfig servicePrincipalSessionConfig,
+            Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory) {
+        this.servicePrincipalSessionConfig = servicePrincipalSessionConfig;
+        this.workspaceClientFactory = workspaceClientFactory;
+    }
+
+    @PostConstruct
+    public void startCleanup() {
+        Duration cleanupInterval = servicePrincipalSessionConfig.getCleanupInterval();
+        if (cleanupInterval == null || cleanupInterval.isZero() || cleanupInterval.isNegative()) return;
+        cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-principal-session-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanupExecutor.scheduleWithFixedDelay(
+                this::removeExpiredSessions,
+                cleanupInterval.toMillis(),
+                cleanupInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the cleanup of the expired sessions and closes every open session.
+     */
+    @PreDestroy
+    public void stop() {
+        if (cleanupExecutor != null) cleanupExecutor.shutdownNow();
+        invalidateSessions();
+    }
+
+    /**
+     * Returns the session of a service principal in a workspace, opening a new one if there is none or the current
+     * one expires within {@code databricks.servicePrincipalSessions.renewalMargin}.
+     *
+     * @param workspaceLevelManager the manager of the workspace, used to look up the service principal and to
+     *                              create the secret
+     * @param workspaceHost         the host of the workspace
+     * @param workspaceName         the name of the workspace
+     * @param principalName         the display name of the service principal
+     * @return Either a {@code FailedOperation} if the session cannot be opened, or the session
+     */
+    public Either<FailedOperation, ServicePrincipalSession> getSession(
+            WorkspaceLevelManager workspaceLevelManager,
+            String workspaceHost,
+            String workspaceName,
+            String principalName) {
+        String key = sessionKey(workspaceHost, principalName);
+        ServicePrincipalSession session = sessions.get(key);
+        if (isUsable(session)) return right(session);
+
+        synchronized (sessionLocks.computeIfAbsent(key, k -> new Object())) {
+            session = sessions.get(key);
+            if (isUsable(session)) return right(session);
+            if (session != null && sessions.remove(key, session)) deleteSecret(session);
+
+            Either<FailedOperation, ServicePrincipal> principal =
+                    workspaceLevelManager.getServicePrincipalFromName(principalName);
+            if (principal.isLeft()) return left(principal.getLeft());
+            long principalId = Long.parseLong(principal.get().getId());
+
+            log.info("Opening a new session for service principal {} in workspace {}", principalName, workspaceName);
+            Instant expiresAt = Instant.now().plus(servicePrincipalSessionConfig.getSecretLifetime());
+            Either<FailedOperation, Entry<String, String>> secret =
+                    workspaceLevelManager.generateSecretForServicePrincipal(
+                            principalId,
+                            servicePrincipalSessionConfig.getSecretLifetime().toSeconds() + "s");
+            if (secret.isLeft()) {
+                // The service principal may have been recreated, look it up again next time
+                workspaceLevelManager.invalidateServicePrincipal(principalName);
+                return left(secret.getLeft());
+            }
+
+            WorkspaceClient workspaceClient;
+            try {
+                workspaceClient = workspaceClientFactory.apply(new WorkspaceClientConfig.WorkspaceClientConfigParams(
+                        WorkspaceClientConfig.WorkspaceClientConfigParams.AuthType.OAUTH,
+                        principal.get().getApplicationId(),
+                        secret.get().getValue(),
+                        workspaceHost,
+                        workspaceName));
+            } catch (Exception e) {
+                workspaceLevelManager.deleteServicePrincipalSecret(
+                        principalId, secret.get().getKey());
+                String errorMessage = String.format(
+                        "An unexpected error occurred while creating workspace client for workspace '%s' for principal '%s'. Please try again and if the error persists contact the platform team. Details: %s",
+                        workspaceName, principal.get().getApplicationId(), e.getMessage());
+                log.error(errorMessage, e);
+                return left(FailedOperation.singleProblemFailedOperation(errorMessage));
+            }
+
+            session = new ServicePrincipalSession(
+                    principal.get(), secret.get().getKey(), workspaceClient, expiresAt, workspaceLevelManager);
+            sessions.put(key, session);
+            return right(session);
+        }
+    }
+
+    /**
+     * Closes every open session, deleting its secret.
+     */
+    public void invalidateSessions() {
+        List<ServicePrincipalSession> openSessions = List.copyOf(sessions.values());
+        sessions.clear();
+        openSessions.forEach(this::deleteSecret);
+    }
+
+    /**
+     * Closes the sessions that are no longer usable, deleting their secrets.
+     */
+    void removeExpiredSessions() {
+        sessions.forEach((key, session) -> {
+            if (!isUsable(session) && sessions.remove(key, session)) deleteSecret(session);
+        });
+    }
+
+    private boolean isUsable(ServicePrincipalSession session) {
+        return session != null
+                && Instant.now()
+                        .plus(servicePrincipalSessionConfig.getRenewalMargin())
+                        .isBefore(session.expiresAt());
+    }
+
+    private void deleteSecret(ServicePrincipalSession session) {
+        log.info(
+                "Closing session of service principal {}",
+                session.servicePrincipal().getDisplayName());
+        session.workspaceLevelManager()
+                .deleteServicePrincipalSecret(
+                        Long.parseLong(session.servicePrincipal().getId()), session.secretId());
+    }
+
+    private static String sessionKey(String workspaceHost, String principalName) {
+        return Objects.toString(workspaceHost, "").toLowerCase(Locale.ROOT) + "|"
+                + Objects.toString(principalName, "").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,149 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.service.sql.EndpointInfo;
+import com.databricks.sdk.service.sql.EndpointTagPair;
+import com.databricks.sdk.service.sql.ListWarehousesRequest;
+import com.databricks.sdk.service.sql.State;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.config.SqlWarehousePoolConfig;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes SQL statements across the pool of SQL Warehouses configured for a workspace, choosing the least-loaded
+ * running warehouse. Every routing decision is recorded as a metric.
+ */
+@Component
+@Slf4j
+public class SqlWarehouseRouter {
+
+    static final String ROUTING_METRIC = "databricks.sqlwarehouse.routing";
+    static final String LOAD_METRIC = "databricks.sqlwarehouse.routing.load";
+
+    private final SqlWarehousePoolConfig sqlWarehousePoolConfig;
+    private final MeterRegistry meterRegistry;
+
+    public SqlWarehouseRouter(SqlWarehousePoolConfig sqlWarehousePoolConfig, MeterRegistry meterRegistry) {
+        this.sqlWarehousePoolConfig = sqlWarehousePoolConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Selects the least-loaded running SQL Warehouse among the ones eligible for the workspace.
+     * <p>
+     * A warehouse is eligible if its name is listed in the workspace pool or if it has all the custom tags of the
+     * pool selector. The load of a warehouse is estimated as the number of active sessions per running cluster.
+     * </p>
+     *
+     * @param workspaceClient the client of the workspace where the statements will be executed
+     * @param workspaceName   the name (or URL) of the workspace as received in the component specific
+     * @return Either a {@code FailedOperation} if the warehouses cannot be listed, or an {@code Optional} with the
+     *         id of the selected warehouse. The optional is empty if pool mode is disabled, no pool is configured
+     *         for the workspace or no eligible warehouse is running, in which case the caller should fall back to
+     *         the warehouse set in the component specific.
+     */
+    public Either<FailedOperation, Optional<String>> selectSqlWarehouseId(
+            WorkspaceClient workspaceClient, String workspaceName) {
+
+        if (!sqlWarehousePoolConfig.isEnabled()) return right(Optional.empty());
+
+        Optional<SqlWarehousePoolConfig.Pool> optionalPool = sqlWarehousePoolConfig.getPool(workspaceName);
+        if (optionalPool.isEmpty()) {
+            log.debug("No SQL Warehouse pool configured for workspace '{}'", workspaceName);
+            return right(Optional.empty());
+        }
+        SqlWarehousePoolConfig.Pool pool = optionalPool.get();
+
+        try {
+            List<EndpointInfo> eligibleWarehouses = StreamSupport.stream(
+                            workspaceClient
+                                    .warehouses()
+                                    .list(new ListWarehousesRequest())
+                                    .spliterator(),
+                            false)
+                    .filter(warehouse -> isEligible(warehouse, pool))
+                    .collect(Collectors.toList());
+
+            Optional<EndpointInfo> selected = eligibleWarehouses.stream()
+                    .filter(warehouse -> State.RUNNING.equals(warehouse.getState()))
+                    .min(Comparator.comparingDouble(SqlWarehouseRouter::load)
+                            .thenComparing(EndpointInfo::getName, String.CASE_INSENSITIVE_ORDER));
+
+            if (selected.isEmpty()) {
+                log.warn(String.format(
+                        "None of the %d eligible SQL Warehouses of workspace '%s' is running. Falling back to the SQL Warehouse of the component.",
+                        eligibleWarehouses.size(), workspaceName));
+                meterRegistry
+                        .counter(ROUTING_METRIC, "workspace", workspaceName, "warehouse", "none", "outcome", "fallback")
+                        .increment();
+                return right(Optional.empty());
+            }
+
+            EndpointInfo warehouse = selected.get();
+            double load = load(warehouse);
+            log.info(String.format(
+                    "SQL Warehouse '%s' (id: %s) selected for workspace '%s'. Active sessions: %d, running clusters: %d.",
+                    warehouse.getName(),
+                    warehouse.getId(),
+                    workspaceName,
+                    Optional.ofNullable(warehouse.getNumActiveSessions()).orElse(0L),
+                    Optional.ofNullable(warehouse.getNumClusters()).orElse(0L)));
+
+            meterRegistry
+                    .counter(
+                            ROUTING_METRIC,
+                            "workspace",
+                            workspaceName,
+                            "warehouse",
+                            warehouse.getName(),
+                            "outcome",
+                            "routed")
+                    .increment();
+            meterRegistry
+                    .summary(LOAD_METRIC, "workspace", workspaceName, "warehouse", warehouse.getName())
+                    .record(load);
+
+            return right(Optional.of(warehouse.getId()));
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while selecting a SQL Warehouse from the pool of workspace '%s'. Please try again and if the error persists contact the platform team. Details: %s",
+                    workspaceName, e.getMessage());
+            log.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
+    private static boolean isEligible(EndpointInfo warehouse, SqlWarehousePoolConfig.Pool pool) {
+        boolean listedByName = pool.getWarehouseNames().stream()
+                .anyMatch(name -> name.equalsIgnoreCase(warehouse.getName()));
+        if (listedByName) return true;
+
+        if (pool.getTags().isEmpty()) return false;
+
+        Map<String, String> warehouseTags = new HashMap<>();
+        if (warehouse.getTags() != null && warehouse.getTags().getCustomTags() != null) {
+            for (EndpointTagPair tag : warehouse.getTags().getCustomTags()) {
+                warehouseTags.put(tag.getKey(), tag.getValue());
+            }
+        }
+        return pool.getTags().entrySet().stream()
+                .allMatch(tag -> Objects.equals(warehouseTags.get(tag.getKey()), tag.getValue()));
+    }
+
+    private static double load(EndpointInfo warehouse) {
+        long activeSessions = Optional.ofNullable(warehouse.getNumActiveSessions()).orElse(0L);
+        long runningClusters = Optional.ofNullable(warehouse.getNumClusters()).orElse(0L);
+        return (double) activeSessions / Math.max(runningClusters, 1L);
+    }
+}
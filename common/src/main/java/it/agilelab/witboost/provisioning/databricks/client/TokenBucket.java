@@ -0,0 +1,36 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+/**
+ * Thread-safe token bucket. Tokens are added continuously at a fixed rate, up to the bucket capacity, and each call
+ * consumes one token.
+ */
+class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double tokensPerSecond, int capacity) {
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = Math.max(capacity, 1);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Consumes a token.
+     *
+     * @return {@code 0} if a token was available, otherwise the number of nanoseconds to wait before the token
+     *         reserved for the caller becomes available
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        tokens -= 1;
+        if (tokens >= 0) return 0;
+        return (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
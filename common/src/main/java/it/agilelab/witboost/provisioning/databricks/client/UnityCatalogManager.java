@@ -4,8 +4,12 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
 import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.core.DatabricksError;
+import com.databricks.sdk.core.error.platform.NotFound;
+import com.databricks.sdk.core.error.platform.ResourceConflict;
 import com.databricks.sdk.service.catalog.*;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.ExpiringCache;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
@@ -15,17 +19,34 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.object.Sche
 import it.agilelab.witboost.provisioning.databricks.model.databricks.object.View;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class UnityCatalogManager {
+
     private final WorkspaceClient workspaceClient;
     private final DatabricksWorkspaceInfo databricksWorkspaceInfo;
+    /**
+     * Metastore name to id and workspace id to attached metastore id, shared by the managers created with the same
+     * caches, so that attaching an already attached workspace doesn't require listing the metastores at every
+     * provisioning.
+     */
+    private final ExpiringCache<String, String> metastoreIdsByName;
+
+    private final ExpiringCache<String, String> metastoreIdsByWorkspace;
 
     public UnityCatalogManager(WorkspaceClient workspaceClient, DatabricksWorkspaceInfo databricksWorkspaceInfo) {
+        this(workspaceClient, databricksWorkspaceInfo, new DatabricksCaches());
+    }
+
+    public UnityCatalogManager(
+            WorkspaceClient workspaceClient,
+            DatabricksWorkspaceInfo databricksWorkspaceInfo,
+            DatabricksCaches databricksCaches) {
         this.workspaceClient = workspaceClient;
         this.databricksWorkspaceInfo = databricksWorkspaceInfo;
+        this.metastoreIdsByName = databricksCaches.metastoreIdsByName();
+        this.metastoreIdsByWorkspace = databricksCaches.metastoreIdsByWorkspace();
     }
 
     private final Logger logger = LoggerFactory.getLogger(UnityCatalogManager.class);
@@ -39,6 +60,14 @@ public class UnityCatalogManager {
         }
 
         try {
+            if (isAttachedTo(metastoreName)) {
+                logger.info(
+                        "Workspace {} is already attached to the metastore {}, skipping attachment",
+                        databricksWorkspaceInfo.getName(),
+                        metastoreName);
+                return right(null);
+            }
+
             logger.info(
                     "Attaching the workspace {} to the metastore {}", databricksWorkspaceInfo.getName(), metastoreName);
             var metastoreId = getMetastoreId(metastoreName);
@@ -50,6 +79,7 @@ public class UnityCatalogManager {
                             .setWorkspaceId(Long.valueOf(databricksWorkspaceInfo.getId()))
                             .setMetastoreId(metastoreId.get()));
 
+            metastoreIdsByWorkspace.put(databricksWorkspaceInfo.getId(), metastoreId.get());
             return right(null);
 
         } catch (Exception e) {
@@ -61,6 +91,44 @@ public class UnityCatalogManager {
         }
     }
 
+    /**
+     * Checks whether the workspace is already attached to the given metastore. The current assignment is read from
+     * the cache or retrieved with {@code metastores().current()}, and it's compared by id with the metastore.
+     * Any error while retrieving the current assignment is treated as a missing assignment.
+     */
+    private boolean isAttachedTo(String metastoreName) {
+        String workspaceId = databricksWorkspaceInfo.getId();
+        if (workspaceId == null) return false;
+
+        Optional<String> cachedMetastoreId = metastoreIdsByWorkspace.get(workspaceId);
+        Optional<String> cachedRequestedId = metastoreIdsByName.get(metastoreName.toLowerCase());
+        if (cachedMetastoreId.isPresent() && cachedRequestedId.isPresent())
+            return cachedRequestedId.get().equals(cachedMetastoreId.get());
+
+        try {
+            MetastoreAssignment currentAssignment = workspaceClient.metastores().current();
+            if (currentAssignment == null || currentAssignment.getMetastoreId() == null) return false;
+
+            String currentMetastoreId = currentAssignment.getMetastoreId();
+            metastoreIdsByWorkspace.put(workspaceId, currentMetastoreId);
+
+            if (cachedRequestedId.isPresent()) return cachedRequestedId.get().equals(currentMetastoreId);
+
+            MetastoreInfo currentMetastore = workspaceClient.metastores().get(currentMetastoreId);
+            if (currentMetastore != null && metastoreName.equalsIgnoreCase(currentMetastore.getName())) {
+                metastoreIdsByName.put(metastoreName.toLowerCase(), currentMetastoreId);
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            logger.debug(
+                    "Unable to retrieve the current metastore assignment of workspace {}: {}",
+                    databricksWorkspaceInfo.getName(),
+                    e.getMessage());
+            return false;
+        }
+    }
+
     public Either<FailedOperation, Void> createCatalogIfNotExists(String catalogName) {
         Either<FailedOperation, Boolean> eitherCatalogExists = checkCatalogExistence(catalogName);
         if (eitherCatalogExists.isLeft()) return left(eitherCatalogExists.getLeft());
@@ -83,7 +151,7 @@ public class UnityCatalogManager {
             return right(null);
 
         } catch (Exception e) {
-            if (e.getMessage().contains("CATALOG_ALREADY_EXISTS")) {
+            if (isAlreadyExists(e)) {
                 logger.warn("Catalog '{}' already created by another provisioning process", catalogName);
                 try {
                     TimeUnit.SECONDS.sleep(3L);
@@ -103,10 +171,14 @@ public class UnityCatalogManager {
     }
 
     private Either<FailedOperation, String> getMetastoreId(String metastoreName) {
+        Optional<String> cachedMetastoreId = metastoreIdsByName.get(metastoreName.toLowerCase());
+        if (cachedMetastoreId.isPresent()) return right(cachedMetastoreId.get());
+
         var metastoreList = workspaceClient.metastores().list();
         if (metastoreList != null) {
             for (var metastoreInfo : metastoreList) {
                 if (metastoreInfo.getName().equalsIgnoreCase(metastoreName)) {
+                    metastoreIdsByName.put(metastoreName.toLowerCase(), metastoreInfo.getMetastoreId());
                     return right(metastoreInfo.getMetastoreId());
                 }
             }
@@ -121,23 +193,13 @@ public class UnityCatalogManager {
 
     public Either<FailedOperation, Boolean> checkCatalogExistence(String catalogName) {
         try {
-            var catalogsList = StreamSupport.stream(
-                            workspaceClient
-                                    .catalogs()
-                                    .list(new ListCatalogsRequest())
-                                    .spliterator(),
-                            false)
-                    .toList();
-            logger.debug("Catalogs present: {}", catalogsList);
-            for (CatalogInfo catalogInfo : catalogsList) {
-                if (catalogInfo.getName().equalsIgnoreCase(catalogName)) {
-                    return right(true);
-                }
-            }
-
-            return right(false);
+            CatalogInfo catalogInfo = workspaceClient.catalogs().get(catalogName);
+            logger.debug("Catalog found: {}", catalogInfo);
+            return right(catalogInfo != null);
 
         } catch (Exception e) {
+            if (isNotFound(e)) return right(false);
+
             String errorMessage = String.format(
                     "An error occurred trying to search the catalog %s. Please try again and if the error persists contact the platform team. Details: %s",
                     catalogName, e.getMessage());
@@ -172,6 +234,13 @@ public class UnityCatalogManager {
             return right(null);
 
         } catch (Exception e) {
+            if (isAlreadyExists(e)) {
+                logger.warn(
+                        "Schema '{}' in catalog '{}' already created by another provisioning process",
+                        schemaName,
+                        catalogName);
+                return right(null);
+            }
 
             String errorMessage = String.format(
                     "An error occurred while creating schema '%s' in catalog '%s'. Please try again and if the error persists contact the platform team. Details: %s",
@@ -183,33 +252,29 @@ public class UnityCatalogManager {
 
     public Either<FailedOperation, Boolean> checkSchemaExistence(String catalogName, String schemaName) {
         try {
-            var catalogExists = checkCatalogExistence(catalogName);
+            SchemaInfo schemaInfo = workspaceClient.schemas().get(catalogName + "." + schemaName);
+            logger.debug("Schema found in catalog {}: {}", catalogName, schemaInfo);
+            return right(schemaInfo != null);
 
-            if (catalogExists.isLeft()) {
-                // checkCatalogExistence returns Left, so it fails for various reason
-                return left(catalogExists.getLeft());
-            }
+        } catch (Exception e) {
+            if (isNotFound(e)) {
+                // The schema is not found, we check the catalog existence to distinguish a missing catalog
+                var catalogExists = checkCatalogExistence(catalogName);
 
-            if (!catalogExists.get()) {
-                // checkCatalogExistence returns Right(false), so the catalog does not exist
-                return left(new FailedOperation(Collections.singletonList(new Problem(String.format(
-                        "An error occurred trying to search the schema '%s' in catalog '%s': catalog '%s' does not exist!",
-                        schemaName, catalogName, catalogName)))));
-            } else {
-                // checkCatalogExistence returns Right(true), so the catalog exists, so I can proceed with schemas check
-                var schemasList = StreamSupport.stream(
-                                workspaceClient.schemas().list(catalogName).spliterator(), false)
-                        .toList();
-                logger.debug("Schemas present in catalog {}: {}", catalogName, schemasList);
-                for (SchemaInfo schemaInfo : schemasList) {
-                    if (schemaInfo.getName().equalsIgnoreCase(schemaName)) {
-                        return right(true);
-                    }
+                if (catalogExists.isLeft()) {
+                    // checkCatalogExistence returns Left, so it fails for various reason
+                    return left(catalogExists.getLeft());
+                }
+
+                if (!catalogExists.get()) {
+                    // checkCatalogExistence returns Right(false), so the catalog does not exist
+                    return left(new FailedOperation(Collections.singletonList(new Problem(String.format(
+                            "An error occurred trying to search the schema '%s' in catalog '%s': catalog '%s' does not exist!",
+                            schemaName, catalogName, catalogName)))));
                 }
+                return right(false);
             }
-            return right(false);
 
-        } catch (Exception e) {
             String errorMessage = String.format(
                     "An error occurred trying to search the schema '%s' in catalog '%s'. Please try again and if the error persists contact the platform team. Details: %s",
                     schemaName, catalogName, e.getMessage());
@@ -223,6 +288,34 @@ public class UnityCatalogManager {
         return right(workspaceClient.tables().get(tableFullName));
     }
 
+    /**
+     * Retrieves the metadata of a table, including its columns and their types, with a single call.
+     *
+     * @return Either a {@code FailedOperation} if the table cannot be retrieved, or an {@code Optional} with the
+     *         {@code TableInfo}, empty if the table does not exist
+     */
+    public Either<FailedOperation, Optional<TableInfo>> getTableInfoIfExists(
+            String catalogName, String schemaName, String tableName) {
+
+        String tableFullName = retrieveTableFullName(catalogName, schemaName, tableName);
+
+        try {
+            logger.info(
+                    "Retrieving metadata of table '{}' in workspace {}",
+                    tableFullName,
+                    databricksWorkspaceInfo.getName());
+            return right(Optional.ofNullable(workspaceClient.tables().get(tableFullName)));
+        } catch (Exception e) {
+            if (isNotFound(e)) return right(Optional.empty());
+
+            String errorMessage = String.format(
+                    "An error occurred while searching table %s. Please try again and if the error persists contact the platform team. Details: %s",
+                    tableFullName, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
     public Either<FailedOperation, Boolean> checkTableExistence(
             String catalogName, String schemaName, String tableName) {
 
@@ -271,36 +364,16 @@ public class UnityCatalogManager {
         }
     }
 
-    public Either<FailedOperation, List<String>> retrieveTableColumnsNames(
-            String catalogName, String schemaName, String tableName) {
-
-        String tableFullName = retrieveTableFullName(catalogName, schemaName, tableName);
-
-        try {
-            logger.info(
-                    "Retrieving columns for table '{}' in workspace {}",
-                    tableFullName,
-                    databricksWorkspaceInfo.getName());
-            List<String> colNames = new ArrayList<>();
-
-            TableInfo tableInfo = workspaceClient.tables().get(tableFullName);
-
-            Collection<ColumnInfo> columns = tableInfo.getColumns();
-
-            for (ColumnInfo column : columns) {
-                colNames.add(column.getName());
-            }
-
-            return right(colNames);
-
-        } catch (Exception e) {
+    private boolean isNotFound(Exception e) {
+        return e instanceof NotFound || (e instanceof DatabricksError error && error.getStatusCode() == 404);
+    }
 
-            String errorMessage = String.format(
-                    "An error occurred while retrieving columns for table '%s' in workspace %s. Please try again and if the error persists contact the platform team. Details: %s",
-                    tableFullName, databricksWorkspaceInfo.getName(), e.getMessage());
-            logger.error(errorMessage, e);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
-        }
+    private boolean isAlreadyExists(Exception e) {
+        if (e instanceof ResourceConflict) return true;
+        if (e instanceof DatabricksError error
+                && error.getErrorCode() != null
+                && error.getErrorCode().contains("ALREADY_EXISTS")) return true;
+        return e.getMessage() != null && e.getMessage().contains("ALREADY_EXISTS");
     }
 
     private String retrieveTableFullName(String catalogName, String schemaName, String tableName) {
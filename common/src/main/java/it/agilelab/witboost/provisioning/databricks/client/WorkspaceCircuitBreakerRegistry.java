@@ -0,0 +1,221 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceCircuitBreakerConfig;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breakers of the Databricks workspaces, keyed by workspace name. The Databricks hosts are mapped to the
+ * name of their workspace, so that the failures of the workspace lookup on Azure and of the Databricks API calls
+ * update the same breaker.
+ * <p>
+ * A breaker opens after {@code failureThreshold} consecutive failures. While open, every operation on the workspace
+ * fails immediately. After {@code openDuration} the breaker becomes half-open and lets {@code halfOpenProbes} calls
+ * through: a successful probe closes it, a failed one opens it again.
+ * </p>
+ */
+@Component
+@Slf4j
+public class WorkspaceCircuitBreakerRegistry {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Snapshot of the state of a breaker.
+     */
+    public record BreakerState(State state, int consecutiveFailures, Instant openedAt, Instant retryAt) {}
+
+    private final WorkspaceCircuitBreakerConfig workspaceCircuitBreakerConfig;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, String> workspaceNamesByHost = new ConcurrentHashMap<>();
+
+    public WorkspaceCircuitBreakerRegistry(WorkspaceCircuitBreakerConfig workspaceCircuitBreakerConfig) {
+        this.workspaceCircuitBreakerConfig = workspaceCircuitBreakerConfig;
+    }
+
+    /**
+     * Associates a Databricks host with the name of its workspace.
+     *
+     * @param host          the Databricks host, with or without scheme
+     * @param workspaceName the name of the workspace
+     */
+    public void registerHost(String host, String workspaceName) {
+        if (host == null || workspaceName == null) return;
+        workspaceNamesByHost.put(normalizeHost(host), normalize(workspaceName));
+    }
+
+    /**
+     * Retrieves the key of the breaker protecting a Databricks host.
+     *
+     * @param host the Databricks host, with or without scheme
+     * @return the name of the workspace of the host, or the host itself if it is not registered
+     */
+    public String keyForHost(String host) {
+        String normalizedHost = normalizeHost(host);
+        return workspaceNamesByHost.getOrDefault(normalizedHost, normalizedHost);
+    }
+
+    /**
+     * Checks whether operations on a workspace are allowed, without reserving a half-open probe.
+     *
+     * @param workspace the workspace name
+     * @return Either a {@code FailedOperation} if the breaker of the workspace is open, or {@code Void}
+     */
+    public Either<FailedOperation, Void> checkState(String workspace) {
+        if (!workspaceCircuitBreakerConfig.isEnabled()) return right(null);
+        CircuitBreaker breaker = breakers.get(normalize(workspace));
+        if (breaker == null || breaker.isCallPermitted()) return right(null);
+        return left(openFailure(workspace, breaker));
+    }
+
+    /**
+     * Reserves a call on a workspace. If the call is permitted, its outcome must be reported with
+     * {@link #onSuccess(String)}, {@link #onFailure(String)} or {@link #onIgnore(String)}.
+     *
+     * @param workspace the workspace name
+     * @return Either a {@code FailedOperation} if the breaker of the workspace is open, or {@code Void}
+     */
+    public Either<FailedOperation, Void> acquire(String workspace) {
+        if (!workspaceCircuitBreakerConfig.isEnabled()) return right(null);
+        CircuitBreaker breaker = breakers.computeIfAbsent(normalize(workspace), CircuitBreaker::new);
+        if (breaker.tryAcquire()) return right(null);
+        return left(openFailure(workspace, breaker));
+    }
+
+    public void onSuccess(String workspace) {
+        Optional.ofNullable(breakers.get(normalize(workspace))).ifPresent(CircuitBreaker::onSuccess);
+    }
+
+    public void onFailure(String workspace) {
+        Optional.ofNullable(breakers.get(normalize(workspace))).ifPresent(CircuitBreaker::onFailure);
+    }
+
+    /**
+     * Reports a call whose outcome says nothing about the health of the workspace, e.g. a throttled call.
+     *
+     * @param workspace the workspace name
+     */
+    public void onIgnore(String workspace) {
+        Optional.ofNullable(breakers.get(normalize(workspace))).ifPresent(CircuitBreaker::onIgnore);
+    }
+
+    /**
+     * Retrieves the state of all the breakers.
+     *
+     * @return the state of each breaker, keyed by workspace
+     */
+    public Map<String, BreakerState> getStates() {
+        Map<String, BreakerState> states = new TreeMap<>();
+        breakers.forEach((key, breaker) -> states.put(key, breaker.snapshot()));
+        return states;
+    }
+
+    /**
+     * Closes all the breakers and forgets the registered hosts.
+     */
+    public void reset() {
+        breakers.clear();
+        workspaceNamesByHost.clear();
+    }
+
+    private FailedOperation openFailure(String workspace, CircuitBreaker breaker) {
+        BreakerState state = breaker.snapshot();
+        return FailedOperation.singleProblemFailedOperation(String.format(
+                "Workspace %s is currently unavailable: its last %d operations failed. Operations on it are suspended until %s. Please try again later and if the error persists contact the platform team.",
+                workspace, state.consecutiveFailures(), state.retryAt()));
+    }
+
+    private static String normalize(String workspace) {
+        return workspace == null ? "" : workspace.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String normalizeHost(String host) {
+        String normalizedHost = normalize(host).replaceFirst("^https?://", "");
+        int slash = normalizedHost.indexOf('/');
+        return slash >= 0 ? normalizedHost.substring(0, slash) : normalizedHost;
+    }
+
+    private final class CircuitBreaker {
+
+        private final String key;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures = 0;
+        private int probesInFlight = 0;
+        private Instant openedAt;
+
+        private CircuitBreaker(String key) {
+            this.key = key;
+        }
+
+        synchronized boolean isCallPermitted() {
+            return switch (currentState()) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> probesInFlight < workspaceCircuitBreakerConfig.getHalfOpenProbes();
+            };
+        }
+
+        synchronized boolean tryAcquire() {
+            if (!isCallPermitted()) return false;
+            if (state == State.HALF_OPEN) probesInFlight++;
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            if (state != State.CLOSED) log.info("Circuit breaker of workspace {} closed", key);
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probesInFlight = 0;
+            openedAt = null;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN
+                    || (state == State.CLOSED
+                            && consecutiveFailures >= workspaceCircuitBreakerConfig.getFailureThreshold())) {
+                log.warn(
+                        "Circuit breaker of workspace {} opened after {} consecutive failures",
+                        key,
+                        consecutiveFailures);
+                state = State.OPEN;
+                probesInFlight = 0;
+                openedAt = Instant.now();
+            }
+        }
+
+        synchronized void onIgnore() {
+            if (state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+        }
+
+        synchronized BreakerState snapshot() {
+            State current = currentState();
+            Instant retryAt =
+                    openedAt == null ? null : openedAt.plus(workspaceCircuitBreakerConfig.getOpenDuration());
+            return new BreakerState(current, consecutiveFailures, openedAt, retryAt);
+        }
+
+        private State currentState() {
+            if (state == State.OPEN
+                    && !Instant.now().isBefore(openedAt.plus(workspaceCircuitBreakerConfig.getOpenDuration()))) {
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+            }
+            return state;
+        }
+    }
+}
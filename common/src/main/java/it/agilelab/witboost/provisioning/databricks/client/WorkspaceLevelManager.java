@@ -5,6 +5,7 @@ import static io.vavr.control.Either.right;
 
 import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.core.DatabricksConfig;
 import com.databricks.sdk.service.catalog.*;
 import com.databricks.sdk.service.compute.ListClustersRequest;
 import com.databricks.sdk.service.iam.*;
@@ -15,9 +16,14 @@ import com.databricks.sdk.service.provisioning.Workspace;
 import com.databricks.sdk.service.workspace.CreateCredentialsRequest;
 import com.databricks.sdk.service.workspace.UpdateCredentialsRequest;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.ExpiringCache;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.config.GitCredentialsConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -32,28 +38,45 @@ public class WorkspaceLevelManager {
 
     private final WorkspaceClient workspaceClient;
     private final AccountClient accountClient;
+    private final AccountWorkspaceIndex accountWorkspaceIndex;
+    // Fingerprint of the Git credentials last applied, by workspace host and principal
+    private final ExpiringCache<String, String> gitCredentialsFingerprints;
+    // Service principals looked up by display name, by workspace host and lowercase display name
+    private final ExpiringCache<String, ServicePrincipal> servicePrincipalsByName;
 
     public WorkspaceLevelManager(WorkspaceClient workspaceClient, AccountClient accountClient) {
+        this(workspaceClient, accountClient, new AccountWorkspaceIndex(accountClient), new DatabricksCaches());
+    }
+
+    public WorkspaceLevelManager(
+            WorkspaceClient workspaceClient,
+            AccountClient accountClient,
+            AccountWorkspaceIndex accountWorkspaceIndex,
+            DatabricksCaches databricksCaches) {
         this.workspaceClient = workspaceClient;
         this.accountClient = accountClient;
+        this.accountWorkspaceIndex = accountWorkspaceIndex;
+        this.gitCredentialsFingerprints = databricksCaches.gitCredentialsFingerprints();
+        this.servicePrincipalsByName = databricksCaches.servicePrincipalsByName();
     }
 
     /**
-     * Retrieves the name of the workspace associated with the current configuration.
+     * Retrieves the name of the workspace associated with the current configuration, looking it up in the account
+     * workspace index.
      *
-     * @return the name of the workspace that matches the current configuration
+     * @return the name of the workspace that matches the current configuration, or its host if the workspace is not
+     *         found in the account
      */
     protected String getWorkspaceName() {
         String workspaceHost = workspaceClient.config().getHost();
 
-        Iterable<Workspace> listWorkspaces = accountClient.workspaces().list();
-        Stream<Workspace> stream = StreamSupport.stream(listWorkspaces.spliterator(), false);
-
-        return stream.filter(ws -> String.format("https://%s.azuredatabricks.net", ws.getDeploymentName())
-                        .equalsIgnoreCase(workspaceHost))
-                .findFirst()
-                .get()
-                .getWorkspaceName();
+        return accountWorkspaceIndex
+                .findByHost(workspaceHost)
+                .map(Workspace::getWorkspaceName)
+                .orElseGet(() -> {
+                    log.warn("Workspace with host '{}' not found in the Databricks account", workspaceHost);
+                    return workspaceHost;
+                });
     }
 
     /**
@@ -127,6 +150,8 @@ public class WorkspaceLevelManager {
     /**
      * Sets Git credentials for a specified workspace. If credentials for the given provider already exist,
      * this method updates them. If not, it creates new credentials.
+     * The list and update calls are skipped if the same credentials were already applied for the workspace and the
+     * principal of {@code workspaceClient} within {@code git.credentialsCacheTtl}.
      *
      * @param workspaceClient the client used to interact with the workspace
      * @param gitCredentialsConfig the configuration containing details about the Git credentials, such as username, token, and provider
@@ -134,6 +159,19 @@ public class WorkspaceLevelManager {
      */
     public synchronized Either<FailedOperation, Void> setGitCredentials(
             WorkspaceClient workspaceClient, GitCredentialsConfig gitCredentialsConfig) {
+        String workspaceHost = Optional.ofNullable(workspaceClient.config())
+                .map(DatabricksConfig::getHost)
+                .orElse(null);
+        String principal = getConfiguredPrincipal(workspaceClient);
+        if (isGitCredentialsUpToDate(workspaceHost, principal, gitCredentialsConfig)) {
+            log.info(
+                    "Git credentials for {} already set for principal '{}' in workspace {}, update skipped",
+                    gitCredentialsConfig.getUsername(),
+                    principal,
+                    workspaceHost);
+            return right(null);
+        }
+
         try {
 
             String workspaceName = getWorkspaceName();
@@ -171,6 +209,9 @@ public class WorkspaceLevelManager {
                                                 .setGitProvider(gitCredentialsConfig.getProvider()));
                             });
 
+            gitCredentialsFingerprints.put(
+                    gitCredentialsKey(workspaceHost, principal), fingerprint(gitCredentialsConfig));
+
             log.info(
                     "Git credentials successfully updated for '{}' in workspace '{}'",
                     gitCredentialsConfig.getUsername(),
@@ -178,6 +219,7 @@ public class WorkspaceLevelManager {
             return right(null);
 
         } catch (Exception e) {
+            gitCredentialsFingerprints.invalidate(gitCredentialsKey(workspaceHost, principal));
             // Catching possible exceptions generated by Databricks
             String errorMessage = String.format(
                     "Error setting Git credentials for %s. Please try again and if the error persists contact the platform team. Details: %s",
@@ -187,20 +229,83 @@ public class WorkspaceLevelManager {
         }
     }
 
+    /**
+     * Checks whether the given Git credentials were already applied for a principal in a workspace and the time
+     * configured in {@code git.credentialsCacheTtl} has not elapsed yet. A zero TTL disables the check, forcing the
+     * credentials to be refreshed on every call.
+     *
+     * @param workspaceHost the host of the workspace
+     * @param principal the client id (or username) of the principal owning the Git credentials
+     * @param gitCredentialsConfig the Git credentials to apply
+     * @return {@code true} if the credentials don't need to be applied again, {@code false} otherwise
+     */
+    public boolean isGitCredentialsUpToDate(
+            String workspaceHost, String principal, GitCredentialsConfig gitCredentialsConfig) {
+        Duration ttl = gitCredentialsConfig.getCredentialsCacheTtl();
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) return false;
+
+        return gitCredentialsFingerprints
+                .get(gitCredentialsKey(workspaceHost, principal))
+                .map(fingerprint(gitCredentialsConfig)::equals)
+                .orElse(false);
+    }
+
+    private static String getConfiguredPrincipal(WorkspaceClient workspaceClient) {
+        DatabricksConfig config = workspaceClient.config();
+        if (config == null) return "";
+        if (config.getClientId() != null) return config.getClientId();
+        if (config.getAzureClientId() != null) return config.getAzureClientId();
+        return Objects.toString(config.getUsername(), "");
+    }
+
+    private static String gitCredentialsKey(String workspaceHost, String principal) {
+        String host = Objects.toString(workspaceHost, "")
+                .toLowerCase(Locale.ROOT)
+                .replaceFirst("^https?://", "")
+                .replaceAll("/+$", "");
+        return host + "|" + principal;
+    }
+
+    private static String fingerprint(GitCredentialsConfig gitCredentialsConfig) {
+        try {
+            String credentials = String.join(
+                    "\n",
+                    Objects.toString(gitCredentialsConfig.getProvider(), "").toLowerCase(Locale.ROOT),
+                    Objects.toString(gitCredentialsConfig.getUsername(), ""),
+                    Objects.toString(gitCredentialsConfig.getToken(), ""));
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(credentials.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Retrieves a service principal by its display name from the current workspace.
+     * The lookup uses a SCIM {@code displayName eq} filter returning only the id, application id and display name of
+     * the service principal, and its result is cached per workspace for the configured TTL.
      *
      * @param principalName the display name of the service principal to look up
      * @return an {@code Either} containing the {@code ServicePrincipal} if found, or a {@code FailedOperation} detailing the error if not found or an issue occurs during the process
      *
      */
     public Either<FailedOperation, ServicePrincipal> getServicePrincipalFromName(String principalName) {
+        String cacheKey = servicePrincipalCacheKey(principalName);
+        Optional<ServicePrincipal> cached = servicePrincipalsByName.get(cacheKey);
+        if (cached.isPresent()) {
+            log.debug("Principal {} found in cache", principalName);
+            return right(cached.get());
+        }
+
         try {
             String workspaceName = getWorkspaceName();
             log.info("Looking up principal ID for {}", principalName);
 
-            Iterable<ServicePrincipal> workspaceServicePrincipals =
-                    workspaceClient.servicePrincipals().list(new ListServicePrincipalsRequest());
+            Iterable<ServicePrincipal> workspaceServicePrincipals = workspaceClient
+                    .servicePrincipals()
+                    .list(new ListServicePrincipalsRequest()
+                            .setFilter(String.format("displayName eq '%s'", principalName.trim()))
+                            .setAttributes("id,applicationId,displayName"));
 
             List<ServicePrincipal> principalList = new ArrayList<>();
             if (workspaceServicePrincipals != null) workspaceServicePrincipals.forEach(principalList::add);
@@ -221,6 +326,7 @@ public class WorkspaceLevelManager {
                         "Found principal with application ID {} for {}",
                         principal.get().getApplicationId(),
                         principalName);
+                servicePrincipalsByName.put(cacheKey, principal.get());
                 return right(principal.get());
             } else {
                 String errorMessage =
@@ -238,6 +344,24 @@ public class WorkspaceLevelManager {
         }
     }
 
+    /**
+     * Forgets the service principal looked up with the given display name in the current workspace, so that the next
+     * lookup queries the workspace again.
+     *
+     * @param principalName the display name of the service principal
+     */
+    public void invalidateServicePrincipal(String principalName) {
+        servicePrincipalsByName.invalidate(servicePrincipalCacheKey(principalName));
+    }
+
+    private String servicePrincipalCacheKey(String principalName) {
+        String workspaceHost = Optional.ofNullable(workspaceClient.config())
+                .map(DatabricksConfig::getHost)
+                .orElse("");
+        return workspaceHost.toLowerCase(Locale.ROOT) + "|"
+                + Objects.toString(principalName, "").trim().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Generates a secret for a given service principal with a specified lifetime.
      * This method creates a new secret for the service principal identified by the given ID,
@@ -10,12 +10,26 @@ import org.springframework.stereotype.Component;
 public class WorkspaceLevelManagerFactory {
 
     private final AccountClient accountClient;
+    private final AccountWorkspaceIndex accountWorkspaceIndex;
+    private final DatabricksCaches databricksCaches;
 
-    public WorkspaceLevelManagerFactory(AccountClient accountClient) {
+    public WorkspaceLevelManagerFactory(
+            AccountClient accountClient,
+            AccountWorkspaceIndex accountWorkspaceIndex,
+            DatabricksCaches databricksCaches) {
         this.accountClient = accountClient;
+        this.accountWorkspaceIndex = accountWorkspaceIndex;
+        this.databricksCaches = databricksCaches;
     }
 
+    /**
+     * Creates a {@code WorkspaceLevelManager} for the given workspace. All the managers share the same account
+     * workspace index and caches.
+     *
+     * @param workspaceClient the client of the workspace
+     * @return the workspace level manager
+     */
     public WorkspaceLevelManager createDatabricksWorkspaceLevelManager(WorkspaceClient workspaceClient) {
-        return new WorkspaceLevelManager(workspaceClient, accountClient);
+        return new WorkspaceLevelManager(workspaceClient, accountClient, accountWorkspaceIndex, databricksCaches);
     }
 }
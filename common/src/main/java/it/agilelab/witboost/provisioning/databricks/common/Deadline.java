@@ -0,0 +1,197 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Time budget of a provisioning task.
+ * <p>
+ * The deadline is bound to the thread running the task with {@link #run(Runnable)}, so that the components called by
+ * the task can read it with {@link #current()} without passing it through every method. Work handed over to other
+ * threads must be wrapped with {@link #bind(Supplier)}.
+ * </p>
+ * <p>
+ * A deadline expires when its budget runs out or when the task is cancelled with {@link #expire()}. Cancellation is
+ * cooperative: the components check {@link #isExpired()} between their calls, and register with
+ * {@link #onExpiry(Runnable)} the actions cancelling the remote work they started, e.g. running statements.
+ * </p>
+ */
+@Slf4j
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final Instant expiresAt;
+    private final List<Runnable> expiryActions = new ArrayList<>();
+    private boolean expired = false;
+
+    private Deadline(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a deadline expiring after the given budget.
+     *
+     * @param budget the time budget
+     * @return the deadline
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(Instant.now().plus(budget));
+    }
+
+    /**
+     * Creates a deadline without time budget, which expires only when the task is cancelled.
+     *
+     * @return the deadline
+     */
+    public static Deadline unbounded() {
+        return new Deadline(Instant.MAX);
+    }
+
+    /**
+     * Acquires a lock, giving up if the deadline of the current thread expires while waiting for it.
+     *
+     * @param lock the lock to acquire
+     * @return true if the lock was acquired, false if the deadline expired first
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public static boolean lock(Lock lock) throws InterruptedException {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            lock.lockInterruptibly();
+            return true;
+        }
+        while (!lock.tryLock(LOCK_POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+            if (deadline.isExpired()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the deadline bound to the current thread.
+     *
+     * @return the deadline of the task running on the current thread, or empty if it has none
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Runs a task on the current thread with this deadline bound to it.
+     *
+     * @param task the task to run
+     */
+    public void run(Runnable task) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Wraps a supplier so that it runs with the deadline of the current thread, if any, bound to the thread that
+     * executes it.
+     *
+     * @param supplier the supplier to wrap
+     * @return the wrapped supplier, or the same supplier if the current thread has no deadline
+     */
+    public static <T> Supplier<T> bind(Supplier<T> supplier) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) return supplier;
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return supplier.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Retrieves the time left before the deadline.
+     *
+     * @return the remaining budget, or {@code Duration.ZERO} if the deadline expired
+     */
+    public Duration remaining() {
+        if (isExpired()) return Duration.ZERO;
+        return Duration.between(Instant.now(), expiresAt);
+    }
+
+    public synchronized boolean isExpired() {
+        return expired || !Instant.now().isBefore(expiresAt);
+    }
+
+    /**
+     * Registers an action to run when the deadline expires. If it already expired, the action runs immediately.
+     *
+     * @param action the action to run, typically cancelling remote work started by the task
+     * @return a handle that deregisters the action once the remote work is over
+     */
+    public Runnable onExpiry(Runnable action) {
+        synchronized (this) {
+            if (!expired) {
+                expiryActions.add(action);
+                return () -> deregister(action);
+            }
+        }
+        runQuietly(action);
+        return () -> {};
+    }
+
+    /**
+     * Expires the deadline, because its budget ran out or because the task was cancelled, and runs the registered
+     * expiry actions. Further calls have no effect.
+     */
+    public void expire() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (expired) return;
+            expired = true;
+            actions = new ArrayList<>(expiryActions);
+            expiryActions.clear();
+        }
+        actions.forEach(Deadline::runQuietly);
+    }
+
+    private synchronized void deregister(Runnable action) {
+        expiryActions.remove(action);
+    }
+
+    // Expiry actions run without any deadline, otherwise the calls cancelling the remote work would be refused
+    private static void runQuietly(Runnable action) {
+        Deadline previous = CURRENT.get();
+        CURRENT.remove();
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("An error occurred while running an expiry action of a deadline", e);
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache whose entries expire a fixed time after they are stored.
+ * <p>
+ * The time to live is read from the configuration every time an entry is stored, so that the caches follow the
+ * configuration of the tech adapter. A zero or negative time to live disables the cache.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class ExpiringCache<K, V> {
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+
+    private final Supplier<Duration> ttl;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param ttl supplies the time to live of the entries
+     */
+    public ExpiringCache(Supplier<Duration> ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Retrieves a value that has not expired yet.
+     *
+     * @param key the key of the value
+     * @return the value, or empty if it's missing or expired
+     */
+    public Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+        if (!Instant.now().isBefore(entry.expiresAt())) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Stores a value, replacing the previous one. If the cache is disabled, the previous value is removed instead.
+     *
+     * @param key   the key of the value
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        Duration timeToLive = ttl.get();
+        if (timeToLive == null || timeToLive.isZero() || timeToLive.isNegative()) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(value, Instant.now().plus(timeToLive)));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,16 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import lombok.Getter;
+
+@Getter
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyConflictException(String idempotencyKey) {
+        super(String.format(
+                "The Idempotency-Key '%s' was already used for a different request. Use a new key to submit a different descriptor",
+                idempotencyKey));
+        this.idempotencyKey = idempotencyKey;
+    }
+}
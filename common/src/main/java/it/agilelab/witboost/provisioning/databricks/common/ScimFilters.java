@@ -0,0 +1,50 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Builds the SCIM filters used to look up several principals with a single list call.
+ * <p>
+ * The values are combined into {@code eq} terms joined by {@code or}, and split into several filters so that each one
+ * respects the limits of the Databricks SCIM API on the number of terms and on the length of a filter.
+ * </p>
+ */
+public final class ScimFilters {
+
+    static final int MAX_VALUES_PER_FILTER = 20;
+    static final int MAX_FILTER_LENGTH = 2000;
+    private static final String FILTER_SEPARATOR = " or ";
+
+    private ScimFilters() {}
+
+    /**
+     * Combines the values into chunked {@code or} filters on the given attribute. Duplicated values are discarded.
+     *
+     * @param attribute the SCIM attribute to compare, e.g. {@code userName} or {@code displayName}
+     * @param values    the values to look up
+     * @return the filters, each one to be sent with a separate list call
+     */
+    public static List<String> orFilters(String attribute, Collection<String> values) {
+        List<String> filters = new ArrayList<>();
+        List<String> currentTerms = new ArrayList<>();
+        int currentLength = 0;
+        for (String value : new LinkedHashSet<>(values)) {
+            String term = String.format("%s eq '%s'", attribute, value);
+            int termLength = term.length() + FILTER_SEPARATOR.length();
+            if (!currentTerms.isEmpty()
+                    && (currentTerms.size() >= MAX_VALUES_PER_FILTER
+                            || currentLength + termLength > MAX_FILTER_LENGTH)) {
+                filters.add(String.join(FILTER_SEPARATOR, currentTerms));
+                currentTerms = new ArrayList<>();
+                currentLength = 0;
+            }
+            currentTerms.add(term);
+            currentLength += termLength;
+        }
+        if (!currentTerms.isEmpty()) filters.add(String.join(FILTER_SEPARATOR, currentTerms));
+        return filters;
+    }
+}
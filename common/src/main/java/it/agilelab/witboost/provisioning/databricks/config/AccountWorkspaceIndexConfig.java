@@ -0,0 +1,20 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Index of the workspaces of the Databricks account, used to resolve workspace names from their host.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.workspace-index")
+public class AccountWorkspaceIndexConfig {
+
+    private Duration refreshInterval = Duration.ofMinutes(10);
+    private Duration minRefreshOnMiss = Duration.ofSeconds(30);
+}
@@ -0,0 +1,31 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optional compaction of Output Port ACLs. When enabled, consumers of an Output Port are added as members of a
+ * Databricks account group managed by the Tech Adapter, and the SELECT grant is assigned only to that group.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.acl-compaction")
+public class AclCompactionConfig {
+
+    private boolean enabled = false;
+    private String groupNamePrefix = "witboost-op-";
+    private int patchBatchSize = 100;
+
+    /**
+     * Builds the display name of the consumer group managed for an Output Port.
+     *
+     * @param viewFullName the fully qualified name of the Output Port view
+     * @return the display name of the consumer group
+     */
+    public String consumerGroupName(String viewFullName) {
+        return groupNamePrefix + viewFullName;
+    }
+}
@@ -0,0 +1,27 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptive limit of the concurrent outbound calls, one per Databricks workspace host and one per Azure
+ * subscription. The limit grows additively while the calls are healthy and is cut multiplicatively when the remote
+ * API throttles or its latency spikes.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.adaptive-limit")
+public class AdaptiveConcurrencyConfig {
+
+    private boolean enabled = true;
+    private int initialLimit = 8;
+    private int minLimit = 1;
+    private int maxLimit = 64;
+    private double backoffRatio = 0.7;
+    private double latencyTolerance = 3.0;
+    private Duration maxWait = Duration.ofSeconds(30);
+}
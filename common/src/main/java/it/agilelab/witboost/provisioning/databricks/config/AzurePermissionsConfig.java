@@ -1,5 +1,6 @@
 package it.agilelab.witboost.provisioning.databricks.config;
 
+import java.time.Duration;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -22,4 +23,6 @@ public class AzurePermissionsConfig {
     private String dpOwnerRoleDefinitionId;
 
     private String devGroupRoleDefinitionId;
+
+    private Duration roleAssignmentCacheTtl = Duration.ofMinutes(30);
 }
@@ -0,0 +1,20 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-memory cache of the Entra ID tokens shared by the Azure Resource Manager, Microsoft Graph and Databricks
+ * clients. Tokens are refreshed in the background when they are about to expire.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "azure.token-cache")
+public class AzureTokenCacheConfig {
+
+    private Duration refreshMargin = Duration.ofMinutes(5);
+
+    private Duration refreshInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,32 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Coordination between the replicas of the tech adapter. The status of the requests is shared through the
+ * coordination backend, and each running request is leased to the replica running it: the lease is renewed every
+ * {@code heartbeatInterval}, and once it expires another replica takes the request over.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "coordination")
+public class CoordinationConfig {
+
+    public enum Backend {
+        MEMORY,
+        JDBC
+    }
+
+    private Backend backend = Backend.MEMORY;
+    private String instanceId;
+    private Duration leaseDuration = Duration.ofSeconds(30);
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+    private int takeoverBatchSize = 4;
+    private Duration statusRetention = Duration.ofDays(7);
+    private boolean initializeSchema = true;
+}
@@ -0,0 +1,20 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Time to live of the Databricks metadata cached between provisionings. A zero duration disables the cache.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.caches")
+public class DatabricksCacheConfig {
+
+    private Duration metastoreTtl = Duration.ofMinutes(10);
+    private Duration workspaceAssignmentsTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,23 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP transport shared by all the Databricks SDK clients. Connections are pooled and kept alive, so that requests
+ * to the same workspace host reuse the established TLS connections.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.http-client")
+public class DatabricksHttpClientConfig {
+
+    private int maxConnections = 200;
+    private int maxConnectionsPerHost = 20;
+    private Duration timeout = Duration.ofMinutes(5);
+    private Duration idleConnectionTimeout = Duration.ofMinutes(1);
+}
@@ -0,0 +1,22 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Client-side rate limits of the Databricks API calls, one per workspace host and one for the account API. The calls
+ * throttled by Databricks are retried by the SDK.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.rate-limit")
+public class DatabricksRateLimitConfig {
+
+    private boolean enabled = true;
+    private double workspaceRequestsPerSecond = 20;
+    private double accountRequestsPerSecond = 10;
+    private int burst = 20;
+}
@@ -1,5 +1,6 @@
 package it.agilelab.witboost.provisioning.databricks.config;
 
+import java.time.Duration;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -13,4 +14,5 @@ public class GitCredentialsConfig {
     private String username;
     private String token;
     private String provider;
+    private Duration credentialsCacheTtl = Duration.ofHours(1);
 }
@@ -0,0 +1,22 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Long polling of the status of the requests. A status request with a timeout is held until the status changes, for
+ * at most {@code maxWait}. The status of the requests run by other replicas is read again every
+ * {@code checkInterval}, as their changes are not notified to this replica.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.longpoll")
+public class LongPollConfig {
+
+    private Duration maxWait = Duration.ofSeconds(30);
+    private Duration checkInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,26 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Durable journal of the provisioning tasks. The accepted tasks, their completed stages and their final status are
+ * appended to a local file, so that the tasks interrupted by a restart are resumed and the status of the completed
+ * ones is still available within {@code retention}. The accepted tasks are flushed to disk every
+ * {@code flushInterval}, and the journal is compacted every {@code compactionInterval}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.journal")
+public class ProvisioningJournalConfig {
+
+    private boolean enabled = false;
+    private String path = "data/provisioning-journal.jsonl";
+    private Duration retention = Duration.ofHours(24);
+    private Duration flushInterval = Duration.ofMillis(200);
+    private Duration compactionInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,34 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fair scheduling of the provisioning tasks. Each data product gets its own queue in each priority class, and the
+ * queues are served in turns proportional to the weight of their priority class and of their domain.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.scheduler")
+public class ProvisioningSchedulerConfig {
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private boolean enabled = true;
+    private int maxConcurrentTasks = 16;
+    private Priority provisionPriority = Priority.NORMAL;
+    private Priority unprovisionPriority = Priority.HIGH;
+    private Map<Priority, Integer> priorityWeights =
+            new EnumMap<>(Map.of(Priority.HIGH, 4, Priority.NORMAL, 2, Priority.LOW, 1));
+    private Map<String, Integer> domainWeights = new HashMap<>();
+}
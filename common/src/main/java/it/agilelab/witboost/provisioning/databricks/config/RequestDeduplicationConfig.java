@@ -0,0 +1,21 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Deduplication of repeated provisioning and unprovisioning submissions. A duplicate submitted while the first
+ * request is running, or within {@code retention} after it completed successfully, gets the token of the first one.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.deduplication")
+public class RequestDeduplicationConfig {
+
+    private boolean enabled = true;
+    private Duration retention = Duration.ofMinutes(10);
+}
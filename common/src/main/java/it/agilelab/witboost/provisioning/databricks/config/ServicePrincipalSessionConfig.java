@@ -0,0 +1,24 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sessions opened for the service principals used as run-as identity of workloads. A session holds a temporary OAuth
+ * secret of the service principal and is reused until the secret is about to expire, and expired sessions are closed
+ * every {@code cleanupInterval}. Service principals looked up by display name are cached for {@code lookupCacheTtl}.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.service-principal-sessions")
+public class ServicePrincipalSessionConfig {
+
+    private Duration secretLifetime = Duration.ofSeconds(900);
+    private Duration renewalMargin = Duration.ofMinutes(2);
+    private Duration lookupCacheTtl = Duration.ofMinutes(10);
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+}
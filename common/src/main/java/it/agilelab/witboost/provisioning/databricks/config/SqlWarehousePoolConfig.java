@@ -0,0 +1,46 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optional pool of SQL Warehouses per workspace. When enabled, Output Port statements are routed to the
+ * least-loaded running warehouse of the pool instead of the single warehouse set in the component specific.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.sql-warehouse-pool")
+public class SqlWarehousePoolConfig {
+
+    private boolean enabled = false;
+    private List<Pool> pools = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private String workspace;
+        private List<String> warehouseNames = new ArrayList<>();
+        private Map<String, String> tags = new HashMap<>();
+    }
+
+    /**
+     * Retrieves the pool configured for the given workspace, if any.
+     *
+     * @param workspaceName the workspace name (or URL) as received in the component specific
+     * @return the pool configured for the workspace, or an empty optional
+     */
+    public Optional<Pool> getPool(String workspaceName) {
+        if (workspaceName == null) return Optional.empty();
+        return pools.stream()
+                .filter(pool -> workspaceName.equalsIgnoreCase(pool.getWorkspace()))
+                .findFirst();
+    }
+}
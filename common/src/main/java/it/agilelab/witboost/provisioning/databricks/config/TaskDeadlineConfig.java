@@ -0,0 +1,20 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Time budget of each provisioning and unprovisioning task. When it runs out, the running statements of the task
+ * are cancelled and the task fails.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.task-deadline")
+public class TaskDeadlineConfig {
+
+    private Duration timeout = Duration.ofHours(1);
+}
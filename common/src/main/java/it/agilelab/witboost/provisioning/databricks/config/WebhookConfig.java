@@ -0,0 +1,33 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Webhooks notified when a request completes. A failed notification is retried up to {@code maxAttempts} times. The
+ * pending webhooks are also checked every {@code checkInterval}, to notify the completion of the requests run by other
+ * replicas.
+ * <p>
+ * Webhooks are disabled by default, and only reach the hosts listed in {@code allowedHosts} that do not resolve to an
+ * internal address, unless {@code allowPrivateAddresses} is set.
+ * </p>
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.webhooks")
+public class WebhookConfig {
+
+    private boolean enabled = false;
+    private List<String> allowedHosts = new ArrayList<>();
+    private boolean allowPrivateAddresses = false;
+    private Duration timeout = Duration.ofSeconds(10);
+    private int maxAttempts = 3;
+    private Duration retryBackoff = Duration.ofSeconds(5);
+    private Duration checkInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,25 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bulkheads per Databricks workspace. At most {@code maxConcurrentTasks} provisioning tasks of a workspace run at the
+ * same time, the others wait in the queue of the workspace, so that a slow workspace cannot take all the workers.
+ * Disabled by default, as a limit below the scheduler cap also slows down the deployments that use a single
+ * workspace.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "forkjoin.bulkhead")
+public class WorkspaceBulkheadConfig {
+
+    private boolean enabled = false;
+    private int maxConcurrentTasks = 4;
+    private Map<String, Integer> workspaceLimits = new HashMap<>();
+}
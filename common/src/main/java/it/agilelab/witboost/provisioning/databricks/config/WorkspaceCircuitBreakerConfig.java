@@ -0,0 +1,23 @@
+package it.agilelab.witboost.provisioning.databricks.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Circuit breakers per Databricks workspace. After {@code failureThreshold} consecutive failures the breaker of a
+ * workspace opens and the operations on that workspace fail immediately, until a probe succeeds.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "databricks.circuit-breaker")
+public class WorkspaceCircuitBreakerConfig {
+
+    private boolean enabled = true;
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenProbes = 1;
+}
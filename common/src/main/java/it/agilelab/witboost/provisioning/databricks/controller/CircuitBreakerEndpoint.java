@@ -0,0 +1,26 @@
+package it.agilelab.witboost.provisioning.databricks.controller;
+
+import it.agilelab.witboost.provisioning.databricks.client.WorkspaceCircuitBreakerRegistry;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the state of the circuit breaker of each workspace.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakerEndpoint {
+
+    private final WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry;
+
+    public CircuitBreakerEndpoint(WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry) {
+        this.workspaceCircuitBreakerRegistry = workspaceCircuitBreakerRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, WorkspaceCircuitBreakerRegistry.BreakerState> circuitBreakers() {
+        return workspaceCircuitBreakerRegistry.getStates();
+    }
+}
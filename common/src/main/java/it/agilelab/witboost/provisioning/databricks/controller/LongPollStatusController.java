@@ -0,0 +1,59 @@
+package it.agilelab.witboost.provisioning.databricks.controller;
+
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import it.agilelab.witboost.provisioning.databricks.service.provision.ProvisionService;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Serves the status requests carrying a timeout, which are held until the status of the request changes. The requests
+ * are processed asynchronously, so that a held request does not occupy a thread of the web server. The requests
+ * without a timeout are served by {@link TechAdapterController}.
+ *
+ * <p>Exceptions thrown will be handled by {@link TechAdapterExceptionHandler}
+ */
+@RestController
+@RequestMapping("${openapi.specificProvisionerMicroService.base-path:}")
+public class LongPollStatusController {
+
+    // Leaves the service the time to complete the wait on its own before the web server times the request out
+    private static final Duration TIMEOUT_GRACE = Duration.ofSeconds(5);
+
+    private final ProvisionService provisionService;
+    private final LongPollConfig longPollConfig;
+
+    public LongPollStatusController(ProvisionService provisionService, LongPollConfig longPollConfig) {
+        this.provisionService = provisionService;
+        this.longPollConfig = longPollConfig;
+    }
+
+    @GetMapping(
+            value = "/v1/provision/{token}/status",
+            params = "timeout",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<ProvisioningStatus>> getStatus(
+            @PathVariable("token") String token, @RequestParam("timeout") Integer timeout) {
+        DeferredResult<ResponseEntity<ProvisioningStatus>> result = new DeferredResult<>(
+                longPollConfig.getMaxWait().plus(TIMEOUT_GRACE).toMillis());
+        result.onTimeout(() -> result.setResult(ResponseEntity.ok(provisionService.getStatus(token))));
+        provisionService
+                .awaitStatusChange(token, Duration.ofSeconds(timeout))
+                .whenComplete((status, error) -> {
+                    if (error != null) {
+                        result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+                    } else {
+                        result.setResult(ResponseEntity.ok(status));
+                    }
+                });
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package it.agilelab.witboost.provisioning.databricks.controller;
 
 import it.agilelab.witboost.provisioning.databricks.openapi.controller.V1ApiDelegate;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.CallbackRegistration;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ReverseProvisioningRequest;
@@ -10,9 +11,12 @@ import it.agilelab.witboost.provisioning.databricks.openapi.model.ValidationResu
 import it.agilelab.witboost.provisioning.databricks.service.provision.ProvisionService;
 import it.agilelab.witboost.provisioning.databricks.service.reverseprovision.ReverseProvisionService;
 import it.agilelab.witboost.provisioning.databricks.service.updateacl.UpdateAclService;
+import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
  * API Controller for the Java Specific Provisioner which implements the autogenerated {@link
@@ -24,6 +28,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class TechAdapterController implements V1ApiDelegate {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final ProvisionService provisionService;
     private final UpdateAclService updateAclService;
     private final ReverseProvisionService reverseProvisionService;
@@ -38,18 +44,36 @@ public class TechAdapterController implements V1ApiDelegate {
     }
 
     @Override
-    public ResponseEntity<ProvisioningStatus> getStatus(String token) {
+    public ResponseEntity<ProvisioningStatus> getStatus(String token, Optional<Integer> timeout) {
+        // The requests with a timeout are held asynchronously by LongPollStatusController
         return ResponseEntity.ok(provisionService.getStatus(token));
     }
 
+    @Override
+    public ResponseEntity<ProvisioningStatus> registerCallback(
+            String token, CallbackRegistration callbackRegistration) {
+        return ResponseEntity.ok(provisionService.registerCallback(token, callbackRegistration.getUrl()));
+    }
+
+    @Override
+    public ResponseEntity<ProvisioningStatus> cancel(String token, Optional<String> reason) {
+        return ResponseEntity.ok(provisionService.cancel(token, reason.orElse(null)));
+    }
+
     @Override
     public ResponseEntity<String> provision(ProvisioningRequest provisioningRequest) {
-        return new ResponseEntity<>(provisionService.provision(provisioningRequest), HttpStatus.ACCEPTED);
+        String token = idempotencyKey()
+                .map(key -> provisionService.provision(provisioningRequest, key))
+                .orElseGet(() -> provisionService.provision(provisioningRequest));
+        return new ResponseEntity<>(token, HttpStatus.ACCEPTED);
     }
 
     @Override
     public ResponseEntity<String> unprovision(ProvisioningRequest provisioningRequest) {
-        return new ResponseEntity<>(provisionService.unprovision(provisioningRequest), HttpStatus.ACCEPTED);
+        String token = idempotencyKey()
+                .map(key -> provisionService.unprovision(provisioningRequest, key))
+                .orElseGet(() -> provisionService.unprovision(provisioningRequest));
+        return new ResponseEntity<>(token, HttpStatus.ACCEPTED);
     }
 
     @Override
@@ -68,4 +92,13 @@ public class TechAdapterController implements V1ApiDelegate {
         return new ResponseEntity<>(
                 reverseProvisionService.runReverseProvisioning(reverseProvisioningRequest), HttpStatus.OK);
     }
+
+    // Optional header set by the callers to deduplicate repeated submissions of the same request
+    private static Optional<String> idempotencyKey() {
+        return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+                .filter(ServletRequestAttributes.class::isInstance)
+                .map(attributes ->
+                        ((ServletRequestAttributes) attributes).getRequest().getHeader(IDEMPOTENCY_KEY_HEADER))
+                .filter(key -> !key.isBlank());
+    }
 }
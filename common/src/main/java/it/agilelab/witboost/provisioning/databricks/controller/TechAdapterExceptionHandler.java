@@ -1,6 +1,8 @@
 package it.agilelab.witboost.provisioning.databricks.controller;
 
 import it.agilelab.witboost.provisioning.databricks.common.ErrorBuilder;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.IdempotencyKeyConflictException;
 import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.RequestValidationError;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.SystemError;
@@ -33,6 +35,17 @@ public class TechAdapterExceptionHandler {
                 Optional.ofNullable(ex.getMessage()), ex.getFailedOperation(), ex.getInput(), ex.getInputErrorField());
     }
 
+    @ExceptionHandler({IdempotencyKeyConflictException.class})
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    protected RequestValidationError handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        logger.warn("Idempotency key reused for a different request: {}", ex.getIdempotencyKey());
+        return ErrorBuilder.buildRequestValidationError(
+                Optional.ofNullable(ex.getMessage()),
+                FailedOperation.singleProblemFailedOperation(ex.getMessage()),
+                Optional.empty(),
+                Optional.empty());
+    }
+
     @ExceptionHandler({RuntimeException.class})
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     protected SystemError handleSystemError(RuntimeException ex) {
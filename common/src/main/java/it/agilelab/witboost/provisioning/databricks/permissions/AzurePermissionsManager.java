@@ -140,10 +140,12 @@ public class AzurePermissionsManager {
                             resourceProviderNamespace,
                             resourceType,
                             resourceName,
-                            null,
+                            String.format("assignedTo('%s')", principalId),
                             null,
                             Context.NONE);
 
+            // The assignedTo filter is applied server-side, but it also returns the assignments of the groups the
+            // principal belongs to, so the principal is still checked on the client side
             List<RoleAssignmentInner> existingPermissions = Optional.ofNullable(listPermissions)
                     .map(Iterable::spliterator)
                     .map(spliterator -> StreamSupport.stream(spliterator, false))
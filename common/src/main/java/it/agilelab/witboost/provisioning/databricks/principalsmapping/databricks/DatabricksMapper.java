@@ -7,11 +7,10 @@ import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.service.iam.Group;
 import com.databricks.sdk.service.iam.ListAccountGroupsRequest;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.ScimFilters;
 import it.agilelab.witboost.provisioning.databricks.principalsmapping.Mapper;
 import it.agilelab.witboost.provisioning.databricks.principalsmapping.azure.AzureMapper;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -30,20 +29,57 @@ public class DatabricksMapper implements Mapper {
     }
 
     public Either<Throwable, String> retrieveCaseSensitiveGroupDisplayName(String groupNameCaseInsensitive) {
-        // This method is needed as in MEID group are case-insensitive (so 'group-A' is the same as 'group-a'),
-        // instead Databricks interprets these as two different groups.
-        // So, from the group that is in the request we have to retrieve the exact Display Name in order to interact
-        // with Databricks sdk
+        return retrieveCaseSensitiveGroupDisplayNames(Set.of(groupNameCaseInsensitive))
+                .get(groupNameCaseInsensitive);
+    }
+
+    /**
+     * Resolves the exact Databricks display names of a set of groups with as few SCIM calls as possible.
+     * <p>
+     * In MEID groups are case-insensitive (so 'group-A' is the same as 'group-a'), instead Databricks interprets
+     * these as two different groups. So, from the groups in the request we have to retrieve the exact Display Name
+     * in order to interact with Databricks sdk. Group names are combined into {@code displayName eq} filters joined
+     * by {@code or}, split into chunks to respect the SCIM filter length limits, and the returned groups are matched
+     * back to the requested names case-insensitively.
+     * </p>
+     *
+     * @param groupNamesCaseInsensitive the group names as received in the request
+     * @return a map from each requested group name to either an error (group not found or more than one group
+     *         found) or the case-sensitive display name of the group
+     */
+    public Map<String, Either<Throwable, String>> retrieveCaseSensitiveGroupDisplayNames(
+            Set<String> groupNamesCaseInsensitive) {
+
+        Map<String, String> distinctGroupNames = new LinkedHashMap<>();
+        groupNamesCaseInsensitive.forEach(name -> distinctGroupNames.putIfAbsent(normalize(name), name));
 
-        Iterable<Group> groupsAccountCaseInsensitive = accountClient
-                .groups()
-                .list(new ListAccountGroupsRequest()
-                        .setFilter(String.format("displayName eq '%s'", groupNameCaseInsensitive)));
+        List<String> filters = ScimFilters.orFilters("displayName", distinctGroupNames.values());
+        Map<String, List<Group>> groupsByNormalizedName = new HashMap<>();
+        for (String filter : filters) {
+            Iterable<Group> groupsAccountCaseInsensitive = accountClient
+                    .groups()
+                    .list(new ListAccountGroupsRequest().setFilter(filter).setAttributes("id,displayName"));
 
-        List<Group> groupsAccountCaseInsensitiveList = StreamSupport.stream(
-                        groupsAccountCaseInsensitive.spliterator(), false)
-                .toList();
+            StreamSupport.stream(groupsAccountCaseInsensitive.spliterator(), false)
+                    .filter(group -> group.getDisplayName() != null)
+                    .forEach(group -> groupsByNormalizedName
+                            .computeIfAbsent(normalize(group.getDisplayName()), key -> new ArrayList<>())
+                            .add(group));
+        }
+
+        logger.info(String.format(
+                "Resolved %d groups at Databricks account level with %d calls",
+                distinctGroupNames.size(), filters.size()));
 
+        return groupNamesCaseInsensitive.stream()
+                .collect(Collectors.toMap(
+                        name -> name,
+                        name -> toCaseSensitiveGroupDisplayName(
+                                name, groupsByNormalizedName.getOrDefault(normalize(name), List.of()))));
+    }
+
+    private Either<Throwable, String> toCaseSensitiveGroupDisplayName(
+            String groupNameCaseInsensitive, List<Group> groupsAccountCaseInsensitiveList) {
         if (groupsAccountCaseInsensitiveList.isEmpty()) {
             String errorMessage =
                     String.format("Group '%s' not found at Databricks account level.", groupNameCaseInsensitive);
@@ -62,16 +98,28 @@ public class DatabricksMapper implements Mapper {
         }
     }
 
+    private static String normalize(String groupName) {
+        return groupName.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public Map<String, Either<Throwable, String>> map(Set<String> subjects) {
-        return subjects.stream().collect(Collectors.toMap(ref -> ref, this::mapSubject));
+        Set<String> groupNames = subjects.stream()
+                .filter(ref -> ref.startsWith(GROUP_PREFIX))
+                .map(ref -> ref.substring(GROUP_PREFIX.length()))
+                .collect(Collectors.toSet());
+
+        Map<String, Either<Throwable, String>> mappedGroups =
+                groupNames.isEmpty() ? Map.of() : retrieveCaseSensitiveGroupDisplayNames(groupNames);
+
+        return subjects.stream().collect(Collectors.toMap(ref -> ref, ref -> mapSubject(ref, mappedGroups)));
     }
 
-    private Either<Throwable, String> mapSubject(String ref) {
+    private Either<Throwable, String> mapSubject(String ref, Map<String, Either<Throwable, String>> mappedGroups) {
         if (ref.startsWith(USER_PREFIX)) {
             return getAndMapUser(ref.substring(USER_PREFIX.length()));
         } else if (ref.startsWith(GROUP_PREFIX)) {
-            return retrieveCaseSensitiveGroupDisplayName(ref.substring(GROUP_PREFIX.length()));
+            return mappedGroups.get(ref.substring(GROUP_PREFIX.length()));
         } else {
             String errorMessage = String.format("The subject %s is neither a Witboost user nor a group", ref);
             logger.error(errorMessage);
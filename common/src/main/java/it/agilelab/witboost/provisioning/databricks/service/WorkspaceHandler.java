@@ -12,6 +12,9 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
 import it.agilelab.witboost.provisioning.databricks.client.AzureWorkspaceManager;
 import it.agilelab.witboost.provisioning.databricks.client.SkuType;
+import it.agilelab.witboost.provisioning.databricks.client.WorkspaceCircuitBreakerRegistry;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
+import it.agilelab.witboost.provisioning.databricks.common.ExpiringCache;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.config.*;
@@ -24,9 +27,13 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.dl
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.job.DatabricksJobWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.permissions.AzurePermissionsManager;
 import it.agilelab.witboost.provisioning.databricks.principalsmapping.azure.AzureMapper;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,12 +52,17 @@ public class WorkspaceHandler {
     private final AzurePermissionsManager azurePermissionsManager;
     private final AzureWorkspaceManager azureWorkspaceManager;
     private final Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory;
+    private final ForkJoinPool forkJoinPool;
+    private final WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry;
     private static final String RESOURCE_ID_FORMAT =
             "/subscriptions/%s/resourceGroups/%s/providers/Microsoft.Databricks/workspaces/%s";
 
     private final Pattern databricksUrlPattern =
             Pattern.compile("(?:https://)?adb-(\\d+)\\.\\d+\\.azuredatabricks\\.net");
 
+    // Role assignments already reconciled, keyed by workspace, principal and role definition
+    private final ExpiringCache<String, Boolean> reconciledRoleAssignments;
+
     @Autowired
     public WorkspaceHandler(
             AzureWorkspaceManager azureWorkspaceManager,
@@ -61,7 +73,9 @@ public class WorkspaceHandler {
             AzureMapper azureMapper,
             AzurePermissionsManager azurePermissionsManager,
             Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory,
-            AzureResourceManager azureResourceManager) {
+            AzureResourceManager azureResourceManager,
+            ForkJoinPool forkJoinPool,
+            WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry) {
         this.azureWorkspaceManager = azureWorkspaceManager;
         this.azurePermissionsConfig = azurePermissionsConfig;
         this.gitCredentialsConfig = gitCredentialsConfig;
@@ -71,6 +85,17 @@ public class WorkspaceHandler {
         this.azurePermissionsManager = azurePermissionsManager;
         this.workspaceClientFactory = workspaceClientFactory;
         this.azureResourceManager = azureResourceManager;
+        this.forkJoinPool = forkJoinPool;
+        this.workspaceCircuitBreakerRegistry = workspaceCircuitBreakerRegistry;
+        this.reconciledRoleAssignments = new ExpiringCache<>(azurePermissionsConfig::getRoleAssignmentCacheTtl);
+    }
+
+    /**
+     * Clears the cache of the role assignments already reconciled, forcing the next provisioning to check them
+     * again on Azure.
+     */
+    void invalidateRoleAssignmentCache() {
+        reconciledRoleAssignments.invalidateAll();
     }
 
     public <T extends Specific> Either<FailedOperation, DatabricksWorkspaceInfo> provisionWorkspace(
@@ -93,29 +118,80 @@ public class WorkspaceHandler {
 
         DatabricksWorkspaceInfo databricksWorkspaceInfo = eitherNewWorkspace.get();
 
-        Either<FailedOperation, Void> dpOwnerAzurePermissions = manageAzurePermissions(
-                databricksWorkspaceInfo,
-                provisionRequest.dataProduct().getDataProductOwner(),
-                azurePermissionsConfig.getDpOwnerRoleDefinitionId(),
-                PrincipalType.USER);
-        if (dpOwnerAzurePermissions.isLeft()) return left(dpOwnerAzurePermissions.getLeft());
-
         // TODO: This is a temporary solution. Remove or update this logic in the future.
         String devGroup = provisionRequest.dataProduct().getDevGroup();
         if (!devGroup.startsWith("group:")) {
             devGroup = "group:" + devGroup;
         }
 
-        Either<FailedOperation, Void> devGroupAzurePermissions = manageAzurePermissions(
+        Either<FailedOperation, Void> azurePermissions = manageAzurePermissions(
                 databricksWorkspaceInfo,
-                devGroup,
-                azurePermissionsConfig.getDevGroupRoleDefinitionId(),
-                PrincipalType.GROUP);
-        if (devGroupAzurePermissions.isLeft()) return left(devGroupAzurePermissions.getLeft());
+                List.of(
+                        new PrincipalRole(
+                                provisionRequest.dataProduct().getDataProductOwner(),
+                                azurePermissionsConfig.getDpOwnerRoleDefinitionId(),
+                                PrincipalType.USER),
+                        new PrincipalRole(
+                                devGroup, azurePermissionsConfig.getDevGroupRoleDefinitionId(), PrincipalType.GROUP)));
+        if (azurePermissions.isLeft()) return left(azurePermissions.getLeft());
 
         return right(databricksWorkspaceInfo);
     }
 
+    /**
+     * A principal, as received in the request, with the role definition to reconcile on the workspace.
+     */
+    protected record PrincipalRole(String entity, String roleDefinitionId, PrincipalType principalType) {}
+
+    /**
+     * Reconciles the Azure role assignments of several principals on a workspace. All the principals are mapped to
+     * their Azure ids with a single call, then each assignment is reconciled concurrently. Assignments reconciled
+     * recently are skipped until their cache entry expires.
+     *
+     * @param databricksWorkspaceInfo the workspace where the roles are assigned
+     * @param principalRoles          the principals and their role definitions, in the order used to report errors
+     * @return Either the first {@code FailedOperation} encountered, or {@code Void} if every assignment is reconciled
+     */
+    protected Either<FailedOperation, Void> manageAzurePermissions(
+            DatabricksWorkspaceInfo databricksWorkspaceInfo, List<PrincipalRole> principalRoles) {
+
+        List<PrincipalRole> rolesToManage = principalRoles.stream()
+                .filter(principalRole -> principalRole.roleDefinitionId() != null)
+                .toList();
+        if (rolesToManage.isEmpty()) return right(null);
+
+        try {
+            Set<String> entities = rolesToManage.stream()
+                    .map(PrincipalRole::entity)
+                    .collect(Collectors.toSet());
+            Map<String, Either<Throwable, String>> mappedEntities = azureMapper.map(entities);
+
+            List<CompletableFuture<Either<FailedOperation, Void>>> futures = rolesToManage.stream()
+                    .map(principalRole -> CompletableFuture.supplyAsync(
+                            Deadline.bind(() -> manageAzurePermissions(
+                                    databricksWorkspaceInfo,
+                                    principalRole.entity(),
+                                    principalRole.roleDefinitionId(),
+                                    principalRole.principalType(),
+                                    mappedEntities.get(principalRole.entity()))),
+                            forkJoinPool))
+                    .toList();
+
+            for (CompletableFuture<Either<FailedOperation, Void>> future : futures) {
+                Either<FailedOperation, Void> result = future.join();
+                if (result.isLeft()) return result;
+            }
+            return right(null);
+
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while handling permissions for the Azure resource %s. Details: %s",
+                    databricksWorkspaceInfo.getName(), e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
     /**
      * Returns the information of a Databricks Workspace from a ProvisionRequest
      * @param provisionRequest ProvisionRequest with the specific field.
@@ -131,24 +207,44 @@ public class WorkspaceHandler {
      * Returns the information of a Databricks Workspace
      * @param workspaceInfo Either the workspace name to be created or the workspace URL of an existent workspace
      * @return An Optional containing the databricks workspace information if existent, or a FailedOperation if the method failed
+     *         or the circuit breaker of the workspace is open
      */
     public Either<FailedOperation, Optional<DatabricksWorkspaceInfo>> getWorkspaceInfo(String workspaceInfo) {
         var matcher = databricksUrlPattern.matcher(workspaceInfo);
         if (matcher.find()) {
             var workspaceID = matcher.group(1);
-            return right(Optional.of(new DatabricksWorkspaceInfo(
-                    workspaceInfo, workspaceID, null, workspaceInfo, ProvisioningState.SUCCEEDED)));
+            return workspaceCircuitBreakerRegistry
+                    .checkState(workspaceCircuitBreakerRegistry.keyForHost(workspaceInfo))
+                    .map(ignored -> Optional.of(new DatabricksWorkspaceInfo(
+                            workspaceInfo, workspaceID, null, workspaceInfo, ProvisioningState.SUCCEEDED)));
         } else {
+            Either<FailedOperation, Void> permitted = workspaceCircuitBreakerRegistry.acquire(workspaceInfo);
+            if (permitted.isLeft()) return left(permitted.getLeft());
+
             String managedResourceGroupId = String.format(
                     "/subscriptions/%s/resourceGroups/%s-rg",
                     azurePermissionsConfig.getSubscriptionId(), workspaceInfo);
 
-            return azureWorkspaceManager.getWorkspace(workspaceInfo, managedResourceGroupId);
+            var eitherWorkspace = azureWorkspaceManager.getWorkspace(workspaceInfo, managedResourceGroupId);
+            if (eitherWorkspace.isLeft()
+                    || (eitherWorkspace.get().isPresent()
+                            && eitherWorkspace.get().get().getProvisioningState() == ProvisioningState.FAILED)) {
+                workspaceCircuitBreakerRegistry.onFailure(workspaceInfo);
+            } else {
+                workspaceCircuitBreakerRegistry.onSuccess(workspaceInfo);
+            }
+            return eitherWorkspace;
         }
     }
 
     public Either<FailedOperation, WorkspaceClient> getWorkspaceClient(
             DatabricksWorkspaceInfo databricksWorkspaceInfo) {
+        workspaceCircuitBreakerRegistry.registerHost(
+                databricksWorkspaceInfo.getDatabricksHost(), databricksWorkspaceInfo.getName());
+        Either<FailedOperation, Void> permitted =
+                workspaceCircuitBreakerRegistry.checkState(databricksWorkspaceInfo.getName());
+        if (permitted.isLeft()) return left(permitted.getLeft());
+
         try {
 
             WorkspaceClientConfig.WorkspaceClientConfigParams workspaceClientAzureConfigParams =
@@ -218,16 +314,31 @@ public class WorkspaceHandler {
         if (roleDefinitionId == null) return right(null);
 
         try {
-            Set<String> inputEntity = Set.of(entity);
+            Map<String, Either<Throwable, String>> res = azureMapper.map(Set.of(entity));
+            return manageAzurePermissions(
+                    databricksWorkspaceInfo, entity, roleDefinitionId, principalType, res.get(entity));
+        } catch (Exception e) {
+            String errorMessage = String.format(
+                    "An error occurred while handling permissions of %s for the Azure resource %s. Details: %s",
+                    entity, databricksWorkspaceInfo.getName(), e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
 
+    private Either<FailedOperation, Void> manageAzurePermissions(
+            DatabricksWorkspaceInfo databricksWorkspaceInfo,
+            String entity,
+            String roleDefinitionId,
+            PrincipalType principalType,
+            Either<Throwable, String> entityMap) {
+
+        try {
             String message = String.format(
                     "Managing permissions of %s for workspace %s. Assigning role definition %s",
                     entity, databricksWorkspaceInfo.getName(), roleDefinitionId);
             logger.info(message);
 
-            Map<String, Either<Throwable, String>> res = azureMapper.map(inputEntity);
-            Either<Throwable, String> entityMap = res.get(entity);
-
             if (entityMap.isLeft()) {
                 String errorMessage = String.format(
                         "Failed to get AzureID of: %s. Details: %s",
@@ -237,12 +348,23 @@ public class WorkspaceHandler {
                         new FailedOperation(Collections.singletonList(new Problem(errorMessage, entityMap.getLeft()))));
             }
 
-            if (roleDefinitionId.equalsIgnoreCase("no_permissions")) {
-                return handleNoPermissions(databricksWorkspaceInfo, entityMap.get());
-            } else {
-                return assignPermissionsToEntity(
-                        databricksWorkspaceInfo, entityMap.get(), roleDefinitionId, principalType);
+            String cacheKey = String.join("|", databricksWorkspaceInfo.getName(), entityMap.get(), roleDefinitionId);
+            if (reconciledRoleAssignments.get(cacheKey).isPresent()) {
+                logger.info(String.format(
+                        "Permissions of %s on the Azure resource %s already reconciled with role definition %s. Skipping.",
+                        entity, databricksWorkspaceInfo.getName(), roleDefinitionId));
+                return right(null);
             }
+
+            Either<FailedOperation, Void> result = roleDefinitionId.equalsIgnoreCase("no_permissions")
+                    ? handleNoPermissions(databricksWorkspaceInfo, entityMap.get())
+                    : assignPermissionsToEntity(
+                            databricksWorkspaceInfo, entityMap.get(), roleDefinitionId, principalType);
+
+            if (result.isRight()) {
+                reconciledRoleAssignments.put(cacheKey, true);
+            }
+            return result;
         } catch (Exception e) {
             String errorMessage = String.format(
                     "An error occurred while handling permissions of %s for the Azure resource %s. Details: %s",
@@ -298,7 +420,32 @@ public class WorkspaceHandler {
                 azurePermissionsConfig.getResourceGroup(),
                 databricksWorkspaceInfo.getName());
 
-        String permissionId = UUID.randomUUID().toString();
+        Either<FailedOperation, List<RoleAssignmentInner>> eitherExistingAssignments =
+                azurePermissionsManager.getPrincipalRoleAssignmentsOnResource(
+                        azurePermissionsConfig.getResourceGroup(),
+                        "Microsoft.Databricks",
+                        "workspaces",
+                        databricksWorkspaceInfo.getName(),
+                        entityId);
+        if (eitherExistingAssignments.isLeft()) return left(eitherExistingAssignments.getLeft());
+
+        boolean alreadyAssigned = eitherExistingAssignments.get().stream()
+                .anyMatch(roleAssignment -> roleAssignment.roleDefinitionId() != null
+                        && roleAssignment
+                                .roleDefinitionId()
+                                .toLowerCase(Locale.ROOT)
+                                .endsWith(roleDefinitionId.toLowerCase(Locale.ROOT)));
+        if (alreadyAssigned) {
+            logger.info(String.format(
+                    "Role definition %s is already assigned to %s on the Azure resource %s. Skipping creation.",
+                    roleDefinitionId, entityId, databricksWorkspaceInfo.getName()));
+            return right(null);
+        }
+
+        // A name derived from scope, principal and role makes retries idempotent
+        String permissionId = UUID.nameUUIDFromBytes(
+                        String.join("|", resourceId, entityId, roleDefinitionId).getBytes(StandardCharsets.UTF_8))
+                .toString();
         return azurePermissionsManager.assignPermissions(
                 resourceId, permissionId, roleDefinitionId, entityId, principalType);
     }
@@ -0,0 +1,70 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Store shared by the replicas of the tech adapter, holding the status of the requests and the leases of the running
+ * ones.
+ */
+public interface CoordinationBackend {
+
+    /**
+     * A provisioning or unprovisioning request leased to a replica.
+     */
+    record WorkItem(String token, boolean provisioning, ProvisioningRequest request) {}
+
+    void saveStatus(String token, ProvisioningStatus status);
+
+    Optional<ProvisioningStatus> findStatus(String token);
+
+    /**
+     * Deletes the status of the requests not updated since the given instant.
+     *
+     * @param updatedBefore the oldest update to keep
+     */
+    void purgeStatuses(Instant updatedBefore);
+
+    /**
+     * Registers a running request, leased to the given replica. A request already registered is leased again only if
+     * the replica already holds its lease or the lease expired, so that a live lease of another replica is never taken.
+     *
+     * @param item  the request
+     * @param owner the ID of the replica running it
+     * @param lease the duration of the lease
+     * @return true if the request is now leased to the replica, false if another replica holds its lease
+     */
+    boolean register(WorkItem item, String owner, Duration lease);
+
+    /**
+     * Extends the lease of a request.
+     *
+     * @param token the token of the request
+     * @param owner the ID of the replica running it
+     * @param lease the new duration of the lease, from now
+     * @return true if the lease was extended, false if the replica does not hold it anymore
+     */
+    boolean renewLease(String token, String owner, Duration lease);
+
+    /**
+     * Removes a request that completed, if the given replica still holds its lease.
+     *
+     * @param token the token of the request
+     * @param owner the ID of the replica running it
+     */
+    void release(String token, String owner);
+
+    /**
+     * Takes over the requests whose lease expired, e.g. because the replica running them died.
+     *
+     * @param owner the ID of the replica taking them over
+     * @param lease the duration of the new leases
+     * @param limit the maximum number of requests to take over
+     * @return the requests now leased to the replica
+     */
+    List<WorkItem> claimExpired(String owner, Duration lease, int limit);
+}
@@ -0,0 +1,84 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coordination backend kept in the memory of the process, for deployments with a single replica.
+ */
+@Component
+@ConditionalOnProperty(prefix = "coordination", name = "backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCoordinationBackend implements CoordinationBackend {
+
+    private record StoredStatus(ProvisioningStatus status, Instant updatedAt) {}
+
+    private record Lease(WorkItem item, String owner, Instant expiresAt) {}
+
+    private final Map<String, StoredStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public void saveStatus(String token, ProvisioningStatus status) {
+        statuses.put(token, new StoredStatus(status, Instant.now()));
+    }
+
+    @Override
+    public Optional<ProvisioningStatus> findStatus(String token) {
+        return Optional.ofNullable(statuses.get(token)).map(StoredStatus::status);
+    }
+
+    @Override
+    public void purgeStatuses(Instant updatedBefore) {
+        statuses.values().removeIf(stored -> stored.updatedAt().isBefore(updatedBefore));
+    }
+
+    @Override
+    public boolean register(WorkItem item, String owner, Duration lease) {
+        Instant now = Instant.now();
+        Lease registered = leases.compute(
+                item.token(),
+                (key, current) -> current == null
+                                || current.owner().equals(owner)
+                                || !current.expiresAt().isAfter(now)
+                        ? new Lease(item, owner, now.plus(lease))
+                        : current);
+        return registered.owner().equals(owner);
+    }
+
+    @Override
+    public boolean renewLease(String token, String owner, Duration lease) {
+        Lease renewed = leases.computeIfPresent(
+                token,
+                (key, current) -> current.owner().equals(owner)
+                        ? new Lease(current.item(), owner, Instant.now().plus(lease))
+                        : current);
+        return renewed != null && renewed.owner().equals(owner);
+    }
+
+    @Override
+    public void release(String token, String owner) {
+        leases.computeIfPresent(token, (key, current) -> current.owner().equals(owner) ? null : current);
+    }
+
+    @Override
+    public List<WorkItem> claimExpired(String owner, Duration lease, int limit) {
+        List<WorkItem> claimed = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Lease current : leases.values()) {
+            if (claimed.size() >= limit) break;
+            if (current.expiresAt().isAfter(now)) continue;
+            if (leases.replace(current.item().token(), current, new Lease(current.item(), owner, now.plus(lease)))) {
+                claimed.add(current.item());
+            }
+        }
+        return claimed;
+    }
+}
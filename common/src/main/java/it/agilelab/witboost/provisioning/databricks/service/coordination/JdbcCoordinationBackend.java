@@ -0,0 +1,201 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import it.agilelab.witboost.provisioning.databricks.config.CoordinationConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coordination backend storing the status of the requests and the leases in a relational database shared by the
+ * replicas, configured through the {@code spring.datasource} properties.
+ * <p>
+ * A lease is claimed with a conditional update on its current owner and expiry, so that when several replicas try to
+ * take over the same request only one of them succeeds. The expiry of the leases is computed with the clock of each
+ * replica, which must therefore be kept in sync.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "coordination", name = "backend", havingValue = "jdbc")
+@Slf4j
+public class JdbcCoordinationBackend implements CoordinationBackend {
+
+    private static final String CREATE_STATUS_TABLE = "CREATE TABLE IF NOT EXISTS provisioning_status ("
+            + "token VARCHAR(64) PRIMARY KEY, status VARCHAR(32) NOT NULL, body TEXT NOT NULL, updated_at BIGINT NOT NULL)";
+    private static final String CREATE_WORK_TABLE = "CREATE TABLE IF NOT EXISTS provisioning_work ("
+            + "token VARCHAR(64) PRIMARY KEY, provisioning BOOLEAN NOT NULL, request TEXT NOT NULL, "
+            + "lease_owner VARCHAR(255) NOT NULL, lease_until BIGINT NOT NULL)";
+
+    private record Lease(String token, String owner, long leaseUntil, boolean provisioning, String request) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CoordinationConfig coordinationConfig;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public JdbcCoordinationBackend(JdbcTemplate jdbcTemplate, CoordinationConfig coordinationConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.coordinationConfig = coordinationConfig;
+    }
+
+    @PostConstruct
+    public void initializeSchema() {
+        if (!coordinationConfig.isInitializeSchema()) return;
+        jdbcTemplate.execute(CREATE_STATUS_TABLE);
+        jdbcTemplate.execute(CREATE_WORK_TABLE);
+    }
+
+    @Override
+    public void saveStatus(String token, ProvisioningStatus status) {
+        String body = write(status);
+        long now = System.currentTimeMillis();
+        String state = status.getStatus().name();
+        int updated = jdbcTemplate.update(
+                "UPDATE provisioning_status SET status = ?, body = ?, updated_at = ? WHERE token = ?",
+                state,
+                body,
+                now,
+                token);
+        if (updated > 0) return;
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO provisioning_status (token, status, body, updated_at) VALUES (?, ?, ?, ?)",
+                    token,
+                    state,
+                    body,
+                    now);
+        } catch (DuplicateKeyException e) {
+            // Another replica inserted the status in the meantime
+            jdbcTemplate.update(
+                    "UPDATE provisioning_status SET status = ?, body = ?, updated_at = ? WHERE token = ?",
+                    state,
+                    body,
+                    now,
+                    token);
+        }
+    }
+
+    @Override
+    public Optional<ProvisioningStatus> findStatus(String token) {
+        return jdbcTemplate
+                .query(
+                        "SELECT body FROM provisioning_status WHERE token = ?",
+                        (rs, rowNum) -> rs.getString("body"),
+                        token)
+                .stream()
+                .findFirst()
+                .map(body -> read(body, ProvisioningStatus.class));
+    }
+
+    @Override
+    public void purgeStatuses(Instant updatedBefore) {
+        jdbcTemplate.update("DELETE FROM provisioning_status WHERE updated_at < ?", updatedBefore.toEpochMilli());
+    }
+
+    @Override
+    public boolean register(WorkItem item, String owner, Duration lease) {
+        String request = write(item.request());
+        long now = System.currentTimeMillis();
+        // A request already registered is only leased again by its owner, or once its lease expired
+        int updated = jdbcTemplate.update(
+                "UPDATE provisioning_work SET provisioning = ?, request = ?, lease_owner = ?, lease_until = ? WHERE token = ? AND (lease_owner = ? OR lease_until < ?)",
+                item.provisioning(),
+                request,
+                owner,
+                now + lease.toMillis(),
+                item.token(),
+                owner,
+                now);
+        if (updated > 0) return true;
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO provisioning_work (token, provisioning, request, lease_owner, lease_until) VALUES (?, ?, ?, ?, ?)",
+                    item.token(),
+                    item.provisioning(),
+                    request,
+                    owner,
+                    now + lease.toMillis());
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.warn("Request {} is leased to another replica", item.token());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean renewLease(String token, String owner, Duration lease) {
+        return jdbcTemplate.update(
+                        "UPDATE provisioning_work SET lease_until = ? WHERE token = ? AND lease_owner = ?",
+                        System.currentTimeMillis() + lease.toMillis(),
+                        token,
+                        owner)
+                > 0;
+    }
+
+    @Override
+    public void release(String token, String owner) {
+        jdbcTemplate.update("DELETE FROM provisioning_work WHERE token = ? AND lease_owner = ?", token, owner);
+    }
+
+    @Override
+    public List<WorkItem> claimExpired(String owner, Duration lease, int limit) {
+        long now = System.currentTimeMillis();
+        List<Lease> expired = jdbcTemplate.query(
+                "SELECT token, lease_owner, lease_until, provisioning, request FROM provisioning_work WHERE lease_until < ? ORDER BY lease_until",
+                (rs, rowNum) -> new Lease(
+                        rs.getString("token"),
+                        rs.getString("lease_owner"),
+                        rs.getLong("lease_until"),
+                        rs.getBoolean("provisioning"),
+                        rs.getString("request")),
+                now);
+        List<WorkItem> claimed = new ArrayList<>();
+        for (Lease candidate : expired) {
+            if (claimed.size() >= limit) break;
+            int updated = jdbcTemplate.update(
+                    "UPDATE provisioning_work SET lease_owner = ?, lease_until = ? WHERE token = ? AND lease_owner = ? AND lease_until = ?",
+                    owner,
+                    now + lease.toMillis(),
+                    candidate.token(),
+                    candidate.owner(),
+                    candidate.leaseUntil());
+            if (updated == 0) continue;
+            log.info("Took over request {} from replica {}", candidate.token(), candidate.owner());
+            claimed.add(new WorkItem(
+                    candidate.token(),
+                    candidate.provisioning(),
+                    read(candidate.request(), ProvisioningRequest.class)));
+        }
+        return claimed;
+    }
+
+    private String write(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize the coordination record", e);
+        }
+    }
+
+    private <T> T read(String value, Class<T> type) {
+        try {
+            return mapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to deserialize the coordination record", e);
+        }
+    }
+}
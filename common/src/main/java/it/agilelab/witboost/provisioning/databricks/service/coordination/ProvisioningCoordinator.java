@@ -0,0 +1,235 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import io.vavr.control.Try;
+import it.agilelab.witboost.provisioning.databricks.config.CoordinationConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coordinates the replicas of the tech adapter through the {@link CoordinationBackend}.
+ * <p>
+ * Every request is leased to the replica running it, which publishes its status to the backend so that any replica
+ * can answer a status request. A heartbeat renews the leases of the running requests and takes over the requests whose
+ * lease expired, e.g. because their replica was stopped. A replica that fails to renew a lease stops the request, as
+ * another replica may have taken it over.
+ * </p>
+ * <p>
+ * The backend is never on the critical path of a request: its failures are logged, and the replica keeps running the
+ * request and answering with its own status. The requests it could not register are registered by the next
+ * heartbeats, and their leases are not renewed until then.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ProvisioningCoordinator {
+
+    private final CoordinationBackend coordinationBackend;
+    private final CoordinationConfig coordinationConfig;
+    private final String instanceId;
+
+    private final Set<String> ownedTokens = ConcurrentHashMap.newKeySet();
+    // Requests running on this replica that the backend could not register yet, retried on every heartbeat
+    private final Map<String, CoordinationBackend.WorkItem> unregisteredItems = new ConcurrentHashMap<>();
+    private ScheduledExecutorService heartbeatScheduler;
+    private Consumer<CoordinationBackend.WorkItem> takeOverHandler = item -> {};
+    private Consumer<String> leaseLostHandler = token -> {};
+
+    public ProvisioningCoordinator(CoordinationBackend coordinationBackend, CoordinationConfig coordinationConfig) {
+        this.coordinationBackend = coordinationBackend;
+        this.coordinationConfig = coordinationConfig;
+        String configuredInstanceId = coordinationConfig.getInstanceId();
+        this.instanceId = configuredInstanceId != null && !configuredInstanceId.isBlank()
+                ? configuredInstanceId
+                : Try.of(() -> InetAddress.getLocalHost().getHostName()).getOrElse("tech-adapter") + "-"
+                        + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Starts the heartbeat of the replica.
+     *
+     * @param takeOverHandler  runs a request taken over from another replica
+     * @param leaseLostHandler stops a request whose lease could not be renewed
+     */
+    public synchronized void start(
+            Consumer<CoordinationBackend.WorkItem> takeOverHandler, Consumer<String> leaseLostHandler) {
+        if (heartbeatScheduler != null) return;
+        this.takeOverHandler = takeOverHandler;
+        this.leaseLostHandler = leaseLostHandler;
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = coordinationConfig.getHeartbeatInterval().toMillis();
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Replica {} joined the provisioning coordination", instanceId);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (heartbeatScheduler != null) heartbeatScheduler.shutdownNow();
+        heartbeatScheduler = null;
+    }
+
+    /**
+     * Leases a request to this replica.
+     *
+     * @param token        the token of the request
+     * @param provisioning true for a provisioning request, false for an unprovisioning one
+     * @param request      the request, run again by the replica taking it over if this one stops
+     * @return true if the request is leased to this replica, false if another replica holds its lease. A request that
+     *         cannot be registered because the backend is unavailable is considered leased to this replica, and its
+     *         registration is retried by the heartbeat.
+     */
+    public boolean acquire(String token, boolean provisioning, ProvisioningRequest request) {
+        CoordinationBackend.WorkItem item = new CoordinationBackend.WorkItem(token, provisioning, request);
+        try {
+            boolean registered = coordinationBackend.register(item, instanceId, coordinationConfig.getLeaseDuration());
+            if (!registered) return false;
+        } catch (RuntimeException e) {
+            log.warn("Unable to register request {} in the coordination backend, retrying on the heartbeat", token, e);
+            unregisteredItems.put(token, item);
+        }
+        ownedTokens.add(token);
+        return true;
+    }
+
+    /**
+     * Releases a completed request, so that no other replica takes it over.
+     *
+     * @param token the token of the request
+     */
+    public void release(String token) {
+        if (!ownedTokens.remove(token)) return;
+        if (unregisteredItems.remove(token) != null) return;
+        releaseQuietly(token);
+    }
+
+    public boolean owns(String token) {
+        return ownedTokens.contains(token);
+    }
+
+    /**
+     * Publishes the status of a request. Only the replica holding the lease of the request publishes its status.
+     *
+     * @param token  the token of the request
+     * @param status the status of the request
+     */
+    public void saveStatus(String token, ProvisioningStatus status) {
+        if (status == null || !owns(token)) return;
+        try {
+            coordinationBackend.saveStatus(token, status);
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish the status of request {} to the coordination backend", token, e);
+        }
+    }
+
+    /**
+     * Retrieves the status of a request published by any replica.
+     *
+     * @param token the token of the request
+     * @return the status, or empty if it is unknown or the backend is unavailable
+     */
+    public Optional<ProvisioningStatus> findStatus(String token) {
+        try {
+            return coordinationBackend.findStatus(token);
+        } catch (RuntimeException e) {
+            log.warn("Unable to read the status of request {} from the coordination backend", token, e);
+            return Optional.empty();
+        }
+    }
+
+    // Each step runs even if the previous ones failed, so that a failing request does not stop the takeovers
+    void heartbeat() {
+        registerPendingItems();
+        renewLeases();
+        try {
+            takeOverExpiredLeases();
+        } catch (RuntimeException e) {
+            log.warn("Replica {} was unable to take over the expired requests", instanceId, e);
+        }
+        try {
+            coordinationBackend.purgeStatuses(Instant.now().minus(coordinationConfig.getStatusRetention()));
+        } catch (RuntimeException e) {
+            log.warn("Replica {} was unable to purge the old statuses", instanceId, e);
+        }
+    }
+
+    private void registerPendingItems() {
+        for (CoordinationBackend.WorkItem item : List.copyOf(unregisteredItems.values())) {
+            String token = item.token();
+            boolean registered;
+            try {
+                registered = coordinationBackend.register(item, instanceId, coordinationConfig.getLeaseDuration());
+            } catch (RuntimeException e) {
+                log.warn("Unable to register request {} in the coordination backend", token, e);
+                continue;
+            }
+            // Released meanwhile, so the registration is undone
+            if (unregisteredItems.remove(token) == null) {
+                releaseQuietly(token);
+                continue;
+            }
+            if (registered) {
+                log.info("Replica {} registered request {}", instanceId, token);
+            } else if (ownedTokens.remove(token)) {
+                log.warn("Replica {} found request {} leased to another replica, stopping it", instanceId, token);
+                leaseLostHandler.accept(token);
+            }
+        }
+    }
+
+    private void renewLeases() {
+        for (String token : List.copyOf(ownedTokens)) {
+            if (unregisteredItems.containsKey(token)) continue;
+            boolean renewed;
+            try {
+                renewed = coordinationBackend.renewLease(token, instanceId, coordinationConfig.getLeaseDuration());
+            } catch (RuntimeException e) {
+                // The lease may still be valid, it is renewed again on the next heartbeat
+                log.warn("Unable to renew the lease of request {}", token, e);
+                continue;
+            }
+            if (renewed || !ownedTokens.remove(token)) continue;
+            log.warn("Replica {} lost the lease of request {}, stopping it", instanceId, token);
+            leaseLostHandler.accept(token);
+        }
+    }
+
+    private void releaseQuietly(String token) {
+        try {
+            coordinationBackend.release(token, instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Unable to release request {} in the coordination backend", token, e);
+        }
+    }
+
+    private void takeOverExpiredLeases() {
+        List<CoordinationBackend.WorkItem> claimed = coordinationBackend.claimExpired(
+                instanceId, coordinationConfig.getLeaseDuration(), coordinationConfig.getTakeoverBatchSize());
+        for (CoordinationBackend.WorkItem item : claimed) {
+            ownedTokens.add(item.token());
+            log.info("Replica {} took over request {}", instanceId, item.token());
+            takeOverHandler.accept(item);
+        }
+    }
+}
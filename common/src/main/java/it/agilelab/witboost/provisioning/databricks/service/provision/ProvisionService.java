@@ -1,8 +1,11 @@
 package it.agilelab.witboost.provisioning.databricks.service.provision;
 
+import it.agilelab.witboost.provisioning.databricks.common.IdempotencyKeyConflictException;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.ValidationResult;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /***
  * Provision services
@@ -24,6 +27,17 @@ public interface ProvisionService {
      */
     String provision(ProvisioningRequest provisioningRequest);
 
+    /**
+     * Provision the component present in the request, unless a request with the same idempotency key is running or
+     * completed recently
+     *
+     * @param provisioningRequest the request
+     * @param idempotencyKey      the key identifying repeated submissions of the same request
+     * @return a token that can be used for polling the request status, shared by the repeated submissions
+     * @throws IdempotencyKeyConflictException if the key was used for a different request
+     */
+    String provision(ProvisioningRequest provisioningRequest, String idempotencyKey);
+
     /**
      * Unprovision the component present in the request
      *
@@ -32,6 +46,17 @@ public interface ProvisionService {
      */
     String unprovision(ProvisioningRequest provisioningRequest);
 
+    /**
+     * Unprovision the component present in the request, unless a request with the same idempotency key is running
+     * or completed recently
+     *
+     * @param provisioningRequest the request
+     * @param idempotencyKey      the key identifying repeated submissions of the same request
+     * @return a token that can be used for polling the request status, shared by the repeated submissions
+     * @throws IdempotencyKeyConflictException if the key was used for a different request
+     */
+    String unprovision(ProvisioningRequest provisioningRequest, String idempotencyKey);
+
     /**
      * Get the provisioning status of a previous request
      *
@@ -39,4 +64,33 @@ public interface ProvisionService {
      * @return the outcome of the request
      */
     ProvisioningStatus getStatus(String token);
+
+    /**
+     * Get the provisioning status of a previous request, waiting for it to change if the request is running. No thread
+     * is blocked while waiting
+     *
+     * @param token   the token returned by the previous asynchronous request
+     * @param timeout the maximum time to wait for a change of the status
+     * @return a future completed with the status of the request after its change, or with the current status if it did
+     * not change in time
+     */
+    CompletableFuture<ProvisioningStatus> awaitStatusChange(String token, Duration timeout);
+
+    /**
+     * Register a webhook notified when a previous request completes
+     *
+     * @param token the token returned by the previous asynchronous request
+     * @param url   the URL of the webhook
+     * @return the current status of the request
+     */
+    ProvisioningStatus registerCallback(String token, String url);
+
+    /**
+     * Cancel a running provisioning or unprovisioning request
+     *
+     * @param token  the token returned by the previous asynchronous request
+     * @param reason the reason of the cancellation, reported in the status of the request
+     * @return the status of the request after the cancellation
+     */
+    ProvisioningStatus cancel(String token, String reason);
 }
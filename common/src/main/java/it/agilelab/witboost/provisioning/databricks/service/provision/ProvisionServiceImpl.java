@@ -7,12 +7,24 @@ import com.azure.resourcemanager.databricks.models.ProvisioningState;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.service.catalog.TableInfo;
 import com.databricks.sdk.service.jobs.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.vavr.control.Either;
+import io.vavr.control.Try;
 import it.agilelab.witboost.provisioning.databricks.client.JobManager;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.IdempotencyKeyConflictException;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
 import it.agilelab.witboost.provisioning.databricks.config.MiscConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.RequestDeduplicationConfig;
+import it.agilelab.witboost.provisioning.databricks.config.TaskDeadlineConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
 import it.agilelab.witboost.provisioning.databricks.model.Component;
+import it.agilelab.witboost.provisioning.databricks.model.DataProduct;
+import it.agilelab.witboost.provisioning.databricks.model.Descriptor;
 import it.agilelab.witboost.provisioning.databricks.model.ProvisionRequest;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.outputport.DatabricksOutputPortSpecific;
@@ -20,25 +32,44 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.workflow.Da
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.dlt.DatabricksDLTWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.job.DatabricksJobWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.*;
+import it.agilelab.witboost.provisioning.databricks.parser.Parser;
 import it.agilelab.witboost.provisioning.databricks.service.WorkspaceHandler;
+import it.agilelab.witboost.provisioning.databricks.service.coordination.CoordinationBackend;
+import it.agilelab.witboost.provisioning.databricks.service.coordination.ProvisioningCoordinator;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.DLTWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.JobWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.OutputPortHandler;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.WorkflowWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.validation.ValidationService;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ProvisionServiceImpl implements ProvisionService {
 
     private final ConcurrentHashMap<String, ProvisioningStatus> statusMap = new ConcurrentHashMap<>();
-    private final ForkJoinPool forkJoinPool;
+    private final ConcurrentHashMap<String, Deadline> runningTasks = new ConcurrentHashMap<>();
+    // Requests submitted recently, keyed by deduplication key
+    private final ConcurrentHashMap<String, SubmittedRequest> submittedRequests = new ConcurrentHashMap<>();
+    private final ProvisioningScheduler provisioningScheduler;
     private final ValidationService validationService;
     private final JobWorkloadHandler jobWorkloadHandler;
     private final DLTWorkloadHandler dltWorkloadHandler;
@@ -47,8 +78,19 @@ public class ProvisionServiceImpl implements ProvisionService {
     private final OutputPortHandler outputPortHandler;
     private final String WORKLOAD_KIND = "workload";
     private final String OUTPUTPORT_KIND = "outputport";
+    private static final String WORKSPACE_STAGE = "workspace";
     private final Logger logger = LoggerFactory.getLogger(ProvisionServiceImpl.class);
     private final MiscConfig miscConfig;
+    private final TaskDeadlineConfig taskDeadlineConfig;
+    private final RequestDeduplicationConfig requestDeduplicationConfig;
+    private final ProvisioningSchedulerConfig provisioningSchedulerConfig;
+    private final ProvisioningJournal provisioningJournal;
+    private final ProvisioningCoordinator provisioningCoordinator;
+    private final StatusChangeNotifier statusChangeNotifier;
+    private final WebhookNotifier webhookNotifier;
+    private final LongPollConfig longPollConfig;
+    private final ScheduledExecutorService deadlineScheduler;
+    private final ScheduledExecutorService longPollScheduler;
 
     public ProvisionServiceImpl(
             ValidationService validationService,
@@ -58,15 +100,58 @@ public class ProvisionServiceImpl implements ProvisionService {
             WorkspaceHandler workspaceHandler,
             OutputPortHandler outputPortHandler,
             ForkJoinPool forkJoinPool,
-            MiscConfig miscConfig) {
+            MiscConfig miscConfig,
+            TaskDeadlineConfig taskDeadlineConfig,
+            RequestDeduplicationConfig requestDeduplicationConfig,
+            ProvisioningSchedulerConfig provisioningSchedulerConfig,
+            WorkspaceBulkheadConfig workspaceBulkheadConfig,
+            ProvisioningJournal provisioningJournal,
+            ProvisioningCoordinator provisioningCoordinator,
+            StatusChangeNotifier statusChangeNotifier,
+            WebhookNotifier webhookNotifier,
+            LongPollConfig longPollConfig,
+            MeterRegistry meterRegistry) {
         this.validationService = validationService;
         this.jobWorkloadHandler = jobWorkloadHandler;
         this.workspaceHandler = workspaceHandler;
-        this.forkJoinPool = forkJoinPool;
+        this.provisioningScheduler = new ProvisioningScheduler(
+                forkJoinPool, provisioningSchedulerConfig, workspaceBulkheadConfig, meterRegistry);
         this.dltWorkloadHandler = dltWorkloadHandler;
         this.outputPortHandler = outputPortHandler;
         this.workflowWorkloadHandler = workflowWorkloadHandler;
         this.miscConfig = miscConfig;
+        this.taskDeadlineConfig = taskDeadlineConfig;
+        this.requestDeduplicationConfig = requestDeduplicationConfig;
+        this.provisioningSchedulerConfig = provisioningSchedulerConfig;
+        this.provisioningJournal = provisioningJournal;
+        this.provisioningCoordinator = provisioningCoordinator;
+        this.statusChangeNotifier = statusChangeNotifier;
+        this.webhookNotifier = webhookNotifier;
+        this.longPollConfig = longPollConfig;
+        this.deadlineScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.longPollScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-longpoll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record SubmittedRequest(
+            String token, boolean provisioning, String componentId, String requestHash, Instant completedAt) {
+
+        SubmittedRequest completed() {
+            return new SubmittedRequest(token, provisioning, componentId, requestHash, Instant.now());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        deadlineScheduler.shutdownNow();
+        longPollScheduler.shutdownNow();
     }
 
     @Override
@@ -83,28 +168,192 @@ public class ProvisionServiceImpl implements ProvisionService {
 
     @Override
     public String provision(ProvisioningRequest provisioningRequest) {
-        return startProvisioning(provisioningRequest, true);
+        return startProvisioning(provisioningRequest, true, null);
+    }
+
+    @Override
+    public String provision(ProvisioningRequest provisioningRequest, String idempotencyKey) {
+        return startProvisioning(provisioningRequest, true, idempotencyKey);
     }
 
     @Override
     public ProvisioningStatus getStatus(String token) {
-        return statusMap.getOrDefault(
-                token, new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "Token not found"));
+        return findStatus(token)
+                .orElseGet(() -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "Token not found"));
+    }
+
+    // The requests run by other replicas, or taken over by them, are answered with the shared status
+    private Optional<ProvisioningStatus> findStatus(String token) {
+        ProvisioningStatus localStatus = statusMap.get(token);
+        if (localStatus != null && provisioningCoordinator.owns(token)) return Optional.of(localStatus);
+        return provisioningCoordinator.findStatus(token).or(() -> Optional.ofNullable(localStatus));
+    }
+
+    @Override
+    public CompletableFuture<ProvisioningStatus> awaitStatusChange(String token, Duration timeout) {
+        ProvisioningStatus initialStatus = getStatus(token);
+        boolean waiting = timeout != null && timeout.compareTo(Duration.ZERO) > 0;
+        if (!waiting || initialStatus.getStatus() != ProvisioningStatus.StatusEnum.RUNNING) {
+            return CompletableFuture.completedFuture(initialStatus);
+        }
+
+        Duration maxWait = longPollConfig.getMaxWait();
+        Duration wait = timeout.compareTo(maxWait) < 0 ? timeout : maxWait;
+        CompletableFuture<ProvisioningStatus> changed = new CompletableFuture<>();
+        // No thread waits for the change: the future is completed by the thread changing the status or by a check
+        Runnable unsubscribe = statusChangeNotifier.subscribe(token, changed::complete);
+        // Requests run by other replicas do not notify this one, so their status is read again periodically
+        long checkInterval = longPollConfig.getCheckInterval().toMillis();
+        ScheduledFuture<?> check = longPollScheduler.scheduleWithFixedDelay(
+                () -> {
+                    ProvisioningStatus currentStatus = getStatus(token);
+                    if (!currentStatus.equals(initialStatus)) changed.complete(currentStatus);
+                },
+                checkInterval,
+                checkInterval,
+                TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> expiry = longPollScheduler.schedule(
+                () -> changed.complete(getStatus(token)), wait.toMillis(), TimeUnit.MILLISECONDS);
+        changed.whenComplete((status, error) -> {
+            unsubscribe.run();
+            check.cancel(false);
+            expiry.cancel(false);
+        });
+        // The status may have changed before the subscription
+        ProvisioningStatus currentStatus = getStatus(token);
+        if (!currentStatus.equals(initialStatus)) changed.complete(currentStatus);
+        return changed;
+    }
+
+    @Override
+    public ProvisioningStatus registerCallback(String token, String url) {
+        if (findStatus(token).isEmpty()) {
+            String errorMessage = String.format("The request %s was not found", token);
+            throw new TechAdapterValidationException(
+                    errorMessage, FailedOperation.singleProblemFailedOperation(errorMessage), token, "token");
+        }
+        webhookNotifier.register(token, url, () -> getStatus(token));
+        return getStatus(token);
     }
 
     @Override
     public String unprovision(ProvisioningRequest provisioningRequest) {
-        return startProvisioning(provisioningRequest, false);
+        return startProvisioning(provisioningRequest, false, null);
+    }
+
+    @Override
+    public String unprovision(ProvisioningRequest provisioningRequest, String idempotencyKey) {
+        return startProvisioning(provisioningRequest, false, idempotencyKey);
     }
 
-    private String startProvisioning(ProvisioningRequest provisioningRequest, boolean isProvisioning) {
+    private String startProvisioning(
+            ProvisioningRequest provisioningRequest, boolean isProvisioning, String idempotencyKey) {
         String token = generateToken();
+
+        String requestHash = requestHash(provisioningRequest);
+        String deduplicationKey = deduplicationKey(isProvisioning, idempotencyKey, requestHash);
+        if (deduplicationKey != null) {
+            submittedRequests.values().removeIf(submitted -> !isReusable(submitted));
+            SubmittedRequest submission = submission(token, provisioningRequest, isProvisioning, requestHash);
+            SubmittedRequest submitted = submittedRequests.compute(
+                    deduplicationKey,
+                    (key, existing) -> existing != null && isReusable(existing) ? existing : submission);
+            if (submitted != submission) {
+                if (!submitted.requestHash().equals(requestHash)) {
+                    throw new IdempotencyKeyConflictException(idempotencyKey);
+                }
+                logger.info("Duplicate submission of request {}, returning its token", submitted.token());
+                return submitted.token();
+            }
+            supersedeOppositeOperation(submission);
+        }
+
+        ProvisioningStatus response = new ProvisioningStatus(
+                ProvisioningStatus.StatusEnum.RUNNING,
+                (isProvisioning ? "Provisioning" : "Unprovisioning") + " in progress");
+        statusMap.put(token, response);
+        provisioningJournal.recordAccepted(token, isProvisioning, provisioningRequest);
+        provisioningCoordinator.acquire(token, isProvisioning, provisioningRequest);
+        provisioningCoordinator.saveStatus(token, response);
+
+        runProvisioning(token, provisioningRequest, isProvisioning, deduplicationKey);
+
+        return token;
+    }
+
+    /**
+     * Resumes the tasks that were accepted but did not complete before the last shutdown, and restores the status of
+     * the tasks completed before it. Stages a resumed task already completed are not run again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedTasks() {
+        ProvisioningJournal.Recovery recovery = provisioningJournal.recover();
+        statusMap.putAll(recovery.statuses());
+        recovery.pendingTasks().forEach(pendingTask -> {
+            String token = pendingTask.token();
+            // Another replica may have taken the request over while this one was down
+            if (!provisioningCoordinator.acquire(token, pendingTask.provisioning(), pendingTask.request())) {
+                logger.info("Not resuming the request {}, as another replica took it over", token);
+                provisioningCoordinator
+                        .findStatus(token)
+                        .ifPresent(status -> provisioningJournal.recordCompleted(token, status));
+                return;
+            }
+            logger.info(
+                    "Resuming the {} request {} interrupted by the restart",
+                    pendingTask.provisioning() ? "provisioning" : "unprovisioning",
+                    token);
+            resume(token, pendingTask.provisioning(), pendingTask.request());
+        });
+    }
+
+    /**
+     * Joins the other replicas: from now on, the requests whose replica stopped are taken over by this one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCoordination() {
+        provisioningCoordinator.start(this::takeOver, this::onLeaseLost);
+    }
+
+    private void takeOver(CoordinationBackend.WorkItem item) {
+        logger.info(
+                "Taking over the {} request {} from a stopped replica",
+                item.provisioning() ? "provisioning" : "unprovisioning",
+                item.token());
+        provisioningJournal.recordAccepted(item.token(), item.provisioning(), item.request());
+        resume(item.token(), item.provisioning(), item.request());
+    }
+
+    // Another replica may have taken the request over, so this one stops running it
+    private void onLeaseLost(String token) {
+        Deadline deadline = runningTasks.get(token);
+        if (deadline == null) return;
+        updateStatus(
+                token,
+                ProvisioningStatus.StatusEnum.FAILED,
+                "The request was stopped on this replica because its lease expired");
+        deadline.expire();
+    }
+
+    private void resume(String token, boolean isProvisioning, ProvisioningRequest provisioningRequest) {
         ProvisioningStatus response = new ProvisioningStatus(
                 ProvisioningStatus.StatusEnum.RUNNING,
                 (isProvisioning ? "Provisioning" : "Unprovisioning") + " in progress");
         statusMap.put(token, response);
+        provisioningCoordinator.saveStatus(token, response);
+        String requestHash = requestHash(provisioningRequest);
+        String deduplicationKey = deduplicationKey(isProvisioning, null, requestHash);
+        if (deduplicationKey != null) {
+            SubmittedRequest submission = submission(token, provisioningRequest, isProvisioning, requestHash);
+            submittedRequests.put(deduplicationKey, submission);
+            supersedeOppositeOperation(submission);
+        }
+        runProvisioning(token, provisioningRequest, isProvisioning, deduplicationKey);
+    }
 
-        forkJoinPool.submit(() -> {
+    private void runProvisioning(
+            String token, ProvisioningRequest provisioningRequest, boolean isProvisioning, String deduplicationKey) {
+        Runnable task = () -> {
             var eitherValidation = validationService.validate(provisioningRequest);
             if (eitherValidation.isLeft()) {
                 handleValidationFailure(token, eitherValidation.getLeft());
@@ -130,9 +379,143 @@ public class ProvisionServiceImpl implements ProvisionService {
                                     "The kind '%s' of the component is not supported by this Specific Provisioner",
                                     provisionRequest.component().getKind()));
             }
-        });
+        };
+
+        // The time budget starts once a worker picks the task up, until then the task can only be cancelled
+        Deadline queued = Deadline.unbounded();
+        runningTasks.put(token, queued);
+
+        Runnable scheduledTask = () -> {
+            ScheduledFuture<?> expiry = null;
+            try {
+                // A task cancelled while waiting for a worker does not start at all
+                if (queued.isExpired()) return;
+                Duration timeout = taskDeadlineConfig.getTimeout();
+                boolean bounded = timeout != null && !timeout.isZero() && !timeout.isNegative();
+                Deadline deadline = bounded ? Deadline.after(timeout) : Deadline.unbounded();
+                // Cancelled tasks set their own status before expiring the deadline, so this one applies on timeout
+                deadline.onExpiry(() -> {
+                    String errorMessage = String.format(
+                            "%s did not complete within %s and was cancelled. Please try again and if the error persists contact the platform team.",
+                            isProvisioning ? "Provisioning" : "Unprovisioning", timeout);
+                    logger.error("{} (token: {})", errorMessage, token);
+                    updateStatus(token, ProvisioningStatus.StatusEnum.FAILED, errorMessage);
+                });
+                expiry = bounded
+                        ? deadlineScheduler.schedule(deadline::expire, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                        : null;
+                runningTasks.put(token, deadline);
+                // Forwards a cancellation that reached the queued deadline just before the swap
+                queued.onExpiry(deadline::expire);
+                if (!deadline.isExpired()) deadline.run(task);
+            } finally {
+                runningTasks.remove(token);
+                if (expiry != null) expiry.cancel(false);
+                provisioningJournal.recordCompleted(token, statusMap.get(token));
+                provisioningCoordinator.release(token);
+                if (deduplicationKey != null) {
+                    submittedRequests.computeIfPresent(
+                            deduplicationKey,
+                            (key, submitted) ->
+                                    submitted.token().equals(token) ? submitted.completed() : submitted);
+                }
+            }
+        };
 
-        return token;
+        schedule(provisioningRequest, isProvisioning, scheduledTask);
+    }
+
+    /**
+     * Queues a task in the scheduler. The descriptor is parsed here only to read the data product and the workspace
+     * the task works on, it is validated by the task itself.
+     */
+    private void schedule(ProvisioningRequest provisioningRequest, boolean isProvisioning, Runnable task) {
+        Descriptor descriptor = Parser.parseDescriptor(provisioningRequest.getDescriptor()).getOrNull();
+        DataProduct dataProduct = descriptor == null ? null : descriptor.getDataProduct();
+        String workspace = Try.of(() -> dataProduct
+                        .getComponentToProvision(descriptor.getComponentIdToProvision())
+                        .get()
+                        .path("specific")
+                        .path("workspace")
+                        .textValue())
+                .getOrNull();
+        provisioningScheduler.submit(
+                dataProduct == null ? null : dataProduct.getId(),
+                dataProduct == null ? null : dataProduct.getDomain(),
+                workspace,
+                isProvisioning
+                        ? provisioningSchedulerConfig.getProvisionPriority()
+                        : provisioningSchedulerConfig.getUnprovisionPriority(),
+                task);
+    }
+
+    @Override
+    public ProvisioningStatus cancel(String token, String reason) {
+        Deadline deadline = runningTasks.get(token);
+        if (deadline == null) return getStatus(token);
+
+        String errorMessage = String.format(
+                "The request was cancelled. Reason: %s",
+                reason == null || reason.isBlank() ? "cancelled by the user" : reason);
+        logger.info("{} (token: {})", errorMessage, token);
+        updateStatus(token, ProvisioningStatus.StatusEnum.FAILED, errorMessage);
+        // Stops the remaining stages and cancels the running statements and Azure operations of the task
+        deadline.expire();
+        return getStatus(token);
+    }
+
+    /**
+     * Computes the key identifying repeated submissions of a request: the explicit idempotency key if any, or else the
+     * hash of the request, whose descriptor contains the ID of the component. The operation is part of the key, so
+     * that a provisioning and an unprovisioning of the same component are never deduplicated.
+     *
+     * @return the key, or null if the deduplication is disabled
+     */
+    private String deduplicationKey(boolean isProvisioning, String idempotencyKey, String requestHash) {
+        if (!requestDeduplicationConfig.isEnabled()) return null;
+        String operation = isProvisioning ? "provision" : "unprovision";
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) return operation + ":key:" + idempotencyKey;
+        return operation + ":descriptor:" + requestHash;
+    }
+
+    private static String requestHash(ProvisioningRequest provisioningRequest) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(provisioningRequest.getDescriptorKind()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(provisioningRequest.getDescriptor()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(provisioningRequest.getRemoveData()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SubmittedRequest submission(
+            String token, ProvisioningRequest provisioningRequest, boolean isProvisioning, String requestHash) {
+        String componentId = Parser.parseDescriptor(provisioningRequest.getDescriptor())
+                .map(Descriptor::getComponentIdToProvision)
+                .getOrNull();
+        return new SubmittedRequest(token, isProvisioning, componentId, requestHash, null);
+    }
+
+    // Once a component is provisioned, the earlier unprovisioning requests of it are stale, and vice versa
+    private void supersedeOppositeOperation(SubmittedRequest submission) {
+        if (submission.componentId() == null) return;
+        submittedRequests
+                .values()
+                .removeIf(submitted -> submitted.provisioning() != submission.provisioning()
+                        && submission.componentId().equals(submitted.componentId()));
+    }
+
+    // Running requests are always reused, completed ones only if they succeeded within the retention
+    private boolean isReusable(SubmittedRequest submitted) {
+        if (submitted.completedAt() == null) return true;
+        ProvisioningStatus status = statusMap.get(submitted.token());
+        return status != null
+                && status.getStatus() == ProvisioningStatus.StatusEnum.COMPLETED
+                && Instant.now().isBefore(submitted.completedAt().plus(requestDeduplicationConfig.getRetention()));
     }
 
     private void handleValidationFailure(String token, FailedOperation validationFailure) {
@@ -245,7 +628,7 @@ public class ProvisionServiceImpl implements ProvisionService {
         }
 
         Either<FailedOperation, DatabricksWorkspaceInfo> eitherCreatedWorkspace =
-                workspaceHandler.provisionWorkspace(provisionRequest);
+                provisionWorkspace(token, provisionRequest);
         if (eitherCreatedWorkspace.isLeft()) {
             handleFailure(token, eitherCreatedWorkspace.getLeft());
             return;
@@ -412,12 +795,43 @@ public class ProvisionServiceImpl implements ProvisionService {
     private void updateStatus(String token, ProvisioningStatus.StatusEnum status, String result, Info info) {
         ProvisioningStatus response = new ProvisioningStatus(status, result);
         response.setInfo(info);
-        statusMap.put(token, response);
+        // A task that ran out of its deadline keeps the failure, even if it completes afterwards
+        ProvisioningStatus updatedStatus = statusMap.compute(
+                token,
+                (key, current) -> current == null || current.getStatus() == ProvisioningStatus.StatusEnum.RUNNING
+                        ? response
+                        : current);
+        provisioningCoordinator.saveStatus(token, updatedStatus);
+        if (updatedStatus == response) statusChangeNotifier.publish(token, updatedStatus);
     }
 
-    private void provisionJob(ProvisionRequest provisionRequest, String token) {
+    /**
+     * Provisions the workspace of a component, the slowest stage of a provisioning. A task resumed after a restart
+     * reuses the workspace it provisioned before it.
+     */
+    private Either<FailedOperation, DatabricksWorkspaceInfo> provisionWorkspace(
+            String token, ProvisionRequest provisionRequest) {
+        Optional<DatabricksWorkspaceInfo> provisionedWorkspace =
+                provisioningJournal.stageOutput(token, WORKSPACE_STAGE, DatabricksWorkspaceInfo.class);
+        if (provisionedWorkspace.isPresent()) {
+            logger.info(
+                    "Workspace {} already provisioned before the restart, skipping its provisioning",
+                    provisionedWorkspace.get().getName());
+            return right(provisionedWorkspace.get());
+        }
         Either<FailedOperation, DatabricksWorkspaceInfo> eitherCreatedWorkspace =
                 workspaceHandler.provisionWorkspace(provisionRequest);
+        // Only a usable workspace is a completed stage, otherwise the resumed task checks its state again
+        if (eitherCreatedWorkspace.isRight()
+                && ProvisioningState.SUCCEEDED.equals(eitherCreatedWorkspace.get().getProvisioningState())) {
+            provisioningJournal.recordStage(token, WORKSPACE_STAGE, eitherCreatedWorkspace.get());
+        }
+        return eitherCreatedWorkspace;
+    }
+
+    private void provisionJob(ProvisionRequest provisionRequest, String token) {
+        Either<FailedOperation, DatabricksWorkspaceInfo> eitherCreatedWorkspace =
+                provisionWorkspace(token, provisionRequest);
         if (eitherCreatedWorkspace.isLeft()) {
             handleFailure(token, eitherCreatedWorkspace.getLeft());
             return;
@@ -463,7 +877,7 @@ public class ProvisionServiceImpl implements ProvisionService {
 
     private void provisionDLT(ProvisionRequest provisionRequest, String token) {
         Either<FailedOperation, DatabricksWorkspaceInfo> eitherCreatedWorkspace =
-                workspaceHandler.provisionWorkspace(provisionRequest);
+                provisionWorkspace(token, provisionRequest);
         if (eitherCreatedWorkspace.isLeft()) {
             handleFailure(token, eitherCreatedWorkspace.getLeft());
             return;
@@ -659,7 +1073,7 @@ public class ProvisionServiceImpl implements ProvisionService {
 
         // Check if workspace exists or creates it.
         Either<FailedOperation, DatabricksWorkspaceInfo> eitherCreatedWorkspace =
-                workspaceHandler.provisionWorkspace(provisionRequest);
+                provisionWorkspace(token, provisionRequest);
         if (eitherCreatedWorkspace.isLeft()) {
             handleFailure(token, eitherCreatedWorkspace.getLeft());
             return;
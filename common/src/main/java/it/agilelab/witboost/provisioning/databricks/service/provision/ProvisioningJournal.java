@@ -0,0 +1,355 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningJournalConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Durable journal of the provisioning tasks, kept in an append-only file with one JSON record per line.
+ * <p>
+ * A task is recorded when it is accepted, after each completed stage together with the output of the stage, and
+ * when it reaches its final status. The records of the stages and of the final status are flushed to disk before the
+ * call returns, while the accepted tasks are flushed together every {@code flushInterval}, so that the request
+ * threads do not wait for the disk. On startup the journal is read back: the tasks accepted but never completed are
+ * returned by {@link #recover()} to be run again, with the outputs of their completed stages available through
+ * {@link #stageOutput(String, String, Class)}, and the final status of the tasks completed within the retention is
+ * restored. The file is compacted to these records on startup and then every {@code compactionInterval}.
+ * </p>
+ * <p>
+ * A record cut by a crash while it was being written is skipped when the journal is read back.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ProvisioningJournal {
+
+    /**
+     * A task accepted before the restart that never completed.
+     */
+    public record PendingTask(String token, boolean provisioning, ProvisioningRequest request) {}
+
+    /**
+     * The state read back from the journal on startup.
+     */
+    public record Recovery(List<PendingTask> pendingTasks, Map<String, ProvisioningStatus> statuses) {}
+
+    enum RecordType {
+        ACCEPTED,
+        STAGE,
+        COMPLETED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record JournalRecord(
+            RecordType type,
+            String token,
+            long timestamp,
+            Boolean provisioning,
+            ProvisioningRequest request,
+            String stage,
+            JsonNode output,
+            ProvisioningStatus status) {}
+
+    private record JournalContent(
+            Map<String, List<JournalRecord>> pendingRecords, Map<String, JournalRecord> completedRecords) {}
+
+    private final ProvisioningJournalConfig provisioningJournalConfig;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Outputs of the completed stages of the running tasks, by token and stage
+    private final Map<String, Map<String, JsonNode>> stageOutputs = new ConcurrentHashMap<>();
+    // Whether records were written since the last flush to disk
+    private final AtomicBoolean unflushed = new AtomicBoolean(false);
+    private FileChannel channel;
+    private ScheduledExecutorService scheduler;
+    private Recovery recovery = new Recovery(List.of(), Map.of());
+
+    public ProvisioningJournal(ProvisioningJournalConfig provisioningJournalConfig) {
+        this.provisioningJournalConfig = provisioningJournalConfig;
+    }
+
+    /**
+     * Reads back the journal left by the previous run, compacts it and opens it for appending.
+     *
+     * @throws IOException if the journal cannot be read or written
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!provisioningJournalConfig.isEnabled()) return;
+        Path path = Path.of(provisioningJournalConfig.getPath());
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+
+        JournalContent content = rewrite(path);
+        List<PendingTask> pendingTasks = new ArrayList<>();
+        content.pendingRecords().forEach((token, records) -> {
+            JournalRecord accepted = records.get(0);
+            pendingTasks.add(new PendingTask(token, Boolean.TRUE.equals(accepted.provisioning()), accepted.request()));
+            records.stream()
+                    .filter(journalRecord -> journalRecord.type() == RecordType.STAGE)
+                    .forEach(stage -> stageOutputs
+                            .computeIfAbsent(token, key -> new ConcurrentHashMap<>())
+                            .put(stage.stage(), stage.output()));
+        });
+        Map<String, ProvisioningStatus> statuses = new LinkedHashMap<>();
+        content.completedRecords().forEach((token, completed) -> statuses.put(token, completed.status()));
+        recovery = new Recovery(pendingTasks, statuses);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushInterval = provisioningJournalConfig.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        long compactionInterval = provisioningJournalConfig.getCompactionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::compact, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+
+        log.info(
+                "Provisioning journal {} opened: {} unfinished tasks to resume, {} completed tasks restored",
+                path,
+                pendingTasks.size(),
+                statuses.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        // Not interrupted, as an interrupt would close the channel while it is being flushed
+        if (scheduler != null) scheduler.shutdown();
+        scheduler = null;
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = null;
+    }
+
+    /**
+     * Compacts the journal to the records of the unfinished tasks and of the tasks completed within the retention, so
+     * that it does not grow while the application runs. Appends wait for the compaction to complete.
+     */
+    synchronized void compact() {
+        if (channel == null) return;
+        Path path = Path.of(provisioningJournalConfig.getPath());
+        try {
+            JournalContent content = rewrite(path);
+            FileChannel previous = channel;
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } finally {
+                previous.close();
+            }
+            log.info(
+                    "Provisioning journal {} compacted: {} unfinished tasks, {} completed tasks",
+                    path,
+                    content.pendingRecords().size(),
+                    content.completedRecords().size());
+        } catch (IOException e) {
+            log.error("Failed to compact the provisioning journal {}", path, e);
+        }
+    }
+
+    /**
+     * Reads the journal, drops the tasks completed beyond the retention and replaces the journal with the remaining
+     * records. The compacted journal is written aside and moved over the old one, so that a crash leaves either of
+     * them.
+     */
+    private JournalContent rewrite(Path path) throws IOException {
+        Map<String, List<JournalRecord>> pendingRecords = new LinkedHashMap<>();
+        Map<String, JournalRecord> completedRecords = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                JournalRecord journalRecord;
+                try {
+                    journalRecord = mapper.readValue(line, JournalRecord.class);
+                } catch (IOException e) {
+                    log.warn("Skipping a corrupted record of the provisioning journal {}", path, e);
+                    continue;
+                }
+                switch (journalRecord.type()) {
+                    case ACCEPTED -> pendingRecords.put(journalRecord.token(), new ArrayList<>(List.of(journalRecord)));
+                    case STAGE -> Optional.ofNullable(pendingRecords.get(journalRecord.token()))
+                            .ifPresent(records -> records.add(journalRecord));
+                    case COMPLETED -> {
+                        pendingRecords.remove(journalRecord.token());
+                        completedRecords.put(journalRecord.token(), journalRecord);
+                    }
+                }
+            }
+        }
+
+        long retainedSince = Instant.now().minus(provisioningJournalConfig.getRetention()).toEpochMilli();
+        completedRecords.values().removeIf(completed -> completed.timestamp() <= retainedSince);
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+        try (FileChannel compactedChannel = FileChannel.open(
+                compacted,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (List<JournalRecord> records : pendingRecords.values()) {
+                for (JournalRecord journalRecord : records) write(compactedChannel, journalRecord);
+            }
+            for (JournalRecord journalRecord : completedRecords.values()) write(compactedChannel, journalRecord);
+            compactedChannel.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new JournalContent(pendingRecords, completedRecords);
+    }
+
+    /**
+     * Retrieves the state read back from the journal on startup. It is returned only once.
+     *
+     * @return the unfinished tasks to resume and the final status of the tasks completed within the retention
+     */
+    public synchronized Recovery recover() {
+        Recovery recovered = recovery;
+        recovery = new Recovery(List.of(), Map.of());
+        return recovered;
+    }
+
+    /**
+     * Records an accepted task. The record is written right away but flushed to disk by the next periodic flush, or
+     * by the next record of a stage or a final status, so that accepting a request does not wait for the disk.
+     *
+     * @param token        the token of the task
+     * @param provisioning whether the task provisions or unprovisions the component
+     * @param request      the request of the task
+     */
+    public void recordAccepted(String token, boolean provisioning, ProvisioningRequest request) {
+        append(
+                new JournalRecord(
+                        RecordType.ACCEPTED,
+                        token,
+                        System.currentTimeMillis(),
+                        provisioning,
+                        request,
+                        null,
+                        null,
+                        null),
+                false);
+    }
+
+    /**
+     * Records a completed stage of a task. If the task is resumed after a restart, the stage is not run again and its
+     * output is read from the journal instead.
+     *
+     * @param token  the token of the task
+     * @param stage  the name of the stage
+     * @param output the output of the stage
+     */
+    public void recordStage(String token, String stage, Object output) {
+        if (!provisioningJournalConfig.isEnabled()) return;
+        JsonNode outputNode = mapper.valueToTree(output);
+        stageOutputs.computeIfAbsent(token, key -> new ConcurrentHashMap<>()).put(stage, outputNode);
+        append(
+                new JournalRecord(
+                        RecordType.STAGE, token, System.currentTimeMillis(), null, null, stage, outputNode, null),
+                true);
+    }
+
+    public void recordCompleted(String token, ProvisioningStatus status) {
+        stageOutputs.remove(token);
+        append(
+                new JournalRecord(
+                        RecordType.COMPLETED, token, System.currentTimeMillis(), null, null, null, null, status),
+                true);
+    }
+
+    /**
+     * Retrieves the output of a stage that a task completed before the restart.
+     *
+     * @param token the token of the task
+     * @param stage the name of the stage
+     * @param type  the type of the output
+     * @return the output of the stage, or empty if the stage was not completed
+     */
+    public <T> Optional<T> stageOutput(String token, String stage, Class<T> type) {
+        return Optional.ofNullable(stageOutputs.get(token))
+                .map(outputs -> outputs.get(stage))
+                .flatMap(output -> {
+                    try {
+                        return Optional.of(mapper.treeToValue(output, type));
+                    } catch (IOException e) {
+                        log.warn("Ignoring the unreadable output of stage {} of task {}", stage, token, e);
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    // The disk is flushed outside the lock, so that the other appends do not wait for it
+    private void append(JournalRecord journalRecord, boolean flush) {
+        FileChannel target;
+        synchronized (this) {
+            if (channel == null) return;
+            try {
+                write(channel, journalRecord);
+            } catch (IOException e) {
+                // A task that cannot be journaled still runs, it is just not resumed after a restart
+                log.error(
+                        "Failed to write to the provisioning journal the {} record of task {}",
+                        journalRecord.type(),
+                        journalRecord.token(),
+                        e);
+                return;
+            }
+            unflushed.set(true);
+            target = channel;
+        }
+        if (flush) force(target);
+    }
+
+    private void flush() {
+        FileChannel target;
+        synchronized (this) {
+            target = channel;
+        }
+        if (target != null && unflushed.get()) force(target);
+    }
+
+    private void force(FileChannel target) {
+        unflushed.set(false);
+        try {
+            target.force(false);
+        } catch (ClosedChannelException e) {
+            // The journal was compacted meanwhile, and the compacted journal is already on disk
+        } catch (IOException e) {
+            unflushed.set(true);
+            log.error("Failed to flush the provisioning journal to disk", e);
+        }
+    }
+
+    private void write(FileChannel target, JournalRecord journalRecord) throws IOException {
+        byte[] line = (mapper.writeValueAsString(journalRecord) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) target.write(buffer);
+    }
+}
@@ -0,0 +1,239 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig.Priority;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schedules the provisioning tasks on the shared {@link ForkJoinPool}.
+ * <p>
+ * Instead of being submitted in arrival order, tasks wait in a start-time fair queue and at most
+ * {@code maxConcurrentTasks} of them run at the same time. Each data product has its own flow in each priority class:
+ * every task of a flow advances the flow's virtual time by {@code 1 / weight}, where the weight is the weight of the
+ * priority class times the weight of the domain, and the task with the lowest virtual start time runs next. A release
+ * of many components of a data product therefore does not delay the tasks of other data products, and the tasks of
+ * the higher priority classes get a larger share of the workers.
+ * </p>
+ * <p>
+ * Each workspace is also a bulkhead: the tasks of a workspace that already runs its maximum number of tasks stay in
+ * the queue of the workspace, and the workers go to the tasks of the other workspaces.
+ * </p>
+ * <p>
+ * The time spent in the queue and the number of queued tasks are exposed per priority class, the running and queued
+ * tasks and the saturation of the bulkheads per workspace.
+ * </p>
+ */
+@Slf4j
+public class ProvisioningScheduler {
+
+    static final String QUEUE_WAIT_METRIC = "provisioning.queue.wait";
+    static final String QUEUE_SIZE_METRIC = "provisioning.queue.size";
+    static final String BULKHEAD_ACTIVE_METRIC = "provisioning.bulkhead.active";
+    static final String BULKHEAD_QUEUED_METRIC = "provisioning.bulkhead.queued";
+    static final String BULKHEAD_SATURATED_METRIC = "provisioning.bulkhead.saturated";
+
+    private record QueuedTask(
+            String flow, Priority priority, double startTag, long sequence, long enqueuedAt, Runnable task) {}
+
+    private record Dispatched(Bulkhead bulkhead, QueuedTask queuedTask) {}
+
+    // Lowest virtual start time first, ties broken by priority class and then by arrival order
+    private static final Comparator<QueuedTask> QUEUE_ORDER = Comparator.comparingDouble(QueuedTask::startTag)
+            .thenComparing(QueuedTask::priority)
+            .thenComparingLong(QueuedTask::sequence);
+
+    private final ForkJoinPool forkJoinPool;
+    private final ProvisioningSchedulerConfig provisioningSchedulerConfig;
+    private final WorkspaceBulkheadConfig workspaceBulkheadConfig;
+    private final MeterRegistry meterRegistry;
+
+    // Queued tasks by workspace, tasks whose workspace is unknown are in the bulkhead with an empty name
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+    // Virtual finish time of the last task of each flow, kept only while ahead of the virtual time
+    private final Map<String, Double> finishTags = new HashMap<>();
+    private final Map<Priority, Integer> queueSizes = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> queueWaitTimers = new EnumMap<>(Priority.class);
+    private double virtualTime = 0;
+    private long sequence = 0;
+    private int running = 0;
+
+    public ProvisioningScheduler(
+            ForkJoinPool forkJoinPool,
+            ProvisioningSchedulerConfig provisioningSchedulerConfig,
+            WorkspaceBulkheadConfig workspaceBulkheadConfig,
+            MeterRegistry meterRegistry) {
+        this.forkJoinPool = forkJoinPool;
+        this.provisioningSchedulerConfig = provisioningSchedulerConfig;
+        this.workspaceBulkheadConfig = workspaceBulkheadConfig;
+        this.meterRegistry = meterRegistry;
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            queueSizes.put(priority, 0);
+            Gauge.builder(QUEUE_SIZE_METRIC, this, scheduler -> scheduler.queueSize(priority))
+                    .tag("priority", tag)
+                    .description("Provisioning tasks waiting for a worker")
+                    .register(meterRegistry);
+            queueWaitTimers.put(
+                    priority,
+                    Timer.builder(QUEUE_WAIT_METRIC)
+                            .tag("priority", tag)
+                            .description("Time spent by the provisioning tasks waiting for a worker")
+                            .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Queues a task and runs it as soon as its turn comes and its workspace has room for it.
+     *
+     * @param dataProduct the ID of the data product the task works on
+     * @param domain      the domain of the data product
+     * @param workspace   the workspace the task works on, or null if unknown
+     * @param priority    the priority class of the task
+     * @param task        the task to run
+     */
+    public void submit(String dataProduct, String domain, String workspace, Priority priority, Runnable task) {
+        if (!provisioningSchedulerConfig.isEnabled()) {
+            forkJoinPool.submit(task);
+            return;
+        }
+        synchronized (this) {
+            String flow = priority + ":" + Objects.toString(dataProduct, "");
+            double startTag = Math.max(virtualTime, finishTags.getOrDefault(flow, 0.0));
+            finishTags.put(flow, startTag + 1.0 / weight(domain, priority));
+            Bulkhead bulkhead = bulkheads.computeIfAbsent(normalize(workspace), Bulkhead::new);
+            if (bulkhead.isFull()) {
+                log.debug("Bulkhead of workspace {} is full, queueing the task of flow {}", bulkhead.workspace, flow);
+                bulkhead.onSaturation();
+            }
+            bulkhead.queue.add(new QueuedTask(flow, priority, startTag, sequence++, System.nanoTime(), task));
+            queueSizes.merge(priority, 1, Integer::sum);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        Dispatched next;
+        while ((next = next()) != null) {
+            Dispatched dispatched = next;
+            forkJoinPool.submit(() -> {
+                try {
+                    dispatched.queuedTask().task().run();
+                } finally {
+                    release(dispatched.bulkhead());
+                }
+            });
+        }
+    }
+
+    // Picks the queued task with the lowest virtual start time among the workspaces that are not full
+    private synchronized Dispatched next() {
+        int maxConcurrentTasks = Math.max(1, provisioningSchedulerConfig.getMaxConcurrentTasks());
+        if (running >= maxConcurrentTasks) return null;
+        Bulkhead selected = null;
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            if (bulkhead.queue.isEmpty() || bulkhead.isFull()) continue;
+            if (selected == null || QUEUE_ORDER.compare(bulkhead.queue.peek(), selected.queue.peek()) < 0) {
+                selected = bulkhead;
+            }
+        }
+        if (selected == null) return null;
+        QueuedTask next = selected.queue.poll();
+        running++;
+        selected.active++;
+        // Tasks held back by a full workspace may start after later ones, the virtual time never goes back
+        virtualTime = Math.max(virtualTime, next.startTag());
+        finishTags.values().removeIf(finishTag -> finishTag <= virtualTime);
+        queueSizes.merge(next.priority(), -1, Integer::sum);
+        long waitNanos = System.nanoTime() - next.enqueuedAt();
+        queueWaitTimers.get(next.priority()).record(waitNanos, TimeUnit.NANOSECONDS);
+        log.debug(
+                "Starting task of flow {} after {} ms in queue, {} tasks still queued",
+                next.flow(),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos),
+                queueSizes.values().stream().mapToInt(Integer::intValue).sum());
+        return new Dispatched(selected, next);
+    }
+
+    private void release(Bulkhead bulkhead) {
+        synchronized (this) {
+            running--;
+            bulkhead.active--;
+        }
+        dispatch();
+    }
+
+    private double weight(String domain, Priority priority) {
+        int priorityWeight = provisioningSchedulerConfig.getPriorityWeights().getOrDefault(priority, 1);
+        int domainWeight = domain == null
+                ? 1
+                : provisioningSchedulerConfig.getDomainWeights().getOrDefault(domain, 1);
+        return Math.max(1, priorityWeight) * Math.max(1, domainWeight);
+    }
+
+    synchronized int queueSize(Priority priority) {
+        return queueSizes.getOrDefault(priority, 0);
+    }
+
+    private synchronized int active(Bulkhead bulkhead) {
+        return bulkhead.active;
+    }
+
+    private synchronized int queued(Bulkhead bulkhead) {
+        return bulkhead.queue.size();
+    }
+
+    private static String normalize(String workspace) {
+        return workspace == null ? "" : workspace.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Bulkhead {
+
+        private final String workspace;
+        private final PriorityQueue<QueuedTask> queue = new PriorityQueue<>(QUEUE_ORDER);
+        private final Counter saturations;
+        private int active = 0;
+
+        private Bulkhead(String workspace) {
+            this.workspace = workspace;
+            if (workspace.isEmpty()) {
+                this.saturations = null;
+                return;
+            }
+            this.saturations = Counter.builder(BULKHEAD_SATURATED_METRIC)
+                    .tag("workspace", workspace)
+                    .description("Provisioning tasks queued because their workspace was running its maximum")
+                    .register(meterRegistry);
+            Gauge.builder(BULKHEAD_ACTIVE_METRIC, ProvisioningScheduler.this, scheduler -> scheduler.active(this))
+                    .tag("workspace", workspace)
+                    .description("Provisioning tasks of the workspace currently running")
+                    .register(meterRegistry);
+            Gauge.builder(BULKHEAD_QUEUED_METRIC, ProvisioningScheduler.this, scheduler -> scheduler.queued(this))
+                    .tag("workspace", workspace)
+                    .description("Provisioning tasks of the workspace waiting for a worker")
+                    .register(meterRegistry);
+        }
+
+        // Tasks whose workspace could not be read from the descriptor are never held back
+        private boolean isFull() {
+            if (!workspaceBulkheadConfig.isEnabled() || workspace.isEmpty()) return false;
+            int limit = workspaceBulkheadConfig.getWorkspaceLimits().entrySet().stream()
+                    .filter(workspaceLimit -> normalize(workspaceLimit.getKey()).equals(workspace))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(workspaceBulkheadConfig.getMaxConcurrentTasks());
+            return active >= Math.max(1, limit);
+        }
+
+        private void onSaturation() {
+            if (saturations != null) saturations.increment();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notifies the changes of the status of the requests run by this replica to the components waiting for them, i.e. the
+ * long-polling status requests and the webhooks.
+ */
+@Component
+@Slf4j
+public class StatusChangeNotifier {
+
+    private final Map<String, Set<Consumer<ProvisioningStatus>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribes to the changes of the status of a request.
+     *
+     * @param token    the token of the request
+     * @param listener called with the new status on every change, on the thread changing it
+     * @return a handle that unsubscribes the listener
+     */
+    public Runnable subscribe(String token, Consumer<ProvisioningStatus> listener) {
+        listeners.compute(token, (key, current) -> {
+            Set<Consumer<ProvisioningStatus>> updated = current == null ? ConcurrentHashMap.newKeySet() : current;
+            updated.add(listener);
+            return updated;
+        });
+        return () -> listeners.computeIfPresent(token, (key, current) -> {
+            current.remove(listener);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    /**
+     * Notifies a change of the status of a request to its listeners.
+     *
+     * @param token  the token of the request
+     * @param status the new status
+     */
+    public void publish(String token, ProvisioningStatus status) {
+        Set<Consumer<ProvisioningStatus>> tokenListeners = listeners.get(token);
+        if (tokenListeners == null) return;
+        for (Consumer<ProvisioningStatus> listener : tokenListeners) {
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.warn("A listener of the status of request {} failed", token, e);
+            }
+        }
+    }
+}
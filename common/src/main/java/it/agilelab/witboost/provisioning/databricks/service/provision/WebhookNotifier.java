@@ -0,0 +1,287 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
+import it.agilelab.witboost.provisioning.databricks.config.WebhookConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.stereotype.Component;
+
+/**
+ * Webhooks registered per request, notified with a POST request once the request is completed or failed. The
+ * notification is sent when the replica running the request changes its status, or by the periodic check of the
+ * pending webhooks if the request runs on another replica. Failed notifications are retried with a linear backoff.
+ * <p>
+ * The webhooks may only point to the configured allowed hosts, and never to an address of the internal network, e.g.
+ * a loopback, link-local or site-local address, so that callers cannot reach the services next to the tech adapter.
+ * The addresses are checked when the webhook is registered and again on each notification, as the DNS records of the
+ * host may change in between. The notification connects to the very addresses it checked, instead of resolving the
+ * host once more.
+ * </p>
+ */
+@Component
+@Slf4j
+public class WebhookNotifier {
+
+    /**
+     * Body of the notification sent to the webhooks.
+     */
+    public record Notification(String token, ProvisioningStatus status) {}
+
+    private final WebhookConfig webhookConfig;
+    private final StatusChangeNotifier statusChangeNotifier;
+    private final ObjectMapper objectMapper;
+    private final CloseableHttpClient httpClient;
+
+    private final Set<Registration> pendingRegistrations = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    public WebhookNotifier(
+            WebhookConfig webhookConfig,
+            StatusChangeNotifier statusChangeNotifier,
+            ObjectMapper objectMapper) {
+        this.webhookConfig = webhookConfig;
+        this.statusChangeNotifier = statusChangeNotifier;
+        this.objectMapper = objectMapper;
+        int timeout = Math.toIntExact(webhookConfig.getTimeout().toMillis());
+        this.httpClient = HttpClients.custom()
+                // The addresses are resolved and checked once, and the connection is opened to them
+                .setDnsResolver(this::resolve)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(timeout)
+                        .setConnectionRequestTimeout(timeout)
+                        .setSocketTimeout(timeout)
+                        .build())
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .build();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-webhook");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = webhookConfig.getCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkPending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Unable to close the HTTP client of the webhooks", e);
+        }
+    }
+
+    /**
+     * Registers a webhook notified when a request completes. If the request is already completed, the webhook is
+     * notified immediately.
+     *
+     * @param token         the token of the request
+     * @param url           the URL of the webhook
+     * @param currentStatus reads the current status of the request
+     * @throws TechAdapterValidationException if the webhooks are disabled, or the URL is not allowed or resolves to an
+     *                                        internal address
+     */
+    public void register(String token, String url, Supplier<ProvisioningStatus> currentStatus) {
+        Registration registration = new Registration(token, validate(url), currentStatus);
+        pendingRegistrations.add(registration);
+        registration.unsubscribe = statusChangeNotifier.subscribe(token, registration::onStatus);
+        if (registration.notified.get()) registration.unsubscribe.run();
+        // Subscribing before reading the status, so that a completion happening meanwhile is not missed
+        registration.onStatus(currentStatus.get());
+    }
+
+    private URI validate(String url) {
+        if (!webhookConfig.isEnabled()) throw validationException("Webhooks are disabled on this tech adapter", url);
+        URI uri;
+        try {
+            uri = url == null ? null : URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        if (uri == null
+                || uri.getHost() == null
+                || !("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))) {
+            throw validationException(
+                    String.format("The callback URL '%s' is not a valid HTTP or HTTPS URL", url), url);
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (webhookConfig.getAllowedHosts().stream()
+                .noneMatch(allowed -> allowed.toLowerCase(Locale.ROOT).equals(host))) {
+            throw validationException(
+                    String.format(
+                            "The host '%s' of the callback URL is not allowed. Allowed hosts: %s",
+                            host, webhookConfig.getAllowedHosts()),
+                    url);
+        }
+        try {
+            resolve(host);
+        } catch (InternalAddressException e) {
+            throw validationException(
+                    String.format(
+                            "The host '%s' of the callback URL resolves to the internal address %s",
+                            host, e.getAddress()),
+                    url);
+        } catch (UnknownHostException e) {
+            throw validationException(String.format("The host '%s' of the callback URL cannot be resolved", host), url);
+        }
+        return uri;
+    }
+
+    /**
+     * Resolves the host of a webhook, refusing it if any of its addresses belongs to the internal network.
+     *
+     * @param host the host of the webhook
+     * @return the addresses of the host
+     * @throws InternalAddressException if the host resolves to an internal address and private addresses are not
+     *                                  allowed
+     * @throws UnknownHostException     if the host cannot be resolved
+     */
+    private InetAddress[] resolve(String host) throws UnknownHostException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        if (webhookConfig.isAllowPrivateAddresses()) return addresses;
+        Optional<InetAddress> internalAddress =
+                Arrays.stream(addresses).filter(WebhookNotifier::isInternal).findFirst();
+        if (internalAddress.isPresent()) throw new InternalAddressException(host, internalAddress.get());
+        return addresses;
+    }
+
+    static boolean isInternal(InetAddress address) {
+        return address.isLoopbackAddress()
+                || address.isAnyLocalAddress()
+                || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress()
+                || address.isMulticastAddress()
+                // IPv6 unique local addresses (fc00::/7), the IPv6 counterpart of the site-local ones
+                || (address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc);
+    }
+
+    private static TechAdapterValidationException validationException(String message, String url) {
+        return new TechAdapterValidationException(
+                message, FailedOperation.singleProblemFailedOperation(message), url, "url");
+    }
+
+    private void checkPending() {
+        for (Registration registration : pendingRegistrations) {
+            try {
+                registration.onStatus(registration.currentStatus.get());
+            } catch (RuntimeException e) {
+                log.warn("Unable to read the status of request {} for its webhook", registration.token, e);
+            }
+        }
+    }
+
+    private void deliver(Registration registration, ProvisioningStatus status, int attempt) {
+        HttpPost post = new HttpPost(registration.url);
+        try {
+            post.setEntity(new StringEntity(
+                    objectMapper.writeValueAsString(new Notification(registration.token, status)),
+                    ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = httpClient.execute(post)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode >= 400) {
+                    throw new IOException(String.format("The webhook answered with status %d", statusCode));
+                }
+            }
+            log.info("Notified the completion of request {} to {}", registration.token, registration.url);
+        } catch (InternalAddressException e) {
+            log.error(
+                    "Not notifying the completion of request {} to {}, as its host now resolves to the internal address {}",
+                    registration.token,
+                    registration.url,
+                    e.getAddress());
+        } catch (IOException | RuntimeException e) {
+            // A host that cannot be resolved now fails the notification as well, which is then retried
+            if (attempt >= webhookConfig.getMaxAttempts()) {
+                log.error(
+                        "Unable to notify the completion of request {} to {} after {} attempts",
+                        registration.token,
+                        registration.url,
+                        attempt,
+                        e);
+                return;
+            }
+            log.warn(
+                    "Attempt {} to notify the completion of request {} to {} failed, retrying",
+                    attempt,
+                    registration.token,
+                    registration.url,
+                    e);
+            scheduler.schedule(
+                    () -> deliver(registration, status, attempt + 1),
+                    webhookConfig.getRetryBackoff().toMillis() * attempt,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Thrown when the host of a webhook resolves to an address of the internal network.
+     */
+    private static final class InternalAddressException extends UnknownHostException {
+
+        private final String address;
+
+        private InternalAddressException(String host, InetAddress address) {
+            super(String.format("The host '%s' resolves to the internal address %s", host, address.getHostAddress()));
+            this.address = address.getHostAddress();
+        }
+
+        private String getAddress() {
+            return address;
+        }
+    }
+
+    private final class Registration {
+
+        private final String token;
+        private final URI url;
+        private final Supplier<ProvisioningStatus> currentStatus;
+        private final AtomicBoolean notified = new AtomicBoolean(false);
+        private volatile Runnable unsubscribe = () -> {};
+
+        private Registration(String token, URI url, Supplier<ProvisioningStatus> currentStatus) {
+            this.token = token;
+            this.url = url;
+            this.currentStatus = currentStatus;
+        }
+
+        private void onStatus(ProvisioningStatus status) {
+            if (status == null || status.getStatus() == ProvisioningStatus.StatusEnum.RUNNING) return;
+            if (!notified.compareAndSet(false, true)) return;
+            unsubscribe.run();
+            pendingRegistrations.remove(this);
+            scheduler.execute(() -> deliver(this, status, 1));
+        }
+    }
+}
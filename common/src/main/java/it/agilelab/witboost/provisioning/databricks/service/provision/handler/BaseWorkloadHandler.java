@@ -9,8 +9,10 @@ import com.databricks.sdk.service.iam.ServicePrincipal;
 import com.databricks.sdk.service.workspace.RepoPermissionLevel;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
 import it.agilelab.witboost.provisioning.databricks.client.IdentityManager;
 import it.agilelab.witboost.provisioning.databricks.client.RepoManager;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -40,6 +42,8 @@ public class BaseWorkloadHandler {
     protected final AccountClient accountClient;
     protected final WorkspaceLevelManagerFactory workspaceLevelManagerFactory;
     protected final Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory;
+    protected final ServicePrincipalSessionManager servicePrincipalSessionManager;
+    protected final DatabricksCaches databricksCaches;
 
     /**
      * Creates a repository in a Databricks workspace and assigns appropriate permissions to
@@ -97,14 +101,11 @@ public class BaseWorkloadHandler {
                         ownerName,
                         developerGroupName,
                         databricksWorkspaceInfo.getName());
-                IdentityManager identityManager = new IdentityManager(accountClient, databricksWorkspaceInfo);
-                Either<FailedOperation, Void> eitherUpdateUser =
-                        identityManager.createOrUpdateUserWithAdminPrivileges(ownerName);
-                if (eitherUpdateUser.isLeft()) return eitherUpdateUser;
-
-                Either<FailedOperation, Void> eitherUpdateGroup =
-                        identityManager.createOrUpdateGroupWithUserPrivileges(developerGroupName);
-                if (eitherUpdateGroup.isLeft()) return eitherUpdateGroup;
+                IdentityManager identityManager =
+                        new IdentityManager(accountClient, databricksWorkspaceInfo, databricksCaches);
+                Either<FailedOperation, Void> eitherUpdateUserAndGroup =
+                        identityManager.createOrUpdateUserAndGroup(ownerName, developerGroupName);
+                if (eitherUpdateUserAndGroup.isLeft()) return eitherUpdateUserAndGroup;
             } else
                 log.info(
                         "Skipping upsert of project owner and development group to workspace since workspace is not set to be managed by the Tech Adapter.");
@@ -112,64 +113,24 @@ public class BaseWorkloadHandler {
             String repoId = eitherCreatedRepo.get().toString();
             String ownerPermissionLevelConfig =
                     databricksPermissionsConfig.getWorkload().getOwner();
-
-            Either<FailedOperation, Void> eitherPermissionsToDPOwner;
-
-            log.info("Updating permissions to project owner '{}' for repository with id '{}'", ownerName, repoId);
-            if (ownerPermissionLevelConfig.equalsIgnoreCase("NO_PERMISSIONS")) {
-                log.info(
-                        "Configuration set as '{}', removing all permissions on repository '{}' for owner '{}'",
-                        ownerPermissionLevelConfig,
-                        repoId,
-                        ownerName);
-                eitherPermissionsToDPOwner = repoManager.removePermissionsToUser(repoId, ownerName);
-            } else {
-                RepoPermissionLevel ownerPermissionLevel = RepoPermissionLevel.valueOf(ownerPermissionLevelConfig);
-                log.info(
-                        "Assigning permission '{}' on repository '{}' for owner '{}'",
-                        ownerPermissionLevelConfig,
-                        repoId,
-                        developerGroupName);
-                eitherPermissionsToDPOwner =
-                        repoManager.assignPermissionsToUser(repoId, ownerName, ownerPermissionLevel);
-            }
-
-            if (eitherPermissionsToDPOwner.isLeft()) {
-                return left(eitherPermissionsToDPOwner.getLeft());
-            }
-
             String devGroupPermissionLevelConfig =
                     databricksPermissionsConfig.getWorkload().getDeveloper();
-            Either<FailedOperation, Void> eitherPermissionsToDevelopers;
 
             log.info(
-                    "Updating permissions to development group '{}' for repository with id '{}'",
-                    developerGroupName,
-                    repoId);
-            if (devGroupPermissionLevelConfig.equalsIgnoreCase("NO_PERMISSIONS")) {
-                log.info(
-                        "Configuration set as '{}', removing all permissions on repository '{}' for development group '{}'",
-                        ownerPermissionLevelConfig,
-                        repoId,
-                        developerGroupName);
-                eitherPermissionsToDevelopers = repoManager.removePermissionsToGroup(repoId, developerGroupName);
-            } else {
-                RepoPermissionLevel devGroupPermissionLevel =
-                        RepoPermissionLevel.valueOf(devGroupPermissionLevelConfig);
-                log.info(
-                        "Assigning permission '{}' on repository '{}' for development group '{}'",
-                        devGroupPermissionLevelConfig,
-                        repoId,
-                        developerGroupName);
-                eitherPermissionsToDevelopers =
-                        repoManager.assignPermissionsToGroup(repoId, developerGroupName, devGroupPermissionLevel);
-            }
-
-            if (eitherPermissionsToDevelopers.isLeft()) {
-                return left(eitherPermissionsToDevelopers.getLeft());
-            }
-
-            return eitherPermissionsToDevelopers;
+                    "Updating permissions on repository '{}': '{}' for project owner '{}', '{}' for development group '{}'",
+                    repoId,
+                    ownerPermissionLevelConfig,
+                    ownerName,
+                    devGroupPermissionLevelConfig,
+                    developerGroupName);
+
+            // NO_PERMISSIONS is mapped to a null permission level, which removes the direct permissions of the principal
+            return repoManager.applyPermissions(
+                    repoId,
+                    List.of(
+                            RepoManager.RepoGrant.user(ownerName, toRepoPermissionLevel(ownerPermissionLevelConfig)),
+                            RepoManager.RepoGrant.group(
+                                    developerGroupName, toRepoPermissionLevel(devGroupPermissionLevelConfig))));
 
         } catch (Exception e) {
 
@@ -188,6 +149,15 @@ public class BaseWorkloadHandler {
         }
     }
 
+    /**
+     * Converts a configured repository permission into a {@code RepoPermissionLevel}, returning {@code null} for
+     * {@code NO_PERMISSIONS}.
+     */
+    private RepoPermissionLevel toRepoPermissionLevel(String permissionLevelConfig) {
+        if (permissionLevelConfig.equalsIgnoreCase("NO_PERMISSIONS")) return null;
+        return RepoPermissionLevel.valueOf(permissionLevelConfig);
+    }
+
     /**
      * Maps the principals (e.g., data product owner and development group) provided in the provision request
      * to representations recognized by Databricks. This process ensures that principals are formatted and validated
@@ -227,51 +197,15 @@ public class BaseWorkloadHandler {
         }
     }
 
-    /**
-     * Creates and returns a WorkspaceClient for interacting with a Databricks workspace using a service principal.
-     * If the client creation process encounters an error, a FailedOperation is returned with details of the issue.
-     *
-     * @param workspaceUrl the URL of the Databricks workspace
-     * @param spClientId the client ID of the service principal
-     * @param spClientSecret the client secret of the service principal
-     * @param workspaceName the name of the workspace for which the client is being created
-     * @return an Either instance containing:
-     *         - a {@code WorkspaceClient} if the client is created successfully
-     *         - a {@code FailedOperation} if an error occurs during the creation process
-     */
-    private Either<FailedOperation, WorkspaceClient> getServicePrincipalWorkspaceClient(
-            String workspaceUrl, String spClientId, String spClientSecret, String workspaceName) {
-        try {
-
-            log.info("Creating workspace client for workspace '{}' for principal '{}' ", workspaceName, spClientId);
-
-            WorkspaceClientConfig.WorkspaceClientConfigParams params =
-                    new WorkspaceClientConfig.WorkspaceClientConfigParams(
-                            WorkspaceClientConfig.WorkspaceClientConfigParams.AuthType.OAUTH,
-                            spClientId,
-                            spClientSecret,
-                            workspaceUrl,
-                            workspaceName);
-
-            WorkspaceClient wsClient = workspaceClientFactory.apply(params);
-            log.info("Successfully created workspace client for principal {}", spClientId);
-            return right(wsClient);
-        } catch (Exception e) {
-            String errorMessage = String.format(
-                    "An unexpected error occurred while creating workspace client for workspace '%s' for principal '%s'. Please try again and if the error persists contact the platform team. Details: %s",
-                    workspaceName, spClientId, e.getMessage());
-            log.error(errorMessage, e);
-            return left(FailedOperation.singleProblemFailedOperation(errorMessage));
-        }
-    }
-
     /**
      * The method sets Git credentials for a service principal in a specified Databricks workspace.
      * NOTE: Currently, using the Databricks sdk, it is not possible to set Git credentials for a Service Principal
      * different from the microservice one, even with workspace admin privileges.
      * To address this, a temporary secret is generated and used to create a WorkspaceClient authenticated as the
-     * target Service Principal. Git credentials are then set, and the secret is deleted right after the operation
-     * (the secret is valid for at most 15 minutes).
+     * target Service Principal, and Git credentials are then set. The secret and the client are kept in a session
+     * managed by {@link ServicePrincipalSessionManager}, which reuses them for the following workloads of the same
+     * Service Principal until the secret expires, and deletes the secret afterwards. If the same Git credentials were
+     * already applied for the Service Principal, no session is opened and the operation is skipped.
      *
      * @param workspaceClient the WorkspaceClient instance, authenticated with the user or service principal configured for the microservice,
      *  *                        used for managing resources and operations in the Databricks workspace
@@ -294,26 +228,24 @@ public class BaseWorkloadHandler {
                 workspaceLevelManager.getServicePrincipalFromName(principalName);
         if (principal.isLeft()) return left(principal.getLeft());
 
-        String principalID = principal.get().getId();
-        String principalApplicationID = principal.get().getApplicationId();
+        if (workspaceLevelManager.isGitCredentialsUpToDate(
+                workspaceHost, principal.get().getApplicationId(), gitCredentialsConfig)) {
+            log.info(
+                    "Git credentials for service principal {} in workspace {} are already up to date, skipping temporary secret generation",
+                    principalName,
+                    workspaceName);
+            return right(null);
+        }
 
-        log.info("Generating temporary secret for principal {}", principalName);
-        Either<FailedOperation, Map.Entry<String, String>> spSecret =
-                workspaceLevelManager.generateSecretForServicePrincipal(Long.parseLong(principalID), "900s");
-        if (spSecret.isLeft()) return left(spSecret.getLeft());
+        Either<FailedOperation, ServicePrincipalSessionManager.ServicePrincipalSession> session =
+                servicePrincipalSessionManager.getSession(
+                        workspaceLevelManager, workspaceHost, workspaceName, principalName);
+        if (session.isLeft()) return left(session.getLeft());
 
-        Either<FailedOperation, WorkspaceClient> runAsWorkspaceClient = getServicePrincipalWorkspaceClient(
-                workspaceHost, principalApplicationID, spSecret.get().getValue(), workspaceName);
-        if (runAsWorkspaceClient.isLeft()) return left(runAsWorkspaceClient.getLeft());
         Either<FailedOperation, Void> setGitCredentials =
-                workspaceLevelManager.setGitCredentials(runAsWorkspaceClient.get(), gitCredentialsConfig);
+                workspaceLevelManager.setGitCredentials(session.get().workspaceClient(), gitCredentialsConfig);
         if (setGitCredentials.isLeft()) return left(setGitCredentials.getLeft());
 
-        log.info("Cleaning up temporary secret for principal {}", principalName);
-        Either<FailedOperation, Void> deleteSpSecret = workspaceLevelManager.deleteServicePrincipalSecret(
-                Long.parseLong(principalID), spSecret.get().getKey());
-        if (deleteSpSecret.isLeft()) return left(deleteSpSecret.getLeft());
-
         log.info(
                 "Successfully set Git credentials for service principal {} in workspace {}",
                 principalName,
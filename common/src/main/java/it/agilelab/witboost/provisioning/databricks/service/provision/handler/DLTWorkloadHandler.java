@@ -9,7 +9,9 @@ import com.databricks.sdk.service.pipelines.PipelineStateInfo;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
 import it.agilelab.witboost.provisioning.databricks.client.DLTManager;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
 import it.agilelab.witboost.provisioning.databricks.client.RepoManager;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.UnityCatalogManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -39,14 +41,18 @@ public class DLTWorkloadHandler extends BaseWorkloadHandler {
             DatabricksPermissionsConfig databricksPermissionsConfig,
             AccountClient accountClient,
             WorkspaceLevelManagerFactory workspaceLevelManagerFactory,
-            Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory) {
+            Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory,
+            ServicePrincipalSessionManager servicePrincipalSessionManager,
+            DatabricksCaches databricksCaches) {
         super(
                 azureAuthConfig,
                 gitCredentialsConfig,
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                servicePrincipalSessionManager,
+                databricksCaches);
     }
 
     /**
@@ -66,7 +72,7 @@ public class DLTWorkloadHandler extends BaseWorkloadHandler {
             DatabricksDLTWorkloadSpecific databricksDLTWorkloadSpecific =
                     provisionRequest.component().getSpecific();
 
-            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo);
+            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo, databricksCaches);
 
             // If the workspace is set to not be managed by the tech adapter, we don't attach the metastore ourselves
             if (databricksWorkspaceInfo.isManaged()) {
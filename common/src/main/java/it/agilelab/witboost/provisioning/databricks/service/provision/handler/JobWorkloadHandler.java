@@ -9,8 +9,10 @@ import com.databricks.sdk.service.iam.ServicePrincipal;
 import com.databricks.sdk.service.jobs.BaseJob;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
 import it.agilelab.witboost.provisioning.databricks.client.JobManager;
 import it.agilelab.witboost.provisioning.databricks.client.RepoManager;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -40,14 +42,18 @@ public class JobWorkloadHandler extends BaseWorkloadHandler {
             DatabricksPermissionsConfig databricksPermissionsConfig,
             AccountClient accountClient,
             WorkspaceLevelManagerFactory workspaceLevelManagerFactory,
-            Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory) {
+            Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory,
+            ServicePrincipalSessionManager servicePrincipalSessionManager,
+            DatabricksCaches databricksCaches) {
         super(
                 azureAuthConfig,
                 gitCredentialsConfig,
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                servicePrincipalSessionManager,
+                databricksCaches);
     }
 
     /**
@@ -10,7 +10,11 @@ import com.databricks.sdk.service.sql.*;
 import com.witboost.provisioning.model.Column;
 import com.witboost.provisioning.model.DataContract;
 import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.client.ConsumerGroupManager;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
+import it.agilelab.witboost.provisioning.databricks.client.SqlWarehouseRouter;
 import it.agilelab.witboost.provisioning.databricks.client.UnityCatalogManager;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.config.*;
@@ -43,6 +47,9 @@ public class OutputPortHandler {
     private final DatabricksAuthConfig databricksAuthConfig;
     private final DatabricksPermissionsConfig databricksPermissionsConfig;
     private final AccountClient accountClient;
+    private final SqlWarehouseRouter sqlWarehouseRouter;
+    private final AclCompactionConfig aclCompactionConfig;
+    private final DatabricksCaches databricksCaches;
 
     @Autowired
     public OutputPortHandler(
@@ -53,7 +60,10 @@ public class OutputPortHandler {
             AzureMapper azureMapper,
             DatabricksAuthConfig databricksAuthConfig,
             DatabricksPermissionsConfig databricksPermissionsConfig,
-            AccountClient accountClient) {
+            AccountClient accountClient,
+            SqlWarehouseRouter sqlWarehouseRouter,
+            AclCompactionConfig aclCompactionConfig,
+            DatabricksCaches databricksCaches) {
         this.azureAuthConfig = azureAuthConfig;
         this.gitCredentialsConfig = gitCredentialsConfig;
         this.azurePermissionsManager = azurePermissionsManager;
@@ -62,6 +72,9 @@ public class OutputPortHandler {
         this.databricksAuthConfig = databricksAuthConfig;
         this.databricksPermissionsConfig = databricksPermissionsConfig;
         this.accountClient = accountClient;
+        this.sqlWarehouseRouter = sqlWarehouseRouter;
+        this.aclCompactionConfig = aclCompactionConfig;
+        this.databricksCaches = databricksCaches;
     }
 
     /**
@@ -102,7 +115,7 @@ public class OutputPortHandler {
                     (OutputPort<DatabricksOutputPortSpecific>) provisionRequest.component();
             DatabricksOutputPortSpecific databricksOutputPortSpecific = outputPort.getSpecific();
 
-            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo);
+            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo, databricksCaches);
 
             // Retrieving fields from request
             String catalogNameOP = databricksOutputPortSpecific.getCatalogNameOP();
@@ -139,8 +152,8 @@ public class OutputPortHandler {
                 return left(eitherCreatedSchema.getLeft());
             }
 
-            String sqlWarehouseName = databricksOutputPortSpecific.getSqlWarehouseName();
-            var sqlWarehouseId = getSqlWarehouseIdFromName(workspaceClient, sqlWarehouseName);
+            var sqlWarehouseId = getSqlWarehouseId(
+                    workspaceClient, databricksWorkspaceInfo, databricksOutputPortSpecific.getSqlWarehouseName());
 
             if (sqlWarehouseId.isLeft()) return left(sqlWarehouseId.getLeft());
 
@@ -581,7 +594,8 @@ public class OutputPortHandler {
      * <p>
      * The method repeatedly checks the status of the SQL statement execution
      * until it completes or fails. If the statement succeeds, it returns successfully;
-     * otherwise, an error is returned.
+     * otherwise, an error is returned. If the task runs out of its {@link Deadline}, the statement is
+     * cancelled and an error is returned.
      * </p>
      *
      * @param workspaceClient The Databricks workspace client used to run the query.
@@ -591,35 +605,85 @@ public class OutputPortHandler {
     private Either<FailedOperation, Void> pollOnStatementExecution(
             WorkspaceClient workspaceClient, String statementId) {
 
-        var isStatementRunning = true;
+        Optional<Deadline> deadline = Deadline.current();
+        Runnable deregisterCancellation = deadline.map(
+                        d -> d.onExpiry(() -> cancelStatementExecution(workspaceClient, statementId)))
+                .orElse(() -> {});
 
-        while (isStatementRunning) {
-
-            StatementResponse getStatementResponse =
-                    workspaceClient.statementExecution().getStatement(statementId);
-
-            StatementState statementState = getStatementResponse.getStatus().getState();
+        try {
+            var isStatementRunning = true;
 
-            String logMessage = String.format("Status of statement (id: %s): %s. ", statementId, statementState);
+            while (isStatementRunning) {
 
-            switch (statementState) {
-                case PENDING, RUNNING:
-                    logger.info(logMessage + "Still polling.");
-                    break;
-                case FAILED, CANCELED, CLOSED:
+                if (deadline.isPresent() && deadline.get().isExpired()) {
+                    deadline.get().expire();
                     String errorMessage = String.format(
-                            "%s. Details: %s",
-                            logMessage,
-                            getStatementResponse.getStatus().getError().getMessage());
+                            "The deadline of the task expired while waiting for statement (id: %s). The statement has been cancelled. Please try again and if the error persists contact the platform team.",
+                            statementId);
                     logger.error(errorMessage);
                     return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
-                case SUCCEEDED:
-                    isStatementRunning = false;
-                    logger.info(String.format(logMessage));
-                    break;
+                }
+
+                StatementResponse getStatementResponse =
+                        workspaceClient.statementExecution().getStatement(statementId);
+
+                StatementState statementState =
+                        getStatementResponse.getStatus().getState();
+
+                String logMessage =
+                        String.format("Status of statement (id: %s): %s. ", statementId, statementState);
+
+                switch (statementState) {
+                    case PENDING, RUNNING:
+                        logger.info(logMessage + "Still polling.");
+                        break;
+                    case FAILED, CANCELED, CLOSED:
+                        String errorMessage = String.format(
+                                "%s. Details: %s",
+                                logMessage,
+                                getStatementResponse.getStatus().getError().getMessage());
+                        logger.error(errorMessage);
+                        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+                    case SUCCEEDED:
+                        isStatementRunning = false;
+                        logger.info(String.format(logMessage));
+                        break;
+                }
             }
+            return right(null);
+        } finally {
+            deregisterCancellation.run();
         }
-        return right(null);
+    }
+
+    private void cancelStatementExecution(WorkspaceClient workspaceClient, String statementId) {
+        logger.warn(String.format("Cancelling statement (id: %s) as the deadline of the task expired", statementId));
+        workspaceClient.statementExecution().cancelExecution(statementId);
+    }
+
+    /**
+     * Retrieves the ID of the SQL warehouse used to run the Output Port statements.
+     * <p>
+     * If a SQL warehouse pool is configured for the workspace, the least-loaded running warehouse of the pool is
+     * used. Otherwise, or if no warehouse of the pool is running, the warehouse set in the component is used.
+     * </p>
+     *
+     * @param workspaceClient         The Databricks workspace client used to retrieve the list of warehouses.
+     * @param databricksWorkspaceInfo The workspace where the statements will be executed.
+     * @param sqlWarehouseName        The name of the SQL warehouse set in the component.
+     * @return Either a {@code FailedOperation} with the error details, or a {@code String} containing
+     *         the SQL warehouse ID.
+     */
+    private Either<FailedOperation, String> getSqlWarehouseId(
+            WorkspaceClient workspaceClient, DatabricksWorkspaceInfo databricksWorkspaceInfo, String sqlWarehouseName) {
+
+        Either<FailedOperation, Optional<String>> eitherPooledWarehouseId =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, databricksWorkspaceInfo.getName());
+        if (eitherPooledWarehouseId.isLeft()) return left(eitherPooledWarehouseId.getLeft());
+
+        if (eitherPooledWarehouseId.get().isPresent()) return right(eitherPooledWarehouseId.get().get());
+
+        return getSqlWarehouseIdFromName(workspaceClient, sqlWarehouseName);
     }
 
     /**
@@ -686,7 +750,7 @@ public class OutputPortHandler {
         String viewFullNameOP = catalogNameOP + "." + schemaNameOP + "." + viewNameOP;
 
         try {
-            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo);
+            var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo, databricksCaches);
 
             Either<FailedOperation, Boolean> eitherExistingCatalog =
                     unityCatalogManager.checkCatalogExistence(catalogNameOP);
@@ -718,6 +782,14 @@ public class OutputPortHandler {
             if (eitherDeletedView.isLeft()) {
                 return left(eitherDeletedView.getLeft());
             }
+            if (aclCompactionConfig.isEnabled()) {
+                Either<FailedOperation, Void> eitherDeletedConsumerGroup = new ConsumerGroupManager(
+                                accountClient, aclCompactionConfig.getPatchBatchSize())
+                        .deleteGroupIfExists(aclCompactionConfig.consumerGroupName(viewFullNameOP));
+                if (eitherDeletedConsumerGroup.isLeft()) {
+                    return left(eitherDeletedConsumerGroup.getLeft());
+                }
+            }
             logger.info(String.format("Unprovision of '%s' terminated correctly.", viewFullNameOP));
 
             return right(null);
@@ -744,6 +816,8 @@ public class OutputPortHandler {
      *     <li>Removing SELECT grants for principals no longer in the reference list.</li>
      *     <li>Adding SELECT grants for all provided references.</li>
      * </ul>
+     * When ACL compaction is enabled, the references become members of a consumer group managed for the Output
+     * Port, and the SELECT grant is assigned only to that group.
      * </p>
      *
      * @param provisionRequest       The request object containing the details about the Output Port
@@ -808,6 +882,18 @@ public class OutputPortHandler {
         // Creating Databricks object View
         View viewOP = new View(catalogNameOP, schemaNameOP, viewNameOP);
 
+        // Principals receiving the SELECT grant: the mapped refs, or the consumer group when compaction is enabled
+        List<String> grantees;
+        if (aclCompactionConfig.isEnabled()) {
+            Either<FailedOperation, String> eitherConsumerGroup = syncConsumerGroup(viewOP, refs, eitherMapRefs);
+            if (eitherConsumerGroup.isLeft()) {
+                return left(eitherConsumerGroup.getLeft());
+            }
+            grantees = List.of(eitherConsumerGroup.get());
+        } else {
+            grantees = mappedRefs;
+        }
+
         // Step 1: remove grants for entities that are no longer in refs
         logger.info("Retrieving current permissions on output port");
 
@@ -856,7 +942,7 @@ public class OutputPortHandler {
                         "Environment is %s and so, privileges of %s (Data Product Owner or Development Group) are not removed",
                         environment, principal));
             } else {
-                if (!mappedRefs.contains(principal)) {
+                if (!grantees.contains(principal)) {
 
                     logger.info(String.format(
                             "Principal %s does not have SELECT permission any longer on table %s. Removing grant.",
@@ -890,7 +976,7 @@ public class OutputPortHandler {
         // Step 2: assign grants for all entities in refs
         List<Problem> problemsAddingPermissions = new ArrayList<>();
 
-        mappedRefs.forEach(databricksId -> {
+        grantees.forEach(databricksId -> {
             logger.info(String.format("Assigning permissions to Databricks entity: %s", databricksId));
 
             Either<FailedOperation, Void> eitherAssignedPermissions =
@@ -917,4 +1003,43 @@ public class OutputPortHandler {
 
         return right(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "Update of Acl completed!"));
     }
+
+    /**
+     * Synchronizes the members of the consumer group managed for the Output Port with the mapped refs, creating the
+     * group if it does not exist yet.
+     *
+     * @return Either a {@code FailedOperation} if the group cannot be synchronized, or the display name of the group
+     */
+    private Either<FailedOperation, String> syncConsumerGroup(
+            View viewOP, List<String> refs, Map<String, Either<Throwable, String>> eitherMapRefs) {
+
+        String consumerGroupName = aclCompactionConfig.consumerGroupName(viewOP.fullyQualifiedName());
+        logger.info(String.format(
+                "ACL compaction enabled: synchronizing %d consumers of %s in group '%s'",
+                refs.size(), viewOP.fullyQualifiedName(), consumerGroupName));
+
+        Set<String> userNames = new HashSet<>();
+        Set<String> groupNames = new HashSet<>();
+        refs.forEach(ref -> {
+            String databricksId = eitherMapRefs.get(ref).get();
+            if (ref.startsWith("group:")) groupNames.add(databricksId);
+            else userNames.add(databricksId);
+        });
+
+        ConsumerGroupManager consumerGroupManager =
+                new ConsumerGroupManager(accountClient, aclCompactionConfig.getPatchBatchSize());
+
+        Either<FailedOperation, String> eitherGroupId = consumerGroupManager.getOrCreateGroup(consumerGroupName);
+        if (eitherGroupId.isLeft()) return left(eitherGroupId.getLeft());
+
+        Either<FailedOperation, Set<String>> eitherMemberIds =
+                consumerGroupManager.resolvePrincipalIds(userNames, groupNames);
+        if (eitherMemberIds.isLeft()) return left(eitherMemberIds.getLeft());
+
+        Either<FailedOperation, Void> eitherSyncedMembers =
+                consumerGroupManager.syncMembers(eitherGroupId.get(), eitherMemberIds.get());
+        if (eitherSyncedMembers.isLeft()) return left(eitherSyncedMembers.getLeft());
+
+        return right(consumerGroupName);
+    }
 }
@@ -5,6 +5,8 @@ import static io.vavr.control.Either.right;
 
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.ApiClient;
+import com.databricks.sdk.service.catalog.ColumnInfo;
+import com.databricks.sdk.service.catalog.TableInfo;
 import com.witboost.provisioning.model.Column;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.ApiClientConfig;
@@ -18,6 +20,7 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.outputport.
 import it.agilelab.witboost.provisioning.databricks.service.WorkspaceHandler;
 import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,7 +42,16 @@ public class OutputPortValidation {
         this.workspaceHandler = workspaceHandler;
     }
 
-    public Either<FailedOperation, Void> validate(
+    /**
+     * Validates the Output Port against the source table, fetching the table metadata (existence, columns and
+     * their types) with a single call.
+     *
+     * @param component   the Output Port to validate
+     * @param environment the environment of the Data Product
+     * @return Either a {@code FailedOperation} with all the problems found, or the {@code TableInfo} of the source
+     *         table, so that callers can reuse it without fetching it again
+     */
+    public Either<FailedOperation, TableInfo> validate(
             OutputPort<DatabricksOutputPortSpecific> component, String environment) {
 
         logger.info(
@@ -80,16 +92,16 @@ public class OutputPortValidation {
 
         var unityCatalogManager = new UnityCatalogManager(workspaceClient, databricksWorkspaceInfo);
 
-        Either<FailedOperation, Boolean> eitherTableExists =
-                unityCatalogManager.checkTableExistence(catalogName, schemaName, tableName);
+        Either<FailedOperation, Optional<TableInfo>> eitherTableInfo =
+                unityCatalogManager.getTableInfoIfExists(catalogName, schemaName, tableName);
 
-        if (eitherTableExists.isLeft()) {
-            return (left(eitherTableExists.getLeft()));
+        if (eitherTableInfo.isLeft()) {
+            return (left(eitherTableInfo.getLeft()));
         }
 
-        Boolean tableExists = eitherTableExists.get();
+        Optional<TableInfo> optionalTableInfo = eitherTableInfo.get();
 
-        if (!tableExists) {
+        if (optionalTableInfo.isEmpty()) {
             String errorMessage = String.format(
                             "The table '%s', provided in Output Port %s, does not exist. ",
                             tableFullName, component.getName())
@@ -102,19 +114,13 @@ public class OutputPortValidation {
         logger.info(String.format(
                 "The table '%s', provided in Output Port %s, exists. ", tableFullName, component.getName()));
 
+        TableInfo tableInfo = optionalTableInfo.get();
+
         logger.info(String.format(
                 "Checking if the schema provided in the Output Port %s is a subset or, at least, equal to the schema of table '%s'.",
                 component.getName(), tableFullName));
 
-        Either<FailedOperation, List<String>> eitherOriginalTableColumnNames =
-                unityCatalogManager.retrieveTableColumnsNames(catalogName, schemaName, tableName);
-        if (eitherOriginalTableColumnNames.isLeft()) {
-            return (left(eitherOriginalTableColumnNames.getLeft()));
-        }
-
-        List<String> originalTableColumnNames = eitherOriginalTableColumnNames.get();
-
-        var schemaValidation = checkViewSchema(component, originalTableColumnNames, tableFullName);
+        var schemaValidation = checkViewSchema(component, tableInfo, tableFullName);
 
         if (schemaValidation.isLeft()) return left(schemaValidation.getLeft());
 
@@ -122,26 +128,34 @@ public class OutputPortValidation {
                 "Validation of Output Port %s (id: %s) completed successfully",
                 component.getName(), component.getId()));
 
-        return right(null);
+        return right(tableInfo);
     }
 
+    /**
+     * Checks that every column of the Output Port schema exists in the source table, reporting all the missing
+     * columns at once.
+     */
     private Either<FailedOperation, Void> checkViewSchema(
-            OutputPort<DatabricksOutputPortSpecific> component,
-            List<String> originalTableColumnNames,
-            String tableFullName) {
+            OutputPort<DatabricksOutputPortSpecific> component, TableInfo tableInfo, String tableFullName) {
 
-        List<Column> viewSchemaNode = component.getDataContract().getSchema();
+        Set<String> originalTableColumnNames = Optional.ofNullable(tableInfo.getColumns()).stream()
+                .flatMap(Collection::stream)
+                .map(ColumnInfo::getName)
+                .collect(Collectors.toCollection(HashSet::new));
 
-        for (Column viewColumn : viewSchemaNode) {
+        List<Problem> problems = new ArrayList<>();
+        for (Column viewColumn : component.getDataContract().getSchema()) {
             String viewColumnName = viewColumn.getName();
             if (!originalTableColumnNames.contains(viewColumnName)) {
                 String errorMessage = String.format(
                         "Check for Output Port %s: the column '%s' cannot be found in the table '%s'.",
                         component.getName(), viewColumnName, tableFullName);
                 logger.error(errorMessage);
-                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+                problems.add(new Problem(errorMessage));
             }
         }
+
+        if (!problems.isEmpty()) return left(new FailedOperation(problems));
         return right(null);
     }
 }
@@ -0,0 +1,99 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.databricks.sdk.AccountClient;
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.core.DatabricksConfig;
+import com.databricks.sdk.service.provisioning.Workspace;
+import com.databricks.sdk.service.provisioning.WorkspacesAPI;
+import it.agilelab.witboost.provisioning.databricks.config.AccountWorkspaceIndexConfig;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountWorkspaceIndexTest {
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private WorkspacesAPI workspacesAPI;
+
+    private AccountWorkspaceIndexConfig accountWorkspaceIndexConfig;
+
+    @BeforeEach
+    public void setUp() {
+        accountWorkspaceIndexConfig = new AccountWorkspaceIndexConfig();
+        accountWorkspaceIndexConfig.setRefreshInterval(Duration.ZERO);
+        lenient().when(accountClient.workspaces()).thenReturn(workspacesAPI);
+        lenient()
+                .when(workspacesAPI.list())
+                .thenReturn(List.of(
+                        new Workspace().setDeploymentName("adb-1").setWorkspaceName("Workspace1"),
+                        new Workspace().setDeploymentName("adb-2").setWorkspaceName("Workspace2")));
+    }
+
+    @Test
+    public void sharedByWorkspaceLevelManagers() {
+        AccountWorkspaceIndex index = new AccountWorkspaceIndex(accountClient, accountWorkspaceIndexConfig);
+        WorkspaceLevelManagerFactory factory =
+                new WorkspaceLevelManagerFactory(accountClient, index, new DatabricksCaches());
+
+        WorkspaceLevelManager firstManager =
+                factory.createDatabricksWorkspaceLevelManager(workspaceClient("https://adb-1.azuredatabricks.net"));
+        WorkspaceLevelManager secondManager =
+                factory.createDatabricksWorkspaceLevelManager(workspaceClient("https://ADB-2.azuredatabricks.net/"));
+
+        assertEquals("Workspace1", firstManager.getWorkspaceName());
+        assertEquals("Workspace2", secondManager.getWorkspaceName());
+
+        verify(workspacesAPI, times(1)).list();
+    }
+
+    @Test
+    public void findByHost_MissRefreshIsRateLimited() {
+        accountWorkspaceIndexConfig.setMinRefreshOnMiss(Duration.ofHours(1));
+        AccountWorkspaceIndex index = new AccountWorkspaceIndex(accountClient, accountWorkspaceIndexConfig);
+
+        assertTrue(index.findByHost("https://unknown.azuredatabricks.net").isEmpty());
+        assertTrue(index.findByHost("https://unknown.azuredatabricks.net").isEmpty());
+
+        verify(workspacesAPI, times(1)).list();
+    }
+
+    @Test
+    public void findByHost_MissTriggersRefresh() {
+        accountWorkspaceIndexConfig.setMinRefreshOnMiss(Duration.ZERO);
+        AccountWorkspaceIndex index = new AccountWorkspaceIndex(accountClient, accountWorkspaceIndexConfig);
+        index.refresh();
+
+        when(workspacesAPI.list())
+                .thenReturn(List.of(new Workspace().setDeploymentName("adb-3").setWorkspaceName("Workspace3")));
+
+        assertEquals(
+                "Workspace3",
+                index.findByHost("https://adb-3.azuredatabricks.net").get().getWorkspaceName());
+    }
+
+    @Test
+    public void deploymentName() {
+        assertEquals("adb-1", AccountWorkspaceIndex.deploymentName("https://adb-1.azuredatabricks.net"));
+        assertEquals("adb-1", AccountWorkspaceIndex.deploymentName("adb-1.azuredatabricks.net/"));
+        assertNull(AccountWorkspaceIndex.deploymentName("localhost"));
+    }
+
+    private static WorkspaceClient workspaceClient(String host) {
+        WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
+        DatabricksConfig config = mock(DatabricksConfig.class);
+        when(workspaceClient.config()).thenReturn(config);
+        when(config.getHost()).thenReturn(host);
+        return workspaceClient;
+    }
+}
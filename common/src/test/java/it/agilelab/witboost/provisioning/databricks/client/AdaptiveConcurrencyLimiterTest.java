@@ -0,0 +1,141 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.AdaptiveConcurrencyConfig;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final String KEY = "databricks:adb-123.azuredatabricks.net";
+
+    private AdaptiveConcurrencyConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        config = new AdaptiveConcurrencyConfig();
+        config.setInitialLimit(4);
+        config.setMinLimit(2);
+        config.setMaxLimit(5);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(config, meterRegistry);
+    }
+
+    @Test
+    public void acquire_HealthyCallsIncreaseLimitUpToMax() throws InterruptedException, TimeoutException {
+        config.setLatencyTolerance(Double.MAX_VALUE);
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(KEY).onSuccess();
+        }
+
+        assertEquals(5, limiter.getLimit(KEY));
+        assertEquals(
+                5.0,
+                meterRegistry
+                        .get(AdaptiveConcurrencyLimiter.LIMIT_METRIC)
+                        .tag("key", KEY)
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    public void acquire_OverloadDecreasesLimitDownToMin() throws InterruptedException, TimeoutException {
+        limiter.acquire(KEY).onOverload();
+        assertEquals(2, limiter.getLimit(KEY));
+
+        limiter.acquire(KEY).onOverload();
+        assertEquals(2, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void acquire_SlowCallDecreasesLimit() throws InterruptedException, TimeoutException {
+        config.setLatencyTolerance(2.0);
+        warmUp();
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(KEY);
+        Thread.sleep(50);
+        permit.onSuccess();
+
+        assertEquals(3, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void acquire_LongRunningCallDoesNotDecreaseLimit() throws InterruptedException, TimeoutException {
+        config.setLatencyTolerance(2.0);
+        warmUp();
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(KEY);
+        Thread.sleep(50);
+        permit.onLongRunningSuccess();
+
+        assertEquals(5, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void acquire_ReleaseCountedOnce() throws InterruptedException, TimeoutException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(KEY);
+        permit.onOverload();
+        permit.onIgnore();
+
+        assertEquals(
+                0.0,
+                meterRegistry
+                        .get(AdaptiveConcurrencyLimiter.IN_FLIGHT_METRIC)
+                        .tag("key", KEY)
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    public void acquire_FullLimitFailsAfterMaxWait() throws InterruptedException, TimeoutException {
+        config.setMaxWait(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(KEY);
+        }
+
+        assertThrows(TimeoutException.class, () -> limiter.acquire(KEY));
+        assertEquals(
+                4.0,
+                meterRegistry
+                        .get(AdaptiveConcurrencyLimiter.IN_FLIGHT_METRIC)
+                        .tag("key", KEY)
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    public void acquire_Disabled() throws InterruptedException, TimeoutException {
+        config.setEnabled(false);
+
+        limiter.acquire(KEY).onOverload();
+
+        assertEquals(4, limiter.getLimit(KEY));
+        assertTrue(meterRegistry.find(AdaptiveConcurrencyLimiter.LIMIT_METRIC).gauges().isEmpty());
+    }
+
+    private void warmUp() throws InterruptedException, TimeoutException {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(KEY).onSuccess();
+        }
+        assertEquals(5, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void concurrencyKey_PerSubscription() throws MalformedURLException {
+        assertEquals(
+                "azure:1234",
+                AdaptiveConcurrencyPolicy.concurrencyKey(new URL(
+                        "https://management.azure.com/subscriptions/1234/resourceGroups/rg?api-version=2022-09-01")));
+        assertEquals(
+                "azure:management.azure.com",
+                AdaptiveConcurrencyPolicy.concurrencyKey(new URL("https://management.azure.com/providers")));
+    }
+}
@@ -0,0 +1,85 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.Context;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
+import it.agilelab.witboost.provisioning.databricks.config.AdaptiveConcurrencyConfig;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class AdaptiveConcurrencyPolicyTest {
+
+    private static final String URL = "https://management.azure.com/subscriptions/1234/resourceGroups/rg";
+
+    private AtomicInteger sentRequests;
+    private HttpPipeline pipeline;
+
+    @BeforeEach
+    public void setUp() {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyConfig(), new SimpleMeterRegistry());
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(200);
+        sentRequests = new AtomicInteger();
+        pipeline = new HttpPipelineBuilder()
+                .policies(new AdaptiveConcurrencyPolicy(limiter))
+                .httpClient(request -> {
+                    sentRequests.incrementAndGet();
+                    return Mono.just(response);
+                })
+                .build();
+    }
+
+    @Test
+    public void process_NoDeadline() {
+        HttpResponse response = pipeline.send(new HttpRequest(HttpMethod.GET, URL)).block();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, sentRequests.get());
+    }
+
+    @Test
+    public void process_ExpiredDeadlineInContextFailsOnOtherThread() {
+        Deadline deadline = Deadline.unbounded();
+        AtomicReference<Context> context = new AtomicReference<>();
+        deadline.run(() -> context.set(AdaptiveConcurrencyPolicy.withDeadline(Context.NONE)));
+        deadline.expire();
+
+        // Like the polls of a long-running operation, the call is sent by a thread without any deadline bound
+        Mono<HttpResponse> call = pipeline.send(new HttpRequest(HttpMethod.GET, URL), context.get())
+                .subscribeOn(Schedulers.parallel());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, call::block);
+        assertTrue(e.getMessage().contains(URL));
+        assertEquals(0, sentRequests.get());
+    }
+
+    @Test
+    public void process_ExpiredDeadlineOfSendingThread() {
+        Deadline deadline = Deadline.unbounded();
+        deadline.expire();
+        AtomicReference<Mono<HttpResponse>> call = new AtomicReference<>();
+
+        deadline.run(() -> call.set(pipeline.send(new HttpRequest(HttpMethod.GET, URL))));
+
+        assertThrows(IllegalStateException.class, () -> call.get().block());
+        assertEquals(0, sentRequests.get());
+    }
+
+    @Test
+    public void withDeadline_NoDeadline() {
+        assertSame(Context.NONE, AdaptiveConcurrencyPolicy.withDeadline(Context.NONE));
+    }
+}
@@ -82,7 +82,7 @@ public class AzureWorkspaceManagerTest {
         when(mockWorkspaceImpl.withManagedResourceGroupId(managedResourceGroupId))
                 .thenReturn(mockWorkspaceImpl);
         when(mockWorkspaceImpl.withSku(any())).thenReturn(mockWorkspaceImpl);
-        when(mockWorkspaceImpl.create()).thenReturn(mockWorkspaceImpl);
+        when(mockWorkspaceImpl.create(any())).thenReturn(mockWorkspaceImpl);
 
         Either<FailedOperation, DatabricksWorkspaceInfo> result = workspaceManager.createIfNotExistsWorkspace(
                 workspaceName, region, existingResourceGroupName, managedResourceGroupId, skuType);
@@ -111,7 +111,7 @@ public class AzureWorkspaceManagerTest {
         when(mockWorkspaceImpl.withManagedResourceGroupId(managedResourceGroupId))
                 .thenReturn(mockWorkspaceImpl);
         when(mockWorkspaceImpl.withSku(any())).thenReturn(mockWorkspaceImpl);
-        when(mockWorkspaceImpl.create()).thenReturn(mockWorkspaceImpl);
+        when(mockWorkspaceImpl.create(any())).thenReturn(mockWorkspaceImpl);
 
         Workspace mockWorkspace = mock(Workspace.class);
         when(mockWorkspace.name()).thenReturn(workspaceName);
@@ -183,7 +183,7 @@ public class AzureWorkspaceManagerTest {
         when(mockWorkspaceImpl.withManagedResourceGroupId(managedResourceGroupId))
                 .thenReturn(mockWorkspaceImpl);
         when(mockWorkspaceImpl.withSku(any())).thenReturn(mockWorkspaceImpl);
-        when(mockWorkspaceImpl.create()).thenThrow(new RuntimeException(errorMessage));
+        when(mockWorkspaceImpl.create(any())).thenThrow(new RuntimeException(errorMessage));
 
         Either<FailedOperation, DatabricksWorkspaceInfo> result = workspaceManager.createIfNotExistsWorkspace(
                 workspaceName, region, existingResourceGroupName, managedResourceGroupId, skuType);
@@ -0,0 +1,148 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.AzureTokenCacheConfig;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CachedTokenCredentialTest {
+
+    private static final String ARM_SCOPE = "https://management.azure.com/.default";
+    private static final String GRAPH_SCOPE = "https://graph.microsoft.com/.default";
+
+    @Mock
+    private TokenCredential delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachedTokenCredential cachedTokenCredential;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachedTokenCredential = new CachedTokenCredential(delegate, new AzureTokenCacheConfig(), meterRegistry);
+    }
+
+    @Test
+    public void getTokenSync_CachedPerAudience() {
+        when(delegate.getTokenSync(forScope(ARM_SCOPE)))
+                .thenReturn(new AccessToken("arm", OffsetDateTime.now().plusHours(1)));
+        when(delegate.getTokenSync(forScope(GRAPH_SCOPE)))
+                .thenReturn(new AccessToken("graph", OffsetDateTime.now().plusHours(1)));
+
+        assertEquals("arm", getToken(ARM_SCOPE));
+        assertEquals("arm", getToken(ARM_SCOPE));
+        assertEquals("graph", getToken(GRAPH_SCOPE));
+        assertEquals("graph", getToken(GRAPH_SCOPE));
+
+        verify(delegate, times(2)).getTokenSync(any(TokenRequestContext.class));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(CachedTokenCredential.FETCH_METRIC)
+                        .tags("audience", "https://management.azure.com", "outcome", "success")
+                        .timer()
+                        .count());
+        assertEquals(
+                2.0,
+                meterRegistry
+                        .get(CachedTokenCredential.CACHE_METRIC)
+                        .tags("result", "hit")
+                        .counters()
+                        .stream()
+                        .mapToDouble(Counter::count)
+                        .sum());
+    }
+
+    @Test
+    public void getTokenSync_ExpiringTokenFetchedAgain() {
+        when(delegate.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("old", OffsetDateTime.now().plusSeconds(30)))
+                .thenReturn(new AccessToken("new", OffsetDateTime.now().plusHours(1)));
+
+        assertEquals("old", getToken(ARM_SCOPE));
+        assertEquals("new", getToken(ARM_SCOPE));
+    }
+
+    @Test
+    public void refreshExpiringTokens_RenewsOnlyTokensWithinMargin() {
+        when(delegate.getTokenSync(forScope(ARM_SCOPE)))
+                .thenReturn(new AccessToken("arm-old", OffsetDateTime.now().plusMinutes(3)))
+                .thenReturn(new AccessToken("arm-new", OffsetDateTime.now().plusHours(1)));
+        when(delegate.getTokenSync(forScope(GRAPH_SCOPE)))
+                .thenReturn(new AccessToken("graph", OffsetDateTime.now().plusHours(1)));
+        getToken(ARM_SCOPE);
+        getToken(GRAPH_SCOPE);
+
+        cachedTokenCredential.refreshExpiringTokens();
+
+        assertEquals("arm-new", getToken(ARM_SCOPE));
+        assertEquals("graph", getToken(GRAPH_SCOPE));
+        verify(delegate, times(3)).getTokenSync(any(TokenRequestContext.class));
+    }
+
+    @Test
+    public void refreshExpiringTokens_FailureKeepsCurrentToken() {
+        when(delegate.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("current", OffsetDateTime.now().plusMinutes(3)))
+                .thenThrow(new RuntimeException("Entra ID unavailable"));
+        getToken(ARM_SCOPE);
+
+        cachedTokenCredential.refreshExpiringTokens();
+
+        assertEquals("current", getToken(ARM_SCOPE));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(CachedTokenCredential.FETCH_METRIC)
+                        .tags("outcome", "failure")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    public void getTokenSync_ClaimsChallengeNotCached() {
+        when(delegate.getTokenSync(any(TokenRequestContext.class)))
+                .thenReturn(new AccessToken("token", OffsetDateTime.now().plusHours(1)));
+        TokenRequestContext request = new TokenRequestContext().addScopes(ARM_SCOPE).setClaims("{\"claims\":1}");
+
+        cachedTokenCredential.getTokenSync(request);
+        cachedTokenCredential.getTokenSync(request);
+
+        verify(delegate, times(2)).getTokenSync(any(TokenRequestContext.class));
+    }
+
+    @Test
+    public void audience() {
+        assertEquals(
+                "https://graph.microsoft.com",
+                CachedTokenCredential.audience(new TokenRequestContext().addScopes(GRAPH_SCOPE)));
+        assertEquals(
+                "2ff814a6-3304-4ab8-85cb-cd0e6f879c1d",
+                CachedTokenCredential.audience(
+                        new TokenRequestContext().addScopes(AzureTokenCredentialsProvider.AZURE_DATABRICKS_SCOPE)));
+    }
+
+    private static TokenRequestContext forScope(String scope) {
+        return argThat(request -> request != null && request.getScopes().contains(scope));
+    }
+
+    private String getToken(String scope) {
+        return cachedTokenCredential
+                .getTokenSync(new TokenRequestContext().addScopes(scope))
+                .getToken();
+    }
+}
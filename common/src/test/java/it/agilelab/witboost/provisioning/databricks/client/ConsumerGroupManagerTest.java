@@ -0,0 +1,134 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.databricks.sdk.AccountClient;
+import com.databricks.sdk.service.iam.*;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ConsumerGroupManagerTest {
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private AccountUsersAPI accountUsersAPI;
+
+    @Mock
+    private AccountGroupsAPI accountGroupsAPI;
+
+    private ConsumerGroupManager consumerGroupManager;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        consumerGroupManager = new ConsumerGroupManager(accountClient, 2);
+        when(accountClient.groups()).thenReturn(accountGroupsAPI);
+        when(accountClient.users()).thenReturn(accountUsersAPI);
+    }
+
+    @Test
+    public void getOrCreateGroup_Existing() {
+        when(accountGroupsAPI.list(any(ListAccountGroupsRequest.class)))
+                .thenReturn(List.of(new Group().setDisplayName("witboost-op-c.s.v").setId("1")));
+
+        Either<FailedOperation, String> result = consumerGroupManager.getOrCreateGroup("witboost-op-c.s.v");
+
+        assertTrue(result.isRight());
+        assertEquals("1", result.get());
+        verify(accountGroupsAPI, never()).create(any(Group.class));
+    }
+
+    @Test
+    public void getOrCreateGroup_Created() {
+        when(accountGroupsAPI.list(any(ListAccountGroupsRequest.class))).thenReturn(List.of());
+        when(accountGroupsAPI.create(any(Group.class))).thenReturn(new Group().setId("2"));
+
+        Either<FailedOperation, String> result = consumerGroupManager.getOrCreateGroup("witboost-op-c.s.v");
+
+        assertTrue(result.isRight());
+        assertEquals("2", result.get());
+    }
+
+    @Test
+    public void resolvePrincipalIds_Success() {
+        when(accountUsersAPI.list(any(ListAccountUsersRequest.class)))
+                .thenReturn(List.of(new User().setUserName("A@email.com").setId("u1")));
+        when(accountGroupsAPI.list(any(ListAccountGroupsRequest.class)))
+                .thenReturn(List.of(new Group().setDisplayName("group_test").setId("g1")));
+
+        Either<FailedOperation, Set<String>> result =
+                consumerGroupManager.resolvePrincipalIds(Set.of("a@email.com"), Set.of("group_test"));
+
+        assertTrue(result.isRight());
+        assertEquals(Set.of("u1", "g1"), result.get());
+    }
+
+    @Test
+    public void resolvePrincipalIds_Missing() {
+        when(accountUsersAPI.list(any(ListAccountUsersRequest.class))).thenReturn(List.of());
+
+        Either<FailedOperation, Set<String>> result =
+                consumerGroupManager.resolvePrincipalIds(Set.of("a@email.com"), Set.of());
+
+        assertTrue(result.isLeft());
+        assertEquals(
+                "User 'a@email.com' not found at Databricks account level.",
+                result.getLeft().problems().get(0).description());
+    }
+
+    @Test
+    public void syncMembers_OnlyDifferencesInBatches() {
+        when(accountGroupsAPI.get("1"))
+                .thenReturn(new Group()
+                        .setId("1")
+                        .setDisplayName("witboost-op-c.s.v")
+                        .setMembers(List.of(new ComplexValue().setValue("keep"), new ComplexValue().setValue("old"))));
+
+        Either<FailedOperation, Void> result = consumerGroupManager.syncMembers("1", Set.of("keep", "new1", "new2"));
+
+        assertTrue(result.isRight());
+        ArgumentCaptor<PartialUpdate> captor = ArgumentCaptor.forClass(PartialUpdate.class);
+        verify(accountGroupsAPI, times(2)).patch(captor.capture());
+
+        List<PartialUpdate> requests = captor.getAllValues();
+        assertEquals(PatchOp.ADD, requests.get(0).getOperations().iterator().next().getOp());
+        assertEquals(
+                "members[value eq \"old\"]",
+                requests.get(1).getOperations().iterator().next().getPath());
+    }
+
+    @Test
+    public void syncMembers_NothingToChange() {
+        when(accountGroupsAPI.get("1"))
+                .thenReturn(new Group().setId("1").setMembers(List.of(new ComplexValue().setValue("keep"))));
+
+        Either<FailedOperation, Void> result = consumerGroupManager.syncMembers("1", Set.of("keep"));
+
+        assertTrue(result.isRight());
+        verify(accountGroupsAPI, never()).patch(any(PartialUpdate.class));
+    }
+
+    @Test
+    public void syncMembers_Exception() {
+        when(accountGroupsAPI.get("1")).thenThrow(new RuntimeException("error"));
+
+        Either<FailedOperation, Void> result = consumerGroupManager.syncMembers("1", Set.of("keep"));
+
+        assertTrue(result.isLeft());
+        assertTrue(result.getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .contains("An error occurred while updating the members of the consumer group 1"));
+    }
+}
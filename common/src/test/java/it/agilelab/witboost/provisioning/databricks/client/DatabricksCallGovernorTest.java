@@ -0,0 +1,276 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.core.DatabricksConfig;
+import com.databricks.sdk.core.commons.CommonsHttpClient;
+import com.databricks.sdk.core.http.HttpClient;
+import com.databricks.sdk.core.http.Request;
+import com.databricks.sdk.core.http.Response;
+import com.databricks.sdk.service.iam.User;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.common.Deadline;
+import it.agilelab.witboost.provisioning.databricks.config.AdaptiveConcurrencyConfig;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksRateLimitConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceCircuitBreakerConfig;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class DatabricksCallGovernorTest {
+
+    private static final String WORKSPACE_URL = "https://adb-123.azuredatabricks.net/api/2.1/jobs/list";
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Mock
+    private Request request;
+
+    @Mock
+    private Response throttledResponse;
+
+    @Mock
+    private Response okResponse;
+
+    private DatabricksRateLimitConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private List<Duration> sleeps;
+    private AdaptiveConcurrencyLimiter limiter;
+    private WorkspaceCircuitBreakerConfig circuitBreakerConfig;
+    private WorkspaceCircuitBreakerRegistry circuitBreakerRegistry;
+    private DatabricksCallGovernor governor;
+
+    @BeforeEach
+    public void setUp() {
+        config = new DatabricksRateLimitConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        sleeps = new ArrayList<>();
+        limiter = new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyConfig(), meterRegistry);
+        circuitBreakerConfig = new WorkspaceCircuitBreakerConfig();
+        circuitBreakerRegistry = new WorkspaceCircuitBreakerRegistry(circuitBreakerConfig);
+        governor = new DatabricksCallGovernor(config, limiter, circuitBreakerRegistry, meterRegistry, sleeps::add);
+    }
+
+    @Test
+    public void execute_ThrottledResponseReturnedWithoutRetry() throws IOException {
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        when(throttledResponse.getStatusCode()).thenReturn(429);
+        when(httpClient.execute(request)).thenReturn(throttledResponse);
+
+        Response response = governor.govern(httpClient).execute(request);
+
+        assertSame(throttledResponse, response);
+        verify(httpClient, times(1)).execute(request);
+        assertTrue(sleeps.isEmpty());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(DatabricksCallGovernor.THROTTLED_METRIC)
+                        .tags("scope", "adb-123.azuredatabricks.net", "reason", "429")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    public void execute_ThrottledCallsRetriedOnlyBySdk() throws IOException {
+        AtomicInteger serverAttempts = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body;
+            if (serverAttempts.incrementAndGet() <= 2) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                body = "{\"error_code\":\"TOO_MANY_REQUESTS\",\"message\":\"slow down\"}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(429, body.length);
+            } else {
+                body = "{\"userName\":\"me\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+            }
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            HttpClient governedClient = governor.govern(
+                    new CommonsHttpClient.Builder().withTimeoutSeconds(10).build());
+            AtomicInteger sdkAttempts = new AtomicInteger();
+            DatabricksConfig databricksConfig = new DatabricksConfig()
+                    .setHost("http://localhost:" + server.getAddress().getPort())
+                    .setToken("token")
+                    .setHttpClient(sdkRequest -> {
+                        sdkAttempts.incrementAndGet();
+                        return governedClient.execute(sdkRequest);
+                    });
+
+            User user = new WorkspaceClient(databricksConfig).currentUser().me();
+
+            // Every attempt of the SDK reaches the server exactly once
+            assertEquals("me", user.getUserName());
+            assertEquals(3, serverAttempts.get());
+            assertEquals(3, sdkAttempts.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void execute_ClientRateLimitPerScope() throws IOException {
+        config.setAccountRequestsPerSecond(1);
+        config.setBurst(1);
+        when(request.getUrl()).thenReturn("https://accounts.azuredatabricks.net/api/2.0/accounts/123/workspaces");
+        when(okResponse.getStatusCode()).thenReturn(200);
+        when(httpClient.execute(request)).thenReturn(okResponse);
+
+        HttpClient governedClient = governor.govern(httpClient);
+        governedClient.execute(request);
+        governedClient.execute(request);
+
+        assertEquals(1, sleeps.size());
+        assertTrue(sleeps.get(0).toMillis() > 0);
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(DatabricksCallGovernor.THROTTLED_METRIC)
+                        .tags("scope", DatabricksCallGovernor.ACCOUNT_SCOPE, "reason", "client")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    public void execute_OpenCircuitFailsFast() throws IOException {
+        circuitBreakerConfig.setFailureThreshold(2);
+        circuitBreakerRegistry.registerHost("https://adb-123.azuredatabricks.net", "ws-1");
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        when(okResponse.getStatusCode()).thenReturn(500);
+        when(httpClient.execute(request)).thenReturn(okResponse);
+
+        HttpClient governedClient = governor.govern(httpClient);
+        governedClient.execute(request);
+        governedClient.execute(request);
+        IOException exception = assertThrows(IOException.class, () -> governedClient.execute(request));
+
+        assertTrue(exception.getMessage().startsWith("Workspace ws-1 is currently unavailable"));
+        verify(httpClient, times(2)).execute(request);
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.OPEN,
+                circuitBreakerRegistry.getStates().get("ws-1").state());
+    }
+
+    @Test
+    public void execute_ThrottledCallsDoNotOpenCircuit() throws IOException {
+        circuitBreakerConfig.setFailureThreshold(1);
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        when(throttledResponse.getStatusCode()).thenReturn(429);
+        when(httpClient.execute(request)).thenReturn(throttledResponse);
+
+        HttpClient governedClient = governor.govern(httpClient);
+        governedClient.execute(request);
+        governedClient.execute(request);
+
+        verify(httpClient, times(2)).execute(request);
+    }
+
+    @Test
+    public void execute_SaturatedLimitRefusedWithoutOpeningCircuit() throws Exception {
+        AdaptiveConcurrencyConfig adaptiveConcurrencyConfig = new AdaptiveConcurrencyConfig();
+        adaptiveConcurrencyConfig.setInitialLimit(1);
+        adaptiveConcurrencyConfig.setMaxWait(Duration.ofMillis(10));
+        limiter = new AdaptiveConcurrencyLimiter(adaptiveConcurrencyConfig, meterRegistry);
+        governor = new DatabricksCallGovernor(config, limiter, circuitBreakerRegistry, meterRegistry, sleeps::add);
+        circuitBreakerConfig.setFailureThreshold(1);
+        circuitBreakerRegistry.registerHost("https://adb-123.azuredatabricks.net", "ws-1");
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        limiter.acquire(DatabricksCallGovernor.CONCURRENCY_KEY_PREFIX + "adb-123.azuredatabricks.net");
+
+        HttpClient governedClient = governor.govern(httpClient);
+        assertThrows(DatabricksCallRefusedException.class, () -> governedClient.execute(request));
+        assertThrows(DatabricksCallRefusedException.class, () -> governedClient.execute(request));
+
+        verifyNoInteractions(httpClient);
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.CLOSED,
+                circuitBreakerRegistry.getStates().get("ws-1").state());
+    }
+
+    @Test
+    public void isLongRunning() {
+        when(request.getUrl()).thenReturn("https://adb-123.azuredatabricks.net/api/2.0/sql/statements/");
+        when(request.getMethod()).thenReturn("POST", "GET");
+
+        assertTrue(DatabricksCallGovernor.isLongRunning(request));
+        assertFalse(DatabricksCallGovernor.isLongRunning(request));
+    }
+
+    @Test
+    public void execute_SocketTimeoutOpensCircuit() throws IOException {
+        circuitBreakerConfig.setFailureThreshold(1);
+        circuitBreakerRegistry.registerHost("https://adb-123.azuredatabricks.net", "ws-1");
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        when(httpClient.execute(request)).thenThrow(new SocketTimeoutException("Read timed out"));
+
+        HttpClient governedClient = governor.govern(httpClient);
+        assertThrows(SocketTimeoutException.class, () -> governedClient.execute(request));
+        IOException exception = assertThrows(IOException.class, () -> governedClient.execute(request));
+
+        assertTrue(exception.getMessage().startsWith("Workspace ws-1 is currently unavailable"));
+        verify(httpClient, times(1)).execute(request);
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.OPEN,
+                circuitBreakerRegistry.getStates().get("ws-1").state());
+    }
+
+    @Test
+    public void execute_ExpiredDeadlineFailsFast() {
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        deadline.run(
+                () -> assertThrows(DatabricksCallRefusedException.class, () -> governor.execute(httpClient, request)));
+
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    public void govern_DisabledStillAppliesCircuitBreaker() throws IOException {
+        config.setEnabled(false);
+        config.setWorkspaceRequestsPerSecond(1);
+        config.setBurst(1);
+        circuitBreakerConfig.setFailureThreshold(1);
+        circuitBreakerRegistry.registerHost("https://adb-123.azuredatabricks.net", "ws-1");
+        when(request.getUrl()).thenReturn(WORKSPACE_URL);
+        when(okResponse.getStatusCode()).thenReturn(500);
+        when(httpClient.execute(request)).thenReturn(okResponse);
+
+        HttpClient governedClient = governor.govern(httpClient);
+        governedClient.execute(request);
+
+        assertThrows(IOException.class, () -> governedClient.execute(request));
+        verify(httpClient, times(1)).execute(request);
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void govern_DisabledStillChecksDeadline() {
+        config.setEnabled(false);
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        deadline.run(() -> assertThrows(
+                DatabricksCallRefusedException.class, () -> governor.govern(httpClient).execute(request)));
+
+        verifyNoInteractions(httpClient);
+    }
+}
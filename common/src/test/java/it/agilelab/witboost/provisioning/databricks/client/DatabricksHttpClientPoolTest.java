@@ -0,0 +1,63 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.AdaptiveConcurrencyConfig;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksHttpClientConfig;
+import it.agilelab.witboost.provisioning.databricks.config.DatabricksRateLimitConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceCircuitBreakerConfig;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DatabricksHttpClientPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DatabricksHttpClientPool databricksHttpClientPool;
+
+    @BeforeEach
+    public void setUp() {
+        DatabricksHttpClientConfig config = new DatabricksHttpClientConfig();
+        config.setMaxConnections(50);
+        config.setMaxConnectionsPerHost(5);
+        config.setIdleConnectionTimeout(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        DatabricksCallGovernor databricksCallGovernor = new DatabricksCallGovernor(
+                new DatabricksRateLimitConfig(),
+                new AdaptiveConcurrencyLimiter(new AdaptiveConcurrencyConfig(), meterRegistry),
+                new WorkspaceCircuitBreakerRegistry(new WorkspaceCircuitBreakerConfig()),
+                meterRegistry);
+        databricksHttpClientPool = new DatabricksHttpClientPool(config, databricksCallGovernor, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        databricksHttpClientPool.close();
+    }
+
+    @Test
+    public void getHttpClient_Shared() {
+        assertNotNull(databricksHttpClientPool.getHttpClient());
+        assertSame(databricksHttpClientPool.getHttpClient(), databricksHttpClientPool.getHttpClient());
+    }
+
+    @Test
+    public void poolMetrics() {
+        assertEquals(
+                50.0,
+                meterRegistry
+                        .get(DatabricksHttpClientPool.POOL_METRIC)
+                        .tag("state", "max")
+                        .gauge()
+                        .value());
+        assertEquals(
+                0.0,
+                meterRegistry
+                        .get(DatabricksHttpClientPool.POOL_METRIC)
+                        .tag("state", "leased")
+                        .gauge()
+                        .value());
+    }
+}
@@ -11,6 +11,7 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -140,4 +141,114 @@ public class IdentityManagerTest {
         assertTrue(result.isLeft());
         assertTrue(result.getLeft().problems().get(0).description().contains(errorMessage));
     }
+
+    @Test
+    public void createOrUpdateUser_AlreadyAssigned() {
+        String username = "testuser";
+        User accountUser = new User().setUserName(username).setId("123");
+        WorkspaceAssignmentAPI workspaceAssignmentAPI = mock(WorkspaceAssignmentAPI.class);
+
+        when(accountClient.users().list(any(ListAccountUsersRequest.class)))
+                .thenReturn(Collections.singleton(accountUser));
+        when(accountClient.workspaceAssignment()).thenReturn(workspaceAssignmentAPI);
+        when(workspaceAssignmentAPI.list(123L))
+                .thenReturn(List.of(new PermissionAssignment()
+                        .setPrincipal(new PrincipalOutput().setPrincipalId(123L))
+                        .setPermissions(List.of(WorkspacePermission.ADMIN))));
+
+        Either<FailedOperation, Void> result = identityManager.createOrUpdateUserWithAdminPrivileges(username);
+
+        assertTrue(result.isRight());
+        verify(workspaceAssignmentAPI, never()).update(any());
+    }
+
+    @Test
+    public void createOrUpdateUser_AlreadyAdminWithUserPermission() {
+        String username = "testuser";
+        User accountUser = new User().setUserName(username).setId("123");
+        WorkspaceAssignmentAPI workspaceAssignmentAPI = mock(WorkspaceAssignmentAPI.class);
+
+        when(accountClient.users().list(any(ListAccountUsersRequest.class)))
+                .thenReturn(Collections.singleton(accountUser));
+        when(accountClient.workspaceAssignment()).thenReturn(workspaceAssignmentAPI);
+        when(workspaceAssignmentAPI.list(123L))
+                .thenReturn(List.of(new PermissionAssignment()
+                        .setPrincipal(new PrincipalOutput().setPrincipalId(123L))
+                        .setPermissions(List.of(WorkspacePermission.USER, WorkspacePermission.ADMIN))));
+
+        Either<FailedOperation, Void> result = identityManager.createOrUpdateUserWithAdminPrivileges(username);
+
+        assertTrue(result.isRight());
+        verify(workspaceAssignmentAPI, never()).update(any());
+    }
+
+    @Test
+    public void createOrUpdateGroup_AdminDowngradedToUser() {
+        String groupName = "testgroup";
+        WorkspaceAssignmentAPI workspaceAssignmentAPI = mock(WorkspaceAssignmentAPI.class);
+
+        when(accountClient.groups().list(any(ListAccountGroupsRequest.class)))
+                .thenReturn(Collections.singleton(new Group().setDisplayName(groupName).setId("456")));
+        when(accountClient.workspaceAssignment()).thenReturn(workspaceAssignmentAPI);
+        when(workspaceAssignmentAPI.list(123L))
+                .thenReturn(List.of(new PermissionAssignment()
+                        .setPrincipal(new PrincipalOutput().setPrincipalId(456L))
+                        .setPermissions(List.of(WorkspacePermission.USER, WorkspacePermission.ADMIN))));
+
+        Either<FailedOperation, Void> result = identityManager.createOrUpdateGroupWithUserPrivileges(groupName);
+
+        assertTrue(result.isRight());
+        verify(workspaceAssignmentAPI, times(1))
+                .update(argThat(request -> request.getPrincipalId() == 456L
+                        && request.getPermissions().equals(List.of(WorkspacePermission.USER))));
+    }
+
+    @Test
+    public void createOrUpdateUserAndGroup_OnlyMissingAssignmentsUpdated() {
+        WorkspaceAssignmentAPI workspaceAssignmentAPI = mock(WorkspaceAssignmentAPI.class);
+
+        when(accountClient.users().list(any(ListAccountUsersRequest.class)))
+                .thenReturn(Collections.singleton(new User().setUserName("testuser").setId("123")));
+        when(accountClient.groups().list(any(ListAccountGroupsRequest.class)))
+                .thenReturn(Collections.singleton(new Group().setDisplayName("testgroup").setId("456")));
+        when(accountClient.workspaceAssignment()).thenReturn(workspaceAssignmentAPI);
+        when(workspaceAssignmentAPI.list(123L))
+                .thenReturn(List.of(new PermissionAssignment()
+                        .setPrincipal(new PrincipalOutput().setPrincipalId(123L))
+                        .setPermissions(List.of(WorkspacePermission.ADMIN))));
+
+        Either<FailedOperation, Void> result = identityManager.createOrUpdateUserAndGroup("testuser", "testgroup");
+
+        assertTrue(result.isRight());
+        verify(workspaceAssignmentAPI, times(1))
+                .update(argThat(request -> request.getPrincipalId() == 456L
+                        && request.getPermissions().contains(WorkspacePermission.USER)));
+        verify(workspaceAssignmentAPI, times(1)).update(any());
+
+        // Assignments are cached per workspace: a second run neither lists nor updates them again
+        Either<FailedOperation, Void> secondResult =
+                identityManager.createOrUpdateUserAndGroup("testuser", "testgroup");
+
+        assertTrue(secondResult.isRight());
+        verify(workspaceAssignmentAPI, times(1)).list(anyLong());
+        verify(workspaceAssignmentAPI, times(1)).update(any());
+    }
+
+    @Test
+    public void createOrUpdateUserAndGroup_GroupNotFound() {
+        WorkspaceAssignmentAPI workspaceAssignmentAPI = mock(WorkspaceAssignmentAPI.class);
+
+        when(accountClient.users().list(any(ListAccountUsersRequest.class)))
+                .thenReturn(Collections.singleton(new User().setUserName("testuser").setId("123")));
+        when(accountClient.groups().list(any(ListAccountGroupsRequest.class))).thenReturn(Collections.emptyList());
+        when(accountClient.workspaceAssignment()).thenReturn(workspaceAssignmentAPI);
+
+        Either<FailedOperation, Void> result = identityManager.createOrUpdateUserAndGroup("testuser", "testgroup");
+
+        assertTrue(result.isLeft());
+        assertEquals(
+                "Group testgroup not found at Databricks account level.",
+                result.getLeft().problems().get(0).description());
+        verify(workspaceAssignmentAPI, never()).update(any());
+    }
 }
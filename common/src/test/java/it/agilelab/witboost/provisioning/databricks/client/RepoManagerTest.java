@@ -305,4 +305,65 @@ public class RepoManagerTest {
         assertTrue(result.isLeft());
         assertTrue(result.getLeft().problems().get(0).description().contains(errorMessage));
     }
+
+    @Test
+    public void applyPermissions_SingleReadAndWrite() {
+        RepoPermissions repoPermissions = mock(RepoPermissions.class);
+        List<RepoAccessControlResponse> responses = new ArrayList<>();
+        responses.add(new RepoAccessControlResponse()
+                .setGroupName("testGroup")
+                .setAllPermissions(Collections.singletonList(
+                        new RepoPermission().setPermissionLevel(RepoPermissionLevel.CAN_MANAGE))));
+        responses.add(new RepoAccessControlResponse()
+                .setGroupName("admins")
+                .setAllPermissions(Collections.singletonList(
+                        new RepoPermission().setPermissionLevel(RepoPermissionLevel.CAN_MANAGE))));
+
+        when(reposAPI.getPermissions(anyString())).thenReturn(repoPermissions);
+        when(repoPermissions.getAccessControlList()).thenReturn(responses);
+
+        var result = repoManager.applyPermissions(
+                "repoId",
+                List.of(
+                        RepoManager.RepoGrant.user("testUser", RepoPermissionLevel.CAN_MANAGE),
+                        RepoManager.RepoGrant.group("testGroup", RepoPermissionLevel.CAN_EDIT)));
+
+        assertTrue(result.isRight());
+        verify(reposAPI, times(1)).getPermissions("repoId");
+        verify(reposAPI, times(1))
+                .setPermissions(argThat(request -> request.getAccessControlList().size() == 3
+                        && request.getAccessControlList().stream()
+                                .anyMatch(acl -> "testGroup".equals(acl.getGroupName())
+                                        && acl.getPermissionLevel() == RepoPermissionLevel.CAN_EDIT)
+                        && request.getAccessControlList().stream()
+                                .anyMatch(acl -> "testUser".equals(acl.getUserName())
+                                        && acl.getPermissionLevel() == RepoPermissionLevel.CAN_MANAGE)));
+    }
+
+    @Test
+    public void applyPermissions_AlreadyUpToDate() {
+        RepoPermissions repoPermissions = mock(RepoPermissions.class);
+        List<RepoAccessControlResponse> responses = new ArrayList<>();
+        responses.add(new RepoAccessControlResponse()
+                .setUserName("testUser")
+                .setAllPermissions(Collections.singletonList(
+                        new RepoPermission().setPermissionLevel(RepoPermissionLevel.CAN_MANAGE))));
+        responses.add(new RepoAccessControlResponse()
+                .setGroupName("testGroup")
+                .setAllPermissions(Collections.singletonList(new RepoPermission()
+                        .setPermissionLevel(RepoPermissionLevel.CAN_MANAGE)
+                        .setInherited(true))));
+
+        when(reposAPI.getPermissions(anyString())).thenReturn(repoPermissions);
+        when(repoPermissions.getAccessControlList()).thenReturn(responses);
+
+        var result = repoManager.applyPermissions(
+                "repoId",
+                List.of(
+                        RepoManager.RepoGrant.user("testUser", RepoPermissionLevel.CAN_MANAGE),
+                        RepoManager.RepoGrant.group("testGroup", null)));
+
+        assertTrue(result.isRight());
+        verify(reposAPI, never()).setPermissions(any(RepoPermissionsRequest.class));
+    }
 }
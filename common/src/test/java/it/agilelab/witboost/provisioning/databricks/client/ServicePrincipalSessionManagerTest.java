@@ -0,0 +1,133 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.service.iam.ServicePrincipal;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.ServicePrincipalSessionConfig;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ServicePrincipalSessionManagerTest {
+
+    @Mock
+    private WorkspaceLevelManager workspaceLevelManager;
+
+    @Mock
+    private Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory;
+
+    @Mock
+    private WorkspaceClient servicePrincipalClient;
+
+    private ServicePrincipalSessionConfig servicePrincipalSessionConfig;
+    private ServicePrincipalSessionManager servicePrincipalSessionManager;
+
+    private final ServicePrincipal servicePrincipal = new ServicePrincipal()
+            .setDisplayName("sp-name")
+            .setId("456")
+            .setApplicationId("sp-app-id");
+
+    @BeforeEach
+    public void setUp() {
+        servicePrincipalSessionConfig = new ServicePrincipalSessionConfig();
+        servicePrincipalSessionManager =
+                new ServicePrincipalSessionManager(servicePrincipalSessionConfig, workspaceClientFactory);
+    }
+
+    @Test
+    public void getSession_ReusedWithinLifetime() {
+        when(workspaceLevelManager.getServicePrincipalFromName("sp-name")).thenReturn(Either.right(servicePrincipal));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(456L, "900s"))
+                .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secretId", "secret")));
+        when(workspaceClientFactory.apply(any())).thenReturn(servicePrincipalClient);
+
+        for (int i = 0; i < 30; i++) {
+            var session = servicePrincipalSessionManager.getSession(
+                    workspaceLevelManager, "https://host.azuredatabricks.net", "workspace", "sp-name");
+            assertTrue(session.isRight());
+            assertSame(servicePrincipalClient, session.get().workspaceClient());
+        }
+
+        verify(workspaceLevelManager, times(1)).getServicePrincipalFromName(anyString());
+        verify(workspaceLevelManager, times(1)).generateSecretForServicePrincipal(anyLong(), anyString());
+        verify(workspaceLevelManager, never()).deleteServicePrincipalSecret(anyLong(), anyString());
+    }
+
+    @Test
+    public void getSession_RenewedWhenExpiring() {
+        servicePrincipalSessionConfig.setSecretLifetime(Duration.ofSeconds(60));
+        when(workspaceLevelManager.getServicePrincipalFromName("sp-name")).thenReturn(Either.right(servicePrincipal));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(456L, "60s"))
+                .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secretId", "secret")));
+        when(workspaceClientFactory.apply(any())).thenReturn(servicePrincipalClient);
+
+        servicePrincipalSessionManager.getSession(workspaceLevelManager, "host", "workspace", "sp-name");
+        servicePrincipalSessionManager.getSession(workspaceLevelManager, "host", "workspace", "sp-name");
+
+        // The lifetime is shorter than the renewal margin, so every request renews the session
+        verify(workspaceLevelManager, times(2)).getServicePrincipalFromName(anyString());
+        verify(workspaceLevelManager, times(2)).generateSecretForServicePrincipal(anyLong(), anyString());
+        verify(workspaceLevelManager, times(1)).deleteServicePrincipalSecret(456L, "secretId");
+    }
+
+    @Test
+    public void getSession_SecretGenerationFails() {
+        when(workspaceLevelManager.getServicePrincipalFromName("sp-name")).thenReturn(Either.right(servicePrincipal));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(anyLong(), anyString()))
+                .thenReturn(Either.left(FailedOperation.singleProblemFailedOperation("error")));
+
+        var session = servicePrincipalSessionManager.getSession(workspaceLevelManager, "host", "workspace", "sp-name");
+
+        assertTrue(session.isLeft());
+        assertEquals("error", session.getLeft().problems().get(0).description());
+        verifyNoInteractions(workspaceClientFactory);
+        verify(workspaceLevelManager).invalidateServicePrincipal("sp-name");
+    }
+
+    @Test
+    public void removeExpiredSessions_DeletesOnlyExpiredSecrets() {
+        servicePrincipalSessionConfig.setSecretLifetime(Duration.ofSeconds(60));
+        when(workspaceLevelManager.getServicePrincipalFromName("sp-name")).thenReturn(Either.right(servicePrincipal));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(456L, "60s"))
+                .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("expiredSecretId", "secret")));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(456L, "900s"))
+                .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secretId", "secret")));
+        when(workspaceClientFactory.apply(any())).thenReturn(servicePrincipalClient);
+
+        servicePrincipalSessionManager.getSession(workspaceLevelManager, "host-1", "workspace-1", "sp-name");
+        servicePrincipalSessionConfig.setSecretLifetime(Duration.ofSeconds(900));
+        servicePrincipalSessionManager.getSession(workspaceLevelManager, "host-2", "workspace-2", "sp-name");
+
+        // Opening a session doesn't close the expired sessions of other workspaces
+        verify(workspaceLevelManager, never()).deleteServicePrincipalSecret(anyLong(), anyString());
+
+        servicePrincipalSessionManager.removeExpiredSessions();
+
+        verify(workspaceLevelManager, times(1)).deleteServicePrincipalSecret(456L, "expiredSecretId");
+        verify(workspaceLevelManager, never()).deleteServicePrincipalSecret(456L, "secretId");
+    }
+
+    @Test
+    public void invalidateSessions_DeletesSecrets() {
+        when(workspaceLevelManager.getServicePrincipalFromName("sp-name")).thenReturn(Either.right(servicePrincipal));
+        when(workspaceLevelManager.generateSecretForServicePrincipal(anyLong(), anyString()))
+                .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secretId", "secret")));
+        when(workspaceClientFactory.apply(any())).thenReturn(servicePrincipalClient);
+
+        servicePrincipalSessionManager.getSession(workspaceLevelManager, "host", "workspace", "sp-name");
+        servicePrincipalSessionManager.invalidateSessions();
+
+        verify(workspaceLevelManager, times(1)).deleteServicePrincipalSecret(456L, "secretId");
+    }
+}
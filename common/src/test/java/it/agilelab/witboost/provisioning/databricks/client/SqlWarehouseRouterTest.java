@@ -0,0 +1,149 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.databricks.sdk.WorkspaceClient;
+import com.databricks.sdk.service.sql.EndpointInfo;
+import com.databricks.sdk.service.sql.EndpointTagPair;
+import com.databricks.sdk.service.sql.EndpointTags;
+import com.databricks.sdk.service.sql.ListWarehousesRequest;
+import com.databricks.sdk.service.sql.State;
+import com.databricks.sdk.service.sql.WarehousesAPI;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Either;
+import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.SqlWarehousePoolConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SqlWarehouseRouterTest {
+
+    @Mock
+    private WorkspaceClient workspaceClient;
+
+    @Mock
+    private WarehousesAPI warehousesAPI;
+
+    private SqlWarehousePoolConfig sqlWarehousePoolConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private SqlWarehouseRouter sqlWarehouseRouter;
+
+    @BeforeEach
+    void setUp() {
+        SqlWarehousePoolConfig.Pool pool = new SqlWarehousePoolConfig.Pool();
+        pool.setWorkspace("workspace");
+        pool.setWarehouseNames(List.of("wh-1", "wh-2"));
+        pool.setTags(Map.of("pool", "outputport"));
+
+        sqlWarehousePoolConfig = new SqlWarehousePoolConfig();
+        sqlWarehousePoolConfig.setEnabled(true);
+        sqlWarehousePoolConfig.setPools(List.of(pool));
+
+        meterRegistry = new SimpleMeterRegistry();
+        sqlWarehouseRouter = new SqlWarehouseRouter(sqlWarehousePoolConfig, meterRegistry);
+    }
+
+    private EndpointInfo warehouse(String name, State state, long activeSessions, long clusters) {
+        return new EndpointInfo()
+                .setId(name + "-id")
+                .setName(name)
+                .setState(state)
+                .setNumActiveSessions(activeSessions)
+                .setNumClusters(clusters);
+    }
+
+    @Test
+    void testSelectSqlWarehouseId_LeastLoadedRunningWarehouse() {
+        EndpointInfo taggedWarehouse = warehouse("wh-tagged", State.RUNNING, 9, 3)
+                .setTags(new EndpointTags()
+                        .setCustomTags(List.of(new EndpointTagPair().setKey("pool").setValue("outputport"))));
+
+        when(workspaceClient.warehouses()).thenReturn(warehousesAPI);
+        when(warehousesAPI.list(any(ListWarehousesRequest.class)))
+                .thenReturn(List.of(
+                        warehouse("wh-1", State.RUNNING, 8, 2),
+                        warehouse("wh-2", State.STOPPED, 0, 0),
+                        warehouse("not-in-pool", State.RUNNING, 0, 1),
+                        taggedWarehouse));
+
+        Either<FailedOperation, Optional<String>> result =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, "workspace");
+
+        assertTrue(result.isRight());
+        assertEquals(Optional.of("wh-tagged-id"), result.get());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(SqlWarehouseRouter.ROUTING_METRIC)
+                        .tag("warehouse", "wh-tagged")
+                        .tag("outcome", "routed")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testSelectSqlWarehouseId_NoRunningWarehouse() {
+        when(workspaceClient.warehouses()).thenReturn(warehousesAPI);
+        when(warehousesAPI.list(any(ListWarehousesRequest.class)))
+                .thenReturn(List.of(warehouse("wh-1", State.STOPPED, 0, 0), warehouse("wh-2", State.STARTING, 0, 0)));
+
+        Either<FailedOperation, Optional<String>> result =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, "workspace");
+
+        assertTrue(result.isRight());
+        assertTrue(result.get().isEmpty());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(SqlWarehouseRouter.ROUTING_METRIC)
+                        .tag("outcome", "fallback")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testSelectSqlWarehouseId_PoolModeDisabled() {
+        sqlWarehousePoolConfig.setEnabled(false);
+
+        Either<FailedOperation, Optional<String>> result =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, "workspace");
+
+        assertTrue(result.isRight());
+        assertTrue(result.get().isEmpty());
+        verifyNoInteractions(workspaceClient);
+    }
+
+    @Test
+    void testSelectSqlWarehouseId_NoPoolForWorkspace() {
+        Either<FailedOperation, Optional<String>> result =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, "another-workspace");
+
+        assertTrue(result.isRight());
+        assertTrue(result.get().isEmpty());
+        verifyNoInteractions(workspaceClient);
+    }
+
+    @Test
+    void testSelectSqlWarehouseId_Exception() {
+        when(workspaceClient.warehouses()).thenReturn(warehousesAPI);
+        when(warehousesAPI.list(any(ListWarehousesRequest.class))).thenThrow(new RuntimeException("error"));
+
+        Either<FailedOperation, Optional<String>> result =
+                sqlWarehouseRouter.selectSqlWarehouseId(workspaceClient, "workspace");
+
+        assertTrue(result.isLeft());
+        assertTrue(result.getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .contains("An error occurred while selecting a SQL Warehouse from the pool of workspace 'workspace'"));
+    }
+}
@@ -7,12 +7,15 @@ import static org.mockito.Mockito.*;
 import com.azure.resourcemanager.databricks.models.ProvisioningState;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.DatabricksException;
+import com.databricks.sdk.core.error.platform.NotFound;
+import com.databricks.sdk.core.error.platform.ResourceAlreadyExists;
 import com.databricks.sdk.service.catalog.*;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.TestConfig;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -56,6 +59,44 @@ public class UnityCatalogManagerTest {
         assertEquals(null, result.get());
     }
 
+    @Test
+    public void testAttachMetastore_AlreadyAttached() {
+        MetastoresAPI metastoresAPI = mock(MetastoresAPI.class);
+        when(workspaceClient.metastores()).thenReturn(metastoresAPI);
+        when(metastoresAPI.current())
+                .thenReturn(new MetastoreAssignment().setMetastoreId("id").setWorkspaceId(123L));
+        when(metastoresAPI.get("id"))
+                .thenReturn(new MetastoreInfo().setName("metastore").setMetastoreId("id"));
+
+        Either<FailedOperation, Void> result = unityCatalogManager.attachMetastore("metastore");
+        assertTrue(result.isRight());
+
+        // Second attachment is served by the cache
+        Either<FailedOperation, Void> secondResult = unityCatalogManager.attachMetastore("metastore");
+        assertTrue(secondResult.isRight());
+
+        verify(metastoresAPI, times(1)).current();
+        verify(metastoresAPI, never()).list();
+        verify(metastoresAPI, never()).assign(any(CreateMetastoreAssignment.class));
+    }
+
+    @Test
+    public void testAttachMetastore_CachedMetastoreId() {
+        List<MetastoreInfo> metastoresList = Arrays.asList(
+                new MetastoreInfo().setName("metastore").setMetastoreId("id"),
+                new MetastoreInfo().setName("metastore2").setMetastoreId("id2"));
+
+        MetastoresAPI metastoresAPI = mock(MetastoresAPI.class);
+        when(workspaceClient.metastores()).thenReturn(metastoresAPI);
+        when(metastoresAPI.list()).thenReturn(metastoresList);
+
+        assertTrue(unityCatalogManager.attachMetastore("metastore").isRight());
+        assertTrue(unityCatalogManager.attachMetastore("metastore").isRight());
+
+        verify(metastoresAPI, times(1)).list();
+        verify(metastoresAPI, times(1)).assign(any(CreateMetastoreAssignment.class));
+    }
+
     @Test
     public void testAttachMetastore_EmptyMetastore() {
         Either<FailedOperation, Void> result = unityCatalogManager.attachMetastore("");
@@ -76,11 +117,8 @@ public class UnityCatalogManagerTest {
 
     @Test
     public void testCreateCatalog() {
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog1"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("new")).thenThrow(new NotFound("Catalog 'new' does not exist.", List.of()));
 
         Either<FailedOperation, Void> result = unityCatalogManager.createCatalogIfNotExists("new");
         assertTrue(result.isRight());
@@ -89,11 +127,8 @@ public class UnityCatalogManagerTest {
 
     @Test
     public void testCreateCatalog_ExceptionAlreadyExistingCatalog() {
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog1"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("new")).thenThrow(new NotFound("Catalog 'new' does not exist.", List.of()));
         when(workspaceClient.catalogs().create(anyString()))
                 .thenThrow(new RuntimeException("CATALOG_ALREADY_EXISTS: catalog1"));
 
@@ -103,11 +138,8 @@ public class UnityCatalogManagerTest {
 
     @Test
     public void testCreateCatalog_GenericException() {
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog1"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("new")).thenThrow(new NotFound("Catalog 'new' does not exist.", List.of()));
         when(workspaceClient.catalogs().create(anyString())).thenThrow(new RuntimeException("Generic exception"));
 
         Either<FailedOperation, Void> result = unityCatalogManager.createCatalogIfNotExists("new");
@@ -177,8 +209,12 @@ public class UnityCatalogManagerTest {
     @Test
     public void testCreateSchemaIfNotExists_UnexistingCatalogFailure() {
 
+        when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
+        when(workspaceClient.schemas().get("catalog_not_existing.schema"))
+                .thenThrow(new NotFound("Schema 'catalog_not_existing.schema' does not exist.", List.of()));
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(List.of()); // No catalogs in the ws
+        when(workspaceClient.catalogs().get("catalog_not_existing"))
+                .thenThrow(new NotFound("Catalog 'catalog_not_existing' does not exist.", List.of()));
 
         Either<FailedOperation, Void> actualRes1 =
                 unityCatalogManager.createSchemaIfNotExists("catalog_not_existing", "schema");
@@ -192,35 +228,60 @@ public class UnityCatalogManagerTest {
     @Test
     public void testCreateSchemaIfNotExists_SchemaAlreadyExistsSuccess() {
 
-        when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(List.of(new CatalogInfo().setName("catalog")));
-        List<SchemaInfo> schemaList =
-                Arrays.asList(new SchemaInfo().setCatalogName("catalog").setName("schema"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog")).thenReturn(schemaList);
+        when(workspaceClient.schemas().get("catalog.schema"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog").setName("schema"));
 
         Either<FailedOperation, Void> actualRes = unityCatalogManager.createSchemaIfNotExists("catalog", "schema");
 
         assertTrue(actualRes.isRight());
+        verify(workspaceClient.schemas(), never()).create(anyString(), anyString());
     }
 
     @Test
     public void testCreateSchemaIfNotExists_SchemaDoesNotExistSuccess() {
 
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(List.of(new CatalogInfo().setName("catalog")));
-
-        List<SchemaInfo> schemaList =
-                Arrays.asList(new SchemaInfo().setCatalogName("catalog").setName("schema"));
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog")).thenReturn(schemaList);
+        when(workspaceClient.schemas().get("catalog.schema_not_existing"))
+                .thenThrow(new NotFound("Schema 'catalog.schema_not_existing' does not exist.", List.of()));
 
         Either<FailedOperation, Void> actualRes =
                 unityCatalogManager.createSchemaIfNotExists("catalog", "schema_not_existing");
 
         assertTrue(actualRes.isRight());
+        verify(workspaceClient.schemas()).create("schema_not_existing", "catalog");
+    }
+
+    @Test
+    public void testCreateSchemaIfNotExists_SchemaCreatedConcurrently() {
+
+        when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
+
+        when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
+        when(workspaceClient.schemas().get("catalog.schema"))
+                .thenThrow(new NotFound("Schema 'catalog.schema' does not exist.", List.of()));
+        when(workspaceClient.schemas().create("schema", "catalog"))
+                .thenThrow(new ResourceAlreadyExists("Schema 'schema' already exists", Collections.emptyList()));
+
+        Either<FailedOperation, Void> actualRes = unityCatalogManager.createSchemaIfNotExists("catalog", "schema");
+
+        assertTrue(actualRes.isRight());
+    }
+
+    @Test
+    public void testCheckCatalogExistence_CatalogExists() {
+        when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
+
+        Either<FailedOperation, Boolean> result = unityCatalogManager.checkCatalogExistence("catalog");
+
+        assertTrue(result.isRight());
+        assertTrue(result.get());
+        verify(workspaceClient.catalogs(), never()).list(any());
     }
 
     @Test
@@ -285,18 +346,4 @@ public class UnityCatalogManagerTest {
 
         assertTrue(result.isRight());
     }
-
-    @Test
-    public void testRetrieveColumnNames_GenericFailure() {
-
-        when(workspaceClient.tables()).thenReturn(mock(TablesAPI.class));
-        when(workspaceClient.tables().get("catalog.schema.table")).thenThrow(new RuntimeException("Exception"));
-        Either<FailedOperation, List<String>> result =
-                unityCatalogManager.retrieveTableColumnsNames("catalog", "schema", "table");
-
-        assertTrue(result.isLeft());
-        String messageError =
-                "An error occurred while retrieving columns for table 'catalog.schema.table' in workspace workspace. Please try again and if the error persists contact the platform team. Details: Exception";
-        assertEquals(messageError, result.getLeft().problems().get(0).description());
-    }
 }
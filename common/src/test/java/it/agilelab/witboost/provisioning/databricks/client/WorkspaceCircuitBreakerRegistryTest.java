@@ -0,0 +1,116 @@
+package it.agilelab.witboost.provisioning.databricks.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceCircuitBreakerConfig;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WorkspaceCircuitBreakerRegistryTest {
+
+    private static final String WORKSPACE = "ws-1";
+
+    private WorkspaceCircuitBreakerConfig config;
+    private WorkspaceCircuitBreakerRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        config = new WorkspaceCircuitBreakerConfig();
+        config.setFailureThreshold(3);
+        registry = new WorkspaceCircuitBreakerRegistry(config);
+    }
+
+    private void recordFailures(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(registry.acquire(WORKSPACE).isRight());
+            registry.onFailure(WORKSPACE);
+        }
+    }
+
+    @Test
+    public void acquire_OpensAfterConsecutiveFailures() {
+        recordFailures(2);
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+        registry.onSuccess(WORKSPACE);
+        recordFailures(2);
+        assertTrue(registry.checkState(WORKSPACE).isRight());
+
+        recordFailures(1);
+
+        var result = registry.acquire(WORKSPACE);
+        assertTrue(result.isLeft());
+        assertTrue(result.getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .startsWith("Workspace ws-1 is currently unavailable"));
+        assertTrue(registry.checkState(WORKSPACE).isLeft());
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.OPEN,
+                registry.getStates().get(WORKSPACE).state());
+    }
+
+    @Test
+    public void acquire_HalfOpenProbeClosesBreaker() {
+        config.setOpenDuration(Duration.ZERO);
+        recordFailures(3);
+
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.HALF_OPEN,
+                registry.getStates().get(WORKSPACE).state());
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+        assertTrue(registry.acquire(WORKSPACE).isLeft());
+
+        registry.onSuccess(WORKSPACE);
+
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.CLOSED,
+                registry.getStates().get(WORKSPACE).state());
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+    }
+
+    @Test
+    public void acquire_FailedProbeReopensBreaker() {
+        config.setOpenDuration(Duration.ofMinutes(1));
+        recordFailures(3);
+        config.setOpenDuration(Duration.ZERO);
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+        config.setOpenDuration(Duration.ofMinutes(1));
+
+        registry.onFailure(WORKSPACE);
+
+        assertEquals(
+                WorkspaceCircuitBreakerRegistry.State.OPEN,
+                registry.getStates().get(WORKSPACE).state());
+        assertTrue(registry.acquire(WORKSPACE).isLeft());
+    }
+
+    @Test
+    public void acquire_IgnoredProbeReleasesSlot() {
+        config.setOpenDuration(Duration.ZERO);
+        recordFailures(3);
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+
+        registry.onIgnore(WORKSPACE);
+
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+    }
+
+    @Test
+    public void acquire_Disabled() {
+        config.setEnabled(false);
+        recordFailures(5);
+
+        assertTrue(registry.acquire(WORKSPACE).isRight());
+        assertTrue(registry.getStates().isEmpty());
+    }
+
+    @Test
+    public void keyForHost_MapsHostToWorkspace() {
+        registry.registerHost("https://adb-123.4.azuredatabricks.net/", "WS-1");
+
+        assertEquals(WORKSPACE, registry.keyForHost("adb-123.4.azuredatabricks.net"));
+        assertEquals("adb-999.4.azuredatabricks.net", registry.keyForHost("https://adb-999.4.azuredatabricks.net"));
+    }
+}
@@ -26,10 +26,10 @@ import com.databricks.sdk.service.workspace.UpdateCredentialsRequest;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.config.GitCredentialsConfig;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -84,6 +84,72 @@ class WorkspaceLevelManagerTest {
         assertEquals("TestPrincipal", result.get().getDisplayName());
     }
 
+    @Test
+    void testGetServicePrincipalFromName_FilteredAndCached() {
+        Workspace workspace =
+                new Workspace().setDeploymentName("deploymentName").setWorkspaceName("TestWorkspace");
+        when(workspaceClient.config()).thenReturn(mock(DatabricksConfig.class));
+        when(workspaceClient.config().getHost()).thenReturn("https://deploymentName.azuredatabricks.net");
+        when(accountClient.workspaces()).thenReturn(workspacesAPI);
+        when(workspacesAPI.list()).thenReturn(Collections.singletonList(workspace));
+
+        ServicePrincipal principal = new ServicePrincipal()
+                .setDisplayName("TestPrincipal")
+                .setId("123")
+                .setApplicationId("appId");
+
+        when(workspaceClient.servicePrincipals()).thenReturn(servicePrincipalsAPI);
+        when(servicePrincipalsAPI.list(any(ListServicePrincipalsRequest.class)))
+                .thenReturn(Collections.singletonList(principal));
+
+        assertTrue(workspaceLevelManager
+                .getServicePrincipalFromName("TestPrincipal")
+                .isRight());
+        Either<FailedOperation, ServicePrincipal> result =
+                workspaceLevelManager.getServicePrincipalFromName("testprincipal");
+
+        assertTrue(result.isRight());
+        assertEquals("appId", result.get().getApplicationId());
+        verify(servicePrincipalsAPI, times(1))
+                .list(argThat((ListServicePrincipalsRequest request) ->
+                        "displayName eq 'TestPrincipal'".equals(request.getFilter())
+                                && "id,applicationId,displayName".equals(request.getAttributes())));
+    }
+
+    @Test
+    void testGetServicePrincipalFromName_SharedAndInvalidated() {
+        Workspace workspace =
+                new Workspace().setDeploymentName("deploymentName").setWorkspaceName("TestWorkspace");
+        when(workspaceClient.config()).thenReturn(mock(DatabricksConfig.class));
+        when(workspaceClient.config().getHost()).thenReturn("https://deploymentName.azuredatabricks.net");
+        when(accountClient.workspaces()).thenReturn(workspacesAPI);
+        when(workspacesAPI.list()).thenReturn(Collections.singletonList(workspace));
+
+        ServicePrincipal principal = new ServicePrincipal()
+                .setDisplayName("TestPrincipal")
+                .setId("123")
+                .setApplicationId("appId");
+
+        when(workspaceClient.servicePrincipals()).thenReturn(servicePrincipalsAPI);
+        when(servicePrincipalsAPI.list(any(ListServicePrincipalsRequest.class)))
+                .thenReturn(Collections.singletonList(principal));
+
+        DatabricksCaches databricksCaches = new DatabricksCaches();
+        AccountWorkspaceIndex accountWorkspaceIndex = new AccountWorkspaceIndex(accountClient);
+        WorkspaceLevelManager firstManager =
+                new WorkspaceLevelManager(workspaceClient, accountClient, accountWorkspaceIndex, databricksCaches);
+        WorkspaceLevelManager secondManager =
+                new WorkspaceLevelManager(workspaceClient, accountClient, accountWorkspaceIndex, databricksCaches);
+
+        assertTrue(firstManager.getServicePrincipalFromName("TestPrincipal").isRight());
+        assertTrue(secondManager.getServicePrincipalFromName("TestPrincipal").isRight());
+        verify(servicePrincipalsAPI, times(1)).list(any(ListServicePrincipalsRequest.class));
+
+        secondManager.invalidateServicePrincipal("TestPrincipal");
+        assertTrue(firstManager.getServicePrincipalFromName("TestPrincipal").isRight());
+        verify(servicePrincipalsAPI, times(2)).list(any(ListServicePrincipalsRequest.class));
+    }
+
     @Test
     void testGetServicePrincipalFromName_NoServicePrincipalsAvailable() {
         Workspace workspace =
@@ -216,9 +282,8 @@ class WorkspaceLevelManagerTest {
         when(accountClient.workspaces()).thenReturn(workspacesAPI);
         when(workspacesAPI.list()).thenReturn(List.of(workspace1, workspace2));
 
-        Exception exception =
-                assertThrows(NoSuchElementException.class, () -> workspaceLevelManager.getWorkspaceName());
-        assertTrue(exception.getMessage().contains("No value present"));
+        String result = workspaceLevelManager.getWorkspaceName();
+        assertEquals("https://unknownHost.azuredatabricks.net", result);
     }
 
     @Test
@@ -228,9 +293,8 @@ class WorkspaceLevelManagerTest {
         when(accountClient.workspaces()).thenReturn(workspacesAPI);
         when(workspacesAPI.list()).thenReturn(Collections.emptyList());
 
-        Exception exception =
-                assertThrows(NoSuchElementException.class, () -> workspaceLevelManager.getWorkspaceName());
-        assertTrue(exception.getMessage().contains("No value present"));
+        String result = workspaceLevelManager.getWorkspaceName();
+        assertEquals("https://unknownHost.azuredatabricks.net", result);
     }
 
     @Test
@@ -348,6 +412,106 @@ class WorkspaceLevelManagerTest {
         assertTrue(result.getLeft().problems().get(0).description().contains("Simulated exception"));
     }
 
+    @Test
+    void testSetGitCredentials_SameCredentialsSkipped() {
+        GitCredentialsConfig gitCredentialsConfig = new GitCredentialsConfig();
+        gitCredentialsConfig.setProvider("GitHub");
+        gitCredentialsConfig.setUsername("exampleUser");
+        gitCredentialsConfig.setToken("exampleToken");
+
+        when(workspaceClient.config()).thenReturn(mock(DatabricksConfig.class));
+        when(workspaceClient.config().getHost()).thenReturn("https://exampleWorkspace.azuredatabricks.net");
+        when(workspaceClient.config().getClientId()).thenReturn("clientId");
+        when(accountClient.workspaces()).thenReturn(mock(WorkspacesAPI.class));
+        when(accountClient.workspaces().list())
+                .thenReturn(Collections.singletonList(
+                        new Workspace().setWorkspaceName("exampleWorkspace").setDeploymentName("exampleWorkspace")));
+
+        GitCredentialsAPI gitCredentialsAPI = mock(GitCredentialsAPI.class);
+        when(workspaceClient.gitCredentials()).thenReturn(gitCredentialsAPI);
+        when(gitCredentialsAPI.list())
+                .thenReturn(Collections.singletonList(
+                        new CredentialInfo().setCredentialId(123L).setGitProvider("GitHub")));
+
+        assertTrue(workspaceLevelManager
+                .setGitCredentials(workspaceClient, gitCredentialsConfig)
+                .isRight());
+        assertTrue(workspaceLevelManager
+                .setGitCredentials(workspaceClient, gitCredentialsConfig)
+                .isRight());
+        assertTrue(workspaceLevelManager.isGitCredentialsUpToDate(
+                "exampleworkspace.azuredatabricks.net/", "clientId", gitCredentialsConfig));
+
+        verify(gitCredentialsAPI, times(1)).list();
+        verify(gitCredentialsAPI, times(1)).update(any(UpdateCredentialsRequest.class));
+
+        // A different token must be applied again
+        gitCredentialsConfig.setToken("rotatedToken");
+        assertTrue(workspaceLevelManager
+                .setGitCredentials(workspaceClient, gitCredentialsConfig)
+                .isRight());
+
+        verify(gitCredentialsAPI, times(2)).update(any(UpdateCredentialsRequest.class));
+    }
+
+    @Test
+    void testSetGitCredentials_SharedBetweenManagers() {
+        GitCredentialsConfig gitCredentialsConfig = new GitCredentialsConfig();
+        gitCredentialsConfig.setProvider("GitHub");
+        gitCredentialsConfig.setUsername("exampleUser");
+        gitCredentialsConfig.setToken("exampleToken");
+
+        when(workspaceClient.config()).thenReturn(mock(DatabricksConfig.class));
+        when(workspaceClient.config().getHost()).thenReturn("https://exampleWorkspace.azuredatabricks.net");
+        when(accountClient.workspaces()).thenReturn(mock(WorkspacesAPI.class));
+        when(accountClient.workspaces().list())
+                .thenReturn(Collections.singletonList(
+                        new Workspace().setWorkspaceName("exampleWorkspace").setDeploymentName("exampleWorkspace")));
+
+        GitCredentialsAPI gitCredentialsAPI = mock(GitCredentialsAPI.class);
+        when(workspaceClient.gitCredentials()).thenReturn(gitCredentialsAPI);
+        when(gitCredentialsAPI.list()).thenReturn(Collections.emptyList());
+
+        DatabricksCaches databricksCaches = new DatabricksCaches();
+        AccountWorkspaceIndex accountWorkspaceIndex = new AccountWorkspaceIndex(accountClient);
+        new WorkspaceLevelManager(workspaceClient, accountClient, accountWorkspaceIndex, databricksCaches)
+                .setGitCredentials(workspaceClient, gitCredentialsConfig);
+        new WorkspaceLevelManager(workspaceClient, accountClient, accountWorkspaceIndex, databricksCaches)
+                .setGitCredentials(workspaceClient, gitCredentialsConfig);
+
+        verify(gitCredentialsAPI, times(1)).list();
+
+        // Managers with their own caches apply the credentials again
+        workspaceLevelManager.setGitCredentials(workspaceClient, gitCredentialsConfig);
+
+        verify(gitCredentialsAPI, times(2)).list();
+    }
+
+    @Test
+    void testSetGitCredentials_ZeroTtlAlwaysRefreshes() {
+        GitCredentialsConfig gitCredentialsConfig = new GitCredentialsConfig();
+        gitCredentialsConfig.setProvider("GitHub");
+        gitCredentialsConfig.setUsername("exampleUser");
+        gitCredentialsConfig.setToken("exampleToken");
+        gitCredentialsConfig.setCredentialsCacheTtl(Duration.ZERO);
+
+        when(workspaceClient.config()).thenReturn(mock(DatabricksConfig.class));
+        when(workspaceClient.config().getHost()).thenReturn("https://exampleWorkspace.azuredatabricks.net");
+        when(accountClient.workspaces()).thenReturn(mock(WorkspacesAPI.class));
+        when(accountClient.workspaces().list())
+                .thenReturn(Collections.singletonList(
+                        new Workspace().setWorkspaceName("exampleWorkspace").setDeploymentName("exampleWorkspace")));
+
+        GitCredentialsAPI gitCredentialsAPI = mock(GitCredentialsAPI.class);
+        when(workspaceClient.gitCredentials()).thenReturn(gitCredentialsAPI);
+        when(gitCredentialsAPI.list()).thenReturn(Collections.emptyList());
+
+        workspaceLevelManager.setGitCredentials(workspaceClient, gitCredentialsConfig);
+        workspaceLevelManager.setGitCredentials(workspaceClient, gitCredentialsConfig);
+
+        verify(gitCredentialsAPI, times(2)).list();
+    }
+
     @Test
     void testGenerateSecretForServicePrincipal_Success() {
         long servicePrincipalId = 123L;
@@ -0,0 +1,94 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+
+public class DeadlineTest {
+
+    @Test
+    public void run_BindsDeadlineToThread() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        List<Optional<Deadline>> seen = new ArrayList<>();
+
+        deadline.run(() -> seen.add(Deadline.current()));
+
+        assertEquals(List.of(Optional.of(deadline)), seen);
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+    @Test
+    public void bind_PropagatesDeadlineToOtherThreads() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        List<Optional<Deadline>> seen = new ArrayList<>();
+
+        deadline.run(() -> seen.add(CompletableFuture.supplyAsync(Deadline.bind(Deadline::current))
+                .join()));
+
+        assertEquals(List.of(Optional.of(deadline)), seen);
+    }
+
+    @Test
+    public void expire_RunsActionsOnceWithoutDeadline() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        AtomicInteger runs = new AtomicInteger();
+        List<Optional<Deadline>> seen = new ArrayList<>();
+        deadline.onExpiry(runs::incrementAndGet);
+        Runnable deregister = deadline.onExpiry(() -> fail("Deregistered action must not run"));
+        deadline.onExpiry(() -> seen.add(Deadline.current()));
+        deregister.run();
+
+        deadline.run(deadline::expire);
+        deadline.expire();
+
+        assertEquals(1, runs.get());
+        assertEquals(List.of(Optional.empty()), seen);
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ZERO, deadline.remaining());
+    }
+
+    @Test
+    public void onExpiry_AlreadyExpiredRunsImmediately() {
+        Deadline deadline = Deadline.after(Duration.ZERO);
+        deadline.expire();
+        AtomicInteger runs = new AtomicInteger();
+
+        deadline.onExpiry(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void lock_GivesUpWhenDeadlineExpires() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        Thread holder = new Thread(lock::lock);
+        holder.start();
+        holder.join();
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+        List<Boolean> acquired = new ArrayList<>();
+
+        deadline.run(() -> {
+            try {
+                acquired.add(Deadline.lock(lock));
+            } catch (InterruptedException e) {
+                fail(e);
+            }
+        });
+
+        assertEquals(List.of(false), acquired);
+        assertTrue(Deadline.unbounded().remaining().compareTo(Duration.ofDays(365)) > 0);
+    }
+
+    @Test
+    public void isExpired_AfterBudget() {
+        assertTrue(Deadline.after(Duration.ZERO).isExpired());
+        assertFalse(Deadline.after(Duration.ofMinutes(1)).isExpired());
+    }
+}
@@ -0,0 +1,55 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class ExpiringCacheTest {
+
+    private final AtomicReference<Duration> ttl = new AtomicReference<>(Duration.ofMinutes(10));
+    private final ExpiringCache<String, String> cache = new ExpiringCache<>(ttl::get);
+
+    @Test
+    public void get_ReturnsStoredValue() {
+        cache.put("key", "value");
+
+        assertEquals(Optional.of("value"), cache.get("key"));
+        assertEquals(Optional.empty(), cache.get("other"));
+    }
+
+    @Test
+    public void get_ExpiredValueIsMissing() throws InterruptedException {
+        ttl.set(Duration.ofMillis(10));
+        cache.put("key", "value");
+
+        Thread.sleep(50);
+
+        assertEquals(Optional.empty(), cache.get("key"));
+    }
+
+    @Test
+    public void put_ZeroTtlDisablesCache() {
+        cache.put("key", "value");
+        ttl.set(Duration.ZERO);
+
+        cache.put("key", "new value");
+
+        assertEquals(Optional.empty(), cache.get("key"));
+    }
+
+    @Test
+    public void invalidate_RemovesValues() {
+        cache.put("first", "value");
+        cache.put("second", "value");
+
+        cache.invalidate("first");
+        assertEquals(Optional.empty(), cache.get("first"));
+        assertEquals(Optional.of("value"), cache.get("second"));
+
+        cache.invalidateAll();
+        assertEquals(Optional.empty(), cache.get("second"));
+    }
+}
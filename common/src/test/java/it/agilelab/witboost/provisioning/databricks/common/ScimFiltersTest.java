@@ -0,0 +1,43 @@
+package it.agilelab.witboost.provisioning.databricks.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class ScimFiltersTest {
+
+    @Test
+    public void orFilters_ChunkedByNumberOfValues() {
+        List<String> names = IntStream.range(0, 25).mapToObj(i -> "user" + i).collect(Collectors.toList());
+
+        List<String> filters = ScimFilters.orFilters("userName", names);
+
+        assertEquals(2, filters.size());
+        assertTrue(filters.get(0).startsWith("userName eq 'user0' or userName eq 'user1'"));
+        assertEquals("userName eq 'user20' or userName eq 'user21' or userName eq 'user22' or userName eq 'user23' "
+                + "or userName eq 'user24'", filters.get(1));
+    }
+
+    @Test
+    public void orFilters_ChunkedByLength() {
+        List<String> filters = ScimFilters.orFilters("displayName", List.of("a".repeat(1500), "b".repeat(1500)));
+
+        assertEquals(2, filters.size());
+        assertEquals("displayName eq '" + "a".repeat(1500) + "'", filters.get(0));
+    }
+
+    @Test
+    public void orFilters_DiscardsDuplicates() {
+        List<String> filters = ScimFilters.orFilters("displayName", List.of("dev", "dev", "ops"));
+
+        assertEquals(List.of("displayName eq 'dev' or displayName eq 'ops'"), filters);
+    }
+
+    @Test
+    public void orFilters_Empty() {
+        assertTrue(ScimFilters.orFilters("userName", List.of()).isEmpty());
+    }
+}
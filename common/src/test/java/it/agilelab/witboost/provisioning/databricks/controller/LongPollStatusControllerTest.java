@@ -0,0 +1,63 @@
+package it.agilelab.witboost.provisioning.databricks.controller;
+
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import it.agilelab.witboost.provisioning.databricks.service.provision.ProvisionService;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+public class LongPollStatusControllerTest {
+
+    @Mock
+    private ProvisionService service;
+
+    private LongPollStatusController longPollStatusController;
+
+    @BeforeEach
+    void setUp() {
+        longPollStatusController = new LongPollStatusController(service, new LongPollConfig());
+    }
+
+    @Test
+    void testGetStatusWithTimeout() {
+        String token = UUID.randomUUID().toString();
+        ProvisioningStatus status = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done");
+        CompletableFuture<ProvisioningStatus> changed = new CompletableFuture<>();
+        when(service.awaitStatusChange(token, Duration.ofSeconds(20))).thenReturn(changed);
+
+        var actualRes = longPollStatusController.getStatus(token, 20);
+
+        // The request is held without occupying the calling thread until the status changes
+        Assertions.assertFalse(actualRes.hasResult());
+        changed.complete(status);
+        Assertions.assertTrue(actualRes.hasResult());
+        ResponseEntity<?> response = (ResponseEntity<?>) actualRes.getResult();
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), response.getStatusCode());
+        Assertions.assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void testGetStatusWithTimeoutFails() {
+        String token = UUID.randomUUID().toString();
+        CompletableFuture<ProvisioningStatus> changed = new CompletableFuture<>();
+        when(service.awaitStatusChange(token, Duration.ofSeconds(20))).thenReturn(changed);
+        IllegalStateException error = new IllegalStateException("Unexpected error");
+
+        var actualRes = longPollStatusController.getStatus(token, 20);
+        changed.completeExceptionally(error);
+
+        Assertions.assertEquals(error, actualRes.getResult());
+    }
+}
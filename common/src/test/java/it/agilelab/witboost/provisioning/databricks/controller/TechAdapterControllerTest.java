@@ -69,6 +69,49 @@ public class TechAdapterControllerTest {
         actualRes.getBody().getError().getErrors().forEach(p -> Assertions.assertEquals(expectedError, p));
     }
 
+    @Test
+    void testProvisionWithIdempotencyKey() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        MockHttpServletRequest mockHttpServletRequest = new MockHttpServletRequest();
+        mockHttpServletRequest.addHeader("Idempotency-Key", "deploy-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(mockHttpServletRequest));
+        String token = UUID.randomUUID().toString();
+        when(service.provision(provisioningRequest, "deploy-1")).thenReturn(token);
+
+        var actualRes = techAdapterController.provision(provisioningRequest);
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        Assertions.assertEquals(token, actualRes.getBody());
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRegisterCallback() {
+        String token = UUID.randomUUID().toString();
+        ProvisioningStatus status = new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running");
+        when(service.registerCallback(token, "https://example.com/hook")).thenReturn(status);
+
+        var actualRes = techAdapterController.registerCallback(
+                token, new CallbackRegistration("https://example.com/hook"));
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        Assertions.assertEquals(status, actualRes.getBody());
+    }
+
+    @Test
+    void testCancel() {
+        String token = UUID.randomUUID().toString();
+        ProvisioningStatus status =
+                new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "The request was cancelled.");
+        when(service.cancel(token, "obsolete deploy")).thenReturn(status);
+
+        var actualRes = techAdapterController.cancel(token, Optional.of("obsolete deploy"));
+
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        Assertions.assertEquals(status, actualRes.getBody());
+    }
+
     @Test
     void testProvisionOk() {
         ProvisioningRequest provisioningRequest =
@@ -134,7 +177,7 @@ public class TechAdapterControllerTest {
         when(service.getStatus(token))
                 .thenReturn(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "this is the result"));
 
-        ResponseEntity<ProvisioningStatus> actualRes = techAdapterController.getStatus(token);
+        ResponseEntity<ProvisioningStatus> actualRes = techAdapterController.getStatus(token, Optional.empty());
 
         Assertions.assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
         Assertions.assertEquals(
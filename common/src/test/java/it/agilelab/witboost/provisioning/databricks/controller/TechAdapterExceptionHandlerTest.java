@@ -1,11 +1,13 @@
 package it.agilelab.witboost.provisioning.databricks.controller;
 
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.IdempotencyKeyConflictException;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.RequestValidationError;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.SystemError;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -43,4 +45,15 @@ public class TechAdapterExceptionHandlerTest {
         Assertions.assertEquals(1, requestValidationError.getErrors().size());
         requestValidationError.getErrors().forEach(e -> Assertions.assertEquals(expectedError, e));
     }
+
+    @Test
+    void testHandleIdempotencyKeyConflict() {
+        IdempotencyKeyConflictException exception = new IdempotencyKeyConflictException("deploy-1");
+
+        RequestValidationError requestValidationError =
+                techAdapterExceptionHandler.handleIdempotencyKeyConflict(exception);
+
+        Assertions.assertEquals(exception.getMessage(), requestValidationError.getUserMessage());
+        Assertions.assertEquals(List.of(exception.getMessage()), requestValidationError.getErrors());
+    }
 }
@@ -157,7 +157,13 @@ class AzurePermissionsManagerTest {
                 .thenReturn(Collections.singleton(mockRoleAssignment).spliterator());
 
         when(roleAssignmentsClient.listForResource(
-                        anyString(), anyString(), anyString(), anyString(), isNull(), isNull(), any(Context.class)))
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        eq("assignedTo('principalId')"),
+                        isNull(),
+                        any(Context.class)))
                 .thenReturn(mockPagedIterable);
 
         Either<FailedOperation, List<RoleAssignmentInner>> result =
@@ -178,7 +184,13 @@ class AzurePermissionsManagerTest {
         String errorMessage = "Error retrieving role assignments";
 
         when(roleAssignmentsClient.listForResource(
-                        anyString(), anyString(), anyString(), anyString(), isNull(), isNull(), any(Context.class)))
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        anyString(),
+                        eq("assignedTo('principalId')"),
+                        isNull(),
+                        any(Context.class)))
                 .thenThrow(new RuntimeException(errorMessage));
 
         Either<FailedOperation, List<RoleAssignmentInner>> result =
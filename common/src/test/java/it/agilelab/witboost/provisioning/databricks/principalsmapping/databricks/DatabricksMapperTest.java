@@ -3,12 +3,12 @@ package it.agilelab.witboost.provisioning.databricks.principalsmapping.databrick
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.service.iam.AccountGroupsAPI;
 import com.databricks.sdk.service.iam.Group;
+import com.databricks.sdk.service.iam.ListAccountGroupsRequest;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.TestConfig;
 import java.util.List;
@@ -16,6 +16,7 @@ import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
@@ -116,4 +117,37 @@ class DatabricksMapperTest {
                 .getMessage()
                 .contains("An unexpected error occurred while mapping the the Witboost user null");
     }
+
+    @Test
+    void testMapManyGroupsWithSingleCall() {
+        AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
+        when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("Dev"),
+                        new Group().setDisplayName("ops"),
+                        new Group().setDisplayName("dup"),
+                        new Group().setDisplayName("DUP")));
+
+        Map<String, Either<Throwable, String>> res =
+                mapper.map(Set.of("group:dev", "group:ops", "group:dup", "group:missing", "user:a_email.com"));
+
+        assertEquals(5, res.size());
+        assertEquals("Dev", res.get("group:dev").get());
+        assertEquals("ops", res.get("group:ops").get());
+        assertEquals("a@email.com", res.get("user:a_email.com").get());
+        assertEquals(
+                "More than one group with name 'dup' has been found",
+                res.get("group:dup").getLeft().getMessage());
+        assertEquals(
+                "Group 'missing' not found at Databricks account level.",
+                res.get("group:missing").getLeft().getMessage());
+
+        ArgumentCaptor<ListAccountGroupsRequest> requestCaptor =
+                ArgumentCaptor.forClass(ListAccountGroupsRequest.class);
+        verify(accountGroupsAPIMock, times(1)).list(requestCaptor.capture());
+        String filter = requestCaptor.getValue().getFilter();
+        assertTrue(filter.contains("displayName eq 'dev'"));
+        assertTrue(filter.contains(" or "));
+    }
 }
@@ -25,6 +25,7 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
 import it.agilelab.witboost.provisioning.databricks.client.AzureWorkspaceManager;
 import it.agilelab.witboost.provisioning.databricks.client.SkuType;
+import it.agilelab.witboost.provisioning.databricks.client.WorkspaceCircuitBreakerRegistry;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
 import it.agilelab.witboost.provisioning.databricks.config.*;
@@ -78,6 +79,9 @@ public class WorkspaceHandlerTest {
     @Autowired
     private WorkspaceHandler workspaceHandler;
 
+    @Autowired
+    private WorkspaceCircuitBreakerRegistry workspaceCircuitBreakerRegistry;
+
     @MockBean
     private Function<WorkspaceClientConfig.WorkspaceClientConfigParams, WorkspaceClient> workspaceClientFactory;
 
@@ -103,6 +107,11 @@ public class WorkspaceHandlerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        workspaceHandler.invalidateRoleAssignmentCache();
+        workspaceCircuitBreakerRegistry.reset();
+        when(azurePermissionsManager.getPrincipalRoleAssignmentsOnResource(
+                        anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(right(List.of()));
         dataProduct = new DataProduct();
         databricksJobWorkloadSpecific = new DatabricksJobWorkloadSpecific();
         workload = new Workload();
@@ -508,6 +517,28 @@ public class WorkspaceHandlerTest {
                 .getWorkspace("testWorkspace", "/subscriptions/testSubscriptionId/resourceGroups/testWorkspace-rg");
     }
 
+    @Test
+    public void testGetWorkspaceInfo_CircuitBreakerOpen() {
+        ProvisionRequest<DatabricksJobWorkloadSpecific> provisionRequest = createJobProvisionRequest();
+
+        when(azureWorkspaceManager.getWorkspace(anyString(), anyString()))
+                .thenReturn(Either.left(FailedOperation.singleProblemFailedOperation("Azure unavailable")));
+
+        for (int i = 0; i < 5; i++) {
+            workspaceHandler.getWorkspaceInfo(provisionRequest);
+        }
+        Either<FailedOperation, Optional<DatabricksWorkspaceInfo>> result =
+                workspaceHandler.getWorkspaceInfo(provisionRequest);
+
+        assertTrue(result.isLeft());
+        assertTrue(result.getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .startsWith("Workspace testWorkspace is currently unavailable"));
+        verify(azureWorkspaceManager, times(5)).getWorkspace(anyString(), anyString());
+    }
+
     @Test
     public void testHandleNoPermissions_Success() {
         DatabricksWorkspaceInfo workspaceInfo = new DatabricksWorkspaceInfo(
@@ -597,6 +628,59 @@ public class WorkspaceHandlerTest {
         assertEquals(result.get().getId(), databricksWorkspaceInfo.getId());
     }
 
+    @Test
+    public void provisionWorkspace_RoleAssignmentsReconciledOnce() {
+        ProvisionRequest<DatabricksJobWorkloadSpecific> provisionRequest = createJobProvisionRequest();
+
+        DatabricksWorkspaceInfo databricksWorkspaceInfo = new DatabricksWorkspaceInfo(
+                "testWorkspace", "test", "test", "test", "test", ProvisioningState.SUCCEEDED);
+        when(azureWorkspaceManager.getWorkspace(eq("testWorkspace"), anyString()))
+                .thenReturn(right(Optional.of(databricksWorkspaceInfo)));
+        when(azureWorkspaceManager.createIfNotExistsWorkspace(
+                        eq("testWorkspace"), eq("westeurope"), anyString(), anyString(), any()))
+                .thenReturn(right(databricksWorkspaceInfo));
+
+        Map<String, Either<Throwable, String>> mockres = new HashMap<>();
+        mockres.put(dataProduct.getDataProductOwner(), right("azureId"));
+        mockres.put(dataProduct.getDevGroup(), right("azureGroupId"));
+        when(azureMapper.map(anySet())).thenReturn(mockres);
+        when(azurePermissionsManager.assignPermissions(anyString(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(right(null));
+
+        assertTrue(workspaceHandler.provisionWorkspace(provisionRequest).isRight());
+        assertTrue(workspaceHandler.provisionWorkspace(provisionRequest).isRight());
+
+        // Both principals are mapped with a single call, and the second deploy hits the cache
+        verify(azureMapper, times(1))
+                .map(Set.of(dataProduct.getDataProductOwner(), dataProduct.getDevGroup()));
+        verify(azurePermissionsManager, times(2))
+                .assignPermissions(anyString(), anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testManageAzurePermissions_ExistingAssignmentSkipped() {
+        DatabricksWorkspaceInfo workspaceInfo = new DatabricksWorkspaceInfo(
+                "testWorkspace", "test", "test", "test", "test", ProvisioningState.SUCCEEDED);
+
+        Map<String, Either<Throwable, String>> mockres = new HashMap<>();
+        mockres.put("user:name.surname@company.it", right("azureId"));
+        when(azureMapper.map(anySet())).thenReturn(mockres);
+
+        RoleAssignmentInner roleAssignmentInner = mock(RoleAssignmentInner.class);
+        when(roleAssignmentInner.roleDefinitionId())
+                .thenReturn("/subscriptions/test/providers/Microsoft.Authorization/roleDefinitions/roleDefinitionId");
+        when(azurePermissionsManager.getPrincipalRoleAssignmentsOnResource(
+                        anyString(), anyString(), anyString(), eq("testWorkspace"), eq("azureId")))
+                .thenReturn(right(List.of(roleAssignmentInner)));
+
+        Either<FailedOperation, Void> result = workspaceHandler.manageAzurePermissions(
+                workspaceInfo, "user:name.surname@company.it", "roleDefinitionId", PrincipalType.USER);
+
+        assertTrue(result.isRight());
+        verify(azurePermissionsManager, never())
+                .assignPermissions(anyString(), anyString(), anyString(), anyString(), any());
+    }
+
     private ProvisionRequest<DatabricksJobWorkloadSpecific> createJobProvisionRequest() {
         String workspaceName = "testWorkspace";
         String region = "westeurope";
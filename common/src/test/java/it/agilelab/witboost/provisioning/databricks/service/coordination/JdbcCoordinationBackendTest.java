@@ -0,0 +1,125 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.provisioning.databricks.config.CoordinationConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.DescriptorKind;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class JdbcCoordinationBackendTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration EXPIRED_LEASE = Duration.ofSeconds(-1);
+
+    private final ProvisioningRequest provisioningRequest =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+    private JdbcCoordinationBackend backend;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        backend = new JdbcCoordinationBackend(new JdbcTemplate(dataSource), new CoordinationConfig());
+        backend.initializeSchema();
+    }
+
+    @Test
+    public void saveStatus_SharedAndUpdated() {
+        backend.saveStatus("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running"));
+        backend.saveStatus("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+
+        assertEquals(
+                Optional.of(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done")),
+                backend.findStatus("token"));
+        assertEquals(Optional.empty(), backend.findStatus("unknown"));
+    }
+
+    @Test
+    public void purgeStatuses_RemovesOldStatuses() {
+        backend.saveStatus("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+
+        backend.purgeStatuses(Instant.now().minus(Duration.ofHours(1)));
+        assertTrue(backend.findStatus("token").isPresent());
+
+        backend.purgeStatuses(Instant.now().plus(Duration.ofHours(1)));
+        assertEquals(Optional.empty(), backend.findStatus("token"));
+    }
+
+    @Test
+    public void register_LiveLeaseOfOtherReplicaKept() {
+        CoordinationBackend.WorkItem item = new CoordinationBackend.WorkItem("token", true, provisioningRequest);
+        assertTrue(backend.register(item, "replica-1", LEASE));
+
+        assertFalse(backend.register(item, "replica-2", LEASE));
+        assertTrue(backend.register(item, "replica-1", LEASE));
+        assertTrue(backend.renewLease("token", "replica-1", LEASE));
+        assertFalse(backend.renewLease("token", "replica-2", LEASE));
+    }
+
+    @Test
+    public void register_ExpiredLeaseTakenOver() {
+        CoordinationBackend.WorkItem item = new CoordinationBackend.WorkItem("token", true, provisioningRequest);
+        backend.register(item, "replica-1", EXPIRED_LEASE);
+
+        assertTrue(backend.register(item, "replica-2", LEASE));
+        assertFalse(backend.renewLease("token", "replica-1", LEASE));
+    }
+
+    @Test
+    public void renewLease_OnlyByOwner() {
+        backend.register(new CoordinationBackend.WorkItem("token", true, provisioningRequest), "replica-1", LEASE);
+
+        assertTrue(backend.renewLease("token", "replica-1", LEASE));
+        assertFalse(backend.renewLease("token", "replica-2", LEASE));
+        assertFalse(backend.renewLease("unknown", "replica-1", LEASE));
+    }
+
+    @Test
+    public void claimExpired_TakesOverExpiredLeasesOnce() {
+        backend.register(
+                new CoordinationBackend.WorkItem("expired", false, provisioningRequest), "replica-1", EXPIRED_LEASE);
+        backend.register(new CoordinationBackend.WorkItem("alive", true, provisioningRequest), "replica-1", LEASE);
+
+        List<CoordinationBackend.WorkItem> claimed = backend.claimExpired("replica-2", LEASE, 10);
+
+        assertEquals(List.of(new CoordinationBackend.WorkItem("expired", false, provisioningRequest)), claimed);
+        assertEquals(List.of(), backend.claimExpired("replica-3", LEASE, 10));
+        assertFalse(backend.renewLease("expired", "replica-1", LEASE));
+        assertTrue(backend.renewLease("expired", "replica-2", LEASE));
+    }
+
+    @Test
+    public void claimExpired_RespectsLimit() {
+        for (int i = 0; i < 3; i++) {
+            backend.register(
+                    new CoordinationBackend.WorkItem("token-" + i, true, provisioningRequest),
+                    "replica-1",
+                    EXPIRED_LEASE);
+        }
+
+        assertEquals(2, backend.claimExpired("replica-2", LEASE, 2).size());
+        assertEquals(1, backend.claimExpired("replica-2", LEASE, 2).size());
+    }
+
+    @Test
+    public void release_OnlyByOwner() {
+        backend.register(
+                new CoordinationBackend.WorkItem("token", true, provisioningRequest), "replica-1", EXPIRED_LEASE);
+
+        backend.release("token", "replica-2");
+        assertEquals(1, backend.claimExpired("replica-2", LEASE, 10).size());
+
+        backend.release("token", "replica-2");
+        assertFalse(backend.renewLease("token", "replica-2", LEASE));
+    }
+}
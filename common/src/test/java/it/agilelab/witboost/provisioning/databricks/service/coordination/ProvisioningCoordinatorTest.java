@@ -0,0 +1,161 @@
+package it.agilelab.witboost.provisioning.databricks.service.coordination;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.provisioning.databricks.config.CoordinationConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.DescriptorKind;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProvisioningCoordinatorTest {
+
+    private final ProvisioningRequest provisioningRequest =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+    private final InMemoryCoordinationBackend backend = new InMemoryCoordinationBackend();
+    private final List<CoordinationBackend.WorkItem> takenOver = new ArrayList<>();
+    private final List<String> lost = new ArrayList<>();
+    private ProvisioningCoordinator first;
+    private ProvisioningCoordinator second;
+
+    @BeforeEach
+    public void setUp() {
+        first = coordinator("replica-1");
+        second = coordinator("replica-2");
+    }
+
+    private ProvisioningCoordinator coordinator(String instanceId) {
+        return coordinator(instanceId, backend);
+    }
+
+    private ProvisioningCoordinator coordinator(String instanceId, CoordinationBackend coordinationBackend) {
+        CoordinationConfig config = new CoordinationConfig();
+        config.setInstanceId(instanceId);
+        ProvisioningCoordinator coordinator = new ProvisioningCoordinator(coordinationBackend, config);
+        // Registers the handlers only, the heartbeats are triggered by the tests
+        coordinator.start(takenOver::add, lost::add);
+        coordinator.stop();
+        return coordinator;
+    }
+
+    @Test
+    public void saveStatus_VisibleFromOtherReplicas() {
+        first.acquire("token", true, provisioningRequest);
+        first.saveStatus("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running"));
+
+        assertEquals(
+                Optional.of(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running")),
+                second.findStatus("token"));
+    }
+
+    @Test
+    public void saveStatus_IgnoredWithoutLease() {
+        first.saveStatus("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "failed"));
+
+        assertEquals(Optional.empty(), second.findStatus("token"));
+    }
+
+    @Test
+    public void heartbeat_TakesOverExpiredLeaseAndStopsPreviousOwner() {
+        first.acquire("token", true, provisioningRequest);
+        // The lease of the first replica expires, e.g. because it stopped sending heartbeats
+        backend.register(
+                new CoordinationBackend.WorkItem("token", true, provisioningRequest),
+                first.getInstanceId(),
+                Duration.ofSeconds(-1));
+
+        second.heartbeat();
+        assertEquals(List.of(new CoordinationBackend.WorkItem("token", true, provisioningRequest)), takenOver);
+        assertTrue(second.owns("token"));
+
+        first.heartbeat();
+        assertEquals(List.of("token"), lost);
+        assertFalse(first.owns("token"));
+    }
+
+    @Test
+    public void acquire_LeasedByOtherReplica() {
+        assertTrue(first.acquire("token", true, provisioningRequest));
+
+        assertFalse(second.acquire("token", true, provisioningRequest));
+        assertFalse(second.owns("token"));
+        assertTrue(first.owns("token"));
+    }
+
+    @Test
+    public void release_CompletedRequestNotTakenOver() {
+        first.acquire("token", true, provisioningRequest);
+        first.release("token");
+
+        second.heartbeat();
+
+        assertEquals(List.of(), takenOver);
+        assertFalse(first.owns("token"));
+    }
+
+    @Test
+    public void heartbeat_RegistersRequestAfterBackendRecovers() {
+        FlakyCoordinationBackend flakyBackend = new FlakyCoordinationBackend();
+        ProvisioningCoordinator coordinator = coordinator("replica-1", flakyBackend);
+        flakyBackend.failing = true;
+        assertTrue(coordinator.acquire("token", true, provisioningRequest));
+
+        coordinator.heartbeat();
+        assertEquals(List.of(), lost);
+        assertTrue(coordinator.owns("token"));
+
+        flakyBackend.failing = false;
+        coordinator.heartbeat();
+        coordinator.heartbeat();
+
+        assertEquals(List.of(), lost);
+        assertTrue(coordinator.owns("token"));
+        assertFalse(flakyBackend.register(
+                new CoordinationBackend.WorkItem("token", true, provisioningRequest),
+                "replica-2",
+                Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void heartbeat_FailedRenewalDoesNotStopOtherSteps() {
+        FlakyCoordinationBackend flakyBackend = new FlakyCoordinationBackend();
+        ProvisioningCoordinator coordinator = coordinator("replica-1", flakyBackend);
+        ProvisioningCoordinator other = coordinator("replica-2", flakyBackend);
+        coordinator.acquire("token", true, provisioningRequest);
+        other.acquire("expired", true, provisioningRequest);
+        flakyBackend.register(
+                new CoordinationBackend.WorkItem("expired", true, provisioningRequest),
+                other.getInstanceId(),
+                Duration.ofSeconds(-1));
+        flakyBackend.failingRenewals = true;
+
+        coordinator.heartbeat();
+
+        assertEquals(List.of(), lost);
+        assertTrue(coordinator.owns("token"));
+        assertEquals(List.of(new CoordinationBackend.WorkItem("expired", true, provisioningRequest)), takenOver);
+    }
+
+    private static class FlakyCoordinationBackend extends InMemoryCoordinationBackend {
+
+        private boolean failing = false;
+        private boolean failingRenewals = false;
+
+        @Override
+        public boolean register(WorkItem item, String owner, Duration lease) {
+            if (failing) throw new IllegalStateException("backend unavailable");
+            return super.register(item, owner, lease);
+        }
+
+        @Override
+        public boolean renewLease(String token, String owner, Duration lease) {
+            if (failing || failingRenewals) throw new IllegalStateException("backend unavailable");
+            return super.renewLease(token, owner, lease);
+        }
+    }
+}
@@ -9,8 +9,15 @@ import static org.mockito.Mockito.when;
 import com.azure.resourcemanager.databricks.models.ProvisioningState;
 import com.databricks.sdk.WorkspaceClient;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.RequestDeduplicationConfig;
+import it.agilelab.witboost.provisioning.databricks.config.TaskDeadlineConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
 import it.agilelab.witboost.provisioning.databricks.model.ProvisionRequest;
 import it.agilelab.witboost.provisioning.databricks.model.Specific;
 import it.agilelab.witboost.provisioning.databricks.model.Workload;
@@ -18,6 +25,7 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksW
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.dlt.DatabricksDLTWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.*;
 import it.agilelab.witboost.provisioning.databricks.service.WorkspaceHandler;
+import it.agilelab.witboost.provisioning.databricks.service.coordination.ProvisioningCoordinator;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.DLTWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.validation.ValidationService;
 import java.util.Collections;
@@ -31,6 +39,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +56,36 @@ public class DLTProvisionServiceTest {
     @Mock
     private WorkspaceHandler workspaceHandler;
 
+    @Spy
+    private TaskDeadlineConfig taskDeadlineConfig = new TaskDeadlineConfig();
+
+    @Spy
+    private RequestDeduplicationConfig requestDeduplicationConfig = new RequestDeduplicationConfig();
+
+    @Spy
+    private ProvisioningSchedulerConfig provisioningSchedulerConfig = new ProvisioningSchedulerConfig();
+
+    @Spy
+    private WorkspaceBulkheadConfig workspaceBulkheadConfig = new WorkspaceBulkheadConfig();
+
+    @Mock
+    private ProvisioningJournal provisioningJournal;
+
+    @Mock
+    private ProvisioningCoordinator provisioningCoordinator;
+
+    @Spy
+    private StatusChangeNotifier statusChangeNotifier = new StatusChangeNotifier();
+
+    @Mock
+    private WebhookNotifier webhookNotifier;
+
+    @Spy
+    private LongPollConfig longPollConfig = new LongPollConfig();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private ForkJoinPool forkJoinPool;
 
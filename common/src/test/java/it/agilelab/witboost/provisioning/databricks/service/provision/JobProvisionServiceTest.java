@@ -3,14 +3,32 @@ package it.agilelab.witboost.provisioning.databricks.service.provision;
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.azure.resourcemanager.databricks.models.ProvisioningState;
 import com.databricks.sdk.WorkspaceClient;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.common.IdempotencyKeyConflictException;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.RequestDeduplicationConfig;
+import it.agilelab.witboost.provisioning.databricks.config.TaskDeadlineConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
 import it.agilelab.witboost.provisioning.databricks.model.ProvisionRequest;
 import it.agilelab.witboost.provisioning.databricks.model.Specific;
 import it.agilelab.witboost.provisioning.databricks.model.Workload;
@@ -18,9 +36,12 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksW
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workload.job.DatabricksJobWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.*;
 import it.agilelab.witboost.provisioning.databricks.service.WorkspaceHandler;
+import it.agilelab.witboost.provisioning.databricks.service.coordination.ProvisioningCoordinator;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.JobWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.validation.ValidationService;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +50,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +67,36 @@ public class JobProvisionServiceTest {
     @Mock
     private WorkspaceHandler workspaceHandler;
 
+    @Spy
+    private TaskDeadlineConfig taskDeadlineConfig = new TaskDeadlineConfig();
+
+    @Spy
+    private RequestDeduplicationConfig requestDeduplicationConfig = new RequestDeduplicationConfig();
+
+    @Spy
+    private ProvisioningSchedulerConfig provisioningSchedulerConfig = new ProvisioningSchedulerConfig();
+
+    @Spy
+    private WorkspaceBulkheadConfig workspaceBulkheadConfig = new WorkspaceBulkheadConfig();
+
+    @Mock
+    private ProvisioningJournal provisioningJournal;
+
+    @Mock
+    private ProvisioningCoordinator provisioningCoordinator;
+
+    @Spy
+    private StatusChangeNotifier statusChangeNotifier = new StatusChangeNotifier();
+
+    @Mock
+    private WebhookNotifier webhookNotifier;
+
+    @Spy
+    private LongPollConfig longPollConfig = new LongPollConfig();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     ForkJoinPool forkJoinPool;
 
@@ -171,6 +223,312 @@ public class JobProvisionServiceTest {
         assertEquals(expectedRes.getInfo().getPublicInfo(), actualRes.getInfo().getPublicInfo());
     }
 
+    @Test
+    public void testProvisionWorkloadDeadlineExpired() {
+        taskDeadlineConfig.setTimeout(Duration.ofMillis(50));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        Workload<DatabricksJobWorkloadSpecific> workload = new Workload<>();
+        workload.setKind("workload");
+        workload.setSpecific(new DatabricksJobWorkloadSpecific());
+
+        var provisionRequest = new ProvisionRequest<>(null, workload, false);
+        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+
+        when(workspaceHandler.provisionWorkspace(any())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return left(new FailedOperation(Collections.singletonList(new Problem("Workspace creation failed"))));
+        });
+
+        String token = provisionService.provision(provisioningRequest);
+
+        ProvisioningStatus actualRes = provisionService.getStatus(token);
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertEquals(
+                "Provisioning did not complete within PT0.05S and was cancelled. Please try again and if the error persists contact the platform team.",
+                actualRes.getResult());
+    }
+
+    @Test
+    public void testDeadlineStartsWhenTaskIsDispatched() throws InterruptedException {
+        taskDeadlineConfig.setTimeout(Duration.ofMillis(50));
+        List<Runnable> submittedTasks = new ArrayList<>();
+        doAnswer(invocation -> {
+                    submittedTasks.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(forkJoinPool)
+                .submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        Workload<Specific> workload = new Workload<>();
+        workload.setKind("unsupported");
+        when(validationService.validate(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(null, workload, false)));
+
+        String token = provisionService.provision(provisioningRequest);
+        // The task waits in the queue for longer than its time budget
+        Thread.sleep(200);
+        submittedTasks.forEach(Runnable::run);
+
+        assertEquals(
+                "The kind 'unsupported' of the component is not supported by this Specific Provisioner",
+                provisionService.getStatus(token).getResult());
+    }
+
+    @Test
+    public void testCancelRequestNotStartedYet() {
+        List<Runnable> submittedTasks = new ArrayList<>();
+        doAnswer(invocation -> {
+                    submittedTasks.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(forkJoinPool)
+                .submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+
+        String token = provisionService.provision(provisioningRequest);
+        ProvisioningStatus cancelledRes = provisionService.cancel(token, "obsolete deploy");
+        submittedTasks.forEach(Runnable::run);
+
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, cancelledRes.getStatus());
+        assertEquals(
+                "The request was cancelled. Reason: obsolete deploy",
+                provisionService.getStatus(token).getResult());
+        verifyNoInteractions(validationService);
+    }
+
+    @Test
+    public void testCancelCompletedRequest() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        Workload<Specific> workload = new Workload<>();
+        workload.setKind("unsupported");
+        when(validationService.validate(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(null, workload, false)));
+
+        String token = provisionService.provision(provisioningRequest);
+        ProvisioningStatus actualRes = provisionService.cancel(token, null);
+
+        assertEquals(
+                "The kind 'unsupported' of the component is not supported by this Specific Provisioner",
+                actualRes.getResult());
+        assertEquals("Token not found", provisionService.cancel("unknown", null).getResult());
+    }
+
+    @Test
+    public void testAwaitStatusChangeReturnsOnCompletion() throws InterruptedException {
+        List<Runnable> submittedTasks = new ArrayList<>();
+        doAnswer(invocation -> {
+                    submittedTasks.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(forkJoinPool)
+                .submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        Workload<Specific> workload = new Workload<>();
+        workload.setKind("unsupported");
+        when(validationService.validate(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(null, workload, false)));
+
+        String token = provisionService.provision(provisioningRequest);
+        Thread worker = new Thread(() -> submittedTasks.forEach(Runnable::run));
+        worker.start();
+        ProvisioningStatus actualRes =
+                provisionService.awaitStatusChange(token, Duration.ofSeconds(20)).join();
+        worker.join();
+
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertEquals(
+                "The kind 'unsupported' of the component is not supported by this Specific Provisioner",
+                actualRes.getResult());
+    }
+
+    @Test
+    public void testAwaitStatusChangeTimesOut() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+
+        String token = provisionService.provision(provisioningRequest);
+        CompletableFuture<ProvisioningStatus> actualRes =
+                provisionService.awaitStatusChange(token, Duration.ofMillis(200));
+
+        // The caller is not blocked while the status does not change
+        assertFalse(actualRes.isDone());
+        assertEquals(ProvisioningStatus.StatusEnum.RUNNING, actualRes.join().getStatus());
+    }
+
+    @Test
+    public void testAwaitStatusChangeWithoutTimeout() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+
+        String token = provisionService.provision(provisioningRequest);
+        CompletableFuture<ProvisioningStatus> actualRes = provisionService.awaitStatusChange(token, Duration.ZERO);
+
+        assertTrue(actualRes.isDone());
+        assertEquals(ProvisioningStatus.StatusEnum.RUNNING, actualRes.join().getStatus());
+    }
+
+    @Test
+    public void testRegisterCallback() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+
+        String token = provisionService.provision(provisioningRequest);
+        ProvisioningStatus actualRes = provisionService.registerCallback(token, "https://example.com/hook");
+
+        assertEquals(ProvisioningStatus.StatusEnum.RUNNING, actualRes.getStatus());
+        verify(webhookNotifier).register(eq(token), eq("https://example.com/hook"), any());
+        assertThrows(
+                TechAdapterValidationException.class,
+                () -> provisionService.registerCallback("unknown", "https://example.com/hook"));
+    }
+
+    @Test
+    public void testResumeUnfinishedTaskSkipsCompletedStages() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        Workload<DatabricksJobWorkloadSpecific> workload = new Workload<>();
+        workload.setKind("workload");
+        workload.setSpecific(new DatabricksJobWorkloadSpecific());
+        var provisionRequest = new ProvisionRequest<>(null, workload, false);
+        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(provisioningJournal.recover())
+                .thenReturn(new ProvisioningJournal.Recovery(
+                        List.of(new ProvisioningJournal.PendingTask("token", true, provisioningRequest)),
+                        Map.of(
+                                "completed-token",
+                                new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"))));
+        when(provisioningCoordinator.acquire("token", true, provisioningRequest)).thenReturn(true);
+        when(provisioningJournal.stageOutput("token", "workspace", DatabricksWorkspaceInfo.class))
+                .thenReturn(Optional.of(workspaceInfo));
+        when(workspaceHandler.getWorkspaceClient(workspaceInfo)).thenReturn(right(workspaceClient));
+        when(jobWorkloadHandler.provisionWorkload(provisionRequest, workspaceClient, workspaceInfo))
+                .thenReturn(right("workloadId"));
+
+        provisionService.resumeUnfinishedTasks();
+
+        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, provisionService.getStatus("token").getStatus());
+        assertEquals("done", provisionService.getStatus("completed-token").getResult());
+        verify(workspaceHandler, never()).provisionWorkspace(any());
+        verify(provisioningJournal).recordCompleted(eq("token"), any());
+    }
+
+    @Test
+    public void testResumeUnfinishedTaskLeasedByOtherReplica() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        ProvisioningStatus sharedStatus = new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running");
+        when(provisioningJournal.recover())
+                .thenReturn(new ProvisioningJournal.Recovery(
+                        List.of(new ProvisioningJournal.PendingTask("token", true, provisioningRequest)), Map.of()));
+        when(provisioningCoordinator.acquire("token", true, provisioningRequest)).thenReturn(false);
+        when(provisioningCoordinator.findStatus("token")).thenReturn(Optional.of(sharedStatus));
+
+        provisionService.resumeUnfinishedTasks();
+
+        verifyNoInteractions(validationService);
+        verify(provisioningJournal).recordCompleted("token", sharedStatus);
+        assertEquals(sharedStatus, provisionService.getStatus("token"));
+    }
+
+    @Test
+    public void testDuplicateSubmissionWhileRunning() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+
+        String token = provisionService.provision(provisioningRequest);
+
+        assertEquals(token, provisionService.provision(provisioningRequest));
+        assertNotEquals(token, provisionService.unprovision(provisioningRequest));
+        assertNotEquals(
+                token,
+                provisionService.provision(
+                        new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "other descriptor", false)));
+    }
+
+    @Test
+    public void testDuplicateSubmissionWithIdempotencyKey() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+
+        String token = provisionService.provision(
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false), "deploy-1");
+
+        assertEquals(
+                token,
+                provisionService.provision(
+                        new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false),
+                        "deploy-1"));
+    }
+
+    @Test
+    public void testIdempotencyKeyReusedForDifferentRequest() {
+        doAnswer(invocation -> null).when(forkJoinPool).submit(any(Runnable.class));
+        provisionService.provision(
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false), "deploy-1");
+        ProvisioningRequest otherRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "other descriptor", false);
+
+        IdempotencyKeyConflictException exception = assertThrows(
+                IdempotencyKeyConflictException.class, () -> provisionService.provision(otherRequest, "deploy-1"));
+
+        assertEquals("deploy-1", exception.getIdempotencyKey());
+    }
+
+    @Test
+    public void testProvisionAfterUnprovisionStartsNewRequest() {
+        ProvisioningRequest provisioningRequest = new ProvisioningRequest(
+                DescriptorKind.COMPONENT_DESCRIPTOR, "componentIdToProvision: urn:dmb:cmp:domain:dp:0:job", false);
+        Workload<DatabricksJobWorkloadSpecific> workload = new Workload<>();
+        workload.setKind("workload");
+        workload.setSpecific(new DatabricksJobWorkloadSpecific());
+        var provisionRequest = new ProvisionRequest<>(null, workload, false);
+        when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
+        when(workspaceHandler.provisionWorkspace(any())).thenReturn(right(workspaceInfo));
+        when(workspaceHandler.getWorkspaceName(any())).thenReturn(right("test"));
+        when(workspaceHandler.getWorkspaceInfo(any(ProvisionRequest.class)))
+                .thenReturn(right(Optional.of(workspaceInfo)));
+        when(workspaceHandler.getWorkspaceClient(any())).thenReturn(right(workspaceClient));
+        when(jobWorkloadHandler.provisionWorkload(provisionRequest, workspaceClient, workspaceInfo))
+                .thenReturn(right("workloadId"));
+        when(jobWorkloadHandler.unprovisionWorkload(provisionRequest, workspaceClient, workspaceInfo))
+                .thenReturn(right(null));
+
+        String provisionToken = provisionService.provision(provisioningRequest);
+        String unprovisionToken = provisionService.unprovision(provisioningRequest);
+
+        assertEquals(
+                ProvisioningStatus.StatusEnum.COMPLETED,
+                provisionService.getStatus(provisionToken).getStatus());
+        assertEquals(
+                ProvisioningStatus.StatusEnum.COMPLETED,
+                provisionService.getStatus(unprovisionToken).getStatus());
+        assertNotEquals(provisionToken, provisionService.provision(provisioningRequest));
+        assertNotEquals(unprovisionToken, provisionService.unprovision(provisioningRequest));
+    }
+
+    @Test
+    public void testDuplicateSubmissionAfterFailureStartsNewRequest() {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+        Workload<Specific> workload = new Workload<>();
+        workload.setKind("unsupported");
+        when(validationService.validate(provisioningRequest))
+                .thenReturn(right(new ProvisionRequest<>(null, workload, false)));
+
+        String token = provisionService.provision(provisioningRequest);
+
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, provisionService.getStatus(token).getStatus());
+        assertNotEquals(token, provisionService.provision(provisioningRequest));
+    }
+
     @Test
     public void testProvisionWorkloadWrongWorkspaceStatus() {
         ProvisioningRequest provisioningRequest =
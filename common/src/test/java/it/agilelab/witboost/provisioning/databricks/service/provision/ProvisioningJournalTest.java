@@ -0,0 +1,141 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.azure.resourcemanager.databricks.models.ProvisioningState;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningJournalConfig;
+import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksWorkspaceInfo;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.DescriptorKind;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProvisioningJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private ProvisioningJournalConfig config;
+    private final ProvisioningRequest provisioningRequest =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+
+    @BeforeEach
+    public void setUp() {
+        config = new ProvisioningJournalConfig();
+        config.setEnabled(true);
+        config.setPath(directory.resolve("journal/provisioning.jsonl").toString());
+    }
+
+    @Test
+    public void open_RecoversUnfinishedTasksAndCompletedStatuses() throws IOException {
+        ProvisioningJournal journal = new ProvisioningJournal(config);
+        journal.open();
+        journal.recordAccepted("running", true, provisioningRequest);
+        journal.recordStage(
+                "running",
+                "workspace",
+                new DatabricksWorkspaceInfo(
+                        "workspace", "123", "https://example.com", "abc", "test", ProvisioningState.SUCCEEDED));
+        journal.recordAccepted("completed", false, provisioningRequest);
+        journal.recordCompleted(
+                "completed", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+        journal.close();
+
+        ProvisioningJournal reopened = new ProvisioningJournal(config);
+        reopened.open();
+        ProvisioningJournal.Recovery recovery = reopened.recover();
+
+        assertEquals(
+                List.of(new ProvisioningJournal.PendingTask("running", true, provisioningRequest)),
+                recovery.pendingTasks());
+        assertEquals(
+                ProvisioningStatus.StatusEnum.COMPLETED,
+                recovery.statuses().get("completed").getStatus());
+        Optional<DatabricksWorkspaceInfo> workspaceInfo =
+                reopened.stageOutput("running", "workspace", DatabricksWorkspaceInfo.class);
+        assertTrue(workspaceInfo.isPresent());
+        assertEquals("https://example.com", workspaceInfo.get().getDatabricksHost());
+        assertEquals(ProvisioningState.SUCCEEDED, workspaceInfo.get().getProvisioningState());
+        assertTrue(workspaceInfo.get().isManaged());
+        assertTrue(reopened.recover().pendingTasks().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    public void open_SkipsRecordCutByCrash() throws IOException {
+        ProvisioningJournal journal = new ProvisioningJournal(config);
+        journal.open();
+        journal.recordAccepted("running", true, provisioningRequest);
+        journal.close();
+        Files.writeString(
+                Path.of(config.getPath()),
+                "{\"type\":\"COMPLETED\",\"token\":\"runn",
+                StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        ProvisioningJournal reopened = new ProvisioningJournal(config);
+        reopened.open();
+
+        assertEquals(1, reopened.recover().pendingTasks().size());
+        reopened.close();
+    }
+
+    @Test
+    public void open_CompactsCompletedTasksBeyondRetention() throws IOException {
+        config.setRetention(Duration.ZERO);
+        ProvisioningJournal journal = new ProvisioningJournal(config);
+        journal.open();
+        journal.recordAccepted("completed", true, provisioningRequest);
+        journal.recordCompleted(
+                "completed", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+        journal.close();
+
+        ProvisioningJournal reopened = new ProvisioningJournal(config);
+        reopened.open();
+
+        assertTrue(reopened.recover().statuses().isEmpty());
+        assertEquals("", Files.readString(Path.of(config.getPath())));
+        reopened.close();
+    }
+
+    @Test
+    public void compact_DropsCompletedTasksBeyondRetentionWhileOpen() throws IOException {
+        ProvisioningJournal journal = new ProvisioningJournal(config);
+        journal.open();
+        journal.recordAccepted("running", true, provisioningRequest);
+        journal.recordAccepted("completed", true, provisioningRequest);
+        journal.recordCompleted(
+                "completed", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+        config.setRetention(Duration.ZERO);
+
+        journal.compact();
+        journal.recordAccepted("accepted-after-compaction", false, provisioningRequest);
+        journal.close();
+
+        List<String> lines = Files.readAllLines(Path.of(config.getPath()), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"token\":\"running\""));
+        assertTrue(lines.get(1).contains("\"token\":\"accepted-after-compaction\""));
+    }
+
+    @Test
+    public void recordAccepted_DisabledWritesNothing() throws IOException {
+        config.setEnabled(false);
+        ProvisioningJournal journal = new ProvisioningJournal(config);
+        journal.open();
+        journal.recordAccepted("running", true, provisioningRequest);
+
+        assertFalse(Files.exists(Path.of(config.getPath())));
+        assertTrue(journal.recover().pendingTasks().isEmpty());
+    }
+}
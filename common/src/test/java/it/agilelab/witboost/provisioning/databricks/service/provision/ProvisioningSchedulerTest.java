@@ -0,0 +1,183 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig.Priority;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProvisioningSchedulerTest {
+
+    private ProvisioningSchedulerConfig config;
+    private WorkspaceBulkheadConfig bulkheadConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private ProvisioningScheduler scheduler;
+    private final LinkedList<Runnable> workers = new LinkedList<>();
+    private final List<String> executed = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ForkJoinPool forkJoinPool = mock(ForkJoinPool.class);
+        doAnswer(invocation -> {
+                    workers.add(invocation.getArgument(0));
+                    return null;
+                })
+                .when(forkJoinPool)
+                .submit(any(Runnable.class));
+        config = new ProvisioningSchedulerConfig();
+        config.setMaxConcurrentTasks(1);
+        bulkheadConfig = new WorkspaceBulkheadConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ProvisioningScheduler(forkJoinPool, config, bulkheadConfig, meterRegistry);
+    }
+
+    @Test
+    public void submit_OtherDataProductsNotStarvedByBulkRelease() {
+        for (int i = 1; i <= 5; i++) {
+            submit("dp-release", "sales", Priority.NORMAL, "release-" + i);
+        }
+        submit("dp-hotfix", "finance", Priority.NORMAL, "hotfix");
+
+        runAll();
+
+        assertEquals(
+                List.of("release-1", "hotfix", "release-2", "release-3", "release-4", "release-5"), executed);
+    }
+
+    @Test
+    public void submit_HigherPriorityClassServedAhead() {
+        for (int i = 1; i <= 3; i++) {
+            submit("dp", "sales", Priority.NORMAL, "provision-" + i);
+        }
+        for (int i = 1; i <= 3; i++) {
+            submit("dp", "sales", Priority.HIGH, "unprovision-" + i);
+        }
+
+        runAll();
+
+        assertEquals(
+                List.of("provision-1", "unprovision-1", "unprovision-2", "unprovision-3", "provision-2", "provision-3"),
+                executed);
+    }
+
+    @Test
+    public void submit_DomainWeights() {
+        config.getDomainWeights().put("finance", 2);
+        for (int i = 1; i <= 3; i++) {
+            submit("dp-sales", "sales", Priority.NORMAL, "sales-" + i);
+            submit("dp-finance", "finance", Priority.NORMAL, "finance-" + i);
+        }
+
+        runAll();
+
+        assertEquals(List.of("sales-1", "finance-1", "finance-2", "sales-2", "finance-3", "sales-3"), executed);
+    }
+
+    @Test
+    public void submit_QueueWaitRecordedPerPriorityClass() {
+        submit("dp", "sales", Priority.NORMAL, "provision");
+        submit("dp", "sales", Priority.HIGH, "unprovision");
+
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(ProvisioningScheduler.QUEUE_SIZE_METRIC)
+                        .tag("priority", "high")
+                        .gauge()
+                        .value());
+
+        runAll();
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(ProvisioningScheduler.QUEUE_WAIT_METRIC)
+                        .tag("priority", "high")
+                        .timer()
+                        .count());
+        assertEquals(
+                0.0,
+                meterRegistry
+                        .get(ProvisioningScheduler.QUEUE_SIZE_METRIC)
+                        .tag("priority", "high")
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    public void submit_FullWorkspaceDoesNotBlockOthers() {
+        config.setMaxConcurrentTasks(3);
+        bulkheadConfig.setEnabled(true);
+        bulkheadConfig.getWorkspaceLimits().put("Slow-Workspace", 1);
+        for (int i = 1; i <= 3; i++) {
+            submit("dp", "sales", "slow-workspace", Priority.NORMAL, "slow-" + i);
+        }
+        submit("dp", "sales", "fast-workspace", Priority.NORMAL, "fast-1");
+        submit("dp", "sales", "fast-workspace", Priority.NORMAL, "fast-2");
+
+        assertEquals(3, workers.size());
+        assertEquals(
+                2.0,
+                meterRegistry
+                        .get(ProvisioningScheduler.BULKHEAD_QUEUED_METRIC)
+                        .tag("workspace", "slow-workspace")
+                        .gauge()
+                        .value());
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .get(ProvisioningScheduler.BULKHEAD_ACTIVE_METRIC)
+                        .tag("workspace", "slow-workspace")
+                        .gauge()
+                        .value());
+        assertEquals(
+                2.0,
+                meterRegistry
+                        .get(ProvisioningScheduler.BULKHEAD_SATURATED_METRIC)
+                        .tag("workspace", "slow-workspace")
+                        .counter()
+                        .count());
+
+        runAll();
+
+        assertEquals(List.of("slow-1", "fast-1", "fast-2", "slow-2", "slow-3"), executed);
+    }
+
+    @Test
+    public void submit_DisabledKeepsArrivalOrder() {
+        config.setEnabled(false);
+        for (int i = 1; i <= 3; i++) {
+            submit("dp-release", "sales", Priority.NORMAL, "release-" + i);
+        }
+        submit("dp-hotfix", "finance", Priority.HIGH, "hotfix");
+
+        runAll();
+
+        assertEquals(List.of("release-1", "release-2", "release-3", "hotfix"), executed);
+    }
+
+    private void submit(String dataProduct, String domain, Priority priority, String name) {
+        submit(dataProduct, domain, "workspace", priority, name);
+    }
+
+    private void submit(String dataProduct, String domain, String workspace, Priority priority, String name) {
+        scheduler.submit(dataProduct, domain, workspace, priority, () -> executed.add(name));
+    }
+
+    // Runs the tasks handed to the pool one at a time, as a pool with a single worker would
+    private void runAll() {
+        while (!workers.isEmpty()) {
+            workers.poll().run();
+        }
+    }
+}
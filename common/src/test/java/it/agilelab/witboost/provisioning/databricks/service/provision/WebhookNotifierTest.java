@@ -0,0 +1,172 @@
+package it.agilelab.witboost.provisioning.databricks.service.provision;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import it.agilelab.witboost.provisioning.databricks.common.TechAdapterValidationException;
+import it.agilelab.witboost.provisioning.databricks.config.WebhookConfig;
+import it.agilelab.witboost.provisioning.databricks.openapi.model.ProvisioningStatus;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class WebhookNotifierTest {
+
+    private final BlockingQueue<String> receivedBodies = new LinkedBlockingQueue<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger(0);
+    private final AtomicInteger receivedRequests = new AtomicInteger(0);
+    private final StatusChangeNotifier statusChangeNotifier = new StatusChangeNotifier();
+    private WebhookConfig config;
+    private HttpServer server;
+    private WebhookNotifier webhookNotifier;
+    private String url;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hook", exchange -> {
+            receivedRequests.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int status = failuresLeft.getAndDecrement() > 0 ? 500 : 204;
+            if (status == 204) receivedBodies.add(body);
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+        config = new WebhookConfig();
+        config.setEnabled(true);
+        config.setAllowedHosts(List.of("localhost"));
+        // The test server listens on the loopback interface
+        config.setAllowPrivateAddresses(true);
+        config.setRetryBackoff(Duration.ofMillis(10));
+        webhookNotifier = new WebhookNotifier(
+                config, statusChangeNotifier, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        webhookNotifier.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void register_CompletedRequestNotifiedImmediately() throws InterruptedException {
+        webhookNotifier.register(
+                "token", url, () -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+
+        String body = receivedBodies.poll(10, TimeUnit.SECONDS);
+        assertNotNull(body);
+        assertTrue(body.contains("\"token\":\"token\""));
+        assertTrue(body.contains("\"COMPLETED\""));
+    }
+
+    @Test
+    public void register_RunningRequestNotifiedOnCompletion() throws InterruptedException {
+        webhookNotifier.register(
+                "token", url, () -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running"));
+        statusChangeNotifier.publish("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "still"));
+        assertNull(receivedBodies.poll(200, TimeUnit.MILLISECONDS));
+
+        statusChangeNotifier.publish("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "error"));
+        statusChangeNotifier.publish("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.FAILED, "error"));
+
+        String body = receivedBodies.poll(10, TimeUnit.SECONDS);
+        assertNotNull(body);
+        assertTrue(body.contains("\"FAILED\""));
+        assertNull(receivedBodies.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void register_FailedNotificationRetried() throws InterruptedException {
+        failuresLeft.set(2);
+
+        webhookNotifier.register(
+                "token", url, () -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+
+        assertNotNull(receivedBodies.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void register_InvalidUrlRejected() {
+        assertThrows(
+                TechAdapterValidationException.class,
+                () -> webhookNotifier.register("token", "ftp://localhost/hook", () -> null));
+        assertThrows(
+                TechAdapterValidationException.class,
+                () -> webhookNotifier.register("token", "not a url", () -> null));
+
+        config.setAllowedHosts(List.of("hooks.example.com"));
+        assertThrows(TechAdapterValidationException.class, () -> webhookNotifier.register("token", url, () -> null));
+    }
+
+    @Test
+    public void register_Disabled() {
+        config.setEnabled(false);
+
+        assertThrows(TechAdapterValidationException.class, () -> webhookNotifier.register("token", url, () -> null));
+    }
+
+    @Test
+    public void register_DisabledByDefault() {
+        assertFalse(new WebhookConfig().isEnabled());
+    }
+
+    @Test
+    public void register_NoAllowedHostsRejected() {
+        config.setAllowedHosts(List.of());
+
+        assertThrows(TechAdapterValidationException.class, () -> webhookNotifier.register("token", url, () -> null));
+    }
+
+    @Test
+    public void register_InternalAddressRejected() {
+        config.setAllowPrivateAddresses(false);
+        config.setAllowedHosts(List.of("localhost", "169.254.169.254", "10.0.0.1", "192.168.1.1", "[fd00::1]"));
+
+        for (String internalUrl : List.of(
+                url,
+                "http://169.254.169.254/latest/meta-data",
+                "http://10.0.0.1/hook",
+                "http://192.168.1.1/hook",
+                "http://[fd00::1]/hook")) {
+            TechAdapterValidationException e = assertThrows(
+                    TechAdapterValidationException.class,
+                    () -> webhookNotifier.register("token", internalUrl, () -> null));
+            assertTrue(e.getMessage().contains("internal address"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void register_HostResolvingToInternalAddressOnNotificationNotContacted() throws InterruptedException {
+        webhookNotifier.register(
+                "token", url, () -> new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "running"));
+        // The host was accepted on registration, and resolves to an internal address when the request completes
+        config.setAllowPrivateAddresses(false);
+
+        statusChangeNotifier.publish("token", new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "done"));
+
+        assertNull(receivedBodies.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(0, receivedRequests.get());
+    }
+
+    @Test
+    public void isInternal_PublicAddress() throws UnknownHostException {
+        assertFalse(WebhookNotifier.isInternal(InetAddress.getByName("8.8.8.8")));
+        assertFalse(WebhookNotifier.isInternal(InetAddress.getByName("2001:4860:4860::8888")));
+        assertTrue(WebhookNotifier.isInternal(InetAddress.getByName("::1")));
+        assertTrue(WebhookNotifier.isInternal(InetAddress.getByName("0.0.0.0")));
+    }
+}
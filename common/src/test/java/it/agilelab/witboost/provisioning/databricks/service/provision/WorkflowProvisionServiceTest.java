@@ -11,10 +11,17 @@ import com.azure.resourcemanager.databricks.models.ProvisioningState;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.service.jobs.*;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.common.Problem;
+import it.agilelab.witboost.provisioning.databricks.config.LongPollConfig;
 import it.agilelab.witboost.provisioning.databricks.config.MiscConfig;
+import it.agilelab.witboost.provisioning.databricks.config.ProvisioningSchedulerConfig;
+import it.agilelab.witboost.provisioning.databricks.config.RequestDeduplicationConfig;
+import it.agilelab.witboost.provisioning.databricks.config.TaskDeadlineConfig;
+import it.agilelab.witboost.provisioning.databricks.config.WorkspaceBulkheadConfig;
 import it.agilelab.witboost.provisioning.databricks.model.DataProduct;
 import it.agilelab.witboost.provisioning.databricks.model.ProvisionRequest;
 import it.agilelab.witboost.provisioning.databricks.model.Specific;
@@ -23,6 +30,7 @@ import it.agilelab.witboost.provisioning.databricks.model.databricks.DatabricksW
 import it.agilelab.witboost.provisioning.databricks.model.databricks.workflow.DatabricksWorkflowWorkloadSpecific;
 import it.agilelab.witboost.provisioning.databricks.openapi.model.*;
 import it.agilelab.witboost.provisioning.databricks.service.WorkspaceHandler;
+import it.agilelab.witboost.provisioning.databricks.service.coordination.ProvisioningCoordinator;
 import it.agilelab.witboost.provisioning.databricks.service.provision.handler.WorkflowWorkloadHandler;
 import it.agilelab.witboost.provisioning.databricks.service.validation.ValidationService;
 import java.util.*;
@@ -34,6 +42,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -53,6 +62,36 @@ public class WorkflowProvisionServiceTest {
     @Mock
     private MiscConfig miscConfig;
 
+    @Spy
+    private TaskDeadlineConfig taskDeadlineConfig = new TaskDeadlineConfig();
+
+    @Spy
+    private RequestDeduplicationConfig requestDeduplicationConfig = new RequestDeduplicationConfig();
+
+    @Spy
+    private ProvisioningSchedulerConfig provisioningSchedulerConfig = new ProvisioningSchedulerConfig();
+
+    @Spy
+    private WorkspaceBulkheadConfig workspaceBulkheadConfig = new WorkspaceBulkheadConfig();
+
+    @Mock
+    private ProvisioningJournal provisioningJournal;
+
+    @Mock
+    private ProvisioningCoordinator provisioningCoordinator;
+
+    @Spy
+    private StatusChangeNotifier statusChangeNotifier = new StatusChangeNotifier();
+
+    @Mock
+    private WebhookNotifier webhookNotifier;
+
+    @Spy
+    private LongPollConfig longPollConfig = new LongPollConfig();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     ForkJoinPool forkJoinPool;
 
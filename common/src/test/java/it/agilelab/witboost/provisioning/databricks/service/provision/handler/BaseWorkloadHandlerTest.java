@@ -7,6 +7,8 @@ import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.service.workspace.*;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
 import it.agilelab.witboost.provisioning.databricks.config.*;
@@ -90,7 +92,9 @@ public class BaseWorkloadHandlerTest {
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                new ServicePrincipalSessionManager(new ServicePrincipalSessionConfig(), workspaceClientFactory),
+                new DatabricksCaches());
         MockitoAnnotations.openMocks(this);
         dataProduct = new DataProduct();
     }
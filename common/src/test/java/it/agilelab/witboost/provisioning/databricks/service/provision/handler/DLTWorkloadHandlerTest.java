@@ -21,6 +21,8 @@ import com.databricks.sdk.service.pipelines.PipelinesAPI;
 import com.databricks.sdk.service.workspace.*;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -116,7 +118,9 @@ public class DLTWorkloadHandlerTest {
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                new ServicePrincipalSessionManager(new ServicePrincipalSessionConfig(), workspaceClientFactory),
+                new DatabricksCaches());
         setUpDataProduct();
         setUpWorkload();
 
@@ -129,11 +133,9 @@ public class DLTWorkloadHandlerTest {
     @Test
     public void provisionWorkload_Success() {
 
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         List<MetastoreInfo> metastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -184,11 +186,8 @@ public class DLTWorkloadHandlerTest {
     public void provisionWorkload_SuccessNoPermissions() {
 
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -238,7 +237,9 @@ public class DLTWorkloadHandlerTest {
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                new ServicePrincipalSessionManager(new ServicePrincipalSessionConfig(), workspaceClientFactory),
+                new DatabricksCaches());
 
         Either<FailedOperation, String> result =
                 dltWorkloadHandler.provisionWorkload(provisionRequest, workspaceClient, workspaceInfo);
@@ -254,11 +255,8 @@ public class DLTWorkloadHandlerTest {
         when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
 
         dataProduct.setDataProductOwner("wrong_user");
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -323,11 +321,8 @@ public class DLTWorkloadHandlerTest {
         when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
 
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -351,11 +346,9 @@ public class DLTWorkloadHandlerTest {
     @Test
     public void provisionWorkload_ErrorAssigningPermissions() {
 
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -397,11 +390,8 @@ public class DLTWorkloadHandlerTest {
     public void provisionWorkload_ErrorCreatingPipeline() {
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
 
-        Iterable<CatalogInfo> iterableCatalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(iterableCatalogList);
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -453,8 +443,7 @@ public class DLTWorkloadHandlerTest {
         when(workspaceClient.workspace()).thenReturn(workspaceAPI);
 
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any()))
-                .thenReturn(Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog2")));
+        when(workspaceClient.catalogs().get("catalog")).thenReturn(new CatalogInfo().setName("catalog"));
 
         Iterable<MetastoreInfo> iterableMetastoresList = Arrays.asList(
                 new MetastoreInfo().setName("metastore").setMetastoreId("id"),
@@ -501,7 +490,9 @@ public class DLTWorkloadHandlerTest {
                 databricksPermissionsConfig,
                 accountClient,
                 workspaceLevelManagerFactory,
-                workspaceClientFactory);
+                workspaceClientFactory,
+                new ServicePrincipalSessionManager(new ServicePrincipalSessionConfig(), workspaceClientFactory),
+                new DatabricksCaches());
 
         Either<FailedOperation, String> result =
                 dltWorkloadHandler.provisionWorkload(provisionRequest, workspaceClient, workspaceInfo);
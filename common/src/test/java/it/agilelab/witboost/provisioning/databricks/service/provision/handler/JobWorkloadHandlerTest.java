@@ -19,6 +19,8 @@ import com.databricks.sdk.service.workspace.*;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.TestConfig;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
+import it.agilelab.witboost.provisioning.databricks.client.ServicePrincipalSessionManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -57,6 +59,12 @@ public class JobWorkloadHandlerTest {
     @Autowired
     private JobWorkloadHandler jobWorkloadHandler;
 
+    @Autowired
+    private DatabricksCaches databricksCaches;
+
+    @Autowired
+    private ServicePrincipalSessionManager servicePrincipalSessionManager;
+
     @MockBean
     AccountClient accountClient;
 
@@ -86,6 +94,8 @@ public class JobWorkloadHandlerTest {
 
     @BeforeEach
     public void setUp() {
+        databricksCaches.invalidateAll();
+        servicePrincipalSessionManager.invalidateSessions();
         dataProduct = new DataProduct();
         dataProduct.setDataProductOwner("user:name.surname@company.it");
         dataProduct.setDevGroup("group:developers");
@@ -181,8 +191,6 @@ public class JobWorkloadHandlerTest {
         when(workspaceLevelManager.generateSecretForServicePrincipal(anyLong(), anyString()))
                 .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secret", "secretId")));
         when(workspaceClientFactory.apply(any())).thenReturn(workspaceClient);
-        when(workspaceLevelManager.deleteServicePrincipalSecret(anyLong(), anyString()))
-                .thenReturn(Either.right(null));
 
         CreateRepoResponse repoInfo = mock(CreateRepoResponse.class);
         when(workspaceClient.repos().create(any(CreateRepoRequest.class))).thenReturn(repoInfo);
@@ -255,8 +263,6 @@ public class JobWorkloadHandlerTest {
         when(workspaceLevelManager.generateSecretForServicePrincipal(anyLong(), anyString()))
                 .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secret", "secretId")));
         when(workspaceClientFactory.apply(any())).thenReturn(workspaceClient);
-        when(workspaceLevelManager.deleteServicePrincipalSecret(anyLong(), anyString()))
-                .thenReturn(Either.right(null));
 
         when(accountClient.workspaceAssignment()).thenReturn(mock(WorkspaceAssignmentAPI.class));
 
@@ -516,8 +522,6 @@ public class JobWorkloadHandlerTest {
         when(workspaceLevelManager.generateSecretForServicePrincipal(anyLong(), anyString()))
                 .thenReturn(Either.right(new AbstractMap.SimpleEntry<>("secret", "secretId")));
         when(workspaceClientFactory.apply(any())).thenReturn(workspaceClient);
-        when(workspaceLevelManager.deleteServicePrincipalSecret(anyLong(), anyString()))
-                .thenReturn(Either.right(null));
 
         Either<FailedOperation, String> result =
                 jobWorkloadHandler.provisionWorkload(provisionRequest, workspaceClient, workspaceInfo);
@@ -12,9 +12,13 @@ import com.databricks.sdk.AccountClient;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.ApiClient;
 import com.databricks.sdk.core.DatabricksException;
+import com.databricks.sdk.core.error.platform.NotFound;
 import com.databricks.sdk.service.catalog.*;
 import com.databricks.sdk.service.iam.AccountGroupsAPI;
+import com.databricks.sdk.service.iam.AccountUsersAPI;
 import com.databricks.sdk.service.iam.Group;
+import com.databricks.sdk.service.iam.PartialUpdate;
+import com.databricks.sdk.service.iam.User;
 import com.databricks.sdk.service.sql.*;
 import com.databricks.sdk.service.workspace.WorkspaceAPI;
 import com.witboost.provisioning.model.Column;
@@ -22,8 +26,10 @@ import com.witboost.provisioning.model.DataContract;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.bean.ApiClientConfig;
 import it.agilelab.witboost.provisioning.databricks.bean.WorkspaceClientConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
 import it.agilelab.witboost.provisioning.databricks.client.UnityCatalogManager;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
+import it.agilelab.witboost.provisioning.databricks.config.AclCompactionConfig;
 import it.agilelab.witboost.provisioning.databricks.model.DataProduct;
 import it.agilelab.witboost.provisioning.databricks.model.OutputPort;
 import it.agilelab.witboost.provisioning.databricks.model.ProvisionRequest;
@@ -59,6 +65,12 @@ class OutputPortHandlerTest {
     @Autowired
     private OutputPortHandler outputPortHandler;
 
+    @Autowired
+    private AclCompactionConfig aclCompactionConfig;
+
+    @Autowired
+    private DatabricksCaches databricksCaches;
+
     @MockBean
     private Function<ApiClientConfig.ApiClientConfigParams, ApiClient> apiClientFactory;
 
@@ -80,6 +92,8 @@ class OutputPortHandlerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        databricksCaches.invalidateAll();
+        aclCompactionConfig.setEnabled(false);
         dataProduct = new DataProduct();
         dataProduct.setDataProductOwner("user:dp.owner@email.com");
         dataProduct.setDevGroup("group:dev_group");
@@ -94,7 +108,9 @@ class OutputPortHandlerTest {
     public void provisionOutputPort_Success() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("dev_group")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -109,18 +125,13 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock the search of sqlWareHouseId
         List<DataSource> dataSourceList =
@@ -178,7 +189,9 @@ class OutputPortHandlerTest {
     public void provisionOutputPort_SuccessWithEmptySchema() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequestEmptySchema();
 
@@ -193,18 +206,13 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock the search of sqlWareHouseId
         List<DataSource> dataSourceList =
@@ -293,18 +301,13 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock the search of sqlWareHouseId
         List<DataSource> dataSourceList =
@@ -370,11 +373,8 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Failure on schema check
         when(workspaceClient.schemas()).thenThrow(new DatabricksException("Generic Error"));
@@ -395,18 +395,13 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op. Schema exists
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock classes and methods inside dropTableIfExists
         TableExistsResponse tableExistsResponseMock = mock(TableExistsResponse.class);
@@ -428,10 +423,9 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         // Mocking behaviour on catalogs. The requested catalog (catalog_op) does not exist
-        List<CatalogInfo> catalogList = Collections.singletonList(new CatalogInfo().setName("catalog"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op"))
+                .thenThrow(new NotFound("Catalog 'catalog_op' does not exist.", List.of()));
 
         Either<FailedOperation, Void> result =
                 outputPortHandler.unprovisionOutputPort(provisionRequest, workspaceClient, databricksWorkspaceInfo);
@@ -446,7 +440,7 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenThrow(new RuntimeException("Exception"));
+        when(workspaceClient.catalogs().get("catalog_op")).thenThrow(new RuntimeException("Exception"));
 
         Either<FailedOperation, Void> result =
                 outputPortHandler.unprovisionOutputPort(provisionRequest, workspaceClient, databricksWorkspaceInfo);
@@ -464,18 +458,13 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
-
-        // Mocking schema_op in catalog_op. Schema exists
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema"));
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
+        // Mocking schema_op in catalog_op. Schema does not exist
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenThrow(new NotFound("Schema 'catalog_op.schema_op' does not exist.", List.of()));
 
         Either<FailedOperation, Void> result =
                 outputPortHandler.unprovisionOutputPort(provisionRequest, workspaceClient, databricksWorkspaceInfo);
@@ -490,14 +479,11 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenThrow(new RuntimeException("Exception"));
+        when(workspaceClient.schemas().get("catalog_op.schema_op")).thenThrow(new RuntimeException("Exception"));
 
         Either<FailedOperation, Void> result =
                 outputPortHandler.unprovisionOutputPort(provisionRequest, workspaceClient, databricksWorkspaceInfo);
@@ -516,18 +502,13 @@ class OutputPortHandlerTest {
         WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op. Schema exists
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock classes and methods inside dropTableIfExists
         TableExistsResponse tableExistsResponseMock = mock(TableExistsResponse.class);
@@ -567,18 +548,13 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock the search of sqlWareHouseId
         List<DataSource> dataSourceList =
@@ -644,18 +620,13 @@ class OutputPortHandlerTest {
         when(metastoresAPIMock.list()).thenReturn(iterableMetastoresList);
 
         // Mocking behaviour on catalogs. The requested catalog exists
-        List<CatalogInfo> catalogList =
-                Arrays.asList(new CatalogInfo().setName("catalog"), new CatalogInfo().setName("catalog_op"));
-
         when(workspaceClient.catalogs()).thenReturn(mock(CatalogsAPI.class));
-        when(workspaceClient.catalogs().list(any())).thenReturn(catalogList);
+        when(workspaceClient.catalogs().get("catalog_op")).thenReturn(new CatalogInfo().setName("catalog_op"));
 
         // Mocking schema_op in catalog_op
-        List<SchemaInfo> schemaInfoList = Collections.singletonList(
-                new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
-
         when(workspaceClient.schemas()).thenReturn(mock(SchemasAPI.class));
-        when(workspaceClient.schemas().list("catalog_op")).thenReturn(schemaInfoList);
+        when(workspaceClient.schemas().get("catalog_op.schema_op"))
+                .thenReturn(new SchemaInfo().setCatalogName("catalog_op").setName("schema_op"));
 
         // Mock the search of sqlWareHouseId
         when(apiClientFactory.apply(any(ApiClientConfig.ApiClientConfigParams.class)))
@@ -680,7 +651,9 @@ class OutputPortHandlerTest {
     public void updateAcl_Success() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -708,7 +681,9 @@ class OutputPortHandlerTest {
     public void updateAcl_DatabricksMappingFailure() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -783,7 +758,9 @@ class OutputPortHandlerTest {
     public void updateAcl_AssigningTablePermissionsFailure() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("group_test")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -826,7 +803,9 @@ class OutputPortHandlerTest {
     public void updateAcl_NoSelectGrantsToRemoveSuccess() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -867,7 +846,9 @@ class OutputPortHandlerTest {
     public void updateAcl_TwoGrantsToRemoveSuccess() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -924,7 +905,9 @@ class OutputPortHandlerTest {
     public void updateAcl_currentPrivilegeAssignmentsNull() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -958,7 +941,9 @@ class OutputPortHandlerTest {
     public void updateAcl_DpOwnerPermissionsAreNotRemoved_Development() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
 
@@ -1010,7 +995,9 @@ class OutputPortHandlerTest {
     public void updateAcl_DpOwnerPermissionsAreRemoved_QA() {
         AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
         when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
-        when(accountGroupsAPIMock.list(any())).thenReturn(List.of(new Group().setDisplayName("developers")));
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group"), new Group().setDisplayName("group_test")));
 
         dataProduct.setEnvironment("QA");
 
@@ -1065,6 +1052,57 @@ class OutputPortHandlerTest {
                         eq("dp.owner@email.com"), eq(Privilege.SELECT), eq(Boolean.FALSE), any(View.class));
     }
 
+    @Test
+    public void updateAcl_CompactionEnabled_GrantsOnlyConsumerGroup() {
+        aclCompactionConfig.setEnabled(true);
+
+        AccountGroupsAPI accountGroupsAPIMock = mock(AccountGroupsAPI.class);
+        when(accountClient.groups()).thenReturn(accountGroupsAPIMock);
+        when(accountGroupsAPIMock.list(any()))
+                .thenReturn(List.of(
+                        new Group().setDisplayName("dev_group").setId("g-dev"),
+                        new Group().setDisplayName("group_test").setId("g-test")));
+        when(accountGroupsAPIMock.create(any(Group.class))).thenReturn(new Group().setId("cg"));
+        when(accountGroupsAPIMock.get("cg"))
+                .thenReturn(new Group().setId("cg").setDisplayName("witboost-op-catalog_op.schema_op.view"));
+
+        AccountUsersAPI accountUsersAPIMock = mock(AccountUsersAPI.class);
+        when(accountClient.users()).thenReturn(accountUsersAPIMock);
+        when(accountUsersAPIMock.list(any()))
+                .thenReturn(List.of(new User().setUserName("a@email.com").setId("u1")));
+
+        ProvisionRequest<DatabricksOutputPortSpecific> provisionRequest = createOPProvisionRequest();
+
+        UpdateAclRequest updateAclRequest = new UpdateAclRequest(
+                List.of("user:a_email.com", "group:group_test"), new ProvisionInfo(provisionRequest.toString(), ""));
+
+        WorkspaceClient workspaceClient = mock(WorkspaceClient.class);
+
+        // A direct grant left from a previous update without compaction must be revoked
+        UnityCatalogManager unityCatalogManagerMock = mock(UnityCatalogManager.class);
+        when(unityCatalogManagerMock.retrieveDatabricksPermissions(eq(SecurableType.TABLE), any(View.class)))
+                .thenReturn(Either.right(List.of(new PrivilegeAssignment().setPrincipal("a@email.com"))));
+        when(unityCatalogManagerMock.updateDatabricksPermissions(
+                        eq("a@email.com"), eq(Privilege.SELECT), eq(Boolean.FALSE), any(View.class)))
+                .thenReturn(Either.right(null));
+        when(unityCatalogManagerMock.assignDatabricksPermissionSelectToTableOrView(any(), any(View.class)))
+                .thenReturn(Either.right(null));
+
+        Either<FailedOperation, ProvisioningStatus> result = outputPortHandler.updateAcl(
+                provisionRequest, updateAclRequest, workspaceClient, unityCatalogManagerMock);
+
+        assert result.isRight();
+        assertEquals(ProvisioningStatus.StatusEnum.COMPLETED, result.get().getStatus());
+
+        verify(accountGroupsAPIMock, times(1)).patch(any(PartialUpdate.class));
+        verify(unityCatalogManagerMock, times(1))
+                .assignDatabricksPermissionSelectToTableOrView(
+                        eq("witboost-op-catalog_op.schema_op.view"), any(View.class));
+        verify(unityCatalogManagerMock, times(1))
+                .updateDatabricksPermissions(
+                        eq("a@email.com"), eq(Privilege.SELECT), eq(Boolean.FALSE), any(View.class));
+    }
+
     private ProvisionRequest<DatabricksOutputPortSpecific> createOPProvisionRequestEmptySchema() {
         databricksOutputPortSpecific.setWorkspace("ws");
         databricksOutputPortSpecific.setMetastore("metastore");
@@ -17,6 +17,7 @@ import com.databricks.sdk.service.jobs.*;
 import com.databricks.sdk.service.workspace.*;
 import io.vavr.control.Either;
 import it.agilelab.witboost.provisioning.databricks.TestConfig;
+import it.agilelab.witboost.provisioning.databricks.client.DatabricksCaches;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManager;
 import it.agilelab.witboost.provisioning.databricks.client.WorkspaceLevelManagerFactory;
 import it.agilelab.witboost.provisioning.databricks.common.FailedOperation;
@@ -51,6 +52,9 @@ public class WorkflowWorkloadHandlerTest {
     @Autowired
     private WorkflowWorkloadHandler workflowWorkloadHandler;
 
+    @Autowired
+    private DatabricksCaches databricksCaches;
+
     @MockBean
     AccountClient accountClient;
 
@@ -77,6 +81,7 @@ public class WorkflowWorkloadHandlerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        databricksCaches.invalidateAll();
         dataProduct = new DataProduct();
         databricksWorkflowWorkloadSpecific = new DatabricksWorkflowWorkloadSpecific();
         workload = new Workload();
@@ -4,13 +4,13 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.ApiClient;
+import com.databricks.sdk.core.error.platform.NotFound;
 import com.databricks.sdk.service.catalog.ColumnInfo;
-import com.databricks.sdk.service.catalog.TableExistsResponse;
 import com.databricks.sdk.service.catalog.TableInfo;
 import com.databricks.sdk.service.catalog.TablesAPI;
 import com.witboost.provisioning.model.Column;
@@ -78,11 +78,6 @@ public class OutputPortValidationTest {
 
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
 
-        TableExistsResponse tableExistsResponseMock = mock(TableExistsResponse.class);
-        when(tableExistsResponseMock.getTableExists()).thenReturn(true);
-
-        when(workspaceClientMock.tables().exists("catalog.schema.table_1")).thenReturn(tableExistsResponseMock);
-
         TableInfo tableInfoMock = mock(TableInfo.class);
 
         when(workspaceClientMock.tables().get("catalog.schema.table_1")).thenReturn(tableInfoMock);
@@ -97,8 +92,10 @@ public class OutputPortValidationTest {
 
         var responseActual = outputPortValidation.validate(outputPort, "development");
 
-        Either<FailedOperation, Void> responseExpected = right(null);
+        Either<FailedOperation, TableInfo> responseExpected = right(tableInfoMock);
         assertEquals(responseExpected, responseActual);
+        verify(workspaceClientMock.tables(), times(1)).get("catalog.schema.table_1");
+        verify(workspaceClientMock.tables(), never()).exists(anyString());
     }
 
     @Test
@@ -117,12 +114,10 @@ public class OutputPortValidationTest {
                 .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
         when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
 
-        TableExistsResponse tableExistsResponse = mock(TableExistsResponse.class);
-        when(tableExistsResponse.getTableExists()).thenReturn(false);
-
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
 
-        when(workspaceClientMock.tables().exists("catalog.schema.table_1")).thenReturn(tableExistsResponse);
+        when(workspaceClientMock.tables().get("catalog.schema.table_1"))
+                .thenThrow(new NotFound("Table 'catalog.schema.table_1' does not exist.", List.of()));
 
         outputPortValidation = new OutputPortValidation(miscConfig, workspaceHandlerMock, apiClientFactory);
         var responseActual = outputPortValidation.validate(outputPort, "development");
@@ -151,11 +146,9 @@ public class OutputPortValidationTest {
                 .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
         when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
 
-        TableExistsResponse tableExistsResponse = mock(TableExistsResponse.class);
-        when(tableExistsResponse.getTableExists()).thenReturn(false);
-
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
-        when(workspaceClientMock.tables().exists("catalog.schema.table_1")).thenReturn(tableExistsResponse);
+        when(workspaceClientMock.tables().get("catalog.schema.table_1"))
+                .thenThrow(new NotFound("Table 'catalog.schema.table_1' does not exist.", List.of()));
 
         outputPortValidation = new OutputPortValidation(miscConfig, workspaceHandlerMock, apiClientFactory);
         var responseActual = outputPortValidation.validate(outputPort, "prod");
@@ -185,13 +178,8 @@ public class OutputPortValidationTest {
                 .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
         when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
 
-        TableExistsResponse tableExistsResponse = mock(TableExistsResponse.class);
-        when(tableExistsResponse.getTableExists()).thenReturn(true);
-
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
 
-        when(workspaceClientMock.tables().exists("catalog.schema.table_1")).thenReturn(tableExistsResponse);
-
         TableInfo tableInfo = mock(TableInfo.class);
 
         when(workspaceClientMock.tables().get("catalog.schema.table_1")).thenReturn(tableInfo);
@@ -211,6 +199,40 @@ public class OutputPortValidationTest {
         assertEquals(responseExpected, responseActual);
     }
 
+    @Test
+    public void testValidateFailForDataContractFailure_AllMissingColumnsReported() {
+
+        DatabricksOutputPortSpecific databricksOutputPortSpecific = prepareDatabricksOPSpecific();
+        outputPort.setSpecific(databricksOutputPortSpecific);
+
+        DataContract dataContract = prepareDataContract();
+        outputPort.setDataContract(dataContract);
+
+        outputPort.setName("op_name");
+
+        WorkspaceHandler workspaceHandlerMock = mock(WorkspaceHandler.class);
+        WorkspaceClient workspaceClientMock = mock(WorkspaceClient.class);
+
+        when(workspaceHandlerMock.getWorkspaceInfo(any(String.class)))
+                .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
+        when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
+
+        when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
+
+        TableInfo tableInfo = new TableInfo().setColumns(List.of(new ColumnInfo().setName("col_3")));
+        when(workspaceClientMock.tables().get("catalog.schema.table_1")).thenReturn(tableInfo);
+
+        outputPortValidation = new OutputPortValidation(miscConfig, workspaceHandlerMock, apiClientFactory);
+        var responseActual = outputPortValidation.validate(outputPort, "development");
+
+        Either<FailedOperation, Object> responseExpected = left(new FailedOperation(List.of(
+                new Problem(
+                        "Check for Output Port op_name: the column 'col_1' cannot be found in the table 'catalog.schema.table_1'."),
+                new Problem(
+                        "Check for Output Port op_name: the column 'col_2' cannot be found in the table 'catalog.schema.table_1'."))));
+        assertEquals(responseExpected, responseActual);
+    }
+
     private DatabricksOutputPortSpecific prepareDatabricksOPSpecific() {
 
         DatabricksOutputPortSpecific databricksOutputPortSpecific = new DatabricksOutputPortSpecific();
@@ -10,7 +10,6 @@ import static org.mockito.Mockito.when;
 import com.databricks.sdk.WorkspaceClient;
 import com.databricks.sdk.core.ApiClient;
 import com.databricks.sdk.service.catalog.ColumnInfo;
-import com.databricks.sdk.service.catalog.TableExistsResponse;
 import com.databricks.sdk.service.catalog.TableInfo;
 import com.databricks.sdk.service.catalog.TablesAPI;
 import it.agilelab.witboost.provisioning.databricks.TestConfig;
@@ -242,9 +241,6 @@ public class ValidationServiceTest {
                 .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
         when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
 
-        TableExistsResponse tableExistsResponseMock = mock(TableExistsResponse.class);
-        when(tableExistsResponseMock.getTableExists()).thenReturn(true);
-
         ApiClient apiClientMock = mock(ApiClient.class);
 
         when(apiClientFactory.apply(any(ApiClientConfig.ApiClientConfigParams.class)))
@@ -252,9 +248,6 @@ public class ValidationServiceTest {
 
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
 
-        when(workspaceClientMock.tables().exists("catalog_name.schema_name.table_name"))
-                .thenReturn(tableExistsResponseMock);
-
         TableInfo tableInfoMock = mock(TableInfo.class);
 
         when(workspaceClientMock.tables().get("catalog_name.schema_name.table_name"))
@@ -290,9 +283,6 @@ public class ValidationServiceTest {
                 .thenReturn(right(Optional.of(mock(DatabricksWorkspaceInfo.class))));
         when(workspaceHandlerMock.getWorkspaceClient(any())).thenReturn(right(workspaceClientMock));
 
-        TableExistsResponse tableExistsResponseMock = mock(TableExistsResponse.class);
-        when(tableExistsResponseMock.getTableExists()).thenReturn(true);
-
         ApiClient apiClientMock = mock(ApiClient.class);
 
         when(apiClientFactory.apply(any(ApiClientConfig.ApiClientConfigParams.class)))
@@ -300,9 +290,6 @@ public class ValidationServiceTest {
 
         when(workspaceClientMock.tables()).thenReturn(mock(TablesAPI.class));
 
-        when(workspaceClientMock.tables().exists("catalog_name.schema_name.table_name"))
-                .thenReturn(tableExistsResponseMock);
-
         TableInfo tableInfoMock = mock(TableInfo.class);
 
         when(workspaceClientMock.tables().get("catalog_name.schema_name.table_name"))